@@ -29,6 +29,7 @@ import io.fabric8.maven.docker.model.Container;
 import io.fabric8.maven.docker.service.BuildService;
 import io.fabric8.maven.docker.service.DockerAccessFactory;
 import io.fabric8.maven.docker.service.ImagePullManager;
+import io.fabric8.maven.docker.service.InspectCache;
 import io.fabric8.maven.docker.service.QueryService;
 import io.fabric8.maven.docker.service.RegistryService;
 import io.fabric8.maven.docker.service.RegistryService.RegistryConfig;
@@ -39,6 +40,7 @@ import io.fabric8.maven.docker.util.AuthConfigFactory;
 import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.GavLabel;
 import io.fabric8.maven.docker.util.ImageNameFormatter;
+import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.docker.util.MojoParameters;
 import io.fabric8.maven.docker.util.NamePatternUtil;
 
@@ -150,6 +152,18 @@ public abstract class AbstractDockerMojo extends AbstractMojo implements ConfigH
     @Parameter(property = "docker.logStdout", defaultValue = "false")
     private boolean logStdout;
 
+    // Seconds for which registry credentials are reused within the Maven session, 0 for looking them up every time
+    @Parameter(property = "docker.authCacheExpiry", defaultValue = "600")
+    private long authCacheExpiry;
+
+    // Share the connection to the Docker daemon between all mojo executions of the Maven session
+    @Parameter(property = "docker.shareConnection", defaultValue = "true")
+    private boolean shareConnection;
+
+    // Time in milliseconds for which container log entries are held back for sorting them by their timestamp
+    @Parameter(property = "docker.logReorderWindow", defaultValue = "100")
+    private long logReorderWindow;
+
     // Whether to skip docker altogether
     @Parameter(property = "docker.skip", defaultValue = "false")
     private boolean skip;
@@ -281,9 +295,11 @@ public abstract class AbstractDockerMojo extends AbstractMojo implements ConfigH
 
             try {
                 authConfigFactory.setLog(log);
+                // Parallel builds run every project with a clone of the session, but all clones share the request
+                authConfigFactory.useForSession(session != null ? session.getRequest() : null, authCacheExpiry);
                 imageConfigResolver.setLog(log);
 
-                LogOutputSpecFactory logSpecFactory = new LogOutputSpecFactory(useColor, logStdout, logDate);
+                LogOutputSpecFactory logSpecFactory = new LogOutputSpecFactory(useColor, logStdout, logDate, logReorderWindow);
 
                 ConfigHelper.validateExternalPropertyActivation(project, getAllImages());
 
@@ -297,6 +313,7 @@ public abstract class AbstractDockerMojo extends AbstractMojo implements ConfigH
                     }
                     ServiceHub serviceHub = serviceHubFactory.createServiceHub(project, session, access, log, logSpecFactory);
                     executeInternal(serviceHub);
+                    logInspectCacheStatistics(serviceHub);
                 } catch (IOException | ExecException exp) {
                     logException(exp);
                     throw new MojoExecutionException(log.errorMessage(exp.getMessage()), exp);
@@ -335,6 +352,15 @@ public abstract class AbstractDockerMojo extends AbstractMojo implements ConfigH
         }
     }
 
+    private void logInspectCacheStatistics(ServiceHub serviceHub) {
+        QueryService queryService = serviceHub != null ? serviceHub.getQueryService() : null;
+        InspectCache inspectCache = queryService != null ? queryService.getInspectCache() : null;
+        if (inspectCache != null) {
+            log.verbose(Logger.LogVerboseCategory.API, "Inspect cache: %d hits, %d misses",
+                        inspectCache.getHits(), inspectCache.getMisses());
+        }
+    }
+
     protected DockerAccessFactory.DockerAccessContext getDockerAccessContext() {
         return new DockerAccessFactory.DockerAccessContext.Builder()
                 .dockerHost(dockerHost)
@@ -345,9 +371,21 @@ public abstract class AbstractDockerMojo extends AbstractMojo implements ConfigH
                 .projectProperties(project.getProperties())
                 .skipMachine(skipMachine)
                 .log(log)
+                .shareConnection(shareConnection)
+                .session(session)
+                .lastInSession(isLastProjectInSession())
                 .build();
     }
 
+    // Whether this is the last project of the reactor, after which shared connections can be closed
+    private boolean isLastProjectInSession() {
+        if (session == null) {
+            return true;
+        }
+        List<MavenProject> projects = session.getProjects();
+        return projects == null || projects.isEmpty() || projects.get(projects.size() - 1) == project;
+    }
+
     protected RegistryService.RegistryConfig getRegistryConfig(String specificRegistry) {
         return new RegistryService.RegistryConfig.Builder()
                 .settings(settings)
@@ -3,9 +3,13 @@ package io.fabric8.maven.docker;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.service.BaseImagePrefetch;
+import io.fabric8.maven.docker.service.BuildFingerprint;
+import io.fabric8.maven.docker.service.BuildScheduler;
 import io.fabric8.maven.docker.service.BuildService;
 import io.fabric8.maven.docker.service.ImagePullManager;
 import io.fabric8.maven.docker.service.JibBuildService;
+import io.fabric8.maven.docker.service.QueryService;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.service.helper.BuildArgResolver;
 import io.fabric8.maven.docker.util.EnvUtil;
@@ -23,8 +27,11 @@ import java.io.LineNumberReader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static io.fabric8.maven.docker.service.RegistryService.createCompleteAuthConfigList;
@@ -53,12 +60,50 @@ public class BuildMojo extends AbstractDockerMojo {
     @Parameter(property = "docker.buildArchiveOnly", defaultValue = "false")
     protected String buildArchiveOnly;
 
+    /**
+     * Stream the build context to the Docker daemon while it is created instead of creating
+     * the build archive on disk first. An archive is still created when only the archive
+     * should be built or when building with buildx.
+     */
+    @Parameter(property = "docker.build.streamContext", defaultValue = "true")
+    protected boolean streamBuildContext = true;
+
     /**
      * Skip building tags
      */
     @Parameter(property = "docker.skip.tag", defaultValue = "false")
     protected boolean skipTag;
 
+    /**
+     * Number of base images to pull at once before the images are built. The base images of all images
+     * are pulled in the background, so that building an image only waits for its own base images.
+     * Set to 0 to pull the base images of each image right before building it.
+     */
+    @Parameter(property = "docker.build.prefetchThreads", defaultValue = "4")
+    protected int prefetchThreads = 4;
+
+    /**
+     * Number of images to build at once. Images are built concurrently when they are not built from
+     * each other, i.e. when no image uses another image of the build in its <code>FROM</code> or
+     * <code>cacheFrom</code>.
+     */
+    @Parameter(property = "docker.build.parallelism", defaultValue = "1")
+    protected int parallelism = 1;
+
+    /**
+     * Skip building an image when nothing it is built from changed since its last build and the image built
+     * then still exists. With <code>true</code> files are compared by size and modification time, with
+     * <code>content</code> by size and content.
+     */
+    @Parameter(property = "docker.build.incremental", defaultValue = "false")
+    protected String incrementalBuild;
+
+    // buildx images are built one at a time, since they may share a builder instance
+    private final Object buildxLock = new Object();
+
+    // Base images pulled in the background, null if not prefetching
+    private BaseImagePrefetch baseImagePrefetch;
+
     @Override
     protected void executeInternal(ServiceHub hub) throws IOException, MojoExecutionException {
         if (skipBuild) {
@@ -68,19 +113,83 @@ public class BuildMojo extends AbstractDockerMojo {
         // Check for build plugins
         executeBuildPlugins();
 
-        // Iterate over all the ImageConfigurations and process one by one
+        baseImagePrefetch = prefetchBaseImages(hub);
+        try {
+            if (parallelism > 1 && !Boolean.TRUE.equals(jib)) {
+                buildConcurrently(hub);
+            } else {
+                // Iterate over all the ImageConfigurations and process one by one
+                for (ImageConfiguration imageConfig : getResolvedImages()) {
+                    processImageConfig(hub, imageConfig);
+                }
+            }
+        } finally {
+            if (baseImagePrefetch != null) {
+                baseImagePrefetch.close();
+                baseImagePrefetch = null;
+            }
+        }
+    }
+
+    private void buildConcurrently(ServiceHub hub) throws IOException, MojoExecutionException {
+        List<ImageConfiguration> toBuild = new ArrayList<>();
+        for (ImageConfiguration imageConfig : getResolvedImages()) {
+            BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+            if (buildConfig != null) {
+                if (buildConfig.skip() || shouldSkipPom()) {
+                    log.info("%s : Skipped building", imageConfig.getDescription());
+                } else {
+                    toBuild.add(imageConfig);
+                }
+            }
+        }
+        if (toBuild.isEmpty()) {
+            return;
+        }
+
+        BuildService.BuildContext buildContext = getBuildContext();
+        Map<ImageConfiguration, List<String>> buildDependencies = new IdentityHashMap<>();
+        for (ImageConfiguration imageConfig : toBuild) {
+            buildDependencies.put(imageConfig, hub.getBuildService().getBuildDependencies(imageConfig, buildContext));
+        }
+        EnvUtil.storeTimestamp(getBuildTimestampFile(), getBuildTimestamp());
+        new BuildScheduler(log, parallelism).run(toBuild, buildDependencies, imageConfig -> build(hub, imageConfig));
+    }
+
+    // Start pulling the base images of all images to build, if more than one needs to be pulled
+    private BaseImagePrefetch prefetchBaseImages(ServiceHub hub) throws MojoExecutionException {
+        if (prefetchThreads <= 0 || Boolean.TRUE.equals(jib) || shallBuildArchiveOnly() || shouldSkipPom()) {
+            return null;
+        }
+        List<ImageConfiguration> toBuild = new ArrayList<>();
         for (ImageConfiguration imageConfig : getResolvedImages()) {
-            processImageConfig(hub, imageConfig);
+            BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+            // buildx pulls the base images itself
+            if (buildConfig != null && !buildConfig.skip() && !imageConfig.isBuildX()) {
+                toBuild.add(imageConfig);
+            }
+        }
+        if (toBuild.size() < 2) {
+            return null;
         }
+        return hub.getBuildService().prefetchBaseImages(toBuild,
+            imageConfig -> getImagePullManager(determinePullPolicy(imageConfig.getBuildConfiguration()), autoPull),
+            getBuildContext(), prefetchThreads);
     }
 
     protected void buildAndTag(ServiceHub hub, ImageConfiguration imageConfig)
             throws MojoExecutionException, IOException {
 
         EnvUtil.storeTimestamp(getBuildTimestampFile(), getBuildTimestamp());
+        build(hub, imageConfig);
+    }
 
+    private void build(ServiceHub hub, ImageConfiguration imageConfig) throws MojoExecutionException, IOException {
         BuildService.BuildContext buildContext = getBuildContext();
         ImagePullManager pullManager = getImagePullManager(determinePullPolicy(imageConfig.getBuildConfiguration()), autoPull);
+        if (baseImagePrefetch != null) {
+            baseImagePrefetch.await(imageConfig);
+        }
         proceedWithBuildProcess(hub, buildContext, imageConfig, pullManager);
     }
 
@@ -100,14 +209,40 @@ public class BuildMojo extends AbstractDockerMojo {
     private void proceedWithDockerBuild(ServiceHub hub, BuildService.BuildContext buildContext, ImageConfiguration imageConfig, ImagePullManager pullManager)
         throws MojoExecutionException, IOException {
         BuildService buildService= hub.getBuildService();
+        BuildFingerprint fingerprint = null;
+        if (isIncrementalBuild() && !shallBuildArchiveOnly() && !imageConfig.isBuildX()) {
+            fingerprint = buildService.fingerprint(imageConfig, pullManager, buildContext, "content".equalsIgnoreCase(incrementalBuild));
+            if (fingerprint != null && fingerprint.isUpToDate()) {
+                log.info("%s: Skipped build since nothing changed (saved about %s)",
+                         imageConfig.getDescription(), EnvUtil.formatDuration(fingerprint.getBuildTime()));
+                if (!skipTag && !imageConfig.getBuildConfiguration().skipTag()) {
+                    buildService.tagImage(imageConfig);
+                }
+                return;
+            }
+        }
+        long start = System.currentTimeMillis();
+        if (streamBuildContext && !shallBuildArchiveOnly() && !imageConfig.isBuildX()) {
+            buildService.buildImage(imageConfig, pullManager, buildContext, null);
+            storeFingerprint(buildService, fingerprint, imageConfig, start);
+            if (!skipTag && !imageConfig.getBuildConfiguration().skipTag()) {
+                buildService.tagImage(imageConfig);
+            }
+            return;
+        }
         File buildArchiveFile = buildService.buildArchive(imageConfig, buildContext, resolveBuildArchiveParameter());
         if (Boolean.FALSE.equals(shallBuildArchiveOnly())) {
             if (imageConfig.isBuildX()) {
                 BuildArgResolver buildArgResolver = new BuildArgResolver(log);
                 Map<String, String> buildArgsFromExternalSources = buildArgResolver.resolveBuildArgs(buildContext);
-                hub.getBuildXService().build(createProjectPaths(), imageConfig, null, createCompleteAuthConfigList(false, imageConfig, getRegistryConfig(pullRegistry), createMojoParameters(), buildArgsFromExternalSources), buildArchiveFile, buildArgsFromExternalSources);
+                synchronized (buildxLock) {
+                    hub.getBuildXService().build(createProjectPaths(), imageConfig, null, createCompleteAuthConfigList(false, imageConfig, getRegistryConfig(pullRegistry), createMojoParameters(), buildArgsFromExternalSources), buildArchiveFile, buildArgsFromExternalSources);
+                }
+                // buildx loads images with the Docker CLI, which is not seen by the inspect cache
+                invalidateInspectCache(hub);
             } else {
                 buildService.buildImage(imageConfig, pullManager, buildContext, buildArchiveFile);
+                storeFingerprint(buildService, fingerprint, imageConfig, start);
                 if (!skipTag && !imageConfig.getBuildConfiguration().skipTag()) {
                     buildService.tagImage(imageConfig);
                 }
@@ -115,6 +250,24 @@ public class BuildMojo extends AbstractDockerMojo {
         }
     }
 
+    private boolean isIncrementalBuild() {
+        return incrementalBuild != null && (incrementalBuild.equalsIgnoreCase("true") || incrementalBuild.equalsIgnoreCase("content"));
+    }
+
+    private void storeFingerprint(BuildService buildService, BuildFingerprint fingerprint, ImageConfiguration imageConfig, long start)
+        throws DockerAccessException {
+        if (fingerprint != null) {
+            buildService.storeFingerprint(fingerprint, imageConfig, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void invalidateInspectCache(ServiceHub hub) {
+        QueryService queryService = hub.getQueryService();
+        if (queryService != null && queryService.getInspectCache() != null) {
+            queryService.getInspectCache().invalidateImages();
+        }
+    }
+
     // We ignore an already existing date file and always return the current date
     @Override
     protected Date getReferenceDate() {
@@ -34,6 +34,12 @@ public class PushMojo extends AbstractDockerMojo {
     @Parameter(property = "docker.push.retries", defaultValue = "0")
     private int retries;
 
+    /**
+     * How many images and tags to push at once
+     */
+    @Parameter(property = "docker.push.parallelism", defaultValue = "1")
+    private int parallelism;
+
     /**
      * {@inheritDoc}
      */
@@ -51,7 +57,7 @@ public class PushMojo extends AbstractDockerMojo {
     }
 
     private void executeDockerPush(ServiceHub hub) throws MojoExecutionException, DockerAccessException {
-        hub.getRegistryService().pushImages(createProjectPaths(), getResolvedImages(), retries, getRegistryConfig(pushRegistry), skipTag, getBuildContext());
+        hub.getRegistryService().pushImages(createProjectPaths(), getResolvedImages(), retries, parallelism, getRegistryConfig(pushRegistry), skipTag, getBuildContext());
     }
 
     private void executeJibPush(ServiceHub hub) throws MojoExecutionException {
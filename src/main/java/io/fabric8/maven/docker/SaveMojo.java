@@ -15,6 +15,7 @@ import org.apache.maven.project.MavenProjectHelper;
 
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.CompressionOptions;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.util.EnvUtil;
@@ -50,6 +51,18 @@ public class SaveMojo extends AbstractDockerMojo {
 	@Parameter(property = "docker.save.classifier")
 	String saveClassifier;
 
+	/**
+	 * Compression level, defaults to the standard level of the compression method
+	 */
+	@Parameter(property = "docker.save.compressionLevel")
+	Integer saveCompressionLevel;
+
+	/**
+	 * Number of threads used for compressing, defaults to the number of available processors
+	 */
+	@Parameter(property = "docker.save.compressionThreads", defaultValue = "0")
+	int saveCompressionThreads;
+
 	@Override
 	protected void executeInternal(ServiceHub serviceHub) throws DockerAccessException, MojoExecutionException {
 
@@ -72,12 +85,13 @@ public class SaveMojo extends AbstractDockerMojo {
 
 		long time = System.currentTimeMillis();
 		ArchiveCompression compression = ArchiveCompression.fromFileName(fileName);
+		CompressionOptions compressionOptions = new CompressionOptions(saveCompressionLevel, saveCompressionThreads);
 		if(imageNames.size() == 1) {
 			String imageName = imageNames.get(0);
-			serviceHub.getDockerAccess().saveImage(imageName, fileName, compression);
+			serviceHub.getDockerAccess().saveImage(imageName, fileName, compression, compressionOptions);
 			log.info("%s: Saved image to %s in %s", imageName, fileName, EnvUtil.formatDurationTill(time));
 		} else {
-			serviceHub.getDockerAccess().saveImages(imageNames, fileName, compression);
+			serviceHub.getDockerAccess().saveImages(imageNames, fileName, compression, compressionOptions);
 			log.info("%s: Saved image to %s in %s", imageNames, fileName, EnvUtil.formatDurationTill(time));
 		}
 
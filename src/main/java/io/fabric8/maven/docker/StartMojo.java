@@ -12,11 +12,9 @@ import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Queue;
-import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -25,6 +23,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.access.ExecException;
 import io.fabric8.maven.docker.access.PortMapping;
@@ -34,12 +33,14 @@ import io.fabric8.maven.docker.config.RunImageConfiguration;
 import io.fabric8.maven.docker.config.RunVolumeConfiguration;
 import io.fabric8.maven.docker.config.VolumeConfiguration;
 import io.fabric8.maven.docker.log.LogDispatcher;
+import io.fabric8.maven.docker.service.ContainerNameIndex;
 import io.fabric8.maven.docker.service.QueryService;
 import io.fabric8.maven.docker.service.RegistryService;
 import io.fabric8.maven.docker.service.RunService;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.service.helper.StartContainerExecutor;
 import io.fabric8.maven.docker.util.ContainerNamingUtil;
+import io.fabric8.maven.docker.util.StartFrontier;
 import io.fabric8.maven.docker.util.StartOrderResolver;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
@@ -67,6 +68,13 @@ public class StartMojo extends AbstractDockerMojo {
     @Parameter(property = "docker.startParallel", defaultValue = "false")
     private boolean startParallel;
 
+    /**
+     * Maximum number of containers which are started (and waited for) at the same time when
+     * <code>startParallel</code> is enabled
+     */
+    @Parameter(property = "docker.startParallelThreads", defaultValue = "8")
+    private int startParallelThreads = 8;
+
     /**
      * Whether to block and follow (stream) the container logs until interrupted. Can also be set
      * via the {@code docker.follow} system property. When unset, the default is {@code false} for
@@ -153,16 +161,12 @@ public class StartMojo extends AbstractDockerMojo {
         final ExecutorCompletionService<StartedContainer> containerStartupService = new ExecutorCompletionService<>(executorService);
 
         try {
-            // All aliases which are provided in the image configuration:
-            final Set<String> imageAliases = new HashSet<>();
-            // Remember all aliases which has been started
-            final Set<String> startedContainerAliases = new HashSet<>();
-
-            // All images to to start
-            Queue<ImageConfiguration> imagesWaitingToStart = prepareStart(hub, queryService, runService, imageAliases);
+            // All images to start, in start order
+            List<ImageConfiguration> imagesToStart = prepareStart(hub, queryService, runService);
 
-            // Queue of images to start as containers
-            final Queue<ImageConfiguration> imagesStarting = new ArrayDeque<>();
+            // Existing container names, looked up once for all containers to create
+            final ContainerNameIndex containerNameIndex =
+                ContainerNameIndex.load(queryService, imagesToStart, containerNamePattern, getBuildTimestamp());
 
             // Prepare the shutdown hook for stopping containers if we are going to follow them.  Add the hook before starting any
             // of the containers so that partial or aborted starts will behave the same as fully-successful ones.
@@ -170,28 +174,24 @@ public class StartMojo extends AbstractDockerMojo {
                 runService.addShutdownHookForStoppingContainers(keepContainer, removeVolumes, autoCreateCustomNetworks);
             }
 
-            // Loop until every image has been started and the start of all images has been completed
-            while (!hasBeenAllImagesStarted(imagesWaitingToStart, imagesStarting)) {
-
-                final List<ImageConfiguration> imagesReadyToStart =
-                    getImagesWhoseDependenciesHasStarted(imagesWaitingToStart, startedContainerAliases, imageAliases);
-
-                for (final ImageConfiguration image : imagesReadyToStart) {
+            // Images become ready to start as soon as all images they depend on have been started and waited for
+            final StartFrontier<ImageConfiguration> frontier = new StartFrontier<>(imagesToStart);
+            final Queue<ImageConfiguration> imagesReadyToStart = new ArrayDeque<>(frontier.getInitial());
+            int imagesStarting = 0;
 
-                    startImage(image, hub, containerStartupService, portMappingPropertyWriteHelper);
-
-                    // Move from waiting to starting status
-                    imagesStarting.add(image);
-                    imagesWaitingToStart.remove(image);
-
-                    if (!startParallel) {
-                        waitForStartedContainer(containerStartupService, startedContainerAliases, imagesStarting);
-                    }
+            // Loop until every image has been started and the start of all images has been completed
+            while (!frontier.isComplete()) {
+                while (!imagesReadyToStart.isEmpty() && (startParallel || imagesStarting == 0)) {
+                    startImage(imagesReadyToStart.poll(), hub, containerStartupService, portMappingPropertyWriteHelper, containerNameIndex);
+                    imagesStarting++;
                 }
-
-                if (startParallel) {
-                    waitForStartedContainer(containerStartupService, startedContainerAliases, imagesStarting);
+                if (imagesStarting == 0) {
+                    throw new IllegalStateException("No image left to start, but not all images have been started");
                 }
+
+                ImageConfiguration startedImage = waitForStartedContainer(containerStartupService);
+                imagesStarting--;
+                imagesReadyToStart.addAll(frontier.completed(startedImage));
             }
             portMappingPropertyWriteHelper.write();
 
@@ -217,21 +217,15 @@ public class StartMojo extends AbstractDockerMojo {
         }
     }
 
-    private void waitForStartedContainer(
-            final ExecutorCompletionService<StartedContainer> containerStartupService,
-            final Set<String> startedContainerAliases, final Queue<ImageConfiguration> imagesStarting)
+    private ImageConfiguration waitForStartedContainer(final ExecutorCompletionService<StartedContainer> containerStartupService)
             throws InterruptedException, IOException, ExecException {
         final Future<StartedContainer> startedContainerFuture = containerStartupService.take();
         try {
-            final StartedContainer startedContainer = startedContainerFuture.get();
-            final ImageConfiguration imageConfig = startedContainer.imageConfig;
-
-            updateAliasesSet(startedContainerAliases, imageConfig.getAlias());
-
-            // All done with this image
-            imagesStarting.remove(imageConfig);
+            return startedContainerFuture.get().imageConfig;
         } catch (ExecutionException e) {
             rethrowCause(e);
+            // not reached
+            return null;
         }
     }
 
@@ -239,11 +233,6 @@ public class StartMojo extends AbstractDockerMojo {
         return follow != null ? follow : Boolean.FALSE;
     }
 
-    // Check if we are done
-    private boolean hasBeenAllImagesStarted(Queue<ImageConfiguration> imagesWaitingToStart, Queue<ImageConfiguration> imagesStarting) {
-        return imagesWaitingToStart.isEmpty() && imagesStarting.isEmpty();
-    }
-
     private void shutdownExecutorService(ExecutorService executorService) {
         if (!executorService.isShutdown()) {
             executorService.shutdown();
@@ -273,19 +262,11 @@ public class StartMojo extends AbstractDockerMojo {
         }
     }
 
-    private void updateAliasesSet(Set<String> aliasesSet, String alias) {
-        // Add the alias to the set only when it is set. When it's
-        // not set it cant be used in the dependency resolution anyway, so we are ignoring
-        // it hence.
-        if (alias != null) {
-            aliasesSet.add(alias);
-        }
-    }
-
     private void startImage(final ImageConfiguration imageConfig,
                             final ServiceHub hub,
                             final ExecutorCompletionService<StartedContainer> startingContainers,
-                            final PortMapping.PropertyWriteHelper portMappingPropertyWriteHelper) throws IOException {
+                            final PortMapping.PropertyWriteHelper portMappingPropertyWriteHelper,
+                            final ContainerNameIndex containerNameIndex) throws IOException {
 
         final RunService runService = hub.getRunService();
         final Properties projProperties = project.getProperties();
@@ -309,6 +290,7 @@ public class StartMojo extends AbstractDockerMojo {
             .showLogs(showLogs)
             .containerNamePattern(containerNamePattern)
             .buildTimestamp(getBuildTimestamp())
+            .containerNameIndex(containerNameIndex)
             .build();
 
         startingContainers.submit(() -> {
@@ -322,28 +304,11 @@ public class StartMojo extends AbstractDockerMojo {
         });
     }
 
-    // Pick out all images who can be started right now because all their dependencies has been started
-    private List<ImageConfiguration> getImagesWhoseDependenciesHasStarted(Queue<ImageConfiguration> imagesRemaining,
-                                                                          Set<String> containersStarted,
-                                                                          Set<String> aliases) {
-        final List<ImageConfiguration> ret = new ArrayList<>();
-
-        // Check for all images which can be already started
-        for (ImageConfiguration imageWaitingToStart : imagesRemaining) {
-            List<String> allDependencies = imageWaitingToStart.getDependencies();
-            List<String> aliasDependencies = filterOutNonAliases(aliases, allDependencies);
-            if (containersStarted.containsAll(aliasDependencies)) {
-                ret.add(imageWaitingToStart);
-            }
-        }
-        return ret;
-    }
-
     // Prepare start like creating custom networks, auto pull images, map aliases and return the list of images
     // to start in the correct order
-    private Queue<ImageConfiguration> prepareStart(ServiceHub hub, QueryService queryService, RunService runService, Set<String> imageAliases)
+    private List<ImageConfiguration> prepareStart(ServiceHub hub, QueryService queryService, RunService runService)
         throws DockerAccessException, MojoExecutionException {
-        final Queue<ImageConfiguration> imagesWaitingToStart = new ArrayDeque<>();
+        final List<ImageConfiguration> imagesToStart = new ArrayList<>();
         for (StartOrderResolver.Resolvable resolvable : runService.getImagesConfigsInOrder(queryService, getResolvedImages())) {
             final ImageConfiguration imageConfig = (ImageConfiguration) resolvable;
 
@@ -362,10 +327,9 @@ public class StartMojo extends AbstractDockerMojo {
             if (autoCreateCustomNetworks && config.isCustomNetwork()) {
                 runService.createCustomNetworkIfNotExistant(config.getCustomNetwork());
             }
-            imagesWaitingToStart.add(imageConfig);
-            updateAliasesSet(imageAliases, imageConfig.getAlias());
+            imagesToStart.add(imageConfig);
         }
-        return imagesWaitingToStart;
+        return imagesToStart;
     }
 
     private List<String> extractBindMounts(RunVolumeConfiguration volumeConfiguration) {
@@ -375,20 +339,11 @@ public class StartMojo extends AbstractDockerMojo {
         return volumeConfiguration.getBind() != null ? volumeConfiguration.getBind() : Collections.emptyList();
     }
 
-    private List<String> filterOutNonAliases(Set<String> imageAliases, List<String> dependencies) {
-        List<String> ret = new ArrayList<>();
-        for (String alias : dependencies) {
-            if (imageAliases.contains(alias)) {
-                ret.add(alias);
-            }
-        }
-        return ret;
-    }
-
     private ExecutorService getExecutorService() {
         final ExecutorService executorService;
         if (startParallel) {
-            executorService = Executors.newCachedThreadPool();
+            executorService = Executors.newFixedThreadPool(Math.max(1, startParallelThreads),
+                                                           new ThreadFactoryBuilder().setNameFormat("docker-start-%d").build());
         } else {
             executorService = MoreExecutors.newDirectExecutorService();
         }
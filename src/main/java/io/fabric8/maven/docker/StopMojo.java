@@ -81,6 +81,26 @@ public class StopMojo extends AbstractDockerMojo {
     @Parameter(property = "docker.executeStopOnVMShutdown", defaultValue = "false")
     private boolean executeStopOnVMShutdown;
 
+    /**
+     * Whether to stop the containers started by docker:start in parallel. A container is stopped as soon as all
+     * containers depending on it have been stopped.
+     */
+    @Parameter(property = "docker.stopParallel", defaultValue = "false")
+    private boolean stopParallel;
+
+    /**
+     * Maximum number of containers which are stopped at the same time when <code>stopParallel</code> is enabled
+     */
+    @Parameter(property = "docker.stopParallelThreads", defaultValue = "8")
+    private int stopParallelThreads = 8;
+
+    /**
+     * Time in milliseconds for stopping all containers started by docker:start. Kill grace periods are cut short so
+     * that they don't exceed it. 0 means no limit.
+     */
+    @Parameter(property = "docker.stopTimeout", defaultValue = "0")
+    private long stopTimeout;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         if(skip) {
@@ -127,7 +147,8 @@ public class StopMojo extends AbstractDockerMojo {
 
         if (!keepRunning) {
             if (invokedTogetherWithDockerStart()) {
-                runService.stopStartedContainers(keepContainer, removeVolumes, autoCreateCustomNetworks, gavLabel);
+                runService.stopStartedContainers(keepContainer, removeVolumes, autoCreateCustomNetworks, gavLabel,
+                                                 stopParallel ? stopParallelThreads : 1, stopTimeout);
             } else {
                 stopContainers(queryService, runService, gavLabel);
             }
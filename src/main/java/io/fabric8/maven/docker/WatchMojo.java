@@ -52,6 +52,34 @@ public class WatchMojo extends AbstractDockerMojo {
     @Parameter(property = "docker.watchInterval", defaultValue = "5000")
     private int watchInterval;
 
+    /**
+     * Whether to watch the assembly files with file system events instead of checking their
+     * modification time in every interval. Files on file systems without events are still polled.
+     */
+    @Parameter(property = "docker.watchEvents", defaultValue = "true")
+    private boolean watchEvents;
+
+    /**
+     * Whether to treat a file as changed only when its content changed, e.g. not when it is touched or
+     * rewritten with the same content
+     */
+    @Parameter(property = "docker.watchContentHash", defaultValue = "false")
+    private boolean watchContentHash;
+
+    /**
+     * Period in milliseconds without further changes before rebuilding or copying, so that a burst of
+     * changes in several assemblies and images results in a single rebuild and copy cycle
+     */
+    @Parameter(property = "docker.watchQuietPeriod", defaultValue = "0")
+    private int watchQuietPeriod;
+
+    /**
+     * Number of images whose rebuilds, copies and restarts may run at once. The jobs of a single image
+     * always run one after the other.
+     */
+    @Parameter(property = "docker.watchParallelism", defaultValue = "1")
+    private int watchParallelism;
+
     @Parameter(property = "docker.keepRunning", defaultValue = "false")
     private boolean keepRunning;
 
@@ -90,6 +118,10 @@ public class WatchMojo extends AbstractDockerMojo {
     protected WatchService.WatchContext getWatchContext(ServiceHub hub) throws IOException {
         return new WatchService.WatchContext.Builder()
                 .watchInterval(watchInterval)
+                .watchEvents(watchEvents)
+                .watchContentHash(watchContentHash)
+                .watchQuietPeriod(watchQuietPeriod)
+                .watchParallelism(watchParallelism)
                 .watchMode(watchMode)
                 .watchPostGoal(watchPostGoal)
                 .watchPostExec(watchPostExec)
@@ -3,9 +3,12 @@ package io.fabric8.maven.docker.access;
 import java.io.File;
 import java.util.List;
 
+import io.fabric8.maven.docker.access.event.EventCallback;
+import io.fabric8.maven.docker.access.event.EventGetHandle;
 import io.fabric8.maven.docker.access.log.LogCallback;
 import io.fabric8.maven.docker.access.log.LogGetHandle;
 import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.CompressionOptions;
 import io.fabric8.maven.docker.config.Arguments;
 import io.fabric8.maven.docker.log.LogOutputSpec;
 import io.fabric8.maven.docker.model.Container;
@@ -13,6 +16,7 @@ import io.fabric8.maven.docker.model.ContainerDetails;
 import io.fabric8.maven.docker.model.ExecDetails;
 import io.fabric8.maven.docker.model.Image;
 import io.fabric8.maven.docker.model.Network;
+import io.fabric8.maven.docker.util.Logger;
 
 /**
  * Access to the <a href="http://docs.docker.io/en/latest/reference/api/docker_remote_api/">Docker API</a> which
@@ -99,6 +103,16 @@ public interface DockerAccess {
      */
     List<Container> listContainers(boolean all) throws DockerAccessException;
 
+    /**
+     * List the containers from the Docker server which match the given filters.
+     *
+     * @param all whether to fetch also stopped containers. If false only running containers are returned
+     * @param filter filters given as key value pairs (e.g. "name", "^/nginx"). Repeated keys are combined.
+     * @return list of <code>Container</code> objects or an empty list if none is found
+     * @throws DockerAccessException if the request fails
+     */
+    List<Container> listContainers(boolean all, String ... filter) throws DockerAccessException;
+
     /**
      * Get all containers which are build from an image. By default only the last containers are considered but this
      * can be tuned with a global parameters.
@@ -177,6 +191,17 @@ public interface DockerAccess {
     void copyArchiveToContainer(String containerId, File archive, String targetPath)
             throws DockerAccessException;
 
+    /**
+     * Copy an archive which is streamed to the Docker daemon while it is created into a container.
+     *
+     * @param containerId container to copy into
+     * @param archive tar archive, written directly into the request
+     * @param targetPath target path to use
+     * @throws DockerAccessException if the archive could not be copied
+     */
+    void copyArchiveStreamToContainer(String containerId, StreamingArchive archive, String targetPath)
+            throws DockerAccessException;
+
     /**
      * Copy file or directory from container as a tar archive.
      *
@@ -197,15 +222,27 @@ public interface DockerAccess {
     void getLogSync(String containerId, LogCallback callback);
 
     /**
-     * Get logs asynchronously. This call will start a thread in the background for doing the request.
+     * Get logs asynchronously. The request is done in the background on a shared pool of threads, callbacks
+     * for the same container may share a single request.
      * It returns a handle which can be used to abort the request on demand.
      *
      * @param containerId id of the container for which to fetch the logs
      * @param callback to call when log data arrives
-     * @return handle for managing the lifecycle of the thread
+     * @return handle for managing the lifecycle of the request
      */
     LogGetHandle getLogAsync(String containerId, LogCallback callback);
 
+    /**
+     * Subscribe to the event stream of the docker daemon. This call will start a thread in the background
+     * which feeds all events matching the given filters into the callback. All subscriptions which are still
+     * open are finished when this access object is {@link #shutdown()}.
+     *
+     * @param callback to call when an event arrives
+     * @param filter event filters given as key value pairs (e.g. "type", "container"). Repeated keys are combined.
+     * @return handle for finishing the subscription
+     */
+    EventGetHandle getEventsAsync(EventCallback callback, String ... filter);
+
     /**
      * Remove a container with the given id
      *
@@ -243,6 +280,22 @@ public interface DockerAccess {
      */
     void pullImage(String image, AuthConfig authConfig, String registry, CreateImageOptions options) throws DockerAccessException;
 
+    /**
+     * Pull an image like {@link #pullImage(String, AuthConfig, String, CreateImageOptions)}, but report the
+     * progress and messages of the pull to the given logger.
+     *
+     * @param image the image to pull.
+     * @param authConfig authentication configuration used when pulling an image
+     * @param registry an optional registry from where to pull the image. Can be null.
+     * @param options additional query arguments to add when creating the image. Can be null.
+     * @param progressLog logger receiving the progress of this pull
+     * @throws DockerAccessException if the image couldn't be pulled.
+     */
+    default void pullImage(String image, AuthConfig authConfig, String registry, CreateImageOptions options, Logger progressLog)
+        throws DockerAccessException {
+        pullImage(image, authConfig, registry, options);
+    }
+
     /**
      * Push an image to a registry. A registry can be specified which is used as target
      * if the image name the image does not contain a registry.
@@ -258,6 +311,23 @@ public interface DockerAccess {
      */
     void pushImage(String image, AuthConfig authConfig, String registry, int retries) throws DockerAccessException;
 
+    /**
+     * Push an image to a registry like {@link #pushImage(String, AuthConfig, String, int)}, but report the
+     * progress and messages of the push to the given logger. This allows several pushes to run concurrently
+     * without mixing up their progress output.
+     *
+     * @param image image name to push
+     * @param authConfig authentication configuration
+     * @param registry optional registry to which the image should be pushed.
+     * @param retries optional number of times the push should be retried on a 500 error
+     * @param progressLog logger receiving the progress of this push
+     * @throws DockerAccessException in case pushing fails
+     */
+    default void pushImage(String image, AuthConfig authConfig, String registry, int retries, Logger progressLog)
+        throws DockerAccessException {
+        pushImage(image, authConfig, registry, retries);
+    }
+
     /**
      * Create an docker image from a given archive
      *
@@ -268,6 +338,16 @@ public interface DockerAccess {
      */
     void buildImage(String image, File dockerArchive, BuildOptions options) throws DockerAccessException;
 
+    /**
+     * Create a docker image from an archive which is streamed to the Docker daemon while it is created
+     *
+     * @param image name of the image to build or <code>null</code> if none should be used
+     * @param buildContext archive holding the build context, written directly into the request
+     * @param options additional query arguments to add when building the image. Can be null.
+     * @throws DockerAccessException if docker host reports an error during building of an image
+     */
+    void buildImageFromStream(String image, StreamingArchive buildContext, BuildOptions options) throws DockerAccessException;
+
     /**
      * Alias an image in the repository with a complete new name. (Note that this maps to a Docker Remote API 'tag'
      * operation, which IMO is badly named since it also can generate a complete alias to a given image)
@@ -295,9 +375,10 @@ public interface DockerAccess {
      * @param image image to save
      * @param filename target filename
      * @param compression compression to use for the archive
+     * @param compressionOptions level and number of threads used for compressing
      * @throws DockerAccessException if an image cannot be removed
      */
-    void saveImage(String image, String filename, ArchiveCompression compression) throws DockerAccessException;
+    void saveImage(String image, String filename, ArchiveCompression compression, CompressionOptions compressionOptions) throws DockerAccessException;
 
     /**
      * Save several images to a tar file
@@ -305,9 +386,10 @@ public interface DockerAccess {
      * @param images image to save
      * @param filename target filename
      * @param compression compression to use for the archive
+     * @param compressionOptions level and number of threads used for compressing
      * @throws DockerAccessException if an image cannot be removed
      */
-    void saveImages(List<String> images, String filename, ArchiveCompression compression) throws DockerAccessException;
+    void saveImages(List<String> images, String filename, ArchiveCompression compression, CompressionOptions compressionOptions) throws DockerAccessException;
 
     /**
      * List all networks
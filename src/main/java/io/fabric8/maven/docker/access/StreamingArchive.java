@@ -0,0 +1,21 @@
+package io.fabric8.maven.docker.access;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An archive which is not stored on disk but generated on the fly while being sent to
+ * the Docker daemon. An archive can be written only once.
+ */
+@FunctionalInterface
+public interface StreamingArchive {
+
+    /**
+     * Write the complete archive to the given stream. The stream must not be closed
+     * by the archive.
+     *
+     * @param out stream to write to
+     * @throws IOException if the archive cannot be created or written
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -68,6 +68,13 @@ public final class UrlBuilder {
         return builder.build();
     }
 
+    public String events(String since, String ... filter) {
+        Builder builder = u("events")
+                .p("since", since);
+        addFilters(builder, filter);
+        return builder.build();
+    }
+
     public String createContainer(String name, String platform) {
         return u("containers/create")
                 .p("name", name)
@@ -248,7 +255,8 @@ public final class UrlBuilder {
            }
            JsonObject filters = new JsonObject();
            for (int i = 0; i < filter.length; i +=2) {
-               JsonArray value = new JsonArray();
+               // Repeated keys are combined into a single filter with multiple values
+               JsonArray value = filters.has(filter[i]) ? filters.getAsJsonArray(filter[i]) : new JsonArray();
                value.add(filter[i+1]);
                filters.add(filter[i],value);
            }
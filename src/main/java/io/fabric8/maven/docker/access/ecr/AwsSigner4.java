@@ -8,7 +8,9 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -31,6 +33,17 @@ class AwsSigner4 {
     // a-f must be lower case
     final private static char[] HEXITS = "0123456789abcdef".toCharArray();
 
+    private static final int MAX_SIGNING_KEYS = 16;
+
+    // Derived signing keys only change with the secret, the date, the region and the service. They are keyed by
+    // a hash of the secret, so that the secret itself is not kept around.
+    private static final Map<String, byte[]> SIGNING_KEYS = new LinkedHashMap<String, byte[]>(MAX_SIGNING_KEYS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            return size() > MAX_SIGNING_KEYS;
+        }
+    };
+
     private final String service;
     private final String region;
 
@@ -100,6 +113,14 @@ class AwsSigner4 {
     }
 
     private static byte[] getSigningKey(AwsSigner4Request sr, AuthConfig credentials) {
+        StringBuilder key = new StringBuilder(sr.getScope()).append('/');
+        hexEncode(key, sha256("AWS4" + credentials.getPassword()));
+        synchronized (SIGNING_KEYS) {
+            return SIGNING_KEYS.computeIfAbsent(key.toString(), k -> deriveSigningKey(sr, credentials));
+        }
+    }
+
+    private static byte[] deriveSigningKey(AwsSigner4Request sr, AuthConfig credentials) {
         byte[] kSecret = ("AWS4" + credentials.getPassword()).getBytes(StandardCharsets.UTF_8);
         byte[] kDate = hmacSha256(kSecret, sr.getSigningDate());
         byte[] kRegion = hmacSha256(kDate, sr.getRegion());
@@ -3,6 +3,7 @@ package io.fabric8.maven.docker.access.ecr;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.regex.Matcher;
@@ -38,10 +39,12 @@ public class EcrExtendedAuth {
             Pattern.compile("^(\\d{12})\\.dkr\\.ecr\\.([a-z\\-0-9]+)\\.amazonaws\\.com$");
 
     private final Logger logger;
+    private final String registry;
     private final boolean isAwsRegistry;
     private final String accountId;
     private final String region;
     private final String endpoint;
+    private final EcrTokenCache tokenCache;
 
     /**
      * Is given the registry an ecr registry?
@@ -69,8 +72,21 @@ public class EcrExtendedAuth {
      * @param endpoint Custom ECR API endpoint host (e.g. "vpce-xxx.api.ecr.eu-south-1.vpce.amazonaws.com"), or null for default.
      */
     public EcrExtendedAuth(Logger logger, String registry, String endpoint) {
+        this(logger, registry, endpoint, null);
+    }
+
+    /**
+     * Initialize an extended authentication for ecr registry which reuses tokens stored in the given cache.
+     *
+     * @param registry The registry, we may or may not be an ecr registry.
+     * @param endpoint Custom ECR API endpoint host or URL, or null for default.
+     * @param tokenCache Cache for the temporary tokens, or null for always fetching a new token.
+     */
+    public EcrExtendedAuth(Logger logger, String registry, String endpoint, EcrTokenCache tokenCache) {
         this.logger = logger;
+        this.registry = registry;
         this.endpoint = endpoint;
+        this.tokenCache = tokenCache;
         Matcher matcher = AWS_REGISTRY.matcher(registry);
         isAwsRegistry = matcher.matches();
         if (isAwsRegistry) {
@@ -101,15 +117,49 @@ public class EcrExtendedAuth {
      * @throws MojoExecutionException
      */
     public AuthConfig extendedAuth(AuthConfig localCredentials) throws IOException, MojoExecutionException {
+        String cachedToken = getCachedToken(localCredentials);
+        if (cachedToken != null) {
+            logger.debug("Using cached ECR token for %s from %s", registry, tokenCache.getFile());
+            return new AuthConfig(cachedToken, "none");
+        }
+
         JsonObject jo = getAuthorizationToken(localCredentials);
 
         JsonArray authorizationDatas = jo.getAsJsonArray("authorizationData");
         JsonObject authorizationData = authorizationDatas.get(0).getAsJsonObject();
         String authorizationToken = authorizationData.get("authorizationToken").getAsString();
 
+        if (authorizationData.has("expiresAt")) {
+            // Seconds since the epoch with fraction
+            long expiresAt = (long) (authorizationData.get("expiresAt").getAsDouble() * 1000);
+            cacheToken(localCredentials, authorizationToken, expiresAt);
+        }
         return new AuthConfig(authorizationToken, "none");
     }
 
+    private String getCachedToken(AuthConfig localCredentials) {
+        if (tokenCache == null) {
+            return null;
+        }
+        try {
+            return tokenCache.get(registry, localCredentials.getUsername(), System.currentTimeMillis());
+        } catch (IOException | RuntimeException exp) {
+            logger.warn("Cannot read ECR token cache %s: %s", tokenCache.getFile(), exp.getMessage());
+            return null;
+        }
+    }
+
+    private void cacheToken(AuthConfig localCredentials, String token, long expiresAt) {
+        if (tokenCache == null) {
+            return;
+        }
+        try {
+            tokenCache.put(registry, localCredentials.getUsername(), token, expiresAt, System.currentTimeMillis());
+        } catch (IOException | RuntimeException exp) {
+            logger.warn("Cannot write ECR token cache %s: %s", tokenCache.getFile(), exp.getMessage());
+        }
+    }
+
     private JsonObject getAuthorizationToken(AuthConfig localCredentials) throws IOException, MojoExecutionException {
         HttpPost request = createSignedRequest(localCredentials, new Date());
         return executeRequest(createClient(), request);
@@ -143,8 +193,14 @@ public class EcrExtendedAuth {
 
         logger.debug("Get ECR AuthorizationToken from %s", host);
 
-        HttpPost request = new HttpPost("https://" + host + '/');
-        request.setHeader("host", host);
+        // A full URL can be given, e.g. for a local stub of the ECR API
+        String url = host.contains("://") ? host : "https://" + host;
+        if (!url.endsWith("/")) {
+            url += '/';
+        }
+
+        HttpPost request = new HttpPost(url);
+        request.setHeader("host", URI.create(url).getRawAuthority());
         request.setHeader("Content-Type", "application/x-amz-json-1.1");
         request.setHeader("X-Amz-Target", "AmazonEC2ContainerRegistry_V20150921.GetAuthorizationToken");
         request.setEntity(new StringEntity("{\"registryIds\":[\""+ accountId + "\"]}", StandardCharsets.UTF_8));
@@ -0,0 +1,186 @@
+package io.fabric8.maven.docker.access.ecr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import io.fabric8.maven.docker.util.EnvUtil;
+
+/**
+ * File based cache for temporary ECR authorization tokens, so that a token fetched once can be used by all
+ * builds on the same machine until it is about to expire. Tokens are stored per registry and IAM access key and
+ * are refreshed {@link #REFRESH_BEFORE_EXPIRY_MILLIS} before they expire, so that a token doesn't expire in the
+ * middle of a push.
+ * <p>
+ * The file is locked while being read or written, so that concurrent builds don't corrupt it. Since file locks
+ * are held by the whole JVM, threads of the same JVM are synchronized in addition.
+ *
+ * @since 0.50
+ */
+public class EcrTokenCache {
+
+    public static final String TOKEN_CACHE_PROPERTY = "docker.ecr.tokenCache";
+
+    // Tokens are valid for 12 hours
+    static final long REFRESH_BEFORE_EXPIRY_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final Object JVM_LOCK = new Object();
+
+    private final File file;
+
+    public EcrTokenCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the token cache configured with the system property {@value #TOKEN_CACHE_PROPERTY}, which defaults
+     * to {@code ecr-token-cache.json} in the Docker configuration directory
+     *
+     * @return token cache or null if disabled with {@code false} or {@code none}
+     */
+    public static EcrTokenCache fromSystemProperties() {
+        String path = System.getProperty(TOKEN_CACHE_PROPERTY);
+        if (path == null) {
+            String dockerConfig = EnvUtil.getEnv("DOCKER_CONFIG");
+            File dir = dockerConfig != null ? new File(dockerConfig) : new File(EnvUtil.getUserHome(), ".docker");
+            return new EcrTokenCache(new File(dir, "ecr-token-cache.json"));
+        }
+        if (path.equalsIgnoreCase("false") || path.equalsIgnoreCase("none")) {
+            return null;
+        }
+        return new EcrTokenCache(new File(path));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Get a cached token
+     *
+     * @param registry ECR registry
+     * @param accessKeyId IAM access key used for fetching the token
+     * @param now current time in milliseconds
+     * @return base64 encoded token or null if no token is cached or if it is about to expire
+     * @throws IOException if the cache can not be read
+     */
+    String get(String registry, String accessKeyId, long now) throws IOException {
+        synchronized (JVM_LOCK) {
+            if (!file.exists()) {
+                return null;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                 FileChannel channel = raf.getChannel();
+                 FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+                JsonElement entry = read(channel).get(key(registry, accessKeyId));
+                if (entry == null || !entry.isJsonObject() || !isValid(entry.getAsJsonObject(), now)) {
+                    return null;
+                }
+                return entry.getAsJsonObject().get("token").getAsString();
+            }
+        }
+    }
+
+    /**
+     * Store a token, dropping all tokens which are about to expire
+     *
+     * @param registry ECR registry
+     * @param accessKeyId IAM access key used for fetching the token
+     * @param token base64 encoded token
+     * @param expiresAt expiry of the token in milliseconds
+     * @param now current time in milliseconds
+     * @throws IOException if the cache can not be written
+     */
+    void put(String registry, String accessKeyId, String token, long expiresAt, long now) throws IOException {
+        synchronized (JVM_LOCK) {
+            boolean created = createFile();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel();
+                 FileLock ignored = channel.lock()) {
+                JsonObject tokens = created ? new JsonObject() : read(channel);
+                Iterator<Map.Entry<String, JsonElement>> it = tokens.entrySet().iterator();
+                while (it.hasNext()) {
+                    JsonElement entry = it.next().getValue();
+                    if (!entry.isJsonObject() || !isValid(entry.getAsJsonObject(), now)) {
+                        it.remove();
+                    }
+                }
+                JsonObject entry = new JsonObject();
+                entry.addProperty("token", token);
+                entry.addProperty("expiresAt", expiresAt);
+                tokens.add(key(registry, accessKeyId), entry);
+
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(tokens.toString().getBytes(StandardCharsets.UTF_8)), 0);
+            }
+        }
+    }
+
+    // ===========================================
+
+    private boolean createFile() throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        // Tokens are credentials, only the owner may read them. The file is created with these permissions
+        // so that it is never readable by others, not even for a moment
+        try {
+            Files.createFile(file.toPath(), PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            return true;
+        } catch (FileAlreadyExistsException exp) {
+            return false;
+        } catch (UnsupportedOperationException exp) {
+            // No POSIX file system, e.g. on Windows
+            if (!file.createNewFile()) {
+                return false;
+            }
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+            return true;
+        }
+    }
+
+    private static JsonObject read(FileChannel channel) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        channel.position(0);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (channel.read(buffer) > 0) {
+            buffer.flip();
+            bytes.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+        try {
+            JsonObject tokens = new Gson().fromJson(bytes.toString(StandardCharsets.UTF_8.name()), JsonObject.class);
+            return tokens != null ? tokens : new JsonObject();
+        } catch (JsonParseException exp) {
+            // Corrupted cache, start from scratch
+            return new JsonObject();
+        }
+    }
+
+    private static boolean isValid(JsonObject entry, long now) {
+        return entry.has("token") && entry.has("expiresAt") &&
+               entry.get("expiresAt").getAsLong() - REFRESH_BEFORE_EXPIRY_MILLIS > now;
+    }
+
+    private static String key(String registry, String accessKeyId) {
+        return registry + "/" + accessKeyId;
+    }
+}
@@ -0,0 +1,30 @@
+package io.fabric8.maven.docker.access.event;
+
+import io.fabric8.maven.docker.model.ContainerEvent;
+
+/**
+ * Interface called for each event received from the docker host's <code>/events</code> stream.
+ */
+public interface EventCallback {
+
+    /**
+     * Called once when the event stream has been successfully established. Events happening
+     * after this call are guaranteed to be delivered to {@link #event(ContainerEvent)}.
+     */
+    void open();
+
+    /**
+     * Receive an event
+     *
+     * @param event the event received
+     */
+    void event(ContainerEvent event);
+
+    /**
+     * Called when the stream could not be established or broke down. No more events
+     * are delivered after this call.
+     *
+     * @param error error description
+     */
+    void error(String error);
+}
@@ -0,0 +1,12 @@
+package io.fabric8.maven.docker.access.event;
+
+/**
+ * Handle for managing the lifecycle of an asynchronous event stream request.
+ */
+public interface EventGetHandle {
+
+    /**
+     * Stop receiving events and close the underlying connection
+     */
+    void finish();
+}
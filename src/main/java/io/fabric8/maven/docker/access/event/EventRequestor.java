@@ -0,0 +1,102 @@
+package io.fabric8.maven.docker.access.event;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonStreamParser;
+import io.fabric8.maven.docker.access.util.RequestUtil;
+import io.fabric8.maven.docker.model.ContainerEvent;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+/**
+ * Follows the docker <code>/events</code> stream in a background thread and feeds each received
+ * event into a callback. The stream consists of a sequence of JSON objects which are parsed
+ * one by one as they arrive.
+ */
+public class EventRequestor extends Thread implements EventGetHandle {
+
+    private final CloseableHttpClient client;
+    private final String url;
+    private final EventCallback callback;
+
+    // Remember the request so that it can be aborted from another thread
+    private final AtomicReference<HttpUriRequest> request = new AtomicReference<>();
+
+    // Set once finish() has been called so that an aborted request is not reported as error
+    private volatile boolean stopped;
+
+    /**
+     * Create a requestor for the event stream
+     *
+     * @param client HTTP client to use, which is closed when the stream ends
+     * @param url full events url including any filters
+     * @param callback callback to call for each event received
+     */
+    public EventRequestor(CloseableHttpClient client, String url, EventCallback callback) {
+        this.client = client;
+        this.url = url;
+        this.callback = callback;
+        setDaemon(true);
+        setName("dmp-events");
+    }
+
+    @Override
+    public void run() {
+        try {
+            request.set(RequestUtil.newGet(url));
+            if (stopped) {
+                return;
+            }
+            HttpResponse response = client.execute(request.get());
+            StatusLine status = response.getStatusLine();
+            if (status.getStatusCode() != 200) {
+                callback.error("Cannot subscribe to events (" + status + ")");
+                return;
+            }
+            callback.open();
+            try (Reader reader = new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8)) {
+                JsonStreamParser parser = new JsonStreamParser(reader);
+                while (!stopped && parser.hasNext()) {
+                    JsonElement element = parser.next();
+                    if (element.isJsonObject()) {
+                        callback.event(new ContainerEvent(element.getAsJsonObject()));
+                    }
+                }
+            }
+            if (!stopped) {
+                callback.error("Event stream closed by docker daemon");
+            }
+        } catch (IOException | JsonParseException exp) {
+            if (!stopped) {
+                callback.error("Error while reading events: " + exp.getMessage());
+            }
+        } finally {
+            closeClient();
+        }
+    }
+
+    @Override
+    public void finish() {
+        stopped = true;
+        HttpUriRequest current = request.getAndSet(null);
+        if (current != null) {
+            current.abort();
+        }
+    }
+
+    private void closeClient() {
+        try {
+            client.close();
+        } catch (IOException exp) {
+            // Nothing we can do here anymore
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
@@ -126,6 +127,8 @@ public class ApacheHttpClientDelegate {
         req.addHeader(HttpHeaders.ACCEPT, "*/*");
         if (body instanceof File) {
             req.addHeader(HttpHeaders.CONTENT_TYPE, URLConnection.guessContentTypeFromName(((File)body).getName()));
+        } else if (body instanceof HttpEntity && ((HttpEntity) body).getContentType() != null) {
+            req.addHeader(((HttpEntity) body).getContentType());
         }
         if (body != null && !req.containsHeader(HttpHeaders.CONTENT_TYPE)) {
             req.addHeader(HttpHeaders.CONTENT_TYPE, "application/json");
@@ -159,6 +162,8 @@ public class ApacheHttpClientDelegate {
         if (entity != null) {
             if (entity instanceof File) {
                 request.setEntity(new FileEntity((File) entity));
+            } else if (entity instanceof HttpEntity) {
+                request.setEntity((HttpEntity) entity);
             } else {
                 request.setEntity(new StringEntity((String) entity, Charset.defaultCharset()));
             }
@@ -5,14 +5,13 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -32,10 +31,14 @@ import io.fabric8.maven.docker.access.ContainerCreateConfig;
 import io.fabric8.maven.docker.access.DockerAccess;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.access.NetworkCreateConfig;
+import io.fabric8.maven.docker.access.StreamingArchive;
 import io.fabric8.maven.docker.access.UrlBuilder;
 import io.fabric8.maven.docker.access.VolumeCreateConfig;
 import io.fabric8.maven.docker.access.chunked.BuildJsonResponseHandler;
 import io.fabric8.maven.docker.access.chunked.PullOrPushResponseJsonHandler;
+import io.fabric8.maven.docker.access.event.EventCallback;
+import io.fabric8.maven.docker.access.event.EventGetHandle;
+import io.fabric8.maven.docker.access.event.EventRequestor;
 import io.fabric8.maven.docker.access.hc.ApacheHttpClientDelegate.BodyAndStatusResponseHandler;
 import io.fabric8.maven.docker.access.hc.ApacheHttpClientDelegate.HttpBodyAndStatus;
 import io.fabric8.maven.docker.access.hc.http.HttpClientBuilder;
@@ -44,9 +47,12 @@ import io.fabric8.maven.docker.access.hc.util.ClientBuilder;
 import io.fabric8.maven.docker.access.hc.win.NamedPipeClientBuilder;
 import io.fabric8.maven.docker.access.hc.wslc.WslcClientBuilder;
 import io.fabric8.maven.docker.access.log.LogCallback;
+import io.fabric8.maven.docker.access.log.LogFollower;
 import io.fabric8.maven.docker.access.log.LogGetHandle;
 import io.fabric8.maven.docker.access.log.LogRequestor;
+import io.fabric8.maven.docker.access.log.StreamFrameDecoder;
 import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.CompressionOptions;
 import io.fabric8.maven.docker.config.Arguments;
 import io.fabric8.maven.docker.log.DefaultLogCallback;
 import io.fabric8.maven.docker.log.LogOutputSpec;
@@ -103,12 +109,17 @@ public class DockerAccessWithHcClient implements DockerAccess {
     // Copy buffer size when saving images or copying files from containers
     private static final int COPY_BUFFER_SIZE = 65536;
 
+    // Content type of streamed build contexts
+    private static final String TAR_CONTENT_TYPE = "application/x-tar";
+
     private static final String API_LOG_FORMAT_GET = "GET %s";
     private static final String API_LOG_FORMAT_POST = "POST %s";
     private static final String API_LOG_FORMAT_DELETE = "DELETE %s";
     private static final String API_LOG_FORMAT_POST_WITH_REQUEST = "POST to %s with %s";
     private static final String API_LOG_FORMAT_POST_FILE = "POST to %s with contents of file %s";
     private static final String API_LOG_FORMAT_PUT_FILE = "PUT to %s with contents of file %s";
+    private static final String API_LOG_FORMAT_POST_STREAM = "POST to %s with streamed archive";
+    private static final String API_LOG_FORMAT_PUT_STREAM = "PUT to %s with streamed archive";
 
     // Logging
     private final Logger log;
@@ -118,6 +129,15 @@ public class DockerAccessWithHcClient implements DockerAccess {
     private final String nativePlatform;
     private final UrlBuilder urlBuilder;
 
+    // Open event subscriptions which get finished on shutdown
+    private final List<EventGetHandle> eventHandles = new CopyOnWriteArrayList<>();
+
+    // Follows container logs, created on first use
+    private LogFollower logFollower;
+
+    // Called on shutdown instead of closing the connection when it is shared with other accesses
+    private final Runnable releaseConnection;
+
     /**
      * Create a new access for the given URL
      *
@@ -156,6 +176,28 @@ public class DockerAccessWithHcClient implements DockerAccess {
         this.nativePlatform = info.get("Os").getAsString() + "/" + info.get("Arch").getAsString();
         this.urlBuilder = new UrlBuilder(baseUrl, "v" + apiVersion);
         this.log = log;
+        this.releaseConnection = null;
+    }
+
+    /**
+     * Create a new access which uses the connection of an already connected access, without creating
+     * a new connection pool or asking the daemon for its version again. Event subscriptions and log followers
+     * belong to the new access and are finished on {@link #shutdown()}, but the connection itself is kept open
+     * and only released.
+     *
+     * @param connection connected access whose connection pool and daemon version should be used
+     * @param log a log handler for printing out logging information
+     * @param releaseConnection called once on shutdown instead of closing the connection
+     */
+    public DockerAccessWithHcClient(@Nonnull DockerAccessWithHcClient connection,
+                                    Logger log,
+                                    @Nonnull Runnable releaseConnection) {
+        this.delegate = connection.delegate;
+        this.apiVersion = connection.apiVersion;
+        this.nativePlatform = connection.nativePlatform;
+        this.urlBuilder = connection.urlBuilder;
+        this.log = log;
+        this.releaseConnection = releaseConnection;
     }
 
     static String stripTrailingSlash(String url) {
@@ -192,13 +234,11 @@ public class DockerAccessWithHcClient implements DockerAccess {
             @Override
             public Object handleResponse(HttpResponse response) throws IOException {
                 try (InputStream stream = response.getEntity().getContent()) {
-                    LineNumberReader reader = new LineNumberReader(new InputStreamReader(stream));
-                    String line;
+                    // Exec instances are created with a TTY, so the output is not multiplexed
+                    StreamFrameDecoder decoder = new StreamFrameDecoder(stream);
                     try {
                         callback.open();
-                        while ( (line = reader.readLine()) != null) {
-                            callback.log(1, TimestampFactory.createTimestamp(), line);
-                        }
+                        decoder.readLines(1, (type, line) -> callback.log(type, TimestampFactory.createTimestamp(), line.toString()));
                     } catch (LogCallback.DoneException e) {
                         // Ok, we stop here ...
                     } finally {
@@ -305,6 +345,17 @@ public class DockerAccessWithHcClient implements DockerAccess {
         }
     }
 
+    @Override
+    public void buildImageFromStream(String image, StreamingArchive buildContext, BuildOptions options) throws DockerAccessException {
+        String url = urlBuilder.buildImage(image, options);
+        log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_POST_STREAM, url);
+        try {
+            delegate.post(url, new StreamingArchiveEntity(buildContext, TAR_CONTENT_TYPE), createBuildResponseHandler(), HTTP_OK);
+        } catch (IOException e) {
+            throw new DockerAccessException(e, "Unable to build image [%s]", image);
+        }
+    }
+
     @Override
     public void copyArchiveToContainer(String containerId, File archive, String targetPath)
             throws DockerAccessException {
@@ -318,6 +369,19 @@ public class DockerAccessWithHcClient implements DockerAccess {
         }
     }
 
+    @Override
+    public void copyArchiveStreamToContainer(String containerId, StreamingArchive archive, String targetPath)
+            throws DockerAccessException {
+        String url = urlBuilder.copyArchive(containerId, targetPath);
+        log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_PUT_STREAM, url);
+        try {
+            delegate.put(url, new StreamingArchiveEntity(archive, TAR_CONTENT_TYPE), HTTP_OK);
+        } catch (IOException e) {
+            throw new DockerAccessException(e, "Unable to copy archive to container [%s] with path %s",
+                                            containerId, targetPath);
+        }
+    }
+
     @Override
     public void copyArchiveFromContainer(String containerId, String containerPath, File archive)
             throws DockerAccessException {
@@ -352,9 +416,24 @@ public class DockerAccessWithHcClient implements DockerAccess {
 
     @Override
     public LogGetHandle getLogAsync(String containerId, LogCallback callback) {
-        LogRequestor extractor = new LogRequestor(delegate.createBasicClient(), urlBuilder, containerId, callback);
-        extractor.start();
-        return extractor;
+        return getLogFollower().follow(containerId, callback);
+    }
+
+    private synchronized LogFollower getLogFollower() {
+        if (logFollower == null) {
+            logFollower = new LogFollower(delegate::createBasicClient, urlBuilder);
+        }
+        return logFollower;
+    }
+
+    @Override
+    public EventGetHandle getEventsAsync(EventCallback callback, String ... filter) {
+        String url = urlBuilder.events(null, filter);
+        log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_GET, url);
+        EventRequestor requestor = new EventRequestor(delegate.createBasicClient(), url, callback);
+        eventHandles.add(requestor);
+        requestor.start();
+        return requestor;
     }
 
     @Override
@@ -389,7 +468,12 @@ public class DockerAccessWithHcClient implements DockerAccess {
 
     @Override
     public List<Container> listContainers(boolean all) throws DockerAccessException {
-        String url = urlBuilder.listContainers(all);
+        return listContainers(all, new String[0]);
+    }
+
+    @Override
+    public List<Container> listContainers(boolean all, String ... filter) throws DockerAccessException {
+        String url = urlBuilder.listContainers(all, filter);
         log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_GET, url);
         try {
             String response = delegate.get(url, HTTP_OK);
@@ -544,11 +628,17 @@ public class DockerAccessWithHcClient implements DockerAccess {
     @Override
     public void pullImage(String image, AuthConfig authConfig, String registry, CreateImageOptions options)
             throws DockerAccessException {
+        pullImage(image, authConfig, registry, options, log);
+    }
+
+    @Override
+    public void pullImage(String image, AuthConfig authConfig, String registry, CreateImageOptions options, Logger progressLog)
+            throws DockerAccessException {
         String pullUrl = urlBuilder.pullImage(options);
         log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_POST, pullUrl);
         try {
             delegate.post(pullUrl, null, createAuthHeader(authConfig),
-                    createPullOrPushResponseHandler(), HTTP_OK);
+                    createPullOrPushResponseHandler(progressLog), HTTP_OK);
         } catch (IOException e) {
             throw new DockerAccessException(e, "Unable to pull '%s'%s", image, (registry != null) ? " from registry '" + registry + "'" : "");
         }
@@ -557,13 +647,19 @@ public class DockerAccessWithHcClient implements DockerAccess {
     @Override
     public void pushImage(String image, AuthConfig authConfig, String registry, int retries)
             throws DockerAccessException {
+        pushImage(image, authConfig, registry, retries, log);
+    }
+
+    @Override
+    public void pushImage(String image, AuthConfig authConfig, String registry, int retries, Logger progressLog)
+            throws DockerAccessException {
         ImageName name = new ImageName(image);
         String pushUrl = urlBuilder.pushImage(name, registry);
         log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_POST, pushUrl);
-        TemporaryImageHandler temporaryImageHandler = tagTemporaryImage(name, registry);
+        TemporaryImageHandler temporaryImageHandler = tagTemporaryImage(name, registry, progressLog);
         DockerAccessException dae = null;
         try {
-            doPushImage(pushUrl, createAuthHeader(authConfig), createPullOrPushResponseHandler(), HTTP_OK, retries);
+            doPushImage(pushUrl, createAuthHeader(authConfig), createPullOrPushResponseHandler(progressLog), HTTP_OK, retries, progressLog);
         } catch (IOException e) {
             dae = new DockerAccessException(e, "Unable to push '%s'%s", image, (registry != null) ? " to registry '" + registry + "'" : "");
             throw dae;
@@ -573,19 +669,19 @@ public class DockerAccessWithHcClient implements DockerAccess {
     }
 
     @Override
-    public void saveImage(String image, String filename, ArchiveCompression compression) throws DockerAccessException {
+    public void saveImage(String image, String filename, ArchiveCompression compression, CompressionOptions compressionOptions) throws DockerAccessException {
         ImageName name = new ImageName(image);
         String url = urlBuilder.getImage(name);
         log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_GET, url);
         try {
-            delegate.get(url, getImageResponseHandler(filename, compression), HTTP_OK);
+            delegate.get(url, getImageResponseHandler(filename, compression, compressionOptions), HTTP_OK);
         } catch (IOException e) {
             throw new DockerAccessException(e, "Unable to save '%s' to '%s'", image, filename);
         }
     }
 
     @Override
-    public void saveImages(List<String> images, String filename, ArchiveCompression compression) throws DockerAccessException {
+    public void saveImages(List<String> images, String filename, ArchiveCompression compression, CompressionOptions compressionOptions) throws DockerAccessException {
          List<ImageName> names = new ArrayList<>();
         for(String image : images){
             names.add(new ImageName(image));
@@ -593,18 +689,19 @@ public class DockerAccessWithHcClient implements DockerAccess {
         String url = urlBuilder.getImages(names);
         log.verbose(Logger.LogVerboseCategory.API, API_LOG_FORMAT_GET, url);
         try {
-            delegate.get(url, getImageResponseHandler(filename, compression), HTTP_OK);
+            delegate.get(url, getImageResponseHandler(filename, compression, compressionOptions), HTTP_OK);
         } catch (IOException e) {
             throw new DockerAccessException(e, "Unable to save '%s' to '%s'", images.toArray(), filename);
         }
     }
 
-    private ResponseHandler<Object> getImageResponseHandler(final String filename, final ArchiveCompression compression) throws FileNotFoundException {
+    private ResponseHandler<Object> getImageResponseHandler(final String filename, final ArchiveCompression compression,
+                                                            final CompressionOptions compressionOptions) throws FileNotFoundException {
         return new ResponseHandler<Object>() {
             @Override
             public Object handleResponse(HttpResponse response) throws IOException {
                 try (InputStream stream = response.getEntity().getContent();
-                     OutputStream out = compression.wrapOutputStream(new FileOutputStream(filename))) {
+                     OutputStream out = compression.wrapOutputStream(new FileOutputStream(filename), compressionOptions)) {
                     IOUtils.copy(stream, out, COPY_BUFFER_SIZE);
                 }
                 return null;
@@ -749,6 +846,20 @@ public class DockerAccessWithHcClient implements DockerAccess {
 
     @Override
     public void shutdown() {
+        for (EventGetHandle handle : eventHandles) {
+            handle.finish();
+        }
+        eventHandles.clear();
+        synchronized (this) {
+            if (logFollower != null) {
+                logFollower.shutdown();
+                logFollower = null;
+            }
+        }
+        if (releaseConnection != null) {
+            releaseConnection.run();
+            return;
+        }
         try {
             delegate.close();
         } catch (IOException exp) {
@@ -770,8 +881,8 @@ public class DockerAccessWithHcClient implements DockerAccess {
     }
 
     // visible for testing?
-    private HcChunkedResponseHandlerWrapper createPullOrPushResponseHandler() {
-        return new HcChunkedResponseHandlerWrapper(new PullOrPushResponseJsonHandler(log));
+    private HcChunkedResponseHandlerWrapper createPullOrPushResponseHandler(Logger progressLog) {
+        return new HcChunkedResponseHandlerWrapper(new PullOrPushResponseJsonHandler(progressLog));
     }
 
     private Map<String, String> createAuthHeader(AuthConfig authConfig) {
@@ -787,7 +898,7 @@ public class DockerAccessWithHcClient implements DockerAccess {
     }
 
     private void doPushImage(String url, Map<String, String> header, HcChunkedResponseHandlerWrapper handler, int status,
-                             int retries) throws IOException {
+                             int retries, Logger progressLog) throws IOException {
         // 0: The original attempt, 1..retry: possible retries.
         for (int i = 0; i <= retries; i++) {
             try {
@@ -795,7 +906,7 @@ public class DockerAccessWithHcClient implements DockerAccess {
                 return;
             } catch (HttpResponseException e) {
                 if (isRetryableErrorCode(e.getStatusCode()) && i != retries) {
-                    log.warn("failed to push image to [{}], retrying...", url);
+                    progressLog.warn("failed to push image to [{}], retrying...", url);
                 } else {
                     throw e;
                 }
@@ -803,11 +914,11 @@ public class DockerAccessWithHcClient implements DockerAccess {
         }
     }
 
-    private TemporaryImageHandler tagTemporaryImage(ImageName name, String registry) throws DockerAccessException {
+    private TemporaryImageHandler tagTemporaryImage(ImageName name, String registry, Logger progressLog) throws DockerAccessException {
         String targetImage = name.getFullName(registry);
         if (name.hasRegistry() || registry == null) {
             return () ->
-                log.info("Temporary image tag skipped. Target image '%s' already has registry set or no registry is available",
+                progressLog.info("Temporary image tag skipped. Target image '%s' already has registry set or no registry is available",
                     targetImage);
         }
 
@@ -815,13 +926,13 @@ public class DockerAccessWithHcClient implements DockerAccess {
         boolean alreadyHasImage = hasImage(targetImage);
 
         if (alreadyHasImage) {
-            log.warn("Target image '%s' already exists. Tagging of '%s' will replace existing image",
+            progressLog.warn("Target image '%s' already exists. Tagging of '%s' will replace existing image",
                 targetImage, fullName);
         }
 
         tag(fullName, targetImage, false);
         return alreadyHasImage ?
-            () -> log.info("Tagged image '%s' won't be removed after tagging as it already existed", targetImage) :
+            () -> progressLog.info("Tagged image '%s' won't be removed after tagging as it already existed", targetImage) :
             new RemovingTemporaryImageHandler(targetImage);
     }
 
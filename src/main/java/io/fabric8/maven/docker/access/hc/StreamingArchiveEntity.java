@@ -0,0 +1,49 @@
+package io.fabric8.maven.docker.access.hc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import io.fabric8.maven.docker.access.StreamingArchive;
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * Request entity which creates its content while the request is sent. As the size is not known
+ * in advance, the content is transferred with chunked encoding.
+ */
+class StreamingArchiveEntity extends AbstractHttpEntity {
+
+    private final StreamingArchive archive;
+
+    StreamingArchiveEntity(StreamingArchive archive, String contentType) {
+        this.archive = archive;
+        setContentType(contentType);
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Streaming archives can only be written");
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        archive.writeTo(out);
+        out.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package io.fabric8.maven.docker.access.log;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Log callback which can consume log entries without a {@link String} being created for every entry.
+ * {@link LogRequestor} hands over a view on its internal buffer to such callbacks.
+ *
+ * @since 0.50
+ */
+public interface CharSequenceLogCallback extends LogCallback {
+
+    /**
+     * Receive a log entry
+     *
+     * @param type 1 for log on standard output, 2 for standard error
+     * @param timestamp timestamp on the server side when this entry happened
+     * @param txt log output, only valid during this call. It must be copied if needed afterwards.
+     * @throws DoneException if no more log entries should be received
+     */
+    void log(int type, ZonedDateTime timestamp, CharSequence txt) throws DoneException;
+
+    @Override
+    default void log(int type, ZonedDateTime timestamp, String txt) throws DoneException {
+        log(type, timestamp, (CharSequence) txt);
+    }
+}
@@ -0,0 +1,315 @@
+package io.fabric8.maven.docker.access.log;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.UrlBuilder;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+/**
+ * Engine for following the logs of containers. All follow streams run on one shared pool of daemon threads
+ * which are reused when streams end, e.g. when containers get restarted by <code>docker:watch</code>.
+ * <p>
+ * Callbacks following the same container share a single log stream, so that showing the logs of a container
+ * and waiting for a log pattern of the same container needs only one connection and one thread. A callback
+ * joining a running stream first gets the entries received so far replayed, so that it sees the same
+ * entries as with a stream of its own. Only the first {@link #DEFAULT_HISTORY_SIZE} entries of a stream are
+ * kept for replaying. After that, a new callback gets a stream of its own.
+ * <p>
+ * Reconnects and resuming via <code>since</code> are handled by the {@link LogRequestor} running each stream.
+ *
+ * @since 0.50
+ */
+public class LogFollower {
+
+    static final int DEFAULT_HISTORY_SIZE = 1000;
+
+    private final Supplier<CloseableHttpClient> clientFactory;
+    private final UrlBuilder urlBuilder;
+    private final int historySize;
+    private final ExecutorService executor;
+
+    // Latest stream per container id, which new callbacks try to join
+    private final Map<String, SharedStream> streams = new HashMap<>();
+
+    // All streams which have not ended yet
+    private final Set<SharedStream> activeStreams = new HashSet<>();
+
+    private boolean shutdown;
+
+    /**
+     * Create a log follower
+     *
+     * @param clientFactory factory for the HTTP client used for a single stream. The client is closed when the
+     *                      stream ends.
+     * @param urlBuilder builder for the log urls
+     */
+    public LogFollower(Supplier<CloseableHttpClient> clientFactory, UrlBuilder urlBuilder) {
+        this(clientFactory, urlBuilder, DEFAULT_HISTORY_SIZE);
+    }
+
+    LogFollower(Supplier<CloseableHttpClient> clientFactory, UrlBuilder urlBuilder, int historySize) {
+        this.clientFactory = clientFactory;
+        this.urlBuilder = urlBuilder;
+        this.historySize = historySize;
+        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("docker-log-follower-%d")
+            .setDaemon(true)
+            .build());
+    }
+
+    /**
+     * Follow the log of a container from its beginning
+     *
+     * @param containerId container whose log should be followed
+     * @param callback callback receiving the log entries
+     * @return handle for stopping to follow the log
+     */
+    public synchronized LogGetHandle follow(String containerId, LogCallback callback) {
+        if (shutdown) {
+            throw new IllegalStateException("Log follower has been shut down");
+        }
+        SharedStream stream = streams.get(containerId);
+        if (stream != null) {
+            Subscription subscription = stream.join(callback);
+            if (subscription != null) {
+                return subscription;
+            }
+        }
+        stream = new SharedStream(containerId);
+        Subscription subscription = stream.join(callback);
+        streams.put(containerId, stream);
+        activeStreams.add(stream);
+        stream.start();
+        return subscription;
+    }
+
+    /**
+     * Stop following all logs and release the threads
+     */
+    public void shutdown() {
+        List<SharedStream> toStop;
+        synchronized (this) {
+            shutdown = true;
+            toStop = new ArrayList<>(activeStreams);
+            streams.clear();
+            activeStreams.clear();
+        }
+        for (SharedStream stream : toStop) {
+            stream.stop();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Number of streams which are currently open
+     *
+     * @return number of streams
+     */
+    public synchronized int getStreamCount() {
+        return activeStreams.size();
+    }
+
+    private synchronized void streamEnded(SharedStream stream) {
+        streams.remove(stream.containerId, stream);
+        activeStreams.remove(stream);
+    }
+
+    // A single log stream whose entries are dispatched to all subscribed callbacks
+    private class SharedStream implements CharSequenceLogCallback {
+
+        private final String containerId;
+        private final CloseableHttpClient client;
+        private final LogRequestor requestor;
+
+        private final List<Subscription> subscriptions = new ArrayList<>();
+
+        // Entries received so far for replaying them to callbacks joining later, null when the history is full
+        private List<Entry> history = new ArrayList<>();
+
+        private boolean opened;
+        private boolean ended;
+
+        SharedStream(String containerId) {
+            this.containerId = containerId;
+            this.client = clientFactory.get();
+            this.requestor = new LogRequestor(client, urlBuilder, containerId, this);
+        }
+
+        void start() {
+            executor.execute(requestor);
+        }
+
+        // Add a callback and replay the history to it, returns null if the stream can't be joined anymore
+        synchronized Subscription join(LogCallback callback) {
+            if (ended || history == null) {
+                return null;
+            }
+            Subscription subscription = new Subscription(this, callback);
+            if (opened) {
+                try {
+                    callback.open();
+                    for (Entry entry : history) {
+                        callback.log(entry.type, entry.timestamp, entry.text);
+                    }
+                } catch (IOException exp) {
+                    callback.error("Cannot open log callback: " + exp);
+                    return subscription;
+                } catch (DoneException exp) {
+                    callback.close();
+                    return subscription;
+                }
+            }
+            subscriptions.add(subscription);
+            return subscription;
+        }
+
+        // Remove a callback and stop the stream when it was the last one
+        void leave(Subscription subscription) {
+            boolean last;
+            synchronized (this) {
+                if (!subscriptions.remove(subscription)) {
+                    return;
+                }
+                if (opened) {
+                    subscription.callback.close();
+                }
+                last = subscriptions.isEmpty();
+            }
+            if (last) {
+                stop();
+            }
+        }
+
+        void stop() {
+            synchronized (this) {
+                // No new subscribers from now on
+                history = null;
+            }
+            requestor.finish();
+        }
+
+        DockerAccessException getException() {
+            return requestor.getException();
+        }
+
+        @Override
+        public synchronized void open() throws IOException {
+            opened = true;
+            for (Subscription subscription : subscriptions) {
+                subscription.callback.open();
+            }
+        }
+
+        @Override
+        public synchronized void log(int type, ZonedDateTime timestamp, CharSequence txt) throws DoneException {
+            String text = null;
+            if (history != null) {
+                if (history.size() < historySize) {
+                    text = txt.toString();
+                    history.add(new Entry(type, timestamp, text));
+                } else {
+                    history = null;
+                }
+            }
+            for (Subscription subscription : new ArrayList<>(subscriptions)) {
+                LogCallback callback = subscription.callback;
+                try {
+                    if (callback instanceof CharSequenceLogCallback) {
+                        ((CharSequenceLogCallback) callback).log(type, timestamp, txt);
+                    } else {
+                        if (text == null) {
+                            text = txt.toString();
+                        }
+                        callback.log(type, timestamp, text);
+                    }
+                } catch (DoneException exp) {
+                    subscriptions.remove(subscription);
+                    callback.close();
+                }
+            }
+            if (subscriptions.isEmpty()) {
+                // Nobody is interested anymore, end the stream
+                history = null;
+                throw new DoneException();
+            }
+        }
+
+        @Override
+        public synchronized void error(String error) {
+            for (Subscription subscription : subscriptions) {
+                subscription.callback.error(error);
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                ended = true;
+                history = null;
+                if (opened) {
+                    for (Subscription subscription : subscriptions) {
+                        subscription.callback.close();
+                    }
+                }
+                subscriptions.clear();
+            }
+            streamEnded(this);
+            try {
+                client.close();
+            } catch (IOException exp) {
+                // Nothing we can do about it, the stream is finished anyway
+            }
+        }
+    }
+
+    // Handle for a single callback following a shared stream
+    private static class Subscription implements LogGetHandle {
+
+        private final SharedStream stream;
+        private final LogCallback callback;
+
+        Subscription(SharedStream stream, LogCallback callback) {
+            this.stream = stream;
+            this.callback = callback;
+        }
+
+        @Override
+        public void finish() {
+            stream.leave(this);
+        }
+
+        @Override
+        public boolean isError() {
+            return stream.getException() != null;
+        }
+
+        @Override
+        public DockerAccessException getException() {
+            return stream.getException();
+        }
+    }
+
+    private static class Entry {
+        private final int type;
+        private final ZonedDateTime timestamp;
+        private final String text;
+
+        Entry(int type, ZonedDateTime timestamp, String text) {
+            this.type = type;
+            this.timestamp = timestamp;
+            this.text = text;
+        }
+    }
+}
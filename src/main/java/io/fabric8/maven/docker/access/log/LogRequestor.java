@@ -15,27 +15,20 @@ package io.fabric8.maven.docker.access.log;/*
  * limitations under the License.
  */
 
-import com.google.common.io.ByteStreams;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.access.UrlBuilder;
 import io.fabric8.maven.docker.access.util.RequestUtil;
 import io.fabric8.maven.docker.util.TimestampFactory;
-import org.apache.commons.codec.binary.Hex;
 import org.apache.http.HttpResponse;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.impl.client.CloseableHttpClient;
 
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.nio.charset.StandardCharsets;
+import java.nio.CharBuffer;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -44,8 +37,8 @@ import java.util.regex.Pattern;
  * @author roland
  * @since 28/11/14
  */
-public class LogRequestor extends Thread implements LogGetHandle {
-    // Patter for matching log entries
+public class LogRequestor implements Runnable, LogGetHandle {
+    // Pattern for matching log entries. Not used for parsing anymore but describes the layout handled by callLogCallback()
     static final Pattern LOG_LINE = Pattern.compile("^\\[?(?<timestamp>[^\\s\\]]*)]? (?<entry>.*?)\\s*$", Pattern.DOTALL);
     private final CloseableHttpClient client;
 
@@ -74,7 +67,7 @@ public class LogRequestor extends Thread implements LogGetHandle {
     private long reconnectBackoffMillis = 1000L;
 
     /**
-     * Create a helper object for requesting log entries synchronously ({@link #fetchLogs()}) or asynchronously ({@link #start()}.
+     * Create a helper object for requesting log entries synchronously ({@link #fetchLogs()}) or asynchronously ({@link #run()}, e.g. on a {@link LogFollower}).
      *
      * @param client HTTP client to use for requesting the docker host
      * @param urlBuilder builder that creates docker urls
@@ -189,69 +182,6 @@ public class LogRequestor extends Thread implements LogGetHandle {
         }
     }
 
-    private static class NoBytesReadException extends IOException {
-        public NoBytesReadException() {
-        }
-    }
-
-    /**
-     * This is a copy of ByteStreams.readFully(), with the slight change that it throws
-     * NoBytesReadException if zero bytes are read. Otherwise it is identical.
-     *
-     * @param in
-     * @param bytes
-     * @throws IOException
-     */
-    private void readFully(InputStream in, byte[] bytes) throws IOException {
-        int read = ByteStreams.read(in, bytes, 0, bytes.length);
-        if (read == 0) {
-            throw new NoBytesReadException();
-        } else if (read != bytes.length) {
-            throw new EOFException("reached end of stream after reading "
-                    + read + " bytes; " + bytes.length + " bytes expected");
-        }
-    }
-
-    private boolean readStreamFrame(InputStream is) throws IOException, LogCallback.DoneException {
-        // Read the header, which is composed of eight bytes. The first byte is an integer
-        // indicating the stream type (0 = stdin, 1 = stdout, 2 = stderr), the next three are thrown
-        // out, and the final four are the size of the remaining stream as an integer.
-        ByteBuffer headerBuffer = ByteBuffer.allocate(8);
-        headerBuffer.order(ByteOrder.BIG_ENDIAN);
-        try {
-            this.readFully(is, headerBuffer.array());
-        } catch (NoBytesReadException e) {
-            // Not bytes read for stream. Return false to stop consuming stream.
-            return false;
-        } catch (EOFException e) {
-            throw new IOException("Failed to read log header. Could not read all 8 bytes. " + e.getMessage(), e);
-        }
-
-        // Grab the stream type (stdout, stderr, stdin) from first byte and throw away other 3 bytes.
-        int type = headerBuffer.get();
-
-        // Skip three bytes, then read size from remaining four bytes.
-        int size = headerBuffer.getInt(4);
-
-        // Ignore empty messages and keep reading.
-        if (size <= 0) {
-            return true;
-        }
-
-        // Read the actual message
-        ByteBuffer payload = ByteBuffer.allocate(size);
-        try {
-            ByteStreams.readFully(is, payload.array());
-        } catch (EOFException e) {
-            throw new IOException("Failed to read log message. Could not read all " + size + " bytes. " + e.getMessage() +
-                                  " [ Header: " + Hex.encodeHexString(headerBuffer.array()) + "]", e);
-        }
-
-        String message = StandardCharsets.UTF_8.decode(payload).toString();
-        callLogCallback(type, message);
-        return true;
-    }
-
     private void parseResponse(HttpResponse response) throws LogCallback.DoneException, IOException {
         final StatusLine status = response.getStatusLine();
         if (status.getStatusCode() != 200) {
@@ -259,31 +189,56 @@ public class LogRequestor extends Thread implements LogGetHandle {
             throw new LogCallback.DoneException();
         }
 
-        final InputStream is = response.getEntity().getContent();
-       
-        while (true) {
-            if (!readStreamFrame(is)) {
-                return;
-            }
+        final StreamFrameDecoder decoder = new StreamFrameDecoder(response.getEntity().getContent());
+        while (decoder.readFrame(this::callLogCallback)) {
+            // Frames are handed to the callback by the decoder
         }
     }
 
-    private void callLogCallback(int type, String txt) throws LogCallback.DoneException {
-        Matcher matcher = LOG_LINE.matcher(txt);
-        if (!matcher.matches()) {
+    // Split a frame into timestamp and entry the same way as LOG_LINE does, but without a copy of the frame
+    private void callLogCallback(int type, CharBuffer txt) throws LogCallback.DoneException {
+        int length = txt.length();
+        int pos = length > 0 && txt.charAt(0) == '[' ? 1 : 0;
+        int timestampStart = pos;
+        while (pos < length && !isWhitespace(txt.charAt(pos)) && txt.charAt(pos) != ']') {
+            pos++;
+        }
+        int timestampEnd = pos;
+        if (pos < length && txt.charAt(pos) == ']') {
+            pos++;
+        }
+        if (pos >= length || txt.charAt(pos) != ' ') {
             callback.error(String.format("Invalid log format for '%s' (expected: \"<timestamp> <txt>\") [%04x %04x]",
-                                         txt,(int) (txt.toCharArray())[0],(int) (txt.toCharArray())[1]));
+                                         txt, length > 0 ? (int) txt.charAt(0) : 0, length > 1 ? (int) txt.charAt(1) : 0));
             throw new LogCallback.DoneException();
         }
+        int entryEnd = length;
+        while (entryEnd > pos + 1 && isWhitespace(txt.charAt(entryEnd - 1))) {
+            entryEnd--;
+        }
+
         ZonedDateTime ts;
         try {
-            ts = TimestampFactory.createTimestamp(matcher.group("timestamp"));
+            ts = TimestampFactory.createTimestamp(txt, timestampStart, timestampEnd);
         } catch (DateTimeParseException ex) {
             ts = TimestampFactory.createTimestamp();
         }
-        String logTxt = matcher.group("entry");
         this.lastTimestamp = ts;
-        callback.log(type, ts, logTxt);
+
+        // Narrow the buffer to the entry, positions are absolute while the indices above are relative
+        int offset = txt.position();
+        txt.limit(offset + entryEnd);
+        txt.position(offset + pos + 1);
+        if (callback instanceof CharSequenceLogCallback) {
+            ((CharSequenceLogCallback) callback).log(type, ts, txt);
+        } else {
+            callback.log(type, ts, txt.toString());
+        }
+    }
+
+    // Same characters as matched by \s in LOG_LINE
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 
     private HttpUriRequest getLogRequest(boolean follow, String since) {
@@ -0,0 +1,200 @@
+package io.fabric8.maven.docker.access.log;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.io.ByteStreams;
+import org.apache.commons.codec.binary.Hex;
+
+/**
+ * Decoder for the streams returned by the Docker daemon when attaching to the output of a container. For
+ * containers without a TTY the output is multiplexed into frames, each consisting of an 8 byte header and the
+ * payload (see {@link #readFrame(FrameHandler)}). With a TTY the output is sent as it is and
+ * {@link #readLines(int, FrameHandler)} splits it into lines.
+ * <p>
+ * The byte and character buffers are allocated once per decoder and reused for every frame, growing only
+ * when a larger frame arrives. The content handed to a {@link FrameHandler} is a view on these buffers
+ * which is only valid during the call, so a handler must copy it if it wants to keep it.
+ *
+ * @since 0.50
+ */
+public class StreamFrameDecoder {
+
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final byte[] header = new byte[HEADER_SIZE];
+    private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+    private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    /**
+     * Handler receiving the decoded content
+     */
+    public interface FrameHandler {
+
+        /**
+         * Called for each frame or line received
+         *
+         * @param type 1 for standard output, 2 for standard error
+         * @param content content between the buffer's position and limit. Only valid during this call.
+         * @throws LogCallback.DoneException if no more content should be read
+         */
+        void frame(int type, CharBuffer content) throws LogCallback.DoneException;
+    }
+
+    public StreamFrameDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Read the next frame of a multiplexed stream. The header is composed of eight bytes. The first byte
+     * indicates the stream type (0 = stdin, 1 = stdout, 2 = stderr), the next three are unused and the final
+     * four are the size of the payload as big endian integer. Empty frames are skipped.
+     *
+     * @param handler handler to call with the payload of the frame
+     * @return false if the stream has ended, true otherwise
+     * @throws IOException if the stream ends in the middle of a frame
+     * @throws LogCallback.DoneException if thrown by the handler
+     */
+    public boolean readFrame(FrameHandler handler) throws IOException, LogCallback.DoneException {
+        int read = ByteStreams.read(in, header, 0, HEADER_SIZE);
+        if (read == 0) {
+            // No bytes left in the stream
+            return false;
+        }
+        if (read != HEADER_SIZE) {
+            throw new IOException("Failed to read log header. Could not read all 8 bytes. reached end of stream after reading " +
+                                  read + " bytes; " + HEADER_SIZE + " bytes expected");
+        }
+
+        int type = header[0];
+        int size = (header[4] & 0xff) << 24 | (header[5] & 0xff) << 16 | (header[6] & 0xff) << 8 | (header[7] & 0xff);
+        if (size <= 0) {
+            return true;
+        }
+
+        ensureByteCapacity(size);
+        try {
+            ByteStreams.readFully(in, bytes, 0, size);
+        } catch (EOFException e) {
+            throw new IOException("Failed to read log message. Could not read all " + size + " bytes. " + e.getMessage() +
+                                  " [ Header: " + Hex.encodeHexString(header) + "]", e);
+        }
+
+        // UTF-8 never needs more chars than bytes
+        if (chars.capacity() < size) {
+            chars = CharBuffer.allocate(size);
+        }
+        chars.clear();
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(bytes, 0, size), chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        handler.frame(type, chars);
+        return true;
+    }
+
+    /**
+     * Read a stream which is not multiplexed until its end and call the handler for every line. Lines
+     * are terminated by "\n", "\r" or "\r\n" which are not included in the content.
+     *
+     * @param type stream type to report to the handler
+     * @param handler handler to call for each line
+     * @throws IOException if reading from the stream fails
+     * @throws LogCallback.DoneException if thrown by the handler
+     */
+    public void readLines(int type, FrameHandler handler) throws IOException, LogCallback.DoneException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        chars.clear();
+        decoder.reset();
+        boolean eof = false;
+        boolean skipLineFeed = false;
+        while (true) {
+            if (!eof && byteBuffer.hasRemaining()) {
+                int read = in.read(bytes, byteBuffer.position(), byteBuffer.remaining());
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    byteBuffer.position(byteBuffer.position() + read);
+                }
+            }
+            byteBuffer.flip();
+            CoderResult result = decoder.decode(byteBuffer, chars, eof);
+            boolean done = eof && result.isUnderflow();
+            if (done) {
+                decoder.flush(chars);
+            }
+            byteBuffer.compact();
+
+            chars.flip();
+            skipLineFeed = emitLines(type, handler, skipLineFeed);
+            if (done) {
+                if (chars.hasRemaining()) {
+                    handler.frame(type, chars);
+                }
+                return;
+            }
+            if (chars.position() == 0 && chars.limit() == chars.capacity()) {
+                // A single line fills the whole buffer
+                CharBuffer larger = CharBuffer.allocate(chars.capacity() * 2);
+                larger.put(chars);
+                chars = larger;
+            } else {
+                chars.compact();
+            }
+        }
+    }
+
+    // Call the handler for each complete line between position and limit of the char buffer and
+    // advance the position behind the last line terminator
+    private boolean emitLines(int type, FrameHandler handler, boolean skipLineFeed) throws LogCallback.DoneException {
+        int end = chars.limit();
+        int i = chars.position();
+        if (skipLineFeed && i < end && chars.get(i) == '\n') {
+            i++;
+        }
+        skipLineFeed = false;
+        int lineStart = i;
+        while (i < end) {
+            char c = chars.get(i);
+            if (c == '\n' || c == '\r') {
+                chars.position(lineStart);
+                chars.limit(i);
+                handler.frame(type, chars);
+                chars.limit(end);
+                i++;
+                if (c == '\r') {
+                    if (i == end) {
+                        skipLineFeed = true;
+                    } else if (chars.get(i) == '\n') {
+                        i++;
+                    }
+                }
+                lineStart = i;
+            } else {
+                i++;
+            }
+        }
+        chars.limit(end);
+        chars.position(lineStart);
+        return skipLineFeed;
+    }
+
+    private void ensureByteCapacity(int size) {
+        if (bytes.length < size) {
+            bytes = new byte[Math.max(size, bytes.length * 2)];
+        }
+    }
+}
@@ -16,7 +16,14 @@ package io.fabric8.maven.docker.assembly;/*
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,6 +37,7 @@ public class AssemblyFiles {
 
     private final File assemblyDirectory;
     private List<Entry> entries = new ArrayList<>();
+    private boolean hashContent;
 
     /**
      * Create a collection of assembly files
@@ -55,18 +63,97 @@ public class AssemblyFiles {
      * which is newer than the last time check. ATTENTION: As a side effect this method also
      * updates the timestamp of entries.
      *
+     * Entries watched by an {@link AssemblyFilesWatcher} are not checked on the file system but
+     * are updated when a file event has been received for them.
+     *
      * @return list of all entries which has been updated since the last call to this method or an empty list
      */
-    public List<Entry> getUpdatedEntriesAndRefresh() {
+    public synchronized List<Entry> getUpdatedEntriesAndRefresh() {
+        List<Entry> ret = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.refresh(hashContent) && !entry.isDeleted()) {
+                ret.add(entry);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get the list of all updated entries as {@link #getUpdatedEntriesAndRefresh()} does, together with
+     * all entries whose source file has been deleted since the last check, which are marked as
+     * {@link Entry#isDeleted() deleted}.
+     *
+     * @return list of all entries which have been updated or deleted since the last check or an empty list
+     */
+    public synchronized List<Entry> getChangedEntriesAndRefresh() {
         List<Entry> ret = new ArrayList<>();
         for (Entry entry : entries) {
-            if (entry.isUpdated()) {
+            if (entry.refresh(hashContent)) {
                 ret.add(entry);
             }
         }
         return ret;
     }
 
+    /**
+     * Get the path of an entry's destination relative to the assembly directory, as used in archives
+     *
+     * @param entry entry of this collection
+     * @return relative path with <code>/</code> as separator
+     * @throws IOException if the canonical paths cannot be determined
+     */
+    public String getRelativePath(Entry entry) throws IOException {
+        return assemblyDirectory.getCanonicalFile().toPath()
+                                .relativize(entry.getDestFile().getCanonicalFile().toPath())
+                                .toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Compare the content of files whose modification time changed, so that e.g. a file which is rewritten
+     * with the same content is not updated. The content of all files is hashed once when this is enabled,
+     * afterwards only files whose modification time changed or for which a file event was received are hashed.
+     */
+    public synchronized void enableContentHashing() {
+        if (!hashContent) {
+            hashContent = true;
+            for (Entry entry : entries) {
+                entry.refreshHash();
+            }
+        }
+    }
+
+    /**
+     * Mark entries whose source files are watched for file events, so that they are not polled anymore.
+     *
+     * @param watchedEntries entries to mark
+     * @param watched whether the entries are watched or must be polled again
+     */
+    synchronized void setWatched(Collection<Entry> watchedEntries, boolean watched) {
+        for (Entry entry : watchedEntries) {
+            entry.watched = watched;
+        }
+    }
+
+    /**
+     * Mark entries as changed, because a file event has been received for their source files
+     *
+     * @param changedEntries entries to mark
+     */
+    synchronized void markChanged(Collection<Entry> changedEntries) {
+        for (Entry entry : changedEntries) {
+            entry.changed = true;
+        }
+    }
+
+    /**
+     * Get all entries
+     *
+     * @return unmodifiable list of entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
     /**
      * Returns true if there are no entries
      */
@@ -89,6 +176,14 @@ public class AssemblyFiles {
     public static class Entry {
 
         private long lastModified;
+        // Set by the AssemblyFilesWatcher
+        private boolean watched;
+        private boolean changed;
+        // Size and content hash of the source file, only when content hashing is enabled
+        private long size;
+        private byte[] hash;
+        // Source file missing at the last check
+        private volatile boolean deleted;
         private File srcFile;
         private File destFile;
 
@@ -118,14 +213,72 @@ public class AssemblyFiles {
             return destFile;
         }
 
-        boolean isUpdated() {
-            if (srcFile.lastModified() > lastModified) {
-                // Update last modified as a side effect
-                lastModified = srcFile.lastModified();
+        /**
+         * Whether the source file was missing when the entry has been checked for changes the last time
+         *
+         * @return true if deleted
+         */
+        public boolean isDeleted() {
+            return deleted;
+        }
+
+        /**
+         * @return modification time of the source file when it has been checked for changes the last time
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        // Whether the entry has been updated or deleted since the last check
+        boolean refresh(boolean hashContent) {
+            if (watched && !changed) {
+                return false;
+            }
+            changed = false;
+            long modified = srcFile.lastModified();
+            if (modified == 0 && !srcFile.exists()) {
+                if (deleted) {
+                    return false;
+                }
+                deleted = true;
+                lastModified = 0;
+                hash = null;
                 return true;
-            } else {
+            }
+            // Files changed according to a file event are updated, even when within the resolution of the
+            // modification time. Recreated files are always updated
+            boolean updated = watched || deleted || modified > lastModified;
+            deleted = false;
+            if (!updated) {
                 return false;
             }
+            // Update last modified as a side effect
+            lastModified = modified;
+            return !hashContent || isContentChanged();
+        }
+
+        private boolean isContentChanged() {
+            long oldSize = size;
+            byte[] oldHash = hash;
+            refreshHash();
+            return oldHash == null || hash == null || oldSize != size || !MessageDigest.isEqual(oldHash, hash);
+        }
+
+        private void refreshHash() {
+            size = srcFile.length();
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[8192];
+                try (InputStream in = Files.newInputStream(srcFile.toPath())) {
+                    for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                hash = digest.digest();
+            } catch (IOException | NoSuchAlgorithmException exp) {
+                // Treated as changed
+                hash = null;
+            }
         }
     }
 }
@@ -0,0 +1,257 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Watches the source files of {@link AssemblyFiles} with the file events of the file system, so that
+ * <code>docker:watch</code> doesn't need to check the modification time of every file in every interval.
+ * Events are collected until no further event arrived for a short quiet period and are then marked as one
+ * change set per assembly. Files on file systems without native file events (e.g. where the JDK only polls)
+ * or in directories which can't be watched (e.g. when the number of inotify watches is exhausted) are
+ * polled as before.
+ *
+ * @since 0.50
+ */
+public class AssemblyFilesWatcher implements Closeable {
+
+    // Events are coalesced until no further event arrived for this period (ms) ...
+    static final long QUIET_PERIOD = 100;
+    // ... but for not longer than this period (ms) when files are changed continuously
+    static final long MAX_DELAY = 1000;
+
+    private final Logger log;
+    private final ExecutorService executor;
+
+    // Watch service per file system, null if the file system has no native file events
+    private final Map<FileSystem, WatchService> watchServices = new HashMap<>();
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+    private final Map<Path, List<Registration>> registrations = new ConcurrentHashMap<>();
+    private final Map<AssemblyFiles, Runnable> listeners = new ConcurrentHashMap<>();
+
+    private boolean pollingWarned;
+    private volatile boolean closed;
+
+    /**
+     * Create a watcher. The watcher must be closed for stopping to watch files.
+     *
+     * @param log logger
+     */
+    public AssemblyFilesWatcher(Logger log) {
+        this.log = log;
+        this.executor = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("docker-watch-events-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Watch the source files of an assembly. Entries which can't be watched are still polled by
+     * {@link AssemblyFiles#getUpdatedEntriesAndRefresh()}.
+     *
+     * @param files assembly files to watch
+     * @param listener called after changes have been marked on the assembly files, from a background thread
+     * @return number of entries which are watched
+     */
+    public synchronized int register(AssemblyFiles files, Runnable listener) {
+        Map<Path, Map<Path, List<AssemblyFiles.Entry>>> entriesByDirectory = new LinkedHashMap<>();
+        for (AssemblyFiles.Entry entry : files.getEntries()) {
+            Path file = entry.getSrcFile().toPath().toAbsolutePath().normalize();
+            if (file.getParent() != null) {
+                entriesByDirectory.computeIfAbsent(file.getParent(), k -> new HashMap<>())
+                                  .computeIfAbsent(file, k -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        listeners.put(files, listener);
+        int watched = 0;
+        for (Map.Entry<Path, Map<Path, List<AssemblyFiles.Entry>>> directory : entriesByDirectory.entrySet()) {
+            if (watch(directory.getKey())) {
+                Registration registration = new Registration(files, directory.getValue());
+                registrations.computeIfAbsent(directory.getKey(), k -> new CopyOnWriteArrayList<>()).add(registration);
+                files.setWatched(registration.getEntries(), true);
+                watched += registration.getEntries().size();
+            }
+        }
+        return watched;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (WatchService watchService : watchServices.values()) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException exp) {
+                    log.debug("Cannot close file watcher: %s", exp.getMessage());
+                }
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private boolean watch(Path directory) {
+        if (keys.containsKey(directory)) {
+            return true;
+        }
+        WatchService watchService = getWatchService(directory.getFileSystem());
+        if (watchService == null) {
+            return false;
+        }
+        try {
+            keys.put(directory, directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                                   StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE));
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException exp) {
+            if (!pollingWarned) {
+                log.warn("Cannot watch %s for file events (%s), polling for changes instead", directory, exp.getMessage());
+                pollingWarned = true;
+            } else {
+                log.debug("Cannot watch %s for file events (%s)", directory, exp.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private WatchService getWatchService(FileSystem fileSystem) {
+        if (watchServices.containsKey(fileSystem)) {
+            return watchServices.get(fileSystem);
+        }
+        WatchService watchService = null;
+        try {
+            watchService = fileSystem.newWatchService();
+            if (watchService.getClass().getName().endsWith("PollingWatchService")) {
+                // The JDK's fallback checks only every few seconds, so polling ourselves is faster
+                watchService.close();
+                watchService = null;
+                log.info("No native file events available, polling for changes");
+            }
+        } catch (IOException | UnsupportedOperationException exp) {
+            log.info("No file events available (%s), polling for changes", exp.getMessage());
+            watchService = null;
+        }
+        if (watchService != null) {
+            WatchService eventSource = watchService;
+            executor.execute(() -> processEvents(eventSource));
+        }
+        watchServices.put(fileSystem, watchService);
+        return watchService;
+    }
+
+    private void processEvents(WatchService watchService) {
+        Map<AssemblyFiles, Set<AssemblyFiles.Entry>> pending = new LinkedHashMap<>();
+        long firstPending = 0;
+        try {
+            while (!closed) {
+                WatchKey key;
+                if (pending.isEmpty()) {
+                    key = watchService.take();
+                    firstPending = System.currentTimeMillis();
+                } else {
+                    long wait = Math.min(QUIET_PERIOD, firstPending + MAX_DELAY - System.currentTimeMillis());
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.MILLISECONDS) : null;
+                }
+                if (key != null) {
+                    collectChanges(key, pending);
+                } else {
+                    publishChanges(pending);
+                }
+            }
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException exp) {
+            // Watcher has been closed
+        }
+    }
+
+    private void collectChanges(WatchKey key, Map<AssemblyFiles, Set<AssemblyFiles.Entry>> pending) {
+        Path directory = (Path) key.watchable();
+        List<Registration> directoryRegistrations = registrations.getOrDefault(directory, Collections.emptyList());
+        for (WatchEvent<?> event : key.pollEvents()) {
+            for (Registration registration : directoryRegistrations) {
+                List<AssemblyFiles.Entry> changed = event.kind() == StandardWatchEventKinds.OVERFLOW ?
+                    registration.getEntries() :
+                    registration.getEntries(directory.resolve((Path) event.context()));
+                if (!changed.isEmpty()) {
+                    pending.computeIfAbsent(registration.getFiles(), k -> new LinkedHashSet<>()).addAll(changed);
+                }
+            }
+        }
+        if (!key.reset()) {
+            // Directory is gone, e.g. after a "mvn clean". Its files are polled from now on, so that they are
+            // picked up again when the directory is recreated
+            synchronized (this) {
+                keys.remove(directory);
+            }
+            List<Registration> removed = registrations.remove(directory);
+            if (removed != null) {
+                for (Registration registration : removed) {
+                    registration.getFiles().setWatched(registration.getEntries(), false);
+                }
+            }
+        }
+    }
+
+    private void publishChanges(Map<AssemblyFiles, Set<AssemblyFiles.Entry>> pending) {
+        for (Map.Entry<AssemblyFiles, Set<AssemblyFiles.Entry>> changes : pending.entrySet()) {
+            changes.getKey().markChanged(changes.getValue());
+            Runnable listener = listeners.get(changes.getKey());
+            if (listener != null) {
+                try {
+                    listener.run();
+                } catch (RuntimeException exp) {
+                    log.debug("Cannot notify about changed files: %s", exp.getMessage());
+                }
+            }
+        }
+        pending.clear();
+    }
+
+    // Entries of an assembly within a single watched directory
+    private static class Registration {
+        private final AssemblyFiles files;
+        private final Map<Path, List<AssemblyFiles.Entry>> entriesByFile;
+        private final List<AssemblyFiles.Entry> entries = new ArrayList<>();
+
+        Registration(AssemblyFiles files, Map<Path, List<AssemblyFiles.Entry>> entriesByFile) {
+            this.files = files;
+            this.entriesByFile = entriesByFile;
+            entriesByFile.values().forEach(entries::addAll);
+        }
+
+        AssemblyFiles getFiles() {
+            return files;
+        }
+
+        List<AssemblyFiles.Entry> getEntries() {
+            return entries;
+        }
+
+        List<AssemblyFiles.Entry> getEntries(Path file) {
+            return entriesByFile.getOrDefault(file, Collections.emptyList());
+        }
+    }
+}
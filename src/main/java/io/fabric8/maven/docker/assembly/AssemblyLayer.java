@@ -0,0 +1,46 @@
+package io.fabric8.maven.docker.assembly;
+
+/**
+ * Layers of an assembly with mode "layered", ordered from the least to the most frequently changing one.
+ * Each layer is added to the image with an own <code>COPY</code>, so that a change of the application
+ * doesn't change the layers of the dependencies.
+ *
+ * @since 0.50
+ */
+enum AssemblyLayer {
+
+    /**
+     * Dependencies with a release version
+     */
+    DEPENDENCIES("dependencies"),
+
+    /**
+     * Dependencies with a snapshot version
+     */
+    SNAPSHOT_DEPENDENCIES("snapshot-dependencies"),
+
+    /**
+     * All other files, e.g. resources and configuration
+     */
+    RESOURCES("resources"),
+
+    /**
+     * Compiled classes and artifacts of the project
+     */
+    APPLICATION("application");
+
+    private final String directory;
+
+    AssemblyLayer(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the directory holding the files of this layer within the assembly directory of the build archive
+     *
+     * @return directory name
+     */
+    String getDirectory() {
+        return directory;
+    }
+}
@@ -5,17 +5,22 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import io.fabric8.maven.docker.access.StreamingArchive;
 import io.fabric8.maven.docker.config.ArchiveCompression;
 import io.fabric8.maven.docker.config.Arguments;
 import io.fabric8.maven.docker.config.AssemblyConfiguration;
 import io.fabric8.maven.docker.config.AssemblyMode;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
+import io.fabric8.maven.docker.util.DockerFileModel;
 import io.fabric8.maven.docker.util.DockerFileUtil;
 import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.Logger;
@@ -146,15 +151,65 @@ public class DockerAssemblyManager {
      */
     public File createDockerTarArchive(String imageName, final MojoParameters params, final BuildImageConfiguration buildConfig, Logger log, ArchiverCustomizer finalCustomizer)
             throws MojoExecutionException {
+        final BuildDirs buildDirs = createBuildDirs(imageName, params);
+        List<ArchiverCustomizer> archiveCustomizers = prepareBuildContext(buildDirs, params, buildConfig, log, finalCustomizer);
+        return createBuildTarBall(buildDirs, archiveCustomizers, buildConfig.getAllAssemblyConfigurations(), buildConfig.getCompression());
+    }
 
+    /**
+     * Create a docker tar archive from the given configuration which is not stored on disk but written
+     * directly to a stream, e.g. the request body when sending it to the Docker host. The assemblies and the
+     * Dockerfile are prepared when calling this method, the final tar archive is created only when writing the
+     * returned archive.
+     *
+     * @param imageName Name of the image to create (used for creating build directories)
+     * @param params Mojos parameters (used for finding the directories)
+     * @param buildConfig configuration for how to build the image
+     * @param log Logger used to display warning if permissions are to be normalized
+     * @return archive which can be written once
+     * @throws MojoExecutionException
+     */
+    public StreamingArchive createDockerTarArchiveStream(String imageName, final MojoParameters params, final BuildImageConfiguration buildConfig, Logger log)
+            throws MojoExecutionException {
         final BuildDirs buildDirs = createBuildDirs(imageName, params);
+        List<ArchiverCustomizer> archiveCustomizers = prepareBuildContext(buildDirs, params, buildConfig, log, null);
+        try {
+            TarArchiver archiver = createCustomizedBuildArchiver(buildDirs, archiveCustomizers, buildConfig.getAllAssemblyConfigurations(), null);
+            return new StreamingTarArchive(archiver, buildConfig.getCompression());
+        } catch (NoSuchArchiverException e) {
+            throw new MojoExecutionException("No archiver for type 'tar' found", e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot prepare build context stream for " + imageName, e);
+        }
+    }
+
+    /**
+     * Get the Dockerfile an image is built with: the interpolated Dockerfile in Dockerfile mode or the Dockerfile
+     * created from the build configuration otherwise
+     *
+     * @param params mojo params for the project
+     * @param buildConfig build configuration of the image
+     * @return content of the Dockerfile
+     * @throws IOException if the Dockerfile cannot be read
+     */
+    public String getDockerfileContent(MojoParameters params, BuildImageConfiguration buildConfig) throws IOException {
+        if (buildConfig.isDockerFileMode()) {
+            return DockerFileUtil.parse(buildConfig.getAbsoluteDockerFilePath(params), params, buildConfig.getFilter()).getContent();
+        }
+        return createDockerFileBuilder(buildConfig, buildConfig.getAllAssemblyConfigurations()).content();
+    }
+
+    // Create assemblies and the Dockerfile and return the customizers for adding them to the build archive
+    private List<ArchiverCustomizer> prepareBuildContext(final BuildDirs buildDirs, final MojoParameters params, final BuildImageConfiguration buildConfig,
+                                                         Logger log, ArchiverCustomizer finalCustomizer)
+            throws MojoExecutionException {
         final List<AssemblyConfiguration> assemblyConfigurations = buildConfig.getAllAssemblyConfigurations();
 
         final List<ArchiverCustomizer> archiveCustomizers = new ArrayList<>();
 
         // Build up assembly. In dockerfile mode this must be added explicitly in the Dockerfile with an ADD
         if (hasAssemblyConfiguration(assemblyConfigurations)) {
-            createAssemblyArchives(assemblyConfigurations, params, buildDirs);
+            archiveCustomizers.addAll(createAssemblyArchives(assemblyConfigurations, params, buildDirs, log));
         }
         try {
             if (buildConfig.isDockerFileMode()) {
@@ -165,9 +220,9 @@ public class DockerAssemblyManager {
                                                      buildConfig.getDockerFile() + "\" (resolved to \"" + dockerFile + "\") doesn't exist");
                 }
 
-                FixedStringSearchInterpolator interpolator = DockerFileUtil.createInterpolator(params, buildConfig.getFilter());
-                verifyGivenDockerfile(dockerFile, buildConfig, interpolator, log);
-                interpolateDockerfile(dockerFile, buildDirs, interpolator);
+                DockerFileModel dockerFileModel = DockerFileUtil.parse(dockerFile, params, buildConfig.getFilter());
+                verifyGivenDockerfile(dockerFile, buildConfig, dockerFileModel, log);
+                interpolateDockerfile(dockerFile, buildDirs, dockerFileModel);
                 // User dedicated Dockerfile from extra directory
                 archiveCustomizers.add(new ArchiverCustomizer() {
                     @Override
@@ -216,7 +271,7 @@ public class DockerAssemblyManager {
                 archiveCustomizers.add(finalCustomizer);
             }
 
-            return createBuildTarBall(buildDirs, archiveCustomizers, assemblyConfigurations, buildConfig.getCompression());
+            return archiveCustomizers;
 
         } catch (IOException e) {
             throw new MojoExecutionException(String.format("Cannot create %s in %s", DOCKERFILE_NAME, buildDirs.getOutputDirectory()), e);
@@ -233,23 +288,26 @@ public class DockerAssemblyManager {
         fileSet.setExcludes(excludes.toArray(new String[0]));
     }
 
-    private void interpolateDockerfile(File dockerFile, BuildDirs params, FixedStringSearchInterpolator interpolator) throws IOException {
+    private void interpolateDockerfile(File dockerFile, BuildDirs params, DockerFileModel dockerFileModel) throws IOException {
         File targetDockerfile = new File(params.getOutputDirectory(), dockerFile.getName());
-        String dockerFileInterpolated = DockerFileUtil.interpolate(dockerFile, interpolator);
         try (Writer writer = new FileWriter(targetDockerfile)) {
-            IOUtils.write(dockerFileInterpolated, writer);
+            IOUtils.write(dockerFileModel.getContent(), writer);
         }
     }
 
     // visible for testing
     void verifyGivenDockerfile(File dockerFile, BuildImageConfiguration buildConfig, FixedStringSearchInterpolator interpolator, Logger log) throws IOException {
+        verifyGivenDockerfile(dockerFile, buildConfig, DockerFileModel.parse(dockerFile, interpolator), log);
+    }
+
+    private void verifyGivenDockerfile(File dockerFile, BuildImageConfiguration buildConfig, DockerFileModel dockerFileModel, Logger log) {
         List<AssemblyConfiguration> assemblyConfigs = buildConfig.getAllAssemblyConfigurations();
         if (assemblyConfigs.isEmpty()) {
             return;
         }
 
         for (AssemblyConfiguration assemblyConfig : assemblyConfigs) {
-            verifyAssemblyReferenced(dockerFile, interpolator, log, assemblyConfig);
+            verifyAssemblyReferenced(dockerFile, dockerFileModel, log, assemblyConfig);
         }
     }
 
@@ -261,10 +319,10 @@ public class DockerAssemblyManager {
                 .orElse(null);
     }
 
-    private void verifyAssemblyReferenced(File dockerFile, FixedStringSearchInterpolator interpolator, Logger log, AssemblyConfiguration assemblyConfig) throws IOException {
+    private void verifyAssemblyReferenced(File dockerFile, DockerFileModel dockerFileModel, Logger log, AssemblyConfiguration assemblyConfig) {
         String name = assemblyConfig.getName();
         for (String keyword : new String[] { "ADD", "COPY" }) {
-            List<String[]> lines = DockerFileUtil.extractLines(dockerFile, keyword, interpolator);
+            List<String[]> lines = dockerFileModel.getLines(keyword);
             for (String[] line : lines) {
                 if (line[0].startsWith("#")) {
                     // Skip comment lines
@@ -291,8 +349,11 @@ public class DockerAssemblyManager {
     public AssemblyFiles getAssemblyFiles(@Nonnull String name, AssemblyConfiguration assemblyConfig, MojoParameters mojoParams, Logger log)
             throws InvalidAssemblerConfigurationException, ArchiveCreationException, AssemblyFormattingException, MojoExecutionException {
 
-        BuildDirs buildDirs = createBuildDirs(name, mojoParams);
+        return trackAssemblyFiles(createBuildDirs(name, mojoParams), assemblyConfig, mojoParams, log);
+    }
 
+    private AssemblyFiles trackAssemblyFiles(BuildDirs buildDirs, AssemblyConfiguration assemblyConfig, MojoParameters mojoParams, Logger log)
+            throws InvalidAssemblerConfigurationException, ArchiveCreationException, AssemblyFormattingException, MojoExecutionException {
         String assemblyName = assemblyConfig.getName();
         DockerAssemblyConfigurationSource source =
                         new DockerAssemblyConfigurationSource(mojoParams, buildDirs, assemblyConfig);
@@ -356,6 +417,32 @@ public class DockerAssemblyManager {
         }
     }
 
+    /**
+     * Create a tar archive of changed assembly files which is not stored on disk but written directly to
+     * a stream, e.g. the request body when copying the files into a container. The files are read only when
+     * the returned archive is written.
+     *
+     * @param files assembly files the entries belong to
+     * @param entries changed entries, which must not be deleted
+     * @return archive which can be written once
+     * @throws MojoExecutionException if the archive cannot be prepared
+     */
+    public StreamingArchive createChangedFilesArchiveStream(AssemblyFiles files, List<AssemblyFiles.Entry> entries)
+            throws MojoExecutionException {
+        try {
+            TarArchiver archiver = (TarArchiver) archiverManager.getArchiver(TAR_ARCHIVER_TYPE);
+            archiver.setLongfile(TarLongFileMode.posix);
+            for (AssemblyFiles.Entry entry : entries) {
+                archiver.addFile(entry.getSrcFile(), files.getRelativePath(entry));
+            }
+            return new StreamingTarArchive(archiver, ArchiveCompression.none);
+        } catch (NoSuchArchiverException e) {
+            throw new MojoExecutionException("No archiver for type 'tar' found", e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot prepare archive of changed files in " + files.getAssemblyDirectory() + ": " + e, e);
+        }
+    }
+
     private File prepareChangedFilesArchivePath(File archiveDir, File destFile, File assemblyDir) throws IOException {
         // Replace build target dir from destfile and add changed-files build dir instead
         String relativePath = PathTool.getRelativeFilePath(assemblyDir.getCanonicalPath(),destFile.getCanonicalPath());
@@ -367,12 +454,7 @@ public class DockerAssemblyManager {
                                     List<AssemblyConfiguration> assemblyConfig, ArchiveCompression compression) throws MojoExecutionException {
         File archive = new File(buildDirs.getTemporaryRootDirectory(), "docker-build." + compression.getFileSuffix());
         try {
-            TarArchiver archiver = createBuildArchiver(buildDirs.getOutputDirectory(), archive, assemblyConfig);
-            for (ArchiverCustomizer customizer : archiverCustomizers) {
-                if (customizer != null) {
-                    archiver = customizer.customize(archiver);
-                }
-            }
+            TarArchiver archiver = createCustomizedBuildArchiver(buildDirs, archiverCustomizers, assemblyConfig, archive);
             archiver.setCompression(compression.getTarCompressionMethod());
             archiver.createArchive();
             return archive;
@@ -383,37 +465,74 @@ public class DockerAssemblyManager {
         }
     }
 
+    private TarArchiver createCustomizedBuildArchiver(BuildDirs buildDirs, List<ArchiverCustomizer> archiverCustomizers,
+                                                      List<AssemblyConfiguration> assemblyConfig, File archive)
+            throws NoSuchArchiverException, IOException {
+        TarArchiver archiver = createBuildArchiver(buildDirs.getOutputDirectory(), archive, assemblyConfig);
+        for (ArchiverCustomizer customizer : archiverCustomizers) {
+            if (customizer != null) {
+                archiver = customizer.customize(archiver);
+            }
+        }
+        return archiver;
+    }
+
     private void addDockerIncludesExcludesIfPresent(DefaultFileSet fileSet, MojoParameters params) throws IOException {
         addDockerExcludes(fileSet, params);
         addDockerIncludes(fileSet);
     }
 
     private void addDockerExcludes(DefaultFileSet fileSet, MojoParameters params) throws IOException {
-        File directory = fileSet.getDirectory();
         List<String> excludes = new ArrayList<>();
         // Output directory will be always excluded
         excludes.add(params.getOutputDirectory() + "/**");
+        excludes.addAll(getDockerExcludes(fileSet.getDirectory()));
+        fileSet.setExcludes(excludes.toArray(new String[0]));
+    }
+
+    private void addDockerIncludes(DefaultFileSet fileSet) throws IOException {
+        List<String> includes = getDockerIncludes(fileSet.getDirectory());
+        if (!includes.isEmpty()) {
+            fileSet.setIncludes(includes.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Get the patterns of files excluded from a build context directory by its <code>.maven-dockerexclude</code>
+     * and <code>.maven-dockerignore</code> files
+     *
+     * @param directory build context directory
+     * @return exclude patterns, empty if the directory has no such files
+     * @throws IOException if the files cannot be read
+     */
+    public static List<String> getDockerExcludes(File directory) throws IOException {
+        List<String> excludes = new ArrayList<>();
         for (String file : new String[] { DOCKER_EXCLUDE, DOCKER_IGNORE } ) {
             File dockerIgnore = new File(directory, file);
             if (dockerIgnore.exists()) {
-                excludes.addAll(Files.readAllLines(dockerIgnore.toPath()).stream()
-                        .filter(l -> !l.startsWith("#") && !l.trim().isEmpty())
-                        .collect(Collectors.toList()));
+                excludes.addAll(readPatterns(dockerIgnore));
                 excludes.add(DOCKER_IGNORE);
             }
         }
-        fileSet.setExcludes(excludes.toArray(new String[0]));
+        return excludes;
     }
 
-    private void addDockerIncludes(DefaultFileSet fileSet) throws IOException {
-        File directory = fileSet.getDirectory();
+    /**
+     * Get the patterns of files included from a build context directory by its <code>.maven-dockerinclude</code> file
+     *
+     * @param directory build context directory
+     * @return include patterns, empty if all files are included
+     * @throws IOException if the file cannot be read
+     */
+    public static List<String> getDockerIncludes(File directory) throws IOException {
         File dockerInclude = new File(directory, DOCKER_INCLUDE);
-        if (dockerInclude.exists()) {
-            ArrayList<String> includes = new ArrayList<>(Files.readAllLines(dockerInclude.toPath()).stream()
+        return dockerInclude.exists() ? readPatterns(dockerInclude) : new ArrayList<>();
+    }
+
+    private static List<String> readPatterns(File file) throws IOException {
+        return Files.readAllLines(file.toPath()).stream()
                     .filter(l -> !l.startsWith("#") && !l.trim().isEmpty())
-                    .collect(Collectors.toList()));
-            fileSet.setIncludes(includes.toArray(new String[0]));
-        }
+                    .collect(Collectors.toList());
     }
 
     private File createChangedFilesTarBall(File archive, File archiveDir) throws MojoExecutionException {
@@ -470,6 +589,14 @@ public class DockerAssemblyManager {
         if (needsDefaultFileSet) {
             DefaultFileSet fileSet = DefaultFileSet.fileSet(outputDir);
             fileSet.setUsingDefaultExcludes(false);
+            // Files of layered assemblies are added by the LayeredAssemblyCustomizer
+            String[] layeredAssemblies = assemblyConfigs.stream()
+                .filter(assemblyConfig -> assemblyConfig != null && assemblyConfig.getMode() == AssemblyMode.layered)
+                .map(assemblyConfig -> assemblyConfig.getName() + "/**")
+                .toArray(String[]::new);
+            if (layeredAssemblies.length > 0) {
+                fileSet.setExcludes(layeredAssemblies);
+            }
             archiver.addFileSet(fileSet);
         }
 
@@ -497,7 +624,18 @@ public class DockerAssemblyManager {
         }
         if (assemblyConfigs != null && !assemblyConfigs.isEmpty() && assemblyConfigs.stream().anyMatch(Objects::nonNull)) {
             for (AssemblyConfiguration assemblyConfig : assemblyConfigs) {
-                if (assemblyConfig != null) {
+                if (assemblyConfig != null && assemblyConfig.getMode() == AssemblyMode.layered) {
+                    // One COPY per layer, the target dir is exported at most once
+                    Boolean exportTargetDir = assemblyConfig.exportTargetDir();
+                    for (AssemblyLayer layer : AssemblyLayer.values()) {
+                        builder.add(assemblyConfig.getName() + "/" + layer.getDirectory(), "", assemblyConfig.getTargetDir(),
+                                    assemblyConfig.getUser(), exportTargetDir);
+                        exportTargetDir = Boolean.FALSE;
+                    }
+                    builder.basedir(assemblyConfig.getTargetDir())
+                            .assemblyUser(assemblyConfig.getUser())
+                            .exportTargetDir(assemblyConfig.exportTargetDir());
+                } else if (assemblyConfig != null) {
                     builder.add(assemblyConfig.getName(), "", assemblyConfig.getTargetDir(), assemblyConfig.getUser(), assemblyConfig.exportTargetDir())
                             .basedir(assemblyConfig.getTargetDir())
                             .assemblyUser(assemblyConfig.getUser())
@@ -532,14 +670,25 @@ public class DockerAssemblyManager {
         return builder;
     }
 
-    private void createAssemblyArchives(List<AssemblyConfiguration> assemblyConfigurations, MojoParameters params, BuildDirs buildDirs)
+    // Create the assemblies and return the customizers adding layered assemblies to the build archive
+    private List<ArchiverCustomizer> createAssemblyArchives(List<AssemblyConfiguration> assemblyConfigurations, MojoParameters params,
+                                                            BuildDirs buildDirs, Logger log)
             throws MojoExecutionException {
-        for (AssemblyConfiguration assemblyConfig : assemblyConfigurations) {
-            createAssemblyArchive(assemblyConfig, params, buildDirs);
+        List<ArchiverCustomizer> ret = new ArrayList<>();
+        // Assemblies of images built concurrently are created one at a time, since creating an assembly
+        // temporarily sets the artifact file of the shared project
+        synchronized (assemblyArchiver) {
+            for (AssemblyConfiguration assemblyConfig : assemblyConfigurations) {
+                ArchiverCustomizer customizer = createAssemblyArchive(assemblyConfig, params, buildDirs, log);
+                if (customizer != null) {
+                    ret.add(customizer);
+                }
+            }
         }
+        return ret;
     }
 
-    private void createAssemblyArchive(AssemblyConfiguration assemblyConfig, MojoParameters params, BuildDirs buildDirs)
+    private ArchiverCustomizer createAssemblyArchive(AssemblyConfiguration assemblyConfig, MojoParameters params, BuildDirs buildDirs, Logger log)
             throws MojoExecutionException {
         DockerAssemblyConfigurationSource source = new DockerAssemblyConfigurationSource(params, buildDirs, assemblyConfig);
         Assembly assembly = getAssemblyConfig(assemblyConfig, source);
@@ -549,7 +698,14 @@ public class DockerAssemblyManager {
         try {
             originalArtifactFile = ensureThatArtifactFileIsSet(params.getProject());
             assembly.setId("docker");
-            assemblyArchiver.createArchive(assembly, assemblyConfig.getName(), buildMode.getExtension(), source, null);
+            assemblyArchiver.createArchive(assembly, assemblyConfig.getName(), prepareStaging(assemblyConfig, buildDirs), source, null);
+            if (buildMode == AssemblyMode.layered) {
+                return new LayeredAssemblyCustomizer(assemblyConfig.getName(), new File(buildDirs.getOutputDirectory(), assemblyConfig.getName()),
+                                                     getAssemblyLayers(assemblyConfig, params, buildDirs, log));
+            }
+            return null;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot prepare assembly directory for " + assemblyConfig.getName() + ": " + e.getMessage(), e);
         } catch (ArchiveCreationException | AssemblyFormattingException e) {
             String error = "Failed to create assembly for docker image " +
                            " (with mode '" + buildMode + "'): " + e.getMessage() + ".";
@@ -568,6 +724,40 @@ public class DockerAssemblyManager {
         }
     }
 
+    // Sort the assembled files into layers by the files they are created from
+    private Map<Path, AssemblyLayer> getAssemblyLayers(AssemblyConfiguration assemblyConfig, MojoParameters params, BuildDirs buildDirs, Logger log)
+            throws MojoExecutionException {
+        try {
+            return LayeredAssemblyCustomizer.getLayers(trackAssemblyFiles(buildDirs, assemblyConfig, params, log), params.getProject());
+        } catch (InvalidAssemblerConfigurationException | ArchiveCreationException | AssemblyFormattingException |
+                 IllegalArgumentException | IllegalStateException e) {
+            log.warn("Cannot sort files of assembly %s into layers, adding them as application layer: %s",
+                     assemblyConfig.getName(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // Get the format for creating the assembly. Files linked into the assembly directory are removed
+    // before copying files into it again, since copying would overwrite the linked original files.
+    private String prepareStaging(AssemblyConfiguration assemblyConfig, BuildDirs buildDirs) throws IOException {
+        AssemblyMode buildMode = assemblyConfig.getMode();
+        if (buildMode.isArchive()) {
+            return buildMode.getExtension();
+        }
+        File linkedMarker = new File(buildDirs.getTemporaryRootDirectory(), assemblyConfig.getName() + ".linked");
+        if (assemblyConfig.getStaging() == AssemblyConfiguration.StagingMode.link) {
+            if (!linkedMarker.exists()) {
+                Files.createFile(linkedMarker.toPath());
+            }
+            return LinkingDirectoryArchiver.FORMAT;
+        }
+        if (linkedMarker.exists()) {
+            FileUtils.deleteDirectory(new File(buildDirs.getOutputDirectory(), assemblyConfig.getName()));
+            FileUtils.forceDelete(linkedMarker);
+        }
+        return buildMode.getExtension();
+    }
+
     // Set an artifact file if it is missing. This workaround the issues
     // mentioned first in https://issues.apache.org/jira/browse/MASSEMBLY-94 which requires the package
     // phase to run so set the ArtifactFile. There is no good solution, so we are trying
@@ -0,0 +1,113 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.codehaus.plexus.components.io.resources.ResourceFactory;
+
+/**
+ * Adds the files of an assembly with mode "layered" to the build archive, sorted into one directory per
+ * {@link AssemblyLayer} below the assembly directory. The files themselves stay in the assembly directory,
+ * only their names in the archive contain the layer.
+ *
+ * @since 0.50
+ */
+class LayeredAssemblyCustomizer implements ArchiverCustomizer {
+
+    private final String assemblyName;
+    private final File assemblyDirectory;
+    private final Map<Path, AssemblyLayer> layers;
+
+    /**
+     * Create a customizer for an assembly
+     *
+     * @param assemblyName name of the assembly
+     * @param assemblyDirectory directory holding the assembled files
+     * @param layers layers by assembled file, files without a layer are added to {@link AssemblyLayer#APPLICATION}
+     */
+    LayeredAssemblyCustomizer(String assemblyName, File assemblyDirectory, Map<Path, AssemblyLayer> layers) {
+        this.assemblyName = assemblyName;
+        this.assemblyDirectory = assemblyDirectory;
+        this.layers = layers;
+    }
+
+    /**
+     * Sort the files of an assembly into layers
+     *
+     * @param assemblyFiles files of the assembly with the files they are created from
+     * @param project project whose dependencies and build directories are used for sorting the files
+     * @return layers by assembled file
+     */
+    static Map<Path, AssemblyLayer> getLayers(AssemblyFiles assemblyFiles, MavenProject project) {
+        Map<Path, Artifact> dependencies = new HashMap<>();
+        if (project.getArtifacts() != null) {
+            for (Artifact artifact : project.getArtifacts()) {
+                if (artifact.getFile() != null) {
+                    dependencies.put(normalize(artifact.getFile()), artifact);
+                }
+            }
+        }
+        Map<Path, AssemblyLayer> ret = new HashMap<>();
+        for (AssemblyFiles.Entry entry : assemblyFiles.getEntries()) {
+            // The first entry is the file actually added, others are e.g. the same artifact in the local repository
+            ret.putIfAbsent(normalize(entry.getDestFile()), getLayer(entry.getSrcFile(), project, dependencies));
+        }
+        return ret;
+    }
+
+    @Override
+    public TarArchiver customize(TarArchiver archiver) throws IOException {
+        for (AssemblyLayer layer : AssemblyLayer.values()) {
+            // Every layer exists, even when empty, since it is copied by the Dockerfile
+            archiver.addResource(ResourceFactory.createResource(assemblyDirectory), getLayerPath(layer),
+                                 archiver.getDefaultDirectoryMode());
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(assemblyDirectory.toPath())) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        Path base = assemblyDirectory.toPath();
+        for (Path file : files) {
+            AssemblyLayer layer = layers.getOrDefault(normalize(file.toFile()), AssemblyLayer.APPLICATION);
+            String relativePath = base.relativize(file).toString().replace(File.separatorChar, '/');
+            archiver.addFile(file.toFile(), getLayerPath(layer) + "/" + relativePath);
+        }
+        return archiver;
+    }
+
+    private String getLayerPath(AssemblyLayer layer) {
+        return assemblyName + "/" + layer.getDirectory();
+    }
+
+    private static AssemblyLayer getLayer(File source, MavenProject project, Map<Path, Artifact> dependencies) {
+        Path path = normalize(source);
+        Artifact dependency = dependencies.get(path);
+        if (dependency != null) {
+            return dependency.isSnapshot() ? AssemblyLayer.SNAPSHOT_DEPENDENCIES : AssemblyLayer.DEPENDENCIES;
+        }
+        Build build = project.getBuild();
+        if (build != null && build.getOutputDirectory() != null && path.startsWith(normalize(new File(build.getOutputDirectory())))) {
+            return source.getName().endsWith(".class") ? AssemblyLayer.APPLICATION : AssemblyLayer.RESOURCES;
+        }
+        if (build != null && build.getDirectory() != null && path.startsWith(normalize(new File(build.getDirectory())))) {
+            // e.g. the project's artifact
+            return AssemblyLayer.APPLICATION;
+        }
+        return AssemblyLayer.RESOURCES;
+    }
+
+    private static Path normalize(File file) {
+        return file.getAbsoluteFile().toPath().normalize();
+    }
+}
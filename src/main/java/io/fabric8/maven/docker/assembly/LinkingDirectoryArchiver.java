@@ -0,0 +1,137 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+
+import org.codehaus.plexus.archiver.ArchiveEntry;
+import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.archiver.FileSet;
+import org.codehaus.plexus.archiver.dir.DirectoryArchiver;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
+import org.codehaus.plexus.components.io.attributes.PlexusIoResourceAttributes;
+import org.codehaus.plexus.components.io.functions.InputStreamTransformer;
+import org.codehaus.plexus.components.io.resources.PlexusIoFileResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+
+/**
+ * Directory archiver which hard links files into the assembly directory instead of copying them, so that e.g.
+ * the dependencies of an image are neither copied from the local repository nor read twice when the build
+ * archive is created. Files which can't be linked are copied as before: files on another file system than the
+ * assembly directory, files of file sets with filtering or line ending conversion, files added as resources
+ * (like the assembly's single files) whose transformation is not known, and files whose permissions or
+ * modification time would differ from the original file, since changing them on a link would change the original file.
+ *
+ * @since 0.50
+ */
+@Named(LinkingDirectoryArchiver.FORMAT)
+public class LinkingDirectoryArchiver extends DirectoryArchiver {
+
+    /**
+     * Format to use for creating an assembly with this archiver
+     */
+    public static final String FORMAT = "dirlink";
+
+    // Resources whose content may differ from their file, since a transformation was configured for them
+    private final Set<PlexusIoResource> transformedResources = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private long filesLinked;
+
+    @Override
+    public void execute() throws ArchiverException, IOException {
+        super.execute();
+        if (filesLinked > 0) {
+            getLogger().info("{} files linked to {}", filesLinked, getDestFile().getAbsolutePath());
+        }
+        filesLinked = 0;
+        transformedResources.clear();
+    }
+
+    @Override
+    public void addFileSet(@Nonnull FileSet fileSet) throws ArchiverException {
+        InputStreamTransformer transformer = fileSet.getStreamTransformer();
+        if (transformer == null) {
+            super.addFileSet(fileSet);
+            return;
+        }
+        // Remember the resources of the file set, plexus-io transforms them when creating them
+        DefaultFileSet transformedFileSet = new DefaultFileSet(fileSet.getDirectory());
+        transformedFileSet.setCaseSensitive(fileSet.isCaseSensitive());
+        transformedFileSet.setExcludes(fileSet.getExcludes());
+        transformedFileSet.setFileMappers(fileSet.getFileMappers());
+        transformedFileSet.setFileSelectors(fileSet.getFileSelectors());
+        transformedFileSet.setIncludes(fileSet.getIncludes());
+        transformedFileSet.setIncludingEmptyDirectories(fileSet.isIncludingEmptyDirectories());
+        transformedFileSet.setPrefix(fileSet.getPrefix());
+        transformedFileSet.setUsingDefaultExcludes(fileSet.isUsingDefaultExcludes());
+        transformedFileSet.setStreamTransformer((resource, in) -> {
+            transformedResources.add(resource);
+            return transformer.transform(resource, in);
+        });
+        super.addFileSet(transformedFileSet);
+    }
+
+    @Override
+    public void addResource(PlexusIoResource resource, String destFileName, int permissions) throws ArchiverException {
+        // Created by the caller, possibly with a transformation
+        transformedResources.add(resource);
+        super.addResource(resource, destFileName, permissions);
+    }
+
+    @Override
+    protected void copyFile(ArchiveEntry entry, String vPath) throws ArchiverException, IOException {
+        if (vPath.isEmpty() || entry.getResource().isDirectory()) {
+            super.copyFile(entry, vPath);
+            return;
+        }
+        Path target = new File(vPath).toPath();
+        File source = getLinkableSource(entry);
+        if (source != null && link(source.toPath(), target)) {
+            filesLinked++;
+            return;
+        }
+        // Never copy into a link created by an earlier build, since this would overwrite the original file
+        Files.deleteIfExists(target);
+        super.copyFile(entry, vPath);
+    }
+
+    private boolean link(Path source, Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            return true;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Files.deleteIfExists(target);
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException exp) {
+            // e.g. source and assembly directory on different file systems
+            return false;
+        }
+    }
+
+    // The original file if the entry is the unchanged content of a file, null otherwise
+    private File getLinkableSource(ArchiveEntry entry) {
+        PlexusIoResource resource = entry.getResource();
+        if (resource == null || resource.getClass() != PlexusIoFileResource.class || resource.isSymbolicLink() ||
+            !resource.isFile() || transformedResources.contains(resource) || getLastModifiedTime() != null) {
+            return null;
+        }
+        if (!isIgnorePermissions()) {
+            PlexusIoResourceAttributes attributes = entry.getResourceAttributes();
+            int permissionMask = 07777;
+            if (attributes == null || attributes.getOctalMode() == PlexusIoResourceAttributes.UNKNOWN_OCTAL_MODE ||
+                (attributes.getOctalMode() & permissionMask) != (entry.getMode() & permissionMask)) {
+                return null;
+            }
+        }
+        return ((PlexusIoFileResource) resource).getFile();
+    }
+}
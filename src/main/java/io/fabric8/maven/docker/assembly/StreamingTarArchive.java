@@ -0,0 +1,117 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import io.fabric8.maven.docker.access.StreamingArchive;
+import io.fabric8.maven.docker.config.ArchiveCompression;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.ArchiveEntry;
+import org.codehaus.plexus.archiver.ResourceIterator;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.codehaus.plexus.components.io.attributes.PlexusIoResourceAttributes;
+import org.codehaus.plexus.components.io.functions.SymlinkDestinationSupplier;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+
+/**
+ * Writes the entries collected by a {@link TarArchiver} as tar stream instead of creating the
+ * tar file on disk. Entries are written the same way as {@link TarArchiver} does in posix long file
+ * mode, so the result is the same as the archive created by the archiver.
+ *
+ * @since 0.50
+ */
+class StreamingTarArchive implements StreamingArchive {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final TarArchiver archiver;
+    private final ArchiveCompression compression;
+
+    StreamingTarArchive(TarArchiver archiver, ArchiveCompression compression) {
+        this.archiver = archiver;
+        this.compression = compression;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (TarArchiveOutputStream tOut =
+                 new TarArchiveOutputStream(compression.wrapOutputStream(new NonClosingOutputStream(out)), "UTF8")) {
+            tOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tOut.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ResourceIterator resources = archiver.getResources();
+            while (resources.hasNext()) {
+                ArchiveEntry entry = resources.next();
+                addEntry(tOut, entry, entry.getName().replace(File.separatorChar, '/'), buffer);
+            }
+        }
+    }
+
+    private void addEntry(TarArchiveOutputStream tOut, ArchiveEntry entry, String path, byte[] buffer) throws IOException {
+        PlexusIoResource resource = entry.getResource();
+        if (resource.isDirectory() && !path.endsWith("/")) {
+            path += "/";
+        }
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        if (path.isEmpty()) {
+            return;
+        }
+
+        boolean symlink = entry.getType() == ArchiveEntry.SYMLINK;
+        TarArchiveEntry te;
+        if (symlink) {
+            te = new TarArchiveEntry(path, TarConstants.LF_SYMLINK);
+            te.setLinkName(((SymlinkDestinationSupplier) resource).getSymlinkDestination());
+        } else {
+            te = new TarArchiveEntry(path);
+            if (!resource.isDirectory()) {
+                long size = resource.getSize();
+                te.setSize(size == PlexusIoResource.UNKNOWN_RESOURCE_SIZE ? 0 : size);
+            }
+        }
+        long lastModified = resource.getLastModified();
+        te.setModTime(lastModified == PlexusIoResource.UNKNOWN_MODIFICATION_DATE ? System.currentTimeMillis() : lastModified);
+        te.setMode(entry.getMode());
+
+        PlexusIoResourceAttributes attributes = entry.getResourceAttributes();
+        te.setUserName(attributes != null && attributes.getUserName() != null ? attributes.getUserName() : "");
+        te.setGroupName(attributes != null && attributes.getGroupName() != null ? attributes.getGroupName() : "");
+        te.setUserId(attributes != null && attributes.getUserId() != null ? attributes.getUserId() : 0);
+        te.setGroupId(attributes != null && attributes.getGroupId() != null ? attributes.getGroupId() : 0);
+
+        tOut.putArchiveEntry(te);
+        if (resource.isFile() && !symlink) {
+            try (InputStream in = entry.getInputStream()) {
+                IOUtils.copyLarge(in, tOut, buffer);
+            }
+        }
+        tOut.closeArchiveEntry();
+    }
+
+    // The request stream is completed by the HTTP client, so closing the archive must only flush it
+    private static class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -19,6 +19,8 @@ package io.fabric8.maven.docker.config;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import com.github.luben.zstd.ZstdOutputStream;
+import io.fabric8.maven.docker.util.ParallelGzipOutputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.codehaus.plexus.archiver.tar.TarArchiver;
 import org.codehaus.plexus.archiver.tar.TarUnArchiver;
@@ -36,15 +38,32 @@ public enum ArchiveCompression {
 
     gzip(TarArchiver.TarCompressionMethod.gzip, TarUnArchiver.UntarCompressionMethod.GZIP, "tar.gz") {
         @Override
-        public OutputStream wrapOutputStream(OutputStream out) throws IOException {
-            return new GZIPOutputStream(out);
+        public OutputStream wrapOutputStream(OutputStream out, CompressionOptions options) throws IOException {
+            int level = options.getLevel(GZIP_COMPRESSION_LEVEL);
+            int threads = options.getThreads();
+            return threads > 1 ?
+                new ParallelGzipOutputStream(out, level, threads) :
+                new GZIPOutputStream(out, level);
         }
     },
 
     bzip2(TarArchiver.TarCompressionMethod.bzip2, TarUnArchiver.UntarCompressionMethod.BZIP2, "tar.bz") {
         @Override
-        public OutputStream wrapOutputStream(OutputStream out) throws IOException {
-            return new BZip2CompressorOutputStream(out);
+        public OutputStream wrapOutputStream(OutputStream out, CompressionOptions options) throws IOException {
+            // The level of bzip2 is its block size, there is no multi threaded implementation
+            return new BZip2CompressorOutputStream(out, options.getLevel(BZip2CompressorOutputStream.MAX_BLOCKSIZE));
+        }
+    },
+
+    zstd(TarArchiver.TarCompressionMethod.zstd, TarUnArchiver.UntarCompressionMethod.ZSTD, "tar.zst") {
+        @Override
+        public OutputStream wrapOutputStream(OutputStream out, CompressionOptions options) throws IOException {
+            ZstdOutputStream zstdOut = new ZstdOutputStream(out, options.getLevel(ZSTD_COMPRESSION_LEVEL));
+            int threads = options.getThreads();
+            if (threads > 1) {
+                zstdOut.setWorkers(threads);
+            }
+            return zstdOut;
         }
     };
 
@@ -72,6 +91,18 @@ public enum ArchiveCompression {
     }
 
     public OutputStream wrapOutputStream(OutputStream outputStream) throws IOException {
+        return wrapOutputStream(outputStream, CompressionOptions.DEFAULT);
+    }
+
+    /**
+     * Wrap the given stream so that everything written gets compressed
+     *
+     * @param outputStream stream to wrap
+     * @param options level and number of threads to use
+     * @return the compressing stream
+     * @throws IOException if the compressing stream can't be created
+     */
+    public OutputStream wrapOutputStream(OutputStream outputStream, CompressionOptions options) throws IOException {
         return outputStream;
     }
 
@@ -83,17 +114,23 @@ public enum ArchiveCompression {
         if (filename.endsWith(".tar.bz") || filename.endsWith(".tar.bzip2") || filename.endsWith(".tar.bz2")) {
             return ArchiveCompression.bzip2;
         }
+
+        if (filename.endsWith(".tar.zst") || filename.endsWith(".tzst")) {
+            return ArchiveCompression.zstd;
+        }
         return ArchiveCompression.none;
     }
 
     private static final int GZIP_BUFFER_SIZE = 65536;
     // According to https://bugs.openjdk.java.net/browse/JDK-8142920, 3 is a better default
     private static final int GZIP_COMPRESSION_LEVEL = 3;
+    // Default level of the zstd command line tool
+    private static final int ZSTD_COMPRESSION_LEVEL = 3;
 
     private static class GZIPOutputStream extends java.util.zip.GZIPOutputStream {
-        private GZIPOutputStream(OutputStream out) throws IOException {
+        private GZIPOutputStream(OutputStream out, int level) throws IOException {
             super(out, GZIP_BUFFER_SIZE);
-            def.setLevel(GZIP_COMPRESSION_LEVEL);
+            def.setLevel(level);
         }
     }
 }
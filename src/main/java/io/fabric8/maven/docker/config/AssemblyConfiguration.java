@@ -76,6 +76,12 @@ public class AssemblyConfiguration implements Serializable {
     @Parameter
     private String tarLongFileMode;
 
+    /**
+     * How files are put into the build directory with a mode "dir"
+     */
+    @Parameter
+    private StagingMode staging;
+
     public Boolean getExportTargetDir() {
         return exportTargetDir;
     }
@@ -137,6 +143,14 @@ public class AssemblyConfiguration implements Serializable {
         return tarLongFileMode;
     }
 
+    public StagingMode getStaging() {
+        return staging != null ? staging : StagingMode.copy;
+    }
+
+    public String getStagingRaw() {
+        return staging != null ? staging.name() : null;
+    }
+
     public Boolean isIgnorePermissions() {
         // New permission mode has precedence
         if (permissions != null) {
@@ -232,6 +246,14 @@ public class AssemblyConfiguration implements Serializable {
             return this;
         }
 
+        public Builder staging(String staging) {
+            if (staging != null) {
+                config.staging = StagingMode.valueOf(staging.toLowerCase());
+                isEmpty = false;
+            }
+            return this;
+        }
+
          private <T> T set(T prop) {
             if (prop != null) {
                 isEmpty = false;
@@ -262,4 +284,17 @@ public class AssemblyConfiguration implements Serializable {
          */
         ignore
     }
+
+    public enum StagingMode {
+
+        /**
+         * Copy all files into the build directory
+         */
+        copy,
+
+        /**
+         * Hard link files into the build directory, falling back to copying files which can't be linked
+         */
+        link
+    }
 }
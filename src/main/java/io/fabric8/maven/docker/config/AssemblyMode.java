@@ -28,6 +28,12 @@ public enum AssemblyMode {
      */
     dir("dir",false),
 
+    /**
+     * Copy files directly in the directory, but add them to the image in separate layers for
+     * release dependencies, snapshot dependencies, resources and the application itself
+     */
+    layered("dir",false),
+
     /**
      * Use a ZIP container as intermediate format
      */
@@ -0,0 +1,52 @@
+package io.fabric8.maven.docker.config;
+
+/**
+ * Tuning options used when compressing archives with an {@link ArchiveCompression}.
+ *
+ * @since 0.50
+ */
+public class CompressionOptions {
+
+    /**
+     * Default level of each compression and as many threads as processors are available
+     */
+    public static final CompressionOptions DEFAULT = new CompressionOptions(null, 0);
+
+    private final Integer level;
+    private final int threads;
+
+    /**
+     * Create compression options
+     *
+     * @param level compression level or <code>null</code> for the default level of the compression method
+     * @param threads number of threads to use for compression, 0 or less for using all available processors
+     */
+    public CompressionOptions(Integer level, int threads) {
+        this.level = level;
+        this.threads = threads;
+    }
+
+    /**
+     * Get the configured compression level
+     *
+     * @param defaultLevel level to use if none is configured
+     * @return the level to use
+     */
+    public int getLevel(int defaultLevel) {
+        return level != null ? level : defaultLevel;
+    }
+
+    /**
+     * Get the number of threads to compress with
+     *
+     * @return number of threads, always at least 1
+     */
+    public int getThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public String toString() {
+        return "CompressionOptions{level=" + level + ", threads=" + threads + "}";
+    }
+}
@@ -38,6 +38,7 @@ public enum ConfigKey {
     ASSEMBLY_USER("assembly.user"),
     ASSEMBLY_MODE("assembly.mode"),
     ASSEMBLY_TARLONGFILEMODE("assembly.tarLongFileMode"),
+    ASSEMBLY_STAGING("assembly.staging"),
     AUTO_REMOVE,
     BIND,
     BUILD_OPTIONS,
@@ -306,7 +306,8 @@ public class PropertyConfigHandler implements ExternalConfigHandler {
             .user(valueProvider.getString(ASSEMBLY_USER, config.getUser()))
             .mode(valueProvider.getString(ASSEMBLY_MODE, config.getModeRaw()))
             .assemblyDef(config.getInline())
-            .tarLongFileMode(valueProvider.getString(ASSEMBLY_TARLONGFILEMODE, config.getTarLongFileMode()));
+            .tarLongFileMode(valueProvider.getString(ASSEMBLY_TARLONGFILEMODE, config.getTarLongFileMode()))
+            .staging(valueProvider.getString(ASSEMBLY_STAGING, config.getStagingRaw()));
         String name = valueProvider.getString(ASSEMBLY_NAME, config.getName());
         if (name != null) {
             builder.name(name);
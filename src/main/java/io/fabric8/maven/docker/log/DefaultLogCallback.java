@@ -15,7 +15,11 @@ package io.fabric8.maven.docker.log;/*
  * limitations under the License.
  */
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.time.ZonedDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +28,10 @@ import com.google.common.io.Files;
 import io.fabric8.maven.docker.access.log.LogCallback;
 
 /**
+ * Log callback writing to stdout or a file. Entries are handed over to a {@link LogSink} which sorts them by
+ * their timestamps and writes them from a single thread, so that the output of several containers sharing a
+ * file comes out in order.
+ *
  * @author roland
  * @since 26/09/15
  */
@@ -32,10 +40,16 @@ public class DefaultLogCallback implements LogCallback {
     private static Map<String, SharedPrintStream> printStreamMap = new HashMap<>();
 
     private final LogOutputSpec outputSpec;
+    private final LogSink sink;
     private SharedPrintStream sps;
 
     public DefaultLogCallback(LogOutputSpec outputSpec) {
-        this.outputSpec = outputSpec;
+        this(outputSpec, LogSink.getDefault());
+    }
+
+    DefaultLogCallback(LogOutputSpec outputSpec, LogSink sink) {
+        this.outputSpec = outputSpec != null ? outputSpec : LogOutputSpec.DEFAULT;
+        this.sink = sink;
     }
 
     @Override
@@ -48,7 +62,8 @@ public class DefaultLogCallback implements LogCallback {
                 SharedPrintStream cachedPs = printStreamMap.get(file);
                 if (cachedPs == null) {
                     Files.createParentDirs(new File(file));
-                    PrintStream ps = new PrintStream(new FileOutputStream(file), true);
+                    // Flushed by the sink after each batch of lines
+                    PrintStream ps = new PrintStream(new BufferedOutputStream(new FileOutputStream(file), 65536), false);
                     cachedPs = new SharedPrintStream(ps);
                     printStreamMap.put(file, cachedPs);
                 } else {
@@ -62,6 +77,8 @@ public class DefaultLogCallback implements LogCallback {
     @Override
     public synchronized void close() {
         if (this.sps != null) {
+            // Write out everything this callback has logged so far before the stream gets closed
+            sink.flush();
             if (sps.close()) {
                 String file = outputSpec.getFile();
                 if (file != null) {
@@ -72,60 +89,13 @@ public class DefaultLogCallback implements LogCallback {
         }
     }
 
-    private PrintStream ps() {
-        return sps.getPrintStream();
-    }
-
     @Override
     public void log(int type, ZonedDateTime timestamp, String txt) {
-        addLogEntry(ps(), new LogEntry(type, timestamp, txt));
+        sink.log(sps, outputSpec, timestamp, txt);
     }
 
     @Override
     public void error(String error) {
-        ps().println(error);
-    }
-
-    private void addLogEntry(PrintStream ps, LogEntry logEntry) {
-        // TODO: Add the entry to a queue, and let the queue be picked up with a small delay from an extra
-        // thread which then can sort the entries by time before printing it out in order to avoid race conditions.
-
-        LogOutputSpec spec = outputSpec;
-        if (spec == null) {
-            spec = LogOutputSpec.DEFAULT;
-        }
-        String text = logEntry.getText();
-        ps.println(spec.getPrompt(spec.isUseColor(),logEntry.getTimestamp()) + text);
-    }
-
-        // A single log-entry
-    private static class LogEntry implements Comparable<LogEntry> {
-        private final int type;
-        private final ZonedDateTime timestamp;
-        private final String text;
-
-        public LogEntry(int type, ZonedDateTime timestamp, String text) {
-            this.type = type;
-            this.timestamp = timestamp;
-            this.text = text;
-        }
-
-        public int getType() {
-            return type;
-        }
-
-        public ZonedDateTime getTimestamp() {
-            return timestamp;
-        }
-
-        public String getText() {
-            return text;
-        }
-
-        @Override
-        public int compareTo(LogEntry entry) {
-            return timestamp.compareTo(entry.timestamp);
-        }
+        sink.error(sps, error);
     }
-
 }
@@ -30,7 +30,12 @@ import static org.fusesource.jansi.Ansi.ansi;
  */
 public class LogOutputSpec {
 
-    public static final LogOutputSpec DEFAULT = new LogOutputSpec("", YELLOW, false , null, null, true, true);
+    /**
+     * Default time in milliseconds for which log entries are held back for sorting them by their timestamp
+     */
+    public static final long DEFAULT_REORDER_WINDOW = 100;
+
+    public static final LogOutputSpec DEFAULT = new LogOutputSpec("", YELLOW, false , null, null, true, true, DEFAULT_REORDER_WINDOW);
 
     private final boolean useColor;
     private final boolean logStdout;
@@ -39,6 +44,7 @@ public class LogOutputSpec {
     private Ansi.Color color;
     private DateTimeFormatter timeFormatter;
     private String file;
+    private final long reorderWindow;
 
     // Palette used for prefixing the log output
     private final static Ansi.Color COLOR_PALETTE[] = {
@@ -46,7 +52,7 @@ public class LogOutputSpec {
     };
     private static int globalColorIdx = 0;
 
-    private LogOutputSpec(String prefix, Ansi.Color color, boolean fgBright, DateTimeFormatter timeFormatter, String file, boolean useColor, boolean logStdout) {
+    private LogOutputSpec(String prefix, Ansi.Color color, boolean fgBright, DateTimeFormatter timeFormatter, String file, boolean useColor, boolean logStdout, long reorderWindow) {
         this.prefix = prefix;
         this.color = color;
         this.fgBright = fgBright;
@@ -54,6 +60,7 @@ public class LogOutputSpec {
         this.file = file;
         this.useColor = useColor;
         this.logStdout = logStdout;
+        this.reorderWindow = reorderWindow;
     }
 
     public boolean isUseColor() {
@@ -72,6 +79,16 @@ public class LogOutputSpec {
         return file;
     }
 
+    /**
+     * Time in milliseconds for which log entries are held back before they are written, so that entries
+     * arriving slightly out of order get sorted by their timestamp
+     *
+     * @return reorder window in milliseconds, 0 for writing entries as soon as possible
+     */
+    public long getReorderWindow() {
+        return reorderWindow;
+    }
+
     private String formatTimestamp(ZonedDateTime timestamp, boolean withColor) {
         if (timeFormatter == null) {
             return "";
@@ -104,6 +121,7 @@ public class LogOutputSpec {
         private boolean useColor;
         private boolean logStdout;
         private boolean fgBright;
+        private long reorderWindow = DEFAULT_REORDER_WINDOW;
 
         public Builder prefix(String prefix) {
             this.prefix = prefix;
@@ -173,8 +191,13 @@ public class LogOutputSpec {
             return this;
         }
 
+        public Builder reorderWindow(long reorderWindow) {
+            this.reorderWindow = reorderWindow;
+            return this;
+        }
+
         public LogOutputSpec build() {
-            return new LogOutputSpec(prefix, color, fgBright, timeFormatter, file, useColor, logStdout);
+            return new LogOutputSpec(prefix, color, fgBright, timeFormatter, file, useColor, logStdout, reorderWindow);
         }
     }
 }
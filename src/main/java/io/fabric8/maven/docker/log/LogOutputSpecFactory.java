@@ -32,11 +32,17 @@ public class LogOutputSpecFactory {
     private boolean useColor;
     private boolean logStdout;
     private String logDate;
+    private long reorderWindow;
 
     public LogOutputSpecFactory(boolean useColor, boolean logStdout, String logDate) {
+        this(useColor, logStdout, logDate, LogOutputSpec.DEFAULT_REORDER_WINDOW);
+    }
+
+    public LogOutputSpecFactory(boolean useColor, boolean logStdout, String logDate, long reorderWindow) {
         this.useColor = useColor;
         this.logStdout = logStdout;
         this.logDate = logDate;
+        this.reorderWindow = reorderWindow;
     }
 
     // ================================================================================================
@@ -50,6 +56,7 @@ public class LogOutputSpecFactory {
         builder.file(logConfig.getFileLocation())
                .useColor(useColor)
                .logStdout(logStdout)
+               .reorderWindow(reorderWindow)
                .color(logConfig.getColor());
 
         return builder.build();
@@ -0,0 +1,310 @@
+package io.fabric8.maven.docker.log;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous sink for the output of {@link DefaultLogCallback}s. Callbacks only put their entries into a
+ * bounded, lock-free ring and return, a single writer thread does all formatting and writing.
+ * <p>
+ * The writer holds every entry back for the reorder window of its {@link LogOutputSpec} and writes entries in
+ * the order of their timestamps, so that the lines of several containers sharing a file or stdout come out
+ * sorted instead of in the order they happened to arrive. Entries without a timestamp (like errors) are sorted
+ * behind all entries received before them. All lines ready for the same stream are written as one batch
+ * followed by a single flush.
+ * <p>
+ * When the ring is full, a callback waits for the writer to make room (back-pressure) up to a maximum time,
+ * after which the entry is dropped. Both are counted and reported when the stream gets closed.
+ *
+ * @since 0.50
+ */
+class LogSink {
+
+    static final int DEFAULT_CAPACITY = 8192;
+    static final long DEFAULT_MAX_WAIT_MILLIS = 1000;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BACK_PRESSURE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+
+    private static final Comparator<Entry> TIMESTAMP_ORDER =
+        Comparator.<Entry, Instant>comparing(e -> e.sortKey).thenComparingLong(e -> e.sequence);
+
+    private static LogSink defaultSink;
+
+    private final MpscRing<Entry> ring;
+    private final long maxWaitNanos;
+    private final Thread writer;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong backPressure = new AtomicLong();
+
+    private volatile boolean writerParked;
+    private volatile boolean stopped;
+
+    // State below is only accessed by the writer thread
+    private final PriorityQueue<Entry> pending = new PriorityQueue<>(TIMESTAMP_ORDER);
+    // Keyed by the underlying stream because all callbacks logging to stdout share it with their own SharedPrintStream
+    private final Map<PrintStream, Batch> batches = new LinkedHashMap<>();
+    private final List<CountDownLatch> flushRequests = new ArrayList<>();
+    private Instant watermark = Instant.MIN;
+    private long sequence;
+
+    LogSink(int capacity, long maxWaitMillis) {
+        this.ring = new MpscRing<>(capacity);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.writer = new Thread(this::writeLoop, "docker-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Sink shared by all callbacks of this JVM. Pending entries are written when the JVM shuts down.
+     *
+     * @return the shared sink
+     */
+    static synchronized LogSink getDefault() {
+        if (defaultSink == null) {
+            LogSink sink = new LogSink(DEFAULT_CAPACITY, DEFAULT_MAX_WAIT_MILLIS);
+            Runtime.getRuntime().addShutdownHook(new Thread(sink::flush, "docker-log-writer-shutdown"));
+            defaultSink = sink;
+        }
+        return defaultSink;
+    }
+
+    /**
+     * Queue a log entry
+     *
+     * @param target stream to write to
+     * @param spec spec for formatting the entry and the reorder window
+     * @param timestamp timestamp of the entry, null if unknown
+     * @param text log line
+     */
+    void log(SharedPrintStream target, LogOutputSpec spec, ZonedDateTime timestamp, String text) {
+        if (target == null) {
+            // Callback has already been closed
+            dropped.incrementAndGet();
+            return;
+        }
+        enqueue(new Entry(target, spec, timestamp, text, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(spec.getReorderWindow())));
+    }
+
+    /**
+     * Queue an error message, which is written as it is without waiting for the reorder window
+     *
+     * @param target stream to write to
+     * @param text error message
+     */
+    void error(SharedPrintStream target, String text) {
+        if (target == null) {
+            dropped.incrementAndGet();
+            return;
+        }
+        enqueue(new Entry(target, null, null, text, System.nanoTime()));
+    }
+
+    /**
+     * Write all entries queued so far, including those still held back for sorting, and wait until they
+     * have been written
+     */
+    void flush() {
+        CountDownLatch latch = new CountDownLatch(1);
+        if (stopped || !enqueue(new Entry(latch))) {
+            return;
+        }
+        try {
+            latch.await(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Write all pending entries and stop the writer thread
+     */
+    void stop() {
+        flush();
+        stopped = true;
+        LockSupport.unpark(writer);
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getBackPressureCount() {
+        return backPressure.get();
+    }
+
+    // ========================================================================================
+    // Producer side
+
+    private boolean enqueue(Entry entry) {
+        if (ring.offer(entry)) {
+            wakeWriter();
+            return true;
+        }
+        // Flush requests are not counted as overload, they only wait longer
+        boolean flushRequest = entry.flushLatch != null;
+        if (!flushRequest) {
+            backPressure.incrementAndGet();
+            entry.target.backPressureApplied();
+        }
+        long deadline = System.nanoTime() + (flushRequest ? TimeUnit.SECONDS.toNanos(FLUSH_TIMEOUT_SECONDS) : maxWaitNanos);
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BACK_PRESSURE_PARK_NANOS);
+            if (ring.offer(entry)) {
+                wakeWriter();
+                return true;
+            }
+        } while (System.nanoTime() - deadline < 0 && !stopped);
+        if (!flushRequest) {
+            dropped.incrementAndGet();
+            entry.target.entryDropped();
+        }
+        return false;
+    }
+
+    private void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // ========================================================================================
+    // Writer side
+
+    private void writeLoop() {
+        while (!stopped) {
+            try {
+                drain();
+                release(!flushRequests.isEmpty());
+            } catch (RuntimeException exp) {
+                // Never let the writer die because of a single entry, the batches built so far are still written
+            }
+            writeBatches();
+            for (CountDownLatch latch : flushRequests) {
+                latch.countDown();
+            }
+            flushRequests.clear();
+            park();
+        }
+    }
+
+    // Move everything published in the ring into the reorder queue
+    private void drain() {
+        Entry entry;
+        while ((entry = ring.poll()) != null) {
+            if (entry.flushLatch != null) {
+                flushRequests.add(entry.flushLatch);
+                continue;
+            }
+            if (entry.timestamp != null) {
+                entry.sortKey = entry.timestamp.toInstant();
+                if (entry.sortKey.isAfter(watermark)) {
+                    watermark = entry.sortKey;
+                }
+            } else {
+                entry.sortKey = watermark;
+            }
+            entry.sequence = sequence++;
+            pending.add(entry);
+        }
+    }
+
+    // Append all entries whose reorder window has passed to the batch of their stream, in timestamp order
+    private void release(boolean all) {
+        long now = System.nanoTime();
+        Entry entry;
+        while ((entry = pending.peek()) != null && (all || entry.releaseAt - now <= 0)) {
+            pending.poll();
+            SharedPrintStream target = entry.target;
+            StringBuilder batch = batches.computeIfAbsent(target.getPrintStream(), ps -> new Batch(target)).lines;
+            if (entry.spec != null) {
+                batch.append(entry.spec.getPrompt(entry.spec.isUseColor(), entry.timestamp));
+            }
+            batch.append(entry.text).append(System.lineSeparator());
+        }
+    }
+
+    private void writeBatches() {
+        for (Batch batch : batches.values()) {
+            try {
+                if (!batch.target.write(batch.lines)) {
+                    batch.target.entryDropped();
+                }
+            } catch (RuntimeException exp) {
+                // Stream is broken, nothing we can do about it
+            }
+        }
+        batches.clear();
+    }
+
+    private void park() {
+        long parkNanos = IDLE_PARK_NANOS;
+        Entry next = pending.peek();
+        if (next != null) {
+            parkNanos = Math.max(0, Math.min(parkNanos, next.releaseAt - System.nanoTime()));
+        }
+        if (parkNanos == 0) {
+            return;
+        }
+        writerParked = true;
+        if (ring.isEmpty() && !stopped) {
+            LockSupport.parkNanos(this, parkNanos);
+        }
+        writerParked = false;
+    }
+
+    private static class Batch {
+        private final SharedPrintStream target;
+        private final StringBuilder lines = new StringBuilder();
+
+        Batch(SharedPrintStream target) {
+            this.target = target;
+        }
+    }
+
+    private static class Entry {
+        private final SharedPrintStream target;
+        private final LogOutputSpec spec;
+        private final ZonedDateTime timestamp;
+        private final String text;
+        private final long releaseAt;
+        private final CountDownLatch flushLatch;
+
+        // Assigned by the writer
+        private Instant sortKey;
+        private long sequence;
+
+        Entry(SharedPrintStream target, LogOutputSpec spec, ZonedDateTime timestamp, String text, long releaseAt) {
+            this.target = target;
+            this.spec = spec;
+            this.timestamp = timestamp;
+            this.text = text;
+            this.releaseAt = releaseAt;
+            this.flushLatch = null;
+        }
+
+        Entry(CountDownLatch flushLatch) {
+            this.target = null;
+            this.spec = null;
+            this.timestamp = null;
+            this.text = null;
+            this.releaseAt = 0;
+            this.flushLatch = flushLatch;
+        }
+    }
+}
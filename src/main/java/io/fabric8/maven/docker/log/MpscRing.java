@@ -0,0 +1,83 @@
+package io.fabric8.maven.docker.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer for many producers and a single consumer. Producers reserve a slot by
+ * advancing the tail with a CAS and publish their element by writing the slot. The consumer takes elements
+ * in reservation order and frees a slot by clearing it before advancing the head.
+ *
+ * @param <E> element type
+ * @since 0.50
+ */
+class MpscRing<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only written by the consumer
+    private volatile long head;
+
+    MpscRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, not " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Add an element, can be called from any thread
+     *
+     * @param element element to add, must not be null
+     * @return false if the ring is full
+     */
+    boolean offer(E element) {
+        while (true) {
+            long current = tail.get();
+            if (current - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(current, current + 1)) {
+                slots.set((int) current & mask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element, must only be called from the consumer thread
+     *
+     * @return the element or null if there is no published element
+     */
+    E poll() {
+        long current = head;
+        int index = (int) current & mask;
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.lazySet(index, null);
+        head = current + 1;
+        return element;
+    }
+
+    /**
+     * Whether there is no published element to take, must only be called from the consumer thread
+     *
+     * @return true if {@link #poll()} would return null
+     */
+    boolean isEmpty() {
+        return slots.get((int) head & mask) == null;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -2,12 +2,19 @@ package io.fabric8.maven.docker.log;
 
 import java.io.PrintStream;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 class SharedPrintStream {
     private PrintStream printStream;
 
     private AtomicInteger numUsers;
 
+    // Entries which could not be queued for this stream and how often producers had to wait for space
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong backPressure = new AtomicLong();
+
+    private boolean closed;
+
     SharedPrintStream(PrintStream ps) {
         this.printStream = ps;
         this.numUsers = new AtomicInteger(1);
@@ -21,13 +28,49 @@ class SharedPrintStream {
         numUsers.incrementAndGet();
     }
 
-    boolean close() {
-        int nrUsers = numUsers.decrementAndGet();
-        if (nrUsers == 0 && printStream != System.out) {
-            printStream.close();
-            return true;
-        } else {
+    /**
+     * Write a batch of lines and flush the stream
+     *
+     * @param batch lines to write, each terminated by a line separator
+     * @return false if the stream has already been closed and nothing was written
+     */
+    synchronized boolean write(CharSequence batch) {
+        if (closed) {
             return false;
         }
+        printStream.append(batch);
+        printStream.flush();
+        return true;
+    }
+
+    void entryDropped() {
+        dropped.incrementAndGet();
+    }
+
+    void backPressureApplied() {
+        backPressure.incrementAndGet();
+    }
+
+    synchronized boolean close() {
+        int nrUsers = numUsers.decrementAndGet();
+        if (nrUsers == 0) {
+            reportOverload();
+            if (printStream != System.out) {
+                printStream.close();
+                closed = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reportOverload() {
+        long nrDropped = dropped.getAndSet(0);
+        long nrWaits = backPressure.getAndSet(0);
+        if (nrDropped > 0 || nrWaits > 0) {
+            printStream.println("Log output overloaded: " + nrDropped + " entries dropped, " +
+                                nrWaits + " times waited for the log writer");
+            printStream.flush();
+        }
     }
 }
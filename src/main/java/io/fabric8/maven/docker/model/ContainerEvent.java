@@ -0,0 +1,99 @@
+package io.fabric8.maven.docker.model;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Model class holding a single container event as received from the docker <code>/events</code> stream.
+ */
+public class ContainerEvent {
+
+    private static final String ACTION = "Action";
+    private static final String ACTOR = "Actor";
+    private static final String ATTRIBUTES = "Attributes";
+    private static final String EXIT_CODE = "exitCode";
+    private static final String HEALTH_STATUS_PREFIX = "health_status:";
+    private static final String ID = "ID";
+    private static final String TIME_NANO = "timeNano";
+
+    // Fields used by daemons before API version 1.22
+    private static final String LEGACY_ID = "id";
+    private static final String LEGACY_STATUS = "status";
+
+    private final JsonObject json;
+
+    public ContainerEvent(JsonObject json) {
+        this.json = json;
+    }
+
+    /**
+     * Id of the container this event is about
+     *
+     * @return container id or <code>null</code> if the event carries no id
+     */
+    public String getId() {
+        JsonObject actor = getActor();
+        if (actor != null && actor.has(ID)) {
+            return actor.get(ID).getAsString();
+        }
+        return json.has(LEGACY_ID) ? json.get(LEGACY_ID).getAsString() : null;
+    }
+
+    /**
+     * Action of this event like "start", "die" or "health_status: healthy"
+     *
+     * @return the action
+     */
+    public String getAction() {
+        if (json.has(ACTION)) {
+            return json.get(ACTION).getAsString();
+        }
+        return json.has(LEGACY_STATUS) ? json.get(LEGACY_STATUS).getAsString() : null;
+    }
+
+    /**
+     * Health status for "health_status" events
+     *
+     * @return health status like "healthy" or <code>null</code> if this is not a health event
+     */
+    public String getHealthStatus() {
+        String action = getAction();
+        if (action == null || !action.startsWith(HEALTH_STATUS_PREFIX)) {
+            return null;
+        }
+        return action.substring(HEALTH_STATUS_PREFIX.length()).trim();
+    }
+
+    /**
+     * Exit code attached to a "die" event
+     *
+     * @return the exit code or <code>null</code> if not given
+     */
+    public Integer getExitCode() {
+        JsonObject actor = getActor();
+        if (actor == null || !actor.has(ATTRIBUTES)) {
+            return null;
+        }
+        JsonElement exitCode = actor.getAsJsonObject(ATTRIBUTES).get(EXIT_CODE);
+        return exitCode != null && !exitCode.isJsonNull() ? Integer.valueOf(exitCode.getAsString()) : null;
+    }
+
+    /**
+     * Time of this event in nanoseconds since the epoch
+     *
+     * @return the time or 0 if not given
+     */
+    public long getTimeNano() {
+        return json.has(TIME_NANO) ? json.get(TIME_NANO).getAsLong() : 0L;
+    }
+
+    private JsonObject getActor() {
+        JsonElement actor = json.get(ACTOR);
+        return actor != null && actor.isJsonObject() ? actor.getAsJsonObject() : null;
+    }
+
+    @Override
+    public String toString() {
+        return json.toString();
+    }
+}
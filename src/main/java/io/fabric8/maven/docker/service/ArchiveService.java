@@ -15,6 +15,7 @@ package io.fabric8.maven.docker.service;/*
  * limitations under the License.
  */
 
+import io.fabric8.maven.docker.access.StreamingArchive;
 import io.fabric8.maven.docker.assembly.ArchiverCustomizer;
 import io.fabric8.maven.docker.assembly.AssemblyFiles;
 import io.fabric8.maven.docker.assembly.DockerAssemblyManager;
@@ -29,6 +30,7 @@ import org.apache.maven.plugins.assembly.archive.ArchiveCreationException;
 import org.apache.maven.plugins.assembly.format.AssemblyFormattingException;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -130,6 +132,36 @@ public class ArchiveService {
         return dockerAssemblyManager.createChangedFilesArchive(entries, assemblyDir, imageName, mojoParameters);
     }
 
+    /**
+     * Create a tar archive of changed assembly files which is written directly into a stream, e.g. the
+     * request for copying the files into a container
+     *
+     * @param files assembly files the entries belong to
+     * @param entries changed entries, which must not be deleted
+     * @return archive which can be written once
+     * @throws MojoExecutionException if the archive cannot be prepared
+     */
+    public StreamingArchive createChangedFilesArchiveStream(AssemblyFiles files, List<AssemblyFiles.Entry> entries)
+            throws MojoExecutionException {
+        return dockerAssemblyManager.createChangedFilesArchiveStream(files, entries);
+    }
+
+    /**
+     * Get the Dockerfile an image is built with
+     *
+     * @param imageConfig image config
+     * @param params mojo params for the project
+     * @return the interpolated or generated Dockerfile
+     * @throws MojoExecutionException if the Dockerfile cannot be read
+     */
+    public String getDockerfileContent(ImageConfiguration imageConfig, MojoParameters params) throws MojoExecutionException {
+        try {
+            return dockerAssemblyManager.getDockerfileContent(params, imageConfig.getBuildConfiguration());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot read Dockerfile of image " + imageConfig.getName() + ": " + e, e);
+        }
+    }
+
     // =============================================
 
     File createArchive(String imageName, BuildImageConfiguration buildConfig, MojoParameters params, Logger log)
@@ -141,4 +173,9 @@ public class ArchiveService {
             throws MojoExecutionException {
         return dockerAssemblyManager.createDockerTarArchive(imageName, params, buildConfig, log, customizer);
     }
+
+    StreamingArchive createArchiveStream(String imageName, BuildImageConfiguration buildConfig, MojoParameters params, Logger log)
+            throws MojoExecutionException {
+        return dockerAssemblyManager.createDockerTarArchiveStream(imageName, params, buildConfig, log);
+    }
 }
@@ -0,0 +1,103 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Base images pulled in the background, created by {@link BuildService#prefetchBaseImages}. Every image is pulled
+ * only once, even when used by several builds. A build waits with {@link #await(ImageConfiguration)} only for
+ * its own base images, so it can start while other images are still being pulled.
+ *
+ * @since 0.50
+ */
+public class BaseImagePrefetch implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final Map<String, Future<?>> pulls = new HashMap<>();
+    private final Map<String, Set<String>> imagesByBuild = new HashMap<>();
+
+    BaseImagePrefetch(int threads) {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads),
+            new ThreadFactoryBuilder().setNameFormat("docker-pull-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Pull an image for a build unless it is already being pulled
+     *
+     * @param imageConfig image whose build needs the pulled image
+     * @param image image to pull
+     * @param task task doing the pull
+     */
+    synchronized void pull(ImageConfiguration imageConfig, String image, PullTask task) {
+        imagesByBuild.computeIfAbsent(imageConfig.getName(), k -> new LinkedHashSet<>()).add(image);
+        pulls.computeIfAbsent(image, k -> executor.submit(() -> {
+            task.pull();
+            return null;
+        }));
+    }
+
+    /**
+     * Wait until all images needed for building the given image have been pulled
+     *
+     * @param imageConfig image to build
+     * @throws DockerAccessException if a pull failed
+     * @throws MojoExecutionException if a pull failed or if interrupted
+     */
+    public void await(ImageConfiguration imageConfig) throws DockerAccessException, MojoExecutionException {
+        List<Future<?>> futures = new ArrayList<>();
+        synchronized (this) {
+            for (String image : imagesByBuild.getOrDefault(imageConfig.getName(), new LinkedHashSet<>())) {
+                futures.add(pulls.get(image));
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while pulling base images of " + imageConfig.getDescription(), exp);
+            } catch (ExecutionException exp) {
+                Throwable cause = exp.getCause();
+                if (cause instanceof DockerAccessException) {
+                    throw (DockerAccessException) cause;
+                }
+                if (cause instanceof MojoExecutionException) {
+                    throw (MojoExecutionException) cause;
+                }
+                throw new MojoExecutionException("Cannot pull base images of " + imageConfig.getDescription() + ": " + cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Stop all pulls which are still running
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    interface PullTask {
+        /**
+         * Do the pull
+         *
+         * @throws DockerAccessException if the pull fails
+         * @throws MojoExecutionException if the pull fails
+         */
+        void pull() throws DockerAccessException, MojoExecutionException;
+    }
+}
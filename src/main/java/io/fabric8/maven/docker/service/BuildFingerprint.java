@@ -0,0 +1,155 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+import io.fabric8.maven.docker.util.JsonFactory;
+
+/**
+ * Fingerprint of everything an image is built from: the files of its assemblies and its build context, its
+ * Dockerfile, its build args and its build configuration. The fingerprint of the last build of an image is
+ * stored next to its build directories, an image doesn't need to be built again as long as the fingerprint
+ * doesn't change and the image built last still exists.
+ *
+ * @since 0.50
+ */
+public class BuildFingerprint {
+
+    private final File file;
+    private final String fingerprint;
+    private final String imageId;
+    private final long buildTime;
+    private boolean upToDate;
+
+    private BuildFingerprint(File file, String fingerprint, String imageId, long buildTime) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+        this.imageId = imageId;
+        this.buildTime = buildTime;
+    }
+
+    /**
+     * Create a fingerprint and compare it with the one stored in the given file
+     *
+     * @param file file holding the fingerprint of the last build
+     * @param fingerprint fingerprint of the current inputs
+     * @return fingerprint remembering the image id and build time of the last build if the fingerprint
+     *         is unchanged since then
+     */
+    static BuildFingerprint load(File file, String fingerprint) {
+        if (file.exists()) {
+            try {
+                JsonObject stored = JsonFactory.newJsonObject(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+                if (stored != null && stored.has("fingerprint") && stored.has("imageId") &&
+                    fingerprint.equals(stored.get("fingerprint").getAsString())) {
+                    return new BuildFingerprint(file, fingerprint, stored.get("imageId").getAsString(),
+                                                stored.has("buildTime") ? stored.get("buildTime").getAsLong() : 0);
+                }
+            } catch (IOException | JsonParseException | IllegalStateException | UnsupportedOperationException exp) {
+                // Unreadable fingerprint, build again
+            }
+        }
+        return new BuildFingerprint(file, fingerprint, null, 0);
+    }
+
+    /**
+     * Whether the image doesn't need to be built since neither its inputs changed nor the image
+     * built last has been removed
+     *
+     * @return true if the build can be skipped
+     */
+    public boolean isUpToDate() {
+        return upToDate;
+    }
+
+    /**
+     * Get the time the last build took, which is saved when skipping the build
+     *
+     * @return time in milliseconds
+     */
+    public long getBuildTime() {
+        return buildTime;
+    }
+
+    String getImageId() {
+        return imageId;
+    }
+
+    String getFingerprint() {
+        return fingerprint;
+    }
+
+    void setUpToDate(boolean upToDate) {
+        this.upToDate = upToDate;
+    }
+
+    /**
+     * Store the fingerprint for a successful build
+     *
+     * @param builtImageId id of the built image
+     * @param duration time the build took in milliseconds
+     * @throws IOException if the fingerprint cannot be written
+     */
+    void store(String builtImageId, long duration) throws IOException {
+        JsonObject stored = new JsonObject();
+        stored.addProperty("fingerprint", fingerprint);
+        stored.addProperty("imageId", builtImageId);
+        stored.addProperty("buildTime", duration);
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        Files.write(file.toPath(), stored.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Incrementally computed SHA-256 digest of the build inputs
+    static class Digest {
+        private final MessageDigest digest;
+        private final boolean hashContent;
+        private final byte[] buffer = new byte[8192];
+
+        Digest(boolean hashContent) {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException exp) {
+                throw new IllegalStateException("No SHA-256 available", exp);
+            }
+            this.hashContent = hashContent;
+        }
+
+        Digest add(String key, Object value) {
+            digest.update((key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8));
+            return this;
+        }
+
+        Digest addFile(String path, File file) throws IOException {
+            add("file", path);
+            add("source", file.getAbsolutePath());
+            add("size", file.length());
+            if (!hashContent) {
+                add("modified", file.lastModified());
+            } else {
+                // Content only, so that e.g. a fresh checkout doesn't count as a change
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+            return this;
+        }
+
+        String hex() {
+            StringBuilder ret = new StringBuilder();
+            for (byte b : digest.digest()) {
+                ret.append(String.format("%02x", b));
+            }
+            return ret.toString();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.util.EnvUtil;
+import io.fabric8.maven.docker.util.ImageName;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.docker.util.StartFrontier;
+import io.fabric8.maven.docker.util.StartOrderResolver;
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Builds images with at most a given number of builds at once. An image is built only after all images of the
+ * build it is built from (as <code>FROM</code> or <code>cacheFrom</code> image) have been built, images not
+ * depending on each other are built concurrently.
+ * <p>
+ * The output of each concurrent build is collected and written as one block when the build is done, so that
+ * the output of the images is not interleaved. When a build fails, no further builds are started, the running
+ * ones are awaited and the first failure is thrown.
+ *
+ * @since 0.50
+ */
+public class BuildScheduler {
+
+    private final Logger log;
+    private final int parallelism;
+
+    public BuildScheduler(Logger log, int parallelism) {
+        this.log = log;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Build the given images
+     *
+     * @param images images to build in the order they are configured
+     * @param buildDependencies images each image is built from, as returned by {@link BuildService#getBuildDependencies}
+     * @param task task doing the build of a single image
+     * @throws MojoExecutionException the first failure of a build or if images are built from each other in a cycle
+     * @throws IOException the first failure of a build
+     */
+    public void run(List<ImageConfiguration> images, Map<ImageConfiguration, List<String>> buildDependencies, BuildTask task)
+            throws MojoExecutionException, IOException {
+        if (parallelism <= 1 || images.size() <= 1) {
+            for (ImageConfiguration image : images) {
+                task.build(image);
+            }
+            return;
+        }
+
+        List<BuildNode> nodes = new ArrayList<>();
+        for (ImageConfiguration image : images) {
+            nodes.add(new BuildNode(image, buildDependencies.get(image)));
+        }
+        long start = System.currentTimeMillis();
+        int threads = Math.min(parallelism, images.size());
+        runConcurrently(nodes, task, threads);
+        long summed = nodes.stream().mapToLong(node -> node.duration).sum();
+        log.info("Built %d images in %s (%s summed over all images) with %d builds at once",
+                 images.size(), EnvUtil.formatDurationTill(start), EnvUtil.formatDuration(summed), threads);
+    }
+
+    // ===========================================
+
+    private void runConcurrently(List<BuildNode> nodes, BuildTask task, int threads) throws MojoExecutionException, IOException {
+        StartFrontier<BuildNode> frontier = new StartFrontier<>(nodes);
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("docker-build-%d").setDaemon(true).build());
+        CompletionService<BuildNode> completion = new ExecutorCompletionService<>(executor);
+        List<Throwable> failures = new ArrayList<>();
+        try {
+            int running = 0;
+            for (BuildNode node : frontier.getInitial()) {
+                submit(completion, node, task);
+                running++;
+            }
+            while (running > 0) {
+                BuildNode done = null;
+                try {
+                    done = completion.take().get();
+                } catch (ExecutionException exp) {
+                    failures.add(exp.getCause());
+                }
+                running--;
+                if (done != null && failures.isEmpty()) {
+                    // Don't start new builds once one has failed
+                    for (BuildNode node : frontier.completed(done)) {
+                        submit(completion, node, task);
+                        running++;
+                    }
+                }
+            }
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while building images", exp);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!failures.isEmpty()) {
+            rethrow(failures);
+        }
+        if (!frontier.isComplete()) {
+            throw new MojoExecutionException("Cannot build images " + describeUnbuilt(nodes) +
+                                             " since they are built from each other");
+        }
+    }
+
+    private void submit(CompletionService<BuildNode> completion, BuildNode node, BuildTask task) {
+        completion.submit(() -> {
+            long start = System.currentTimeMillis();
+            log.groupStart();
+            try {
+                task.build(node.image);
+            } finally {
+                log.groupFinished();
+            }
+            node.duration = System.currentTimeMillis() - start;
+            node.built = true;
+            return node;
+        });
+    }
+
+    private static String describeUnbuilt(List<BuildNode> nodes) {
+        return nodes.stream()
+                    .filter(node -> !node.built)
+                    .map(node -> node.image.getDescription())
+                    .collect(Collectors.joining(", "));
+    }
+
+    private static void rethrow(List<Throwable> failures) throws MojoExecutionException, IOException {
+        Throwable first = failures.get(0);
+        for (Throwable other : failures.subList(1, failures.size())) {
+            first.addSuppressed(other);
+        }
+        if (first instanceof MojoExecutionException) {
+            throw (MojoExecutionException) first;
+        }
+        if (first instanceof IOException) {
+            throw (IOException) first;
+        }
+        if (first instanceof RuntimeException) {
+            throw (RuntimeException) first;
+        }
+        throw new MojoExecutionException("Build failed: " + first.getMessage(), first);
+    }
+
+    // Normalize image names, so that e.g. "app" and "app:latest" refer to the same image
+    static String normalize(String image) {
+        try {
+            return new ImageName(image).getFullName();
+        } catch (IllegalArgumentException exp) {
+            // e.g. a FROM with an unresolved build arg, which can't refer to an image of the build
+            return image;
+        }
+    }
+
+    public interface BuildTask {
+        /**
+         * Build a single image
+         *
+         * @param imageConfig image to build
+         * @throws MojoExecutionException if the build fails
+         * @throws IOException if the build fails
+         */
+        void build(ImageConfiguration imageConfig) throws MojoExecutionException, IOException;
+    }
+
+    // Image in the build graph, depending on the images it is built from
+    private static class BuildNode implements StartOrderResolver.Resolvable {
+        private final ImageConfiguration image;
+        private final String name;
+        private final List<String> dependencies = new ArrayList<>();
+
+        private volatile long duration;
+        private volatile boolean built;
+
+        BuildNode(ImageConfiguration image, List<String> buildDependencies) {
+            this.image = image;
+            this.name = normalize(image.getName());
+            if (buildDependencies != null) {
+                for (String dependency : buildDependencies) {
+                    dependencies.add(normalize(dependency));
+                }
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getAlias() {
+            // Only image names can be used in FROM
+            return null;
+        }
+
+        @Override
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package io.fabric8.maven.docker.service;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParseException;
 import io.fabric8.maven.docker.access.BuildOptions;
 import io.fabric8.maven.docker.access.DockerAccess;
 import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.StreamingArchive;
+import io.fabric8.maven.docker.assembly.AssemblyFiles;
+import io.fabric8.maven.docker.assembly.BuildDirs;
 import io.fabric8.maven.docker.assembly.DockerAssemblyManager;
 import io.fabric8.maven.docker.config.AssemblyConfiguration;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.CleanupMode;
 import io.fabric8.maven.docker.config.ConfigHelper;
 import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.config.ImagePullPolicy;
 import io.fabric8.maven.docker.model.ImageArchiveManifest;
 import io.fabric8.maven.docker.model.ImageArchiveManifestEntry;
 import io.fabric8.maven.docker.service.helper.BuildArgResolver;
+import io.fabric8.maven.docker.util.BackgroundLogger;
 import io.fabric8.maven.docker.util.DockerFileUtil;
 import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.ImageArchiveUtil;
@@ -22,19 +31,52 @@ import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.docker.util.MojoParameters;
 import io.fabric8.maven.docker.util.NamePatternUtil;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.SelectorUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 public class BuildService {
+
+    // File next to the build directories of an image holding the fingerprint of its last build
+    static final String FINGERPRINT_FILE = "build.fingerprint";
+
+    // File of a build context listing the files which the daemon does not receive
+    private static final String DOCKER_IGNORE_FILE = ".dockerignore";
+
+    // Serializes build configurations for fingerprinting, resolved files are derived from the configuration
+    private static final Gson FINGERPRINT_GSON = new GsonBuilder()
+        .setExclusionStrategies(new ExclusionStrategy() {
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return false;
+            }
+
+            @Override
+            public boolean shouldSkipClass(Class<?> clazz) {
+                return clazz == File.class;
+            }
+        })
+        .create();
+
     private final DockerAccess docker;
     private final QueryService queryService;
     private final ArchiveService archiveService;
@@ -54,6 +96,9 @@ public class BuildService {
      *
      * @param imageConfig  the image configuration
      * @param buildContext the build context
+     * @param buildArchiveFile archive created with {@link #buildArchive(ImageConfiguration, BuildContext, String)} or
+     *                         <code>null</code> if the build archive should be streamed to the Docker daemon
+     *                         while it is created
      * @throws DockerAccessException
      * @throws MojoExecutionException
      */
@@ -180,7 +225,9 @@ public class BuildService {
                         .network(buildConfig.getNetwork())
                         .target(buildConfig.getTarget())
                         .buildArgs(mergedBuildMap);
-        String newImageId = doBuildImage(imageName, dockerArchive, opts);
+        String newImageId = dockerArchive != null ?
+                doBuildImage(imageName, dockerArchive, opts) :
+                doBuildImage(imageName, archiveService.createArchiveStream(imageName, buildConfig, params, log), opts);
         log.info("%s: Built image %s", imageConfig.getDescription(), newImageId);
 
         removeDanglingImage(imageName, oldImageId, newImageId, cleanupMode, true);
@@ -294,16 +341,270 @@ public class BuildService {
         return queryService.getImageId(imageName);
     }
 
+    private String doBuildImage(String imageName, StreamingArchive buildContext, BuildOptions options)
+            throws DockerAccessException {
+        long time = System.currentTimeMillis();
+        docker.buildImageFromStream(imageName, buildContext, options);
+        log.info("%s: Streamed build context and built image in %s", imageName, EnvUtil.formatDurationTill(time));
+        return queryService.getImageId(imageName);
+    }
+
 
 
+    /**
+     * Start pulling the base images and <code>cacheFrom</code> images of the given images in the background, so that
+     * the pulls run concurrently with each other and with the builds of images whose base images are already
+     * present. Every image is pulled only once, according to the pull policy of the first image using it.
+     * Images which are built themselves are not prefetched, they are looked up by the build of the image using
+     * them after they have been built.
+     *
+     * @param imageConfigs images to be built
+     * @param pullManagers pull manager for each image
+     * @param buildContext the build context
+     * @param threads maximum number of concurrent pulls
+     * @return prefetch whose {@link BaseImagePrefetch#await(ImageConfiguration)} must be called before building an image
+     * @throws MojoExecutionException if the build args cannot be resolved
+     */
+    public BaseImagePrefetch prefetchBaseImages(List<ImageConfiguration> imageConfigs, Function<ImageConfiguration, ImagePullManager> pullManagers,
+                                                BuildContext buildContext, int threads) throws MojoExecutionException {
+        BuildArgResolver buildArgResolver = new BuildArgResolver(log);
+        Map<String, String> buildArgsFromExternalSources = buildArgResolver.resolveBuildArgs(buildContext);
+        Set<String> builtImages = new HashSet<>();
+        for (ImageConfiguration imageConfig : imageConfigs) {
+            builtImages.add(BuildScheduler.normalize(imageConfig.getName()));
+        }
+        BaseImagePrefetch prefetch = new BaseImagePrefetch(threads);
+        for (ImageConfiguration imageConfig : imageConfigs) {
+            BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+            ImagePullManager pullManager = pullManagers.apply(imageConfig);
+            List<String> baseImages = getBaseImages(buildConfig, buildContext, prepareBuildArgs(buildArgsFromExternalSources, buildConfig));
+            for (String baseImage : baseImages) {
+                if (builtImages.contains(BuildScheduler.normalize(baseImage))) {
+                    continue;
+                }
+                prefetch.pull(imageConfig, baseImage, () ->
+                    pullBaseImage(baseImage, pullManager, buildContext.getRegistryConfig(), buildConfig, new BackgroundLogger(baseImage, log)));
+            }
+            if (buildConfig.getCacheFrom() != null) {
+                for (String cacheFromImage : buildConfig.getCacheFrom()) {
+                    if (builtImages.contains(BuildScheduler.normalize(cacheFromImage))) {
+                        continue;
+                    }
+                    prefetch.pull(imageConfig, cacheFromImage, () ->
+                        pullCacheFromImage(cacheFromImage, pullManager, buildContext.getRegistryConfig(), buildConfig, new BackgroundLogger(cacheFromImage, log)));
+                }
+            }
+        }
+        return prefetch;
+    }
+
+    /**
+     * Compute the fingerprint of everything an image is built from: the files of its assemblies, its build
+     * context directory in Dockerfile mode, its Dockerfile, its build args, its build configuration and the
+     * ids of its base images. The image doesn't need to be built when the fingerprint is the same as for its
+     * last build and the image built then still exists.
+     *
+     * @param imageConfig image to build
+     * @param imagePullManager pull manager used for the build
+     * @param buildContext the build context
+     * @param hashContent whether to hash the content of files instead of using their modification time
+     * @return the fingerprint or <code>null</code> if the image should be built anyway, e.g. when building without
+     *         cache, when always pulling the base image or when the assembly has not been created before
+     * @throws DockerAccessException if the id of the image cannot be looked up
+     */
+    public BuildFingerprint fingerprint(ImageConfiguration imageConfig, ImagePullManager imagePullManager, BuildContext buildContext,
+                                        boolean hashContent) throws DockerAccessException {
+        BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+        if (buildConfig.getDockerArchive() != null || ConfigHelper.isNoCache(imageConfig) ||
+            imagePullManager != null && imagePullManager.getImagePullPolicy() == ImagePullPolicy.Always) {
+            return null;
+        }
+
+        MojoParameters params = buildContext.getMojoParameters();
+        BuildFingerprint.Digest digest = new BuildFingerprint.Digest(hashContent);
+        try {
+            Map<String, String> buildArgs = prepareBuildArgs(new BuildArgResolver(log).resolveBuildArgs(buildContext), buildConfig);
+            digest.add("image", imageConfig.getName())
+                  .add("config", FINGERPRINT_GSON.toJson(buildConfig))
+                  .add("args", new TreeMap<>(buildArgs))
+                  .add("squash", checkForSquash(imageConfig))
+                  .add("dockerfile", archiveService.getDockerfileContent(imageConfig, params));
+            for (String baseImage : getBaseImages(buildConfig, buildContext, buildArgs)) {
+                digest.add(baseImage, queryService.getImageId(baseImage));
+            }
+            for (AssemblyConfiguration assemblyConfig : buildConfig.getAllAssemblyConfigurations()) {
+                AssemblyFiles assemblyFiles = archiveService.getAssemblyFiles(imageConfig, assemblyConfig.getName(), params);
+                digest.add("assembly", assemblyConfig.getName());
+                Map<String, File> files = new TreeMap<>();
+                for (AssemblyFiles.Entry entry : assemblyFiles.getEntries()) {
+                    files.put(entry.getDestFile().getPath() + "<" + entry.getSrcFile().getPath(), entry.getSrcFile());
+                }
+                for (Map.Entry<String, File> file : files.entrySet()) {
+                    digest.addFile(file.getKey(), file.getValue());
+                }
+            }
+            if (buildConfig.isDockerFileMode()) {
+                addContextDirectory(digest, buildConfig.getAbsoluteContextDirPath(params), params);
+            }
+        } catch (IOException | MojoExecutionException | RuntimeException exp) {
+            // e.g. files of the assembly which have not been created yet
+            log.debug("%s: Cannot fingerprint build: %s", imageConfig.getDescription(), exp.getMessage());
+            return null;
+        }
+
+        BuildFingerprint fingerprint = BuildFingerprint.load(new BuildDirs(imageConfig.getName(), params).getBuildPath(FINGERPRINT_FILE).toFile(),
+                                                             digest.hex());
+        fingerprint.setUpToDate(fingerprint.getImageId() != null &&
+                                fingerprint.getImageId().equals(queryService.getImageId(imageConfig.getName())));
+        return fingerprint;
+    }
+
+    /**
+     * Store the fingerprint of a successful build, so that the next build can be skipped if nothing changes
+     *
+     * @param fingerprint fingerprint computed before the build
+     * @param imageConfig built image
+     * @param duration time the build took in milliseconds
+     * @throws DockerAccessException if the id of the built image cannot be looked up
+     */
+    public void storeFingerprint(BuildFingerprint fingerprint, ImageConfiguration imageConfig, long duration) throws DockerAccessException {
+        String imageId = queryService.getImageId(imageConfig.getName());
+        if (imageId == null) {
+            return;
+        }
+        try {
+            fingerprint.store(imageId, duration);
+        } catch (IOException exp) {
+            log.warn("%s: Cannot store build fingerprint: %s", imageConfig.getDescription(), exp.getMessage());
+        }
+    }
+
+    // Files of the build context which are sent to the daemon: without the files excluded like for the build archive,
+    // without the project's build directory and without the files the daemon ignores because of .dockerignore
+    private static void addContextDirectory(BuildFingerprint.Digest digest, File contextDir, MojoParameters params) throws IOException {
+        if (!contextDir.isDirectory()) {
+            return;
+        }
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(contextDir);
+        List<String> excludes = DockerAssemblyManager.getDockerExcludes(contextDir);
+        excludes.add(params.getOutputDirectory() + "/**");
+        Path contextPath = contextDir.toPath().toAbsolutePath().normalize();
+        MavenProject project = params.getProject();
+        if (project != null && project.getBuild() != null && project.getBuild().getDirectory() != null) {
+            Path buildDir = Paths.get(project.getBuild().getDirectory()).toAbsolutePath().normalize();
+            if (contextPath.equals(buildDir)) {
+                return;
+            }
+            if (buildDir.startsWith(contextPath)) {
+                excludes.add(contextPath.relativize(buildDir) + "/**");
+            }
+        }
+        scanner.setExcludes(excludes.toArray(new String[0]));
+        List<String> includes = DockerAssemblyManager.getDockerIncludes(contextDir);
+        if (!includes.isEmpty()) {
+            scanner.setIncludes(includes.toArray(new String[0]));
+        }
+        scanner.addDefaultExcludes();
+        scanner.scan();
+
+        List<String> dockerIgnore = readDockerIgnore(new File(contextDir, DOCKER_IGNORE_FILE));
+        List<String> files = new ArrayList<>();
+        for (String file : scanner.getIncludedFiles()) {
+            String path = file.replace(File.separatorChar, '/');
+            if (!isDockerIgnored(path, dockerIgnore)) {
+                files.add(path);
+            }
+        }
+        Collections.sort(files);
+        for (String file : files) {
+            digest.addFile(file, new File(contextDir, file));
+        }
+    }
+
+    private static List<String> readDockerIgnore(File file) throws IOException {
+        List<String> ret = new ArrayList<>();
+        if (file.isFile()) {
+            for (String line : Files.readAllLines(file.toPath())) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    ret.add(line);
+                }
+            }
+        }
+        return ret;
+    }
+
+    // Whether a file is ignored according to the rules of .dockerignore: the last matching pattern wins, patterns
+    // starting with "!" include files again, and a pattern matching a directory matches all files within
+    static boolean isDockerIgnored(String path, List<String> patterns) {
+        boolean ignored = false;
+        for (String line : patterns) {
+            boolean exception = line.startsWith("!");
+            String pattern = (exception ? line.substring(1) : line).trim().replace('\\', '/');
+            while (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            while (pattern.endsWith("/")) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            if (!pattern.isEmpty() && matchesPathOrParent(pattern, path)) {
+                ignored = !exception;
+            }
+        }
+        return ignored;
+    }
+
+    private static boolean matchesPathOrParent(String pattern, String path) {
+        for (int end = path.length(); end > 0; end = path.lastIndexOf('/', end - 1)) {
+            if (SelectorUtils.matchPath(pattern, path.substring(0, end), "/", true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the images an image is built from, i.e. its base images and its <code>cacheFrom</code> images
+     *
+     * @param imageConfig image to build
+     * @param buildContext the build context
+     * @return the images as referenced in the build configuration or the Dockerfile
+     * @throws MojoExecutionException if the build args cannot be resolved
+     */
+    public List<String> getBuildDependencies(ImageConfiguration imageConfig, BuildContext buildContext) throws MojoExecutionException {
+        BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+        Map<String, String> buildArgsFromExternalSources = new BuildArgResolver(log).resolveBuildArgs(buildContext);
+        List<String> ret = getBaseImages(buildConfig, buildContext, prepareBuildArgs(buildArgsFromExternalSources, buildConfig));
+        if (buildConfig.getCacheFrom() != null) {
+            ret.addAll(buildConfig.getCacheFrom());
+        }
+        return ret;
+    }
+
     private void autoPullBaseImage(ImageConfiguration imageConfig, ImagePullManager imagePullManager, BuildContext buildContext, Map<String, String> buildArgs)
             throws DockerAccessException, MojoExecutionException {
         BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
-        CleanupMode cleanupMode = buildConfig.cleanupMode();
+        for (String fromImage : getBaseImages(buildConfig, buildContext, buildArgs)) {
+            pullBaseImage(fromImage, imagePullManager, buildContext.getRegistryConfig(), buildConfig, log);
+        }
+    }
+
+    private void autoPullCacheFromImage(ImageConfiguration imageConfig, ImagePullManager imagePullManager, BuildContext buildContext) throws DockerAccessException, MojoExecutionException {
+        if (imageConfig.getBuildConfiguration().getCacheFrom() == null) {
+            return;
+        }
+
+        BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+        for (String cacheFromImage : buildConfig.getCacheFrom()) {
+            pullCacheFromImage(cacheFromImage, imagePullManager, buildContext.getRegistryConfig(), buildConfig, log);
+        }
+    }
 
+    private List<String> getBaseImages(BuildImageConfiguration buildConfig, BuildContext buildContext, Map<String, String> buildArgs) {
         if (buildConfig.getDockerArchive() != null) {
             // No auto pull needed in archive mode
-            return;
+            return Collections.emptyList();
         }
 
         List<String> fromImages;
@@ -316,46 +617,49 @@ public class BuildService {
                 fromImages.add(baseImage);
             }
         }
+        List<String> ret = new ArrayList<>();
         for (String fromImage : fromImages) {
             if (fromImage != null && !DockerAssemblyManager.SCRATCH_IMAGE.equals(fromImage)) {
-                String oldImageId = null;
-                if (cleanupMode.isRemove()) {
-                    oldImageId = queryService.getImageId(fromImage);
-                }
-
-                registryService.pullImageWithPolicy(fromImage, imagePullManager, buildContext.getRegistryConfig(), buildConfig);
-
-                String newImageId = queryService.getImageId(fromImage);
-
-                removeDanglingImage(fromImage, oldImageId, newImageId, cleanupMode, false);
+                ret.add(fromImage);
             }
         }
+        return ret;
     }
 
-    private void autoPullCacheFromImage(ImageConfiguration imageConfig, ImagePullManager imagePullManager, BuildContext buildContext) throws DockerAccessException, MojoExecutionException {
-        if (imageConfig.getBuildConfiguration().getCacheFrom() == null) {
-            return;
+    private void pullBaseImage(String fromImage, ImagePullManager imagePullManager, RegistryService.RegistryConfig registryConfig,
+                               BuildImageConfiguration buildConfig, Logger progressLog)
+            throws DockerAccessException, MojoExecutionException {
+        CleanupMode cleanupMode = buildConfig.cleanupMode();
+        String oldImageId = null;
+        if (cleanupMode.isRemove()) {
+            oldImageId = queryService.getImageId(fromImage);
         }
 
-        BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
-        CleanupMode cleanupMode = buildConfig.cleanupMode();
+        registryService.pullImageWithPolicy(fromImage, imagePullManager, registryConfig, buildConfig, progressLog);
 
-        for (String cacheFromImage : buildConfig.getCacheFrom()) {
-            String oldImageId = null;
-            if (cleanupMode.isRemove()) {
-                oldImageId = queryService.getImageId(cacheFromImage);
-            }
+        String newImageId = queryService.getImageId(fromImage);
 
-            try {
-                registryService.pullImageWithPolicy(cacheFromImage, imagePullManager, buildContext.getRegistryConfig(), buildConfig);
-            } catch (DockerAccessException e) {
-                log.warn("Could not pull cacheFrom image: '%s'. Reason: %s", cacheFromImage, e.getMessage());
-            }
+        removeDanglingImage(fromImage, oldImageId, newImageId, cleanupMode, false);
+    }
 
-            String newImageId = queryService.getImageId(cacheFromImage);
+    private void pullCacheFromImage(String cacheFromImage, ImagePullManager imagePullManager, RegistryService.RegistryConfig registryConfig,
+                                    BuildImageConfiguration buildConfig, Logger progressLog)
+            throws DockerAccessException, MojoExecutionException {
+        CleanupMode cleanupMode = buildConfig.cleanupMode();
+        String oldImageId = null;
+        if (cleanupMode.isRemove()) {
+            oldImageId = queryService.getImageId(cacheFromImage);
+        }
 
-            removeDanglingImage(cacheFromImage, oldImageId, newImageId, cleanupMode, false);
+        try {
+            registryService.pullImageWithPolicy(cacheFromImage, imagePullManager, registryConfig, buildConfig, progressLog);
+        } catch (DockerAccessException e) {
+            progressLog.warn("Could not pull cacheFrom image: '%s'. Reason: %s", cacheFromImage, e.getMessage());
         }
+
+        String newImageId = queryService.getImageId(cacheFromImage);
+
+        removeDanglingImage(cacheFromImage, oldImageId, newImageId, cleanupMode, false);
     }
 
     private String extractBaseFromConfiguration(BuildImageConfiguration buildConfig) {
@@ -381,10 +685,8 @@ public class BuildService {
         List<String> fromImage;
         try {
             File fullDockerFilePath = buildConfig.getAbsoluteDockerFilePath(mojoParameters);
-            fromImage = DockerFileUtil.extractBaseImages(
-                    fullDockerFilePath,
-                    DockerFileUtil.createInterpolator(mojoParameters, buildConfig.getFilter()),
-                    buildArgs);
+            fromImage = DockerFileUtil.parse(fullDockerFilePath, mojoParameters, buildConfig.getFilter())
+                                      .getBaseImages(buildArgs);
         } catch (IOException e) {
             // Cant extract base image, so we wont try an auto pull. An error will occur later anyway when
             // building the image, so we are passive here.
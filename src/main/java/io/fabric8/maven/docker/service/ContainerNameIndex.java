@@ -0,0 +1,143 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.model.Container;
+import io.fabric8.maven.docker.util.ContainerNamingUtil;
+
+/**
+ * Index of the container names existing on the Docker host, used for picking free container names
+ * when creating containers. The index is loaded once with a single (filtered) container listing and then
+ * kept up to date for all names handed out, so that starting many containers doesn't require a full
+ * listing of the host's containers for each container created.
+ * <p>
+ * The index is safe to be used from multiple threads when containers are started in parallel.
+ *
+ * @since 0.50
+ */
+public class ContainerNameIndex {
+
+    private final Set<String> names;
+
+    ContainerNameIndex(Collection<String> names) {
+        this.names = new HashSet<>(names);
+    }
+
+    /**
+     * Load the index for all containers which could clash with names created for the given images. Only
+     * containers whose name start with one of the fixed name prefixes of the images are fetched from the
+     * Docker daemon.
+     *
+     * @param queryService query service used for listing containers
+     * @param images images for which containers are going to be created
+     * @param defaultContainerNamePattern pattern to use for images which don't specify a pattern on their own
+     * @param buildTimestamp date used when calculating container names
+     * @return the loaded index
+     * @throws DockerAccessException if the containers can't be listed
+     */
+    public static ContainerNameIndex load(QueryService queryService,
+                                          Collection<ImageConfiguration> images,
+                                          String defaultContainerNamePattern,
+                                          Date buildTimestamp) throws DockerAccessException {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (ImageConfiguration image : images) {
+            String prefix = ContainerNamingUtil.getContainerNamePrefix(image, defaultContainerNamePattern, buildTimestamp);
+            if (prefix != null) {
+                prefixes.add(prefix);
+            }
+        }
+        if (prefixes.isEmpty()) {
+            return new ContainerNameIndex(new HashSet<>());
+        }
+        if (prefixes.contains("")) {
+            // An empty prefix matches every container anyway
+            return loadAll(queryService);
+        }
+        return new ContainerNameIndex(extractNames(queryService.listContainers(true, createNameFilter(prefixes))));
+    }
+
+    /**
+     * Load the index with all containers on the Docker host
+     *
+     * @param queryService query service used for listing containers
+     * @return the loaded index
+     * @throws DockerAccessException if the containers can't be listed
+     */
+    public static ContainerNameIndex loadAll(QueryService queryService) throws DockerAccessException {
+        return new ContainerNameIndex(extractNames(queryService.listContainers(true)));
+    }
+
+    /**
+     * Calculate a free container name for the given image and reserve it in this index.
+     *
+     * @param image image for which a container is going to be created
+     * @param defaultContainerNamePattern pattern to use if the image doesn't specify one
+     * @param buildTimestamp date used when calculating container names
+     * @return the name reserved or <code>null</code> if the container should be created without a name
+     */
+    public synchronized String reserveName(ImageConfiguration image, String defaultContainerNamePattern, Date buildTimestamp) {
+        String name = ContainerNamingUtil.formatContainerNameFromNames(image, defaultContainerNamePattern, buildTimestamp, names);
+        if (name != null) {
+            names.add(name);
+        }
+        return name;
+    }
+
+    /**
+     * Release a name which has been reserved but for which no container could be created
+     *
+     * @param name name to release, can be null
+     */
+    public synchronized void releaseName(String name) {
+        if (name != null) {
+            names.remove(name);
+        }
+    }
+
+    /**
+     * Check whether a name is known to this index
+     *
+     * @param name name to check
+     * @return true if a container with this name exists or the name has been reserved
+     */
+    public synchronized boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    // Docker treats name filters as regular expressions which are combined with OR
+    private static String[] createNameFilter(Set<String> prefixes) {
+        List<String> filter = new ArrayList<>();
+        for (String prefix : prefixes) {
+            filter.add("name");
+            filter.add("^/?" + escapeRegexp(prefix));
+        }
+        return filter.toArray(new String[0]);
+    }
+
+    static String escapeRegexp(String value) {
+        StringBuilder ret = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if ("\\.[]{}()<>*+-=!?^$|".indexOf(c) >= 0) {
+                ret.append('\\');
+            }
+            ret.append(c);
+        }
+        return ret.toString();
+    }
+
+    private static Set<String> extractNames(Collection<Container> containers) {
+        Set<String> ret = new HashSet<>();
+        for (Container container : containers) {
+            ret.add(container.getName());
+        }
+        return ret;
+    }
+}
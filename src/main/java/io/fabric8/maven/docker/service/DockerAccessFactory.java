@@ -5,6 +5,7 @@ import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
@@ -15,6 +16,7 @@ import io.fabric8.maven.docker.access.hc.DockerAccessWithHcClient;
 import io.fabric8.maven.docker.config.DockerMachineConfiguration;
 import io.fabric8.maven.docker.util.Logger;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 
@@ -28,18 +30,19 @@ import javax.inject.Singleton;
 @Named
 public class DockerAccessFactory {
 
+    // Connections shared by the mojo executions of a session
+    private final DockerConnectionCache connectionCache = new DockerConnectionCache();
+
     public DockerAccess createDockerAccess(DockerAccessContext dockerAccessContext) throws MojoExecutionException, MojoFailureException {
 
         try {
-            DockerConnectionDetector dockerConnectionDetector = createDockerConnectionDetector(dockerAccessContext, dockerAccessContext.getLog());
-            DockerConnectionDetector.ConnectionParameter connectionParam =
-                    dockerConnectionDetector.detectConnectionParameter(dockerAccessContext.getDockerHost(), dockerAccessContext.getCertPath());
-            DockerAccess access = new DockerAccessWithHcClient(connectionParam.getUrl(),
-                    connectionParam.getCertPath(),
-                    dockerAccessContext.getMaxConnections(),
-                    dockerAccessContext.getLog());
+            if (dockerAccessContext.isShareConnection() && dockerAccessContext.getSession() != null) {
+                return createSharedDockerAccess(dockerAccessContext);
+            }
+            DockerConnectionCache.Connection connection = connect(dockerAccessContext);
+            DockerAccess access = connection.getAccess();
             access.start();
-            setDockerHostAddressProperty(dockerAccessContext, connectionParam.getUrl());
+            setDockerHostAddressProperty(dockerAccessContext, connection.getUrl());
             return access;
         } catch (IOException e) {
             throw new MojoExecutionException("Cannot create docker access object ", e);
@@ -47,6 +50,48 @@ public class DockerAccessFactory {
 
     }
 
+    private DockerAccess createSharedDockerAccess(DockerAccessContext dockerAccessContext) throws IOException, MojoFailureException {
+        DockerConnectionCache.Connection connection =
+            connectionCache.acquire(getConnectionKey(dockerAccessContext),
+                                    dockerAccessContext.getSession(),
+                                    dockerAccessContext.isLastInSession(),
+                                    dockerAccessContext.getLog(),
+                                    () -> connect(dockerAccessContext));
+        DockerAccess access = connection.getAccess();
+        try {
+            setDockerHostAddressProperty(dockerAccessContext, connection.getUrl());
+        } catch (MojoFailureException exp) {
+            access.shutdown();
+            throw exp;
+        }
+        return access;
+    }
+
+    private DockerConnectionCache.Connection connect(DockerAccessContext dockerAccessContext) throws IOException {
+        DockerConnectionDetector dockerConnectionDetector = createDockerConnectionDetector(dockerAccessContext, dockerAccessContext.getLog());
+        DockerConnectionDetector.ConnectionParameter connectionParam =
+                dockerConnectionDetector.detectConnectionParameter(dockerAccessContext.getDockerHost(), dockerAccessContext.getCertPath());
+        DockerAccessWithHcClient access = new DockerAccessWithHcClient(connectionParam.getUrl(),
+                connectionParam.getCertPath(),
+                dockerAccessContext.getMaxConnections(),
+                dockerAccessContext.getLog());
+        return new DockerConnectionCache.Connection(access, connectionParam.getUrl());
+    }
+
+    // Everything which can lead to a different connection
+    private Object getConnectionKey(DockerAccessContext dockerAccessContext) {
+        DockerMachineConfiguration machine = dockerAccessContext.getMachine();
+        Properties projectProps = dockerAccessContext.getProjectProperties();
+        return Arrays.asList(dockerAccessContext.getDockerHost(),
+                             dockerAccessContext.getCertPath(),
+                             dockerAccessContext.getMinimalApiVersion(),
+                             dockerAccessContext.getMaxConnections(),
+                             dockerAccessContext.isSkipMachine(),
+                             machine != null ? machine.getName() : null,
+                             projectProps != null ? projectProps.getProperty(DockerMachineConfiguration.DOCKER_MACHINE_NAME_PROP) : null,
+                             dockerAccessContext.getDockerHostProviders());
+    }
+
     private DockerConnectionDetector createDockerConnectionDetector(DockerAccessContext dockerAccessContext, Logger log) {
         return new DockerConnectionDetector(getDockerHostProviders(dockerAccessContext, log));
     }
@@ -127,6 +172,12 @@ public class DockerAccessFactory {
 
         private Logger log;
 
+        private boolean shareConnection;
+
+        private transient MavenSession session;
+
+        private boolean lastInSession;
+
         public DockerAccessContext() {
         }
 
@@ -166,6 +217,18 @@ public class DockerAccessFactory {
             return log;
         }
 
+        public boolean isShareConnection() {
+            return shareConnection;
+        }
+
+        public MavenSession getSession() {
+            return session;
+        }
+
+        public boolean isLastInSession() {
+            return lastInSession;
+        }
+
         public static class Builder {
 
             private DockerAccessContext context = new DockerAccessContext();
@@ -223,6 +286,21 @@ public class DockerAccessFactory {
                 return this;
             }
 
+            public Builder shareConnection(boolean shareConnection) {
+                context.shareConnection = shareConnection;
+                return this;
+            }
+
+            public Builder session(MavenSession session) {
+                context.session = session;
+                return this;
+            }
+
+            public Builder lastInSession(boolean lastInSession) {
+                context.lastInSession = lastInSession;
+                return this;
+            }
+
             public DockerAccessContext build() {
                 return context;
             }
@@ -0,0 +1,190 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.fabric8.maven.docker.access.hc.DockerAccessWithHcClient;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Connections to Docker daemons shared by all mojo executions of a Maven session. Connecting means detecting
+ * the daemon, creating a connection pool and asking the daemon for its version, which is done only once per
+ * key and session. Every mojo execution gets its own lightweight access leased from the cached connection,
+ * so that loggers, event subscriptions and log followers are not shared.
+ * <p>
+ * Leases are counted: a connection is closed when its last lease is released after a mojo of the last project
+ * of the session has finished. Connections left over from a previous session (e.g. when the last project
+ * doesn't use Docker) are closed when a new session starts or when the JVM exits.
+ *
+ * @since 0.50
+ */
+class DockerConnectionCache {
+
+    private final Map<Object, Entry> entries = new HashMap<>();
+
+    // Request of the session the cached connections belong to, compared by identity. In parallel builds every
+    // project gets its own clone of the session, but all clones share the same request
+    private Object session;
+
+    private int hits;
+    private int misses;
+    private long savedNanos;
+
+    private boolean shutdownHookAdded;
+
+    /**
+     * Lease a connection, connecting if there is none for the given key in this session yet
+     *
+     * @param key key identifying the connection parameters
+     * @param session session the mojo execution belongs to, also one of the per project clones of a parallel build
+     * @param lastInSession whether the mojo execution belongs to the last project of the session
+     * @param log logger of the mojo execution
+     * @param connector creates a new connection
+     * @return connection whose access must be shut down when the mojo execution is done
+     * @throws IOException if connecting fails
+     */
+    synchronized Connection acquire(Object key, MavenSession session, boolean lastInSession, Logger log, Connector connector)
+        throws IOException {
+        if (this.session != session.getRequest()) {
+            startSession(session.getRequest());
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            long start = System.nanoTime();
+            Connection connection = connector.connect();
+            entry = new Entry(key, connection, System.nanoTime() - start);
+            entries.put(key, entry);
+            misses++;
+            addShutdownHook();
+        } else {
+            entry.hits++;
+            hits++;
+            savedNanos += entry.connectNanos;
+            log.verbose(Logger.LogVerboseCategory.API, "Reusing connection to %s", entry.connection.getUrl());
+        }
+        entry.leases++;
+
+        Entry leased = entry;
+        AtomicBoolean released = new AtomicBoolean();
+        DockerAccessWithHcClient access = new DockerAccessWithHcClient(entry.connection.getAccess(), log, () -> {
+            if (released.compareAndSet(false, true)) {
+                release(leased, lastInSession, log);
+            }
+        });
+        return new Connection(access, entry.connection.getUrl());
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    long getSavedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(savedNanos);
+    }
+
+    private synchronized void release(Entry entry, boolean lastInSession, Logger log) {
+        entry.leases--;
+        entry.sessionEnding |= lastInSession;
+        if (entry.leases == 0 && (entry.sessionEnding || entry.stale)) {
+            entries.remove(entry.key, entry);
+            close(entry, log);
+        }
+    }
+
+    // Connections of the previous session which are still in use are closed when released
+    private void startSession(Object newSession) {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            if (entry.leases == 0) {
+                close(entry, null);
+            } else {
+                entry.stale = true;
+            }
+        }
+        entries.clear();
+        session = newSession;
+        hits = 0;
+        misses = 0;
+        savedNanos = 0;
+    }
+
+    private synchronized void closeAll() {
+        List<Entry> toClose = new ArrayList<>(entries.values());
+        entries.clear();
+        for (Entry entry : toClose) {
+            close(entry, null);
+        }
+    }
+
+    private void close(Entry entry, Logger log) {
+        if (log != null && entry.hits > 0) {
+            log.info("Reused connection to %s %d times, saving %d ms of connection setup",
+                     entry.connection.getUrl(), entry.hits,
+                     TimeUnit.NANOSECONDS.toMillis(entry.hits * entry.connectNanos));
+        }
+        entry.connection.getAccess().shutdown();
+    }
+
+    private void addShutdownHook() {
+        if (!shutdownHookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeAll, "docker-connection-cache-shutdown"));
+            shutdownHookAdded = true;
+        }
+    }
+
+    // ===========================================
+
+    interface Connector {
+        /**
+         * Detect the Docker daemon and connect to it
+         *
+         * @return connection with an access owning its connection pool
+         * @throws IOException if connecting fails
+         */
+        Connection connect() throws IOException;
+    }
+
+    static class Connection {
+        private final DockerAccessWithHcClient access;
+        private final String url;
+
+        Connection(DockerAccessWithHcClient access, String url) {
+            this.access = access;
+            this.url = url;
+        }
+
+        DockerAccessWithHcClient getAccess() {
+            return access;
+        }
+
+        String getUrl() {
+            return url;
+        }
+    }
+
+    private static class Entry {
+        private final Object key;
+        private final Connection connection;
+        private final long connectNanos;
+
+        private int leases;
+        private int hits;
+        private boolean sessionEnding;
+        private boolean stale;
+
+        Entry(Object key, Connection connection, long connectNanos) {
+            this.key = key;
+            this.connection = connection;
+            this.connectNanos = connectNanos;
+        }
+    }
+}
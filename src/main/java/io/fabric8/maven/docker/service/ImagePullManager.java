@@ -14,6 +14,9 @@ public class ImagePullManager {
     // Key for the previously used image cache
     private static final String CONTEXT_KEY_PREVIOUSLY_PULLED = "CONTEXT_KEY_PREVIOUSLY_PULLED";
 
+    // Pulled images are stored in the session, which is shared by all pull managers and may be updated concurrently
+    private static final Object PULLED_LOCK = new Object();
+
     // image pull policy
     private final ImagePullPolicy imagePullPolicy;
 
@@ -48,11 +51,15 @@ public class ImagePullManager {
     }
 
     public boolean hasAlreadyPulled(String image) {
-        return load().has(image);
+        synchronized (PULLED_LOCK) {
+            return load().has(image);
+        }
     }
 
     public void pulled(String image) {
-        save(load().add(image));
+        synchronized (PULLED_LOCK) {
+            save(load().add(image));
+        }
     }
 
 
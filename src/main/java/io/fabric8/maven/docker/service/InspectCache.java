@@ -0,0 +1,187 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.model.Container;
+import io.fabric8.maven.docker.util.ImageName;
+
+/**
+ * Results of image and container inspections shared by all mojo executions of a Maven session. Entries are
+ * invalidated by the {@link InspectCacheInvalidator} for every change done through the Docker access, so that
+ * e.g. a build invalidates the image id of the built image and starting a container its container details.
+ * <p>
+ * Lookups which are running while an entry gets invalidated don't store their (possibly outdated) result.
+ * Changes done outside of this plugin are not noticed, callers which are waiting for such changes (like
+ * a container exiting) must read the current state from the daemon instead.
+ *
+ * @since 0.50
+ */
+public class InspectCache {
+
+    private final Map<String, Optional<String>> imageIds = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> images = new ConcurrentHashMap<>();
+    private final Map<String, Optional<Container>> containers = new ConcurrentHashMap<>();
+
+    // Incremented on every invalidation, lookups only store their result when nothing has been invalidated meanwhile
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Session the entries belong to (its execution request), compared by identity
+    private Object session;
+
+    /**
+     * Prepare the cache for being used by the given session, dropping all entries of a previous session
+     *
+     * @param session object identifying the current session, which must be the same for all projects of the
+     *                session, like its execution request
+     */
+    public synchronized void useForSession(Object session) {
+        if (this.session != session) {
+            this.session = session;
+            invalidateAll();
+            hits.set(0);
+            misses.set(0);
+        }
+    }
+
+    String getImageId(String name, Lookup<String> lookup) throws DockerAccessException {
+        return cached(imageIds, imageKey(name), () -> Optional.ofNullable(lookup.load())).orElse(null);
+    }
+
+    boolean hasImage(String name, Lookup<Boolean> lookup) throws DockerAccessException {
+        String key = imageKey(name);
+        Optional<String> imageId = imageIds.get(key);
+        if (imageId != null) {
+            hits.incrementAndGet();
+            return imageId.isPresent();
+        }
+        Boolean exists = images.get(key);
+        if (exists != null) {
+            hits.incrementAndGet();
+            return exists;
+        }
+        misses.incrementAndGet();
+        long before = generation.get();
+        exists = lookup.load();
+        storeIfUnchanged(images, key, exists, before);
+        return exists;
+    }
+
+    Container getContainer(String idOrName, Lookup<Container> lookup) throws DockerAccessException {
+        return cached(containers, idOrName, () -> Optional.ofNullable(lookup.load())).orElse(null);
+    }
+
+    String refreshImageId(String name, Lookup<String> lookup) throws DockerAccessException {
+        String key = imageKey(name);
+        long before = generation.get();
+        String imageId = lookup.load();
+        images.remove(key);
+        storeIfUnchanged(imageIds, key, Optional.ofNullable(imageId), before);
+        return imageId;
+    }
+
+    Container refreshContainer(String idOrName, Lookup<Container> lookup) throws DockerAccessException {
+        long before = generation.get();
+        Container container = lookup.load();
+        storeIfUnchanged(containers, idOrName, Optional.ofNullable(container), before);
+        return container;
+    }
+
+    /**
+     * Invalidate everything known about an image name
+     *
+     * @param name image name, with or without tag
+     */
+    public void invalidateImage(String name) {
+        generation.incrementAndGet();
+        String key = imageKey(name);
+        imageIds.remove(key);
+        images.remove(key);
+    }
+
+    /**
+     * Invalidate all image entries, used when it is not known which names are affected (like for removing
+     * an image by id or loading an archive)
+     */
+    public void invalidateImages() {
+        generation.incrementAndGet();
+        imageIds.clear();
+        images.clear();
+    }
+
+    /**
+     * Invalidate the details of a container, looked up by its id, a prefix of its id or its name. Lookups
+     * of containers which didn't exist are invalidated, too, since the container might have just been created.
+     *
+     * @param idOrName container id or name, null if only lookups of not existing containers should be invalidated
+     */
+    public void invalidateContainer(String idOrName) {
+        generation.incrementAndGet();
+        containers.entrySet().removeIf(e -> !e.getValue().isPresent() ||
+                                            (idOrName != null && (e.getKey().equals(idOrName) ||
+                                                                  matches(e.getValue().get(), idOrName))));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        imageIds.clear();
+        images.clear();
+        containers.clear();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // ===========================================
+
+    private <T> Optional<T> cached(Map<String, Optional<T>> cache, String key, Lookup<Optional<T>> lookup) throws DockerAccessException {
+        Optional<T> value = cache.get(key);
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+        misses.incrementAndGet();
+        long before = generation.get();
+        value = lookup.load();
+        storeIfUnchanged(cache, key, value, before);
+        return value;
+    }
+
+    private <T> void storeIfUnchanged(Map<String, T> cache, String key, T value, long before) {
+        cache.put(key, value);
+        if (generation.get() != before) {
+            // Invalidated while looking up, the value might be outdated
+            cache.remove(key, value);
+        }
+    }
+
+    private boolean matches(Container container, String idOrName) {
+        String id = container.getId();
+        return (id != null && id.startsWith(idOrName)) ||
+               idOrName.equals(container.getName());
+    }
+
+    // "alpine" and "alpine:latest" refer to the same image
+    private static String imageKey(String name) {
+        try {
+            return new ImageName(name).getFullName();
+        } catch (IllegalArgumentException exp) {
+            return name;
+        }
+    }
+
+    interface Lookup<T> {
+        T load() throws DockerAccessException;
+    }
+}
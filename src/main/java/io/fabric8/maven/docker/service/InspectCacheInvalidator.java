@@ -0,0 +1,313 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.File;
+import java.util.List;
+
+import io.fabric8.maven.docker.access.AuthConfig;
+import io.fabric8.maven.docker.access.BuildOptions;
+import io.fabric8.maven.docker.access.ContainerCreateConfig;
+import io.fabric8.maven.docker.access.CreateImageOptions;
+import io.fabric8.maven.docker.access.DockerAccess;
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.NetworkCreateConfig;
+import io.fabric8.maven.docker.access.StreamingArchive;
+import io.fabric8.maven.docker.access.VolumeCreateConfig;
+import io.fabric8.maven.docker.access.event.EventCallback;
+import io.fabric8.maven.docker.access.event.EventGetHandle;
+import io.fabric8.maven.docker.access.log.LogCallback;
+import io.fabric8.maven.docker.access.log.LogGetHandle;
+import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.Arguments;
+import io.fabric8.maven.docker.config.CompressionOptions;
+import io.fabric8.maven.docker.log.LogOutputSpec;
+import io.fabric8.maven.docker.model.Container;
+import io.fabric8.maven.docker.model.ContainerDetails;
+import io.fabric8.maven.docker.model.ExecDetails;
+import io.fabric8.maven.docker.model.Image;
+import io.fabric8.maven.docker.model.Network;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Docker access which invalidates the entries of an {@link InspectCache} affected by the changes done through it.
+ * All calls are delegated unchanged, reading calls are not cached here but by the {@link QueryService}.
+ * Entries are invalidated after the change has been done, and also when it failed since the change might have
+ * been done partially.
+ *
+ * @since 0.50
+ */
+class InspectCacheInvalidator implements DockerAccess {
+
+    private final DockerAccess delegate;
+    private final InspectCache cache;
+
+    InspectCacheInvalidator(DockerAccess delegate, InspectCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    // ========================================================================================
+    // Changing calls
+
+    @Override
+    public String createContainer(ContainerCreateConfig configuration, String containerName) throws DockerAccessException {
+        try {
+            return delegate.createContainer(configuration, containerName);
+        } finally {
+            cache.invalidateContainer(containerName);
+        }
+    }
+
+    @Override
+    public void startContainer(String containerId) throws DockerAccessException {
+        try {
+            delegate.startContainer(containerId);
+        } finally {
+            cache.invalidateContainer(containerId);
+        }
+    }
+
+    @Override
+    public void stopContainer(String containerId, int killWait) throws DockerAccessException {
+        try {
+            delegate.stopContainer(containerId, killWait);
+        } finally {
+            cache.invalidateContainer(containerId);
+        }
+    }
+
+    @Override
+    public void killContainer(String containerId) throws DockerAccessException {
+        try {
+            delegate.killContainer(containerId);
+        } finally {
+            cache.invalidateContainer(containerId);
+        }
+    }
+
+    @Override
+    public void removeContainer(String containerId, boolean removeVolumes) throws DockerAccessException {
+        try {
+            delegate.removeContainer(containerId, removeVolumes);
+        } finally {
+            cache.invalidateContainer(containerId);
+        }
+    }
+
+    @Override
+    public void loadImage(String image, File tarArchive) throws DockerAccessException {
+        try {
+            delegate.loadImage(image, tarArchive);
+        } finally {
+            // An archive can contain any images
+            cache.invalidateImages();
+        }
+    }
+
+    @Override
+    public void pullImage(String image, AuthConfig authConfig, String registry, CreateImageOptions options) throws DockerAccessException {
+        try {
+            delegate.pullImage(image, authConfig, registry, options);
+        } finally {
+            cache.invalidateImage(image);
+        }
+    }
+
+    @Override
+    public void pullImage(String image, AuthConfig authConfig, String registry, CreateImageOptions options, Logger progressLog) throws DockerAccessException {
+        try {
+            delegate.pullImage(image, authConfig, registry, options, progressLog);
+        } finally {
+            cache.invalidateImage(image);
+        }
+    }
+
+    @Override
+    public void buildImage(String image, File dockerArchive, BuildOptions options) throws DockerAccessException {
+        try {
+            delegate.buildImage(image, dockerArchive, options);
+        } finally {
+            cache.invalidateImage(image);
+        }
+    }
+
+    @Override
+    public void buildImageFromStream(String image, StreamingArchive buildContext, BuildOptions options) throws DockerAccessException {
+        try {
+            delegate.buildImageFromStream(image, buildContext, options);
+        } finally {
+            cache.invalidateImage(image);
+        }
+    }
+
+    @Override
+    public void tag(String sourceImage, String targetImage, boolean force) throws DockerAccessException {
+        try {
+            delegate.tag(sourceImage, targetImage, force);
+        } finally {
+            cache.invalidateImage(targetImage);
+        }
+    }
+
+    @Override
+    public boolean removeImage(String image, boolean force) throws DockerAccessException {
+        try {
+            return delegate.removeImage(image, force);
+        } finally {
+            // Removing by id or with force affects all names of the image
+            cache.invalidateImages();
+        }
+    }
+
+    // ========================================================================================
+    // Delegated calls
+
+    @Override
+    public void start() throws DockerAccessException {
+        delegate.start();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public String getServerApiVersion() throws DockerAccessException {
+        return delegate.getServerApiVersion();
+    }
+
+    @Override
+    public String getNativePlatform() {
+        return delegate.getNativePlatform();
+    }
+
+    @Override
+    public ContainerDetails getContainer(String containerIdOrName) throws DockerAccessException {
+        return delegate.getContainer(containerIdOrName);
+    }
+
+    @Override
+    public ExecDetails getExecContainer(String containerIdOrName) throws DockerAccessException {
+        return delegate.getExecContainer(containerIdOrName);
+    }
+
+    @Override
+    public boolean hasImage(String name) throws DockerAccessException {
+        return delegate.hasImage(name);
+    }
+
+    @Override
+    public String getImageId(String name) throws DockerAccessException {
+        return delegate.getImageId(name);
+    }
+
+    @Override
+    public List<String> getImageTags(String name) throws DockerAccessException {
+        return delegate.getImageTags(name);
+    }
+
+    @Override
+    public List<Container> listContainers(boolean all) throws DockerAccessException {
+        return delegate.listContainers(all);
+    }
+
+    @Override
+    public List<Container> listContainers(boolean all, String... filter) throws DockerAccessException {
+        return delegate.listContainers(all, filter);
+    }
+
+    @Override
+    public List<Container> getContainersForImage(String image, boolean all) throws DockerAccessException {
+        return delegate.getContainersForImage(image, all);
+    }
+
+    @Override
+    public void startExecContainer(String containerId, LogOutputSpec outputSpec) throws DockerAccessException {
+        delegate.startExecContainer(containerId, outputSpec);
+    }
+
+    @Override
+    public String createExecContainer(String containerId, Arguments arguments) throws DockerAccessException {
+        return delegate.createExecContainer(containerId, arguments);
+    }
+
+    @Override
+    public void copyArchiveToContainer(String containerId, File archive, String targetPath) throws DockerAccessException {
+        delegate.copyArchiveToContainer(containerId, archive, targetPath);
+    }
+
+    @Override
+    public void copyArchiveStreamToContainer(String containerId, StreamingArchive archive, String targetPath) throws DockerAccessException {
+        delegate.copyArchiveStreamToContainer(containerId, archive, targetPath);
+    }
+
+    @Override
+    public void copyArchiveFromContainer(String containerId, String containerPath, File archive) throws DockerAccessException {
+        delegate.copyArchiveFromContainer(containerId, containerPath, archive);
+    }
+
+    @Override
+    public void getLogSync(String containerId, LogCallback callback) {
+        delegate.getLogSync(containerId, callback);
+    }
+
+    @Override
+    public LogGetHandle getLogAsync(String containerId, LogCallback callback) {
+        return delegate.getLogAsync(containerId, callback);
+    }
+
+    @Override
+    public EventGetHandle getEventsAsync(EventCallback callback, String... filter) {
+        return delegate.getEventsAsync(callback, filter);
+    }
+
+    @Override
+    public List<Image> listImages(boolean all) throws DockerAccessException {
+        return delegate.listImages(all);
+    }
+
+    @Override
+    public void pushImage(String image, AuthConfig authConfig, String registry, int retries) throws DockerAccessException {
+        delegate.pushImage(image, authConfig, registry, retries);
+    }
+
+    @Override
+    public void pushImage(String image, AuthConfig authConfig, String registry, int retries, Logger progressLog) throws DockerAccessException {
+        delegate.pushImage(image, authConfig, registry, retries, progressLog);
+    }
+
+    @Override
+    public void saveImage(String image, String filename, ArchiveCompression compression, CompressionOptions compressionOptions) throws DockerAccessException {
+        delegate.saveImage(image, filename, compression, compressionOptions);
+    }
+
+    @Override
+    public void saveImages(List<String> images, String filename, ArchiveCompression compression, CompressionOptions compressionOptions) throws DockerAccessException {
+        delegate.saveImages(images, filename, compression, compressionOptions);
+    }
+
+    @Override
+    public List<Network> listNetworks() throws DockerAccessException {
+        return delegate.listNetworks();
+    }
+
+    @Override
+    public String createNetwork(NetworkCreateConfig configuration) throws DockerAccessException {
+        return delegate.createNetwork(configuration);
+    }
+
+    @Override
+    public boolean removeNetwork(String networkId) throws DockerAccessException {
+        return delegate.removeNetwork(networkId);
+    }
+
+    @Override
+    public String createVolume(VolumeCreateConfig configuration) throws DockerAccessException {
+        return delegate.createVolume(configuration);
+    }
+
+    @Override
+    public void removeVolume(String name) throws DockerAccessException {
+        delegate.removeVolume(name);
+    }
+}
@@ -0,0 +1,325 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.util.BackgroundLogger;
+import io.fabric8.maven.docker.util.EnvUtil;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Runs image pushes with at most a given number of pushes at once. Each image name (including each tag) is
+ * pushed separately, retries are done by the Docker access for each push.
+ * <p>
+ * When pushes run concurrently, all output goes through the calling thread: messages of a push are prefixed
+ * with its image name, and the per-layer progress of each push is condensed into one progress line per image.
+ * This keeps the progress display readable, since it can only track the lines written by a single thread.
+ * When a push fails, no further pushes are started, the running ones are awaited and the first failure is
+ * thrown.
+ *
+ * @since 0.50
+ */
+class PushScheduler {
+
+    // How often the progress lines are refreshed while pushing concurrently
+    static final long RENDER_INTERVAL_MILLIS = 200;
+
+    private final Logger log;
+    private final int parallelism;
+    private final List<Push> pushes = new ArrayList<>();
+
+    PushScheduler(Logger log, int parallelism) {
+        this.log = log;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Add a push to be run by {@link #run()}
+     *
+     * @param image image name used for logging
+     * @param task task doing the push
+     */
+    void add(String image, PushTask task) {
+        pushes.add(new Push(image, task));
+    }
+
+    /**
+     * Run all added pushes and wait until they are done
+     *
+     * @throws DockerAccessException the first failure of a push
+     */
+    void run() throws DockerAccessException {
+        if (parallelism <= 1 || pushes.size() <= 1) {
+            for (Push push : pushes) {
+                long start = System.currentTimeMillis();
+                push.task.push(log);
+                log.info("Pushed %s in %s", push.image, EnvUtil.formatDurationTill(start));
+            }
+        } else {
+            long start = System.currentTimeMillis();
+            int threads = Math.min(parallelism, pushes.size());
+            runConcurrently(threads);
+            log.info("Pushed %d images in %s with %d pushes at once", pushes.size(), EnvUtil.formatDurationTill(start), threads);
+        }
+    }
+
+    // ===========================================
+
+    private void runConcurrently(int threads) throws DockerAccessException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("docker-push-%d").setDaemon(true).build());
+        ProgressBoard board = new ProgressBoard();
+        CompletionService<Push> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Push>> futures = new ArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        for (Push push : pushes) {
+            futures.add(completion.submit(() -> {
+                if (failed.get()) {
+                    // Don't start new pushes once one has failed
+                    return null;
+                }
+                long start = System.currentTimeMillis();
+                try {
+                    push.task.push(new MultiplexingLogger(push.image, board, log));
+                    String duration = EnvUtil.formatDurationTill(start);
+                    board.message(l -> l.info("Pushed %s in %s", push.image, duration));
+                } catch (DockerAccessException | RuntimeException exp) {
+                    failed.set(true);
+                    throw exp;
+                } finally {
+                    board.finished(push.image);
+                }
+                return push;
+            }));
+        }
+
+        List<Throwable> failures = new ArrayList<>();
+        log.progressStart();
+        try {
+            for (int remaining = futures.size(); remaining > 0; ) {
+                Future<Push> done = completion.poll(RENDER_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                board.render(log);
+                if (done == null) {
+                    continue;
+                }
+                remaining--;
+                try {
+                    done.get();
+                } catch (CancellationException exp) {
+                    // Not started because of an earlier failure
+                } catch (ExecutionException exp) {
+                    if (failures.isEmpty()) {
+                        futures.forEach(f -> f.cancel(false));
+                    }
+                    failures.add(exp.getCause());
+                }
+            }
+            board.render(log);
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new DockerAccessException("Interrupted while pushing images");
+        } finally {
+            log.progressFinished();
+            executor.shutdownNow();
+        }
+
+        if (!failures.isEmpty()) {
+            throw asDockerAccessException(failures);
+        }
+    }
+
+    private static DockerAccessException asDockerAccessException(List<Throwable> failures) {
+        Throwable first = failures.get(0);
+        DockerAccessException exp = first instanceof DockerAccessException ?
+            (DockerAccessException) first :
+            new DockerAccessException(first, "Push failed: %s", first.getMessage());
+        for (Throwable other : failures.subList(1, failures.size())) {
+            exp.addSuppressed(other);
+        }
+        return exp;
+    }
+
+    interface PushTask {
+        /**
+         * Do the push
+         *
+         * @param progressLog logger to use for the progress and the messages of the push
+         * @throws DockerAccessException if the push fails
+         */
+        void push(Logger progressLog) throws DockerAccessException;
+    }
+
+    private static class Push {
+        private final String image;
+        private final PushTask task;
+
+        Push(String image, PushTask task) {
+            this.image = image;
+            this.task = task;
+        }
+    }
+
+    // Collects the output of concurrent pushes, which is written by the scheduling thread
+    private static class ProgressBoard {
+
+        private final List<Consumer<Logger>> messages = new ArrayList<>();
+        private final Map<String, Map<String, String[]>> layersByImage = new LinkedHashMap<>();
+        private final Set<String> changed = new LinkedHashSet<>();
+
+        synchronized void message(Consumer<Logger> message) {
+            messages.add(message);
+        }
+
+        synchronized void update(String image, String layerId, String status, String progress) {
+            layersByImage.computeIfAbsent(image, k -> new LinkedHashMap<>()).put(layerId, new String[] { status, progress });
+            changed.add(image);
+        }
+
+        synchronized void finished(String image) {
+            layersByImage.remove(image);
+            changed.remove(image);
+        }
+
+        void render(Logger log) {
+            List<Consumer<Logger>> toLog;
+            Map<String, String[]> lines = new LinkedHashMap<>();
+            synchronized (this) {
+                toLog = new ArrayList<>(messages);
+                messages.clear();
+                // Writing messages ends the current progress block, so all lines have to be written again
+                for (String image : toLog.isEmpty() ? changed : layersByImage.keySet()) {
+                    lines.put(image, summarize(layersByImage.get(image)));
+                }
+                changed.clear();
+            }
+            if (!toLog.isEmpty()) {
+                log.progressFinished();
+                toLog.forEach(message -> message.accept(log));
+                log.progressStart();
+            }
+            lines.forEach((image, line) -> log.progressUpdate(image, line[0], line[1]));
+        }
+
+        // One line per image: number of layers done plus the progress bar of the layer updated last
+        private static String[] summarize(Map<String, String[]> layers) {
+            int done = 0;
+            String progress = "";
+            for (String[] layer : layers.values()) {
+                String status = layer[0];
+                if (status.equals("Pushed") || status.equals("Layer already exists") || status.startsWith("Mounted from")) {
+                    done++;
+                } else if (!layer[1].isEmpty()) {
+                    progress = layer[1];
+                }
+            }
+            String status = done == layers.size() ? "Pushed" : "Pushing";
+            return new String[] { status, done + "/" + layers.size() + " layers " + progress };
+        }
+    }
+
+    // Logger handed to a single push: messages are prefixed with the image and written through the progress board,
+    // so that they don't garble the progress block, layer progress updates the board
+    private static class MultiplexingLogger extends BackgroundLogger {
+
+        private final String image;
+        private final ProgressBoard board;
+
+        MultiplexingLogger(String image, ProgressBoard board, Logger log) {
+            super(image, new BoardLogger(board, log));
+            this.image = image;
+            this.board = board;
+        }
+
+        @Override
+        public void progressUpdate(String layerId, String status, String progressMessage) {
+            if (layerId != null && !layerId.isEmpty()) {
+                board.update(image, layerId, status != null ? status : "", progressMessage != null ? progressMessage : "");
+            }
+        }
+    }
+
+    // Logger writing everything shown on the console through the progress board
+    private static class BoardLogger implements Logger {
+
+        private final ProgressBoard board;
+        private final Logger log;
+
+        BoardLogger(ProgressBoard board, Logger log) {
+            this.board = board;
+            this.log = log;
+        }
+
+        @Override
+        public void debug(String format, Object... params) {
+            log.debug(format, params);
+        }
+
+        @Override
+        public void info(String format, Object... params) {
+            board.message(l -> l.info(format, params));
+        }
+
+        @Override
+        public void verbose(LogVerboseCategory logVerboseCategory, String format, Object... params) {
+            board.message(l -> l.verbose(logVerboseCategory, format, params));
+        }
+
+        @Override
+        public void warn(String format, Object... params) {
+            board.message(l -> l.warn(format, params));
+        }
+
+        @Override
+        public void error(String format, Object... params) {
+            board.message(l -> l.error(format, params));
+        }
+
+        @Override
+        public String errorMessage(String message) {
+            return log.errorMessage(message);
+        }
+
+        @Override
+        public boolean isDebugEnabled() {
+            return log.isDebugEnabled();
+        }
+
+        @Override
+        public boolean isVerboseEnabled() {
+            return log.isVerboseEnabled();
+        }
+
+        @Override
+        public void progressStart() {
+            // The progress block is managed by the scheduling thread
+        }
+
+        @Override
+        public void progressUpdate(String layerId, String status, String progressMessage) {
+            // Only layer progress of the prefixed logger is shown
+        }
+
+        @Override
+        public void progressFinished() {
+            // The progress block is managed by the scheduling thread
+        }
+    }
+}
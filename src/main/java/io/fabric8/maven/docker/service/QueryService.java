@@ -1,5 +1,7 @@
 package io.fabric8.maven.docker.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -19,12 +21,35 @@ public class QueryService {
     // Access to docker daemon & logger
     private DockerAccess docker;
 
+    // Cached inspections, null if every lookup should go to the daemon
+    private final InspectCache inspectCache;
+
     /**
      * Constructor which gets its dependencies as args)
      *  @param docker remote access to docker daemon
      * */
     public QueryService(DockerAccess docker) {
+        this(docker, null);
+    }
+
+    /**
+     * Constructor for a query service which looks up images and containers through a cache
+     *
+     * @param docker remote access to docker daemon, which must invalidate the cache on changes
+     * @param inspectCache cache for image and container inspections, null for no caching
+     */
+    public QueryService(DockerAccess docker, InspectCache inspectCache) {
         this.docker = docker;
+        this.inspectCache = inspectCache;
+    }
+
+    /**
+     * Get the cache used for image and container inspections
+     *
+     * @return the cache or null if inspections are not cached
+     */
+    public InspectCache getInspectCache() {
+        return inspectCache;
     }
 
     /**
@@ -49,7 +74,28 @@ public class QueryService {
      * @throws DockerAccessException in case of an remote error
      */
     public Container getContainer(final String containerIdOrName) throws DockerAccessException {
-        return docker.getContainer(containerIdOrName);
+        if (inspectCache == null) {
+            return docker.getContainer(containerIdOrName);
+        }
+        return inspectCache.getContainer(containerIdOrName, () -> docker.getContainer(containerIdOrName));
+    }
+
+    /**
+     * Get the current state of a container, bypassing the cache. To be used when waiting for changes
+     * which are not done by this plugin, like a container exiting or getting its ports bound.
+     *
+     * @param containerIdOrName container id or name
+     * @return container found
+     * @throws DockerAccessException if an error occurs or no container with this id or name exists
+     */
+    public Container getCurrentContainer(String containerIdOrName) throws DockerAccessException {
+        Container container = inspectCache == null ?
+            docker.getContainer(containerIdOrName) :
+            inspectCache.refreshContainer(containerIdOrName, () -> docker.getContainer(containerIdOrName));
+        if (container == null) {
+            throw new DockerAccessException("Cannot find container %s", containerIdOrName);
+        }
+        return container;
     }
 
     /**
@@ -99,6 +145,19 @@ public class QueryService {
         return docker.listContainers(all);
     }
 
+    /**
+     * List the containers on the Docker server which match the given filters.
+     *
+     * @param all if true, list stopped containers as well as running containers.
+     * @param filter filters given as key value pairs
+     *
+     * @return list of <code>Container</code> objects
+     * @throws DockerAccessException if the request fails
+     */
+    public List<Container> listContainers(final boolean all, final String ... filter) throws DockerAccessException {
+        return docker.listContainers(all, filter);
+    }
+
     /**
      * Get all containers which are build from an image. By default only the last containers are considered but this
      * can be tuned with a global parameters.
@@ -132,7 +191,25 @@ public class QueryService {
      * @throws DockerAccessException if the request fails
      */
     public String getImageId(String imageName) throws DockerAccessException {
-        return docker.getImageId(imageName);
+        if (inspectCache == null) {
+            return docker.getImageId(imageName);
+        }
+        return inspectCache.getImageId(imageName, () -> docker.getImageId(imageName));
+    }
+
+    /**
+     * Finds the current id of an image, bypassing the cache. To be used when watching for images changed
+     * outside of this plugin.
+     *
+     * @param imageName name of the image.
+     * @return the id of the image
+     * @throws DockerAccessException if the request fails
+     */
+    public String getCurrentImageId(String imageName) throws DockerAccessException {
+        if (inspectCache == null) {
+            return docker.getImageId(imageName);
+        }
+        return inspectCache.refreshImageId(imageName, () -> docker.getImageId(imageName));
     }
 
     /**
@@ -182,6 +259,32 @@ public class QueryService {
         return getContainer(containerName) != null;
     }
 
+    /**
+     * Find out which of the given container names exist. All names are looked up with a single, filtered
+     * container listing.
+     *
+     * @param containerNames names of containers to look up
+     * @return the subset of names for which a container exists
+     * @throws DockerAccessException if the request fails
+     */
+    public Set<String> getExistingContainerNames(Collection<String> containerNames) throws DockerAccessException {
+        Set<String> ret = new HashSet<>();
+        if (containerNames.isEmpty()) {
+            return ret;
+        }
+        List<String> filter = new ArrayList<>();
+        for (String name : containerNames) {
+            filter.add("name");
+            filter.add("^/?" + ContainerNameIndex.escapeRegexp(name) + "$");
+        }
+        for (Container container : docker.listContainers(true, filter.toArray(new String[0]))) {
+            if (containerNames.contains(container.getName())) {
+                ret.add(container.getName());
+            }
+        }
+        return ret;
+    }
+
     /**
      * Check whether a network with the given name exists
      *
@@ -202,7 +305,10 @@ public class QueryService {
      * @throws DockerAccessException if the request fails
      */
     public boolean hasImage(String name) throws DockerAccessException {
-        return docker.hasImage(name);
+        if (inspectCache == null) {
+            return docker.hasImage(name);
+        }
+        return inspectCache.hasImage(name, () -> docker.hasImage(name));
     }
 
 }
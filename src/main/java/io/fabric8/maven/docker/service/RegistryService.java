@@ -1,6 +1,7 @@
 package io.fabric8.maven.docker.service;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -60,6 +61,24 @@ public class RegistryService {
      */
     public void pushImages(ProjectPaths projectPaths, Collection<ImageConfiguration> imageConfigs,
                            int retries, RegistryConfig registryConfig, boolean skipTag, BuildService.BuildContext buildContext) throws DockerAccessException, MojoExecutionException {
+        pushImages(projectPaths, imageConfigs, retries, 1, registryConfig, skipTag, buildContext);
+    }
+
+    /**
+     * Push a set of images to a registry, pushing several images and tags at once
+     *
+     * @param imageConfigs images to push (but only if they have a build configuration)
+     * @param retries how often to retry each push
+     * @param parallelism how many images and tags to push at once, 1 for pushing one after the other
+     * @param registryConfig a global registry configuration
+     * @param skipTag flag to skip pushing tagged images
+     * @throws DockerAccessException
+     * @throws MojoExecutionException
+     */
+    public void pushImages(ProjectPaths projectPaths, Collection<ImageConfiguration> imageConfigs,
+                           int retries, int parallelism, RegistryConfig registryConfig, boolean skipTag, BuildService.BuildContext buildContext) throws DockerAccessException, MojoExecutionException {
+        prefetchPushAuthConfigs(imageConfigs, registryConfig);
+        PushScheduler scheduler = new PushScheduler(log, parallelism);
         for (ImageConfiguration imageConfig : imageConfigs) {
             BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
             if (buildConfig == null || buildConfig.skipPush()) {
@@ -83,21 +102,38 @@ public class RegistryService {
             if (imageConfig.isBuildX()) {
                 buildXService.push(projectPaths, imageConfig, configuredRegistry, authConfigListForBuildXPush, buildArgsFromExternalSources);
             } else {
-                dockerPush(retries, skipTag, buildConfig, name, configuredRegistry, authConfigForLegacyPush);
+                scheduleDockerPush(scheduler, retries, skipTag, buildConfig, name, configuredRegistry, authConfigForLegacyPush);
+            }
+        }
+        scheduler.run();
+    }
+
+    // Look up the credentials of all registries pushed to at once instead of one after the other
+    private void prefetchPushAuthConfigs(Collection<ImageConfiguration> imageConfigs, RegistryConfig registryConfig) {
+        List<ImageName> imageNames = new ArrayList<>();
+        for (ImageConfiguration imageConfig : imageConfigs) {
+            BuildImageConfiguration buildConfig = imageConfig.getBuildConfiguration();
+            if (buildConfig != null && !buildConfig.skipPush()) {
+                ImageName imageName = new ImageName(imageConfig.getName());
+                String configuredRegistry = EnvUtil.firstRegistryOf(
+                    imageName.getRegistry(),
+                    imageConfig.getRegistry(),
+                    registryConfig.getRegistry());
+                imageNames.add(new ImageName(imageName.getFullName(configuredRegistry)));
             }
         }
+        registryConfig.prefetchAuthConfigs(true, imageNames);
     }
 
-    private void dockerPush(int retries, boolean skipTag, BuildImageConfiguration buildConfig, String name, String configuredRegistry, AuthConfig authConfig)
-        throws DockerAccessException {
-        long start = System.currentTimeMillis();
-        docker.pushImage(name, authConfig, configuredRegistry, retries);
-        log.info("Pushed %s in %s", name, EnvUtil.formatDurationTill(start));
+    private void scheduleDockerPush(PushScheduler scheduler, int retries, boolean skipTag, BuildImageConfiguration buildConfig,
+                                    String name, String configuredRegistry, AuthConfig authConfig) {
+        scheduler.add(name, progressLog -> docker.pushImage(name, authConfig, configuredRegistry, retries, progressLog));
 
         if (!skipTag) {
             for (String tag : buildConfig.getTags()) {
                 if (tag != null) {
-                    docker.pushImage(new ImageName(name, tag).getFullName(), authConfig, configuredRegistry, retries);
+                    String taggedName = new ImageName(name, tag).getFullName();
+                    scheduler.add(taggedName, progressLog -> docker.pushImage(taggedName, authConfig, configuredRegistry, retries, progressLog));
                 }
             }
         }
@@ -117,6 +153,24 @@ public class RegistryService {
      */
     public void pullImageWithPolicy(String image, ImagePullManager pullManager, RegistryConfig registryConfig, BuildImageConfiguration buildImageConfiguration)
         throws DockerAccessException, MojoExecutionException {
+        pullImageWithPolicy(image, pullManager, registryConfig, buildImageConfiguration, log);
+    }
+
+    /**
+     * Check an image and pull it like {@link #pullImageWithPolicy(String, ImagePullManager, RegistryConfig, BuildImageConfiguration)},
+     * reporting the progress of the pull to the given logger
+     *
+     * @param image image which is required to be pulled
+     * @param pullManager image pull manager
+     * @param registryConfig registry configuration
+     * @param buildImageConfiguration image build configuration
+     * @param progressLog logger receiving the progress and the messages of the pull
+     * @throws DockerAccessException in case of error in contacting docker daemon
+     * @throws MojoExecutionException in case of any other misc failure
+     */
+    public void pullImageWithPolicy(String image, ImagePullManager pullManager, RegistryConfig registryConfig, BuildImageConfiguration buildImageConfiguration,
+                                    Logger progressLog)
+        throws DockerAccessException, MojoExecutionException {
 
         // Already pulled, so we don't need to take care
         if (pullManager.hasAlreadyPulled(image)) {
@@ -137,8 +191,8 @@ public class RegistryService {
 
         docker.pullImage(imageName.getFullName(),
             createAuthConfig(false, null, actualRegistry, registryConfig),
-            actualRegistry, createImageOptions);
-        log.info("Pulled %s in %s", imageName.getFullName(), EnvUtil.formatDurationTill(pullStartTime));
+            actualRegistry, createImageOptions, progressLog);
+        progressLog.info("Pulled %s in %s", imageName.getFullName(), EnvUtil.formatDurationTill(pullStartTime));
         pullManager.pulled(image);
 
         if (actualRegistry != null && !imageName.hasRegistry()) {
@@ -267,6 +321,12 @@ public class RegistryService {
             return authConfigFactory.createAuthConfig(isPush, skipExtendedAuth, authConfig, settings, user, registry);
         }
 
+        public void prefetchAuthConfigs(boolean isPush, Collection<ImageName> images) {
+            if (authConfigFactory != null) {
+                authConfigFactory.prefetchAuthConfigs(isPush, skipExtendedAuth, authConfig, settings, images);
+            }
+        }
+
         public static class Builder {
 
             private RegistryConfig context;
@@ -21,20 +21,29 @@ import static io.fabric8.maven.docker.util.VolumeBindingUtil.resolveRelativeVolu
 
 import java.io.File;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Queue;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.fabric8.maven.docker.access.ContainerCreateConfig;
 import io.fabric8.maven.docker.access.ContainerHostConfig;
 import io.fabric8.maven.docker.access.ContainerNetworkingConfig;
@@ -58,10 +67,10 @@ import io.fabric8.maven.docker.model.ExecDetails;
 import io.fabric8.maven.docker.model.Network;
 import io.fabric8.maven.docker.model.PortBindingException;
 import io.fabric8.maven.docker.service.ContainerTracker.ContainerShutdownDescriptor;
-import io.fabric8.maven.docker.util.ContainerNamingUtil;
 import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.GavLabel;
 import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.docker.util.StartFrontier;
 import io.fabric8.maven.docker.util.StartOrderResolver;
 import io.fabric8.maven.docker.wait.WaitTimeoutException;
 import io.fabric8.maven.docker.wait.WaitUtil;
@@ -111,9 +120,23 @@ public class RunService {
      * @throws DockerAccessException if access to the docker backend fails
      */
     public String execInContainer(String containerId, String command, ImageConfiguration imageConfiguration)
+        throws DockerAccessException, ExecException {
+        return execInContainer(containerId, Arrays.asList(EnvUtil.splitOnSpaceWithEscape(command)), imageConfiguration);
+    }
+
+    /**
+     * Create and start a Exec container with the given image configuration.
+     * @param containerId container id to run exec command against
+     * @param command command to execute with its arguments, which are passed as they are
+     * @param imageConfiguration configuration of the container's image
+     * @return the exec container id
+     *
+     * @throws DockerAccessException if access to the docker backend fails
+     */
+    public String execInContainer(String containerId, List<String> command, ImageConfiguration imageConfiguration)
         throws DockerAccessException, ExecException {
         Arguments arguments = new Arguments();
-        arguments.setExec(Arrays.asList(EnvUtil.splitOnSpaceWithEscape(command)));
+        arguments.setExec(command);
         String execContainerId = docker.createExecContainer(containerId, arguments);
         docker.startExecContainer(execContainerId, logConfig.createSpec(containerId, imageConfiguration));
 
@@ -142,17 +165,43 @@ public class RunService {
     public String createContainer(ImageConfiguration imageConfig, PortMapping portMapping, GavLabel gavLabel,
             Properties properties, File baseDir, String defaultContainerNamePattern, Date buildTimestamp)
             throws DockerAccessException {
+        return createContainer(imageConfig, portMapping, gavLabel, properties, baseDir, defaultContainerNamePattern,
+                buildTimestamp, ContainerNameIndex.loadAll(queryService));
+    }
+
+    /**
+     * Create a container with the given image configuration, picking the container name from
+     * an index of already existing containers.
+     *
+     * @param imageConfig image configuration holding the run information and the image name
+     * @param portMapping container port mapping
+     * @param gavLabel label to tag the started container with
+     * @param properties properties to fill in with dynamically assigned ports
+     * @param defaultContainerNamePattern pattern to use for naming containers. Can be null in which case a default pattern is used
+     * @param buildTimestamp date which should be used as the timestamp when calculating container names
+     * @param nameIndex index of existing container names, updated with the name of the created container
+     * @return the container id
+     *
+     * @throws DockerAccessException if access to the docker backend fails
+     */
+    public String createContainer(ImageConfiguration imageConfig, PortMapping portMapping, GavLabel gavLabel,
+            Properties properties, File baseDir, String defaultContainerNamePattern, Date buildTimestamp,
+            ContainerNameIndex nameIndex)
+            throws DockerAccessException {
         RunImageConfiguration runConfig = imageConfig.getRunConfiguration();
         String imageName = imageConfig.getName();
 
-        Collection<Container> existingContainers = queryService.listContainers(true);
-        String containerName = ContainerNamingUtil
-                .formatContainerName(imageConfig, defaultContainerNamePattern, buildTimestamp, existingContainers);
+        String containerName = nameIndex.reserveName(imageConfig, defaultContainerNamePattern, buildTimestamp);
 
         ContainerCreateConfig config = createContainerConfig(imageName, runConfig, portMapping, gavLabel, properties,
                 baseDir);
 
-        return docker.createContainer(config, containerName);
+        try {
+            return docker.createContainer(config, containerName);
+        } catch (DockerAccessException exp) {
+            nameIndex.releaseName(containerName);
+            throw exp;
+        }
     }
 
     /**
@@ -187,8 +236,35 @@ public class RunService {
                                           File baseDir,
                                           String defaultContainerNamePattern,
                                           Date buildTimestamp) throws DockerAccessException {
+        return createAndStartContainer(imageConfig, portMapping, gavLabel, properties, baseDir,
+                defaultContainerNamePattern, buildTimestamp, ContainerNameIndex.loadAll(queryService));
+    }
+
+    /**
+     * Create and start a container with the given image configuration, picking the container name from
+     * an index of already existing containers.
+     *
+     * @param imageConfig image configuration holding the run information and the image name
+     * @param portMapping container port mapping
+     * @param gavLabel label to tag the started container with
+     * @param properties properties to fill in with dynamically assigned ports
+     * @param defaultContainerNamePattern pattern to use for naming containers. Can be null in which case a default pattern is used
+     * @param buildTimestamp date which should be used as the timestamp when calculating container names
+     * @param nameIndex index of existing container names, updated with the name of the created container
+     * @return the container id
+     *
+     * @throws DockerAccessException if access to the docker backend fails
+     */
+    public String createAndStartContainer(ImageConfiguration imageConfig,
+                                          PortMapping portMapping,
+                                          GavLabel gavLabel,
+                                          Properties properties,
+                                          File baseDir,
+                                          String defaultContainerNamePattern,
+                                          Date buildTimestamp,
+                                          ContainerNameIndex nameIndex) throws DockerAccessException {
         String id = createContainer(imageConfig, portMapping, gavLabel, properties, baseDir,
-                defaultContainerNamePattern, buildTimestamp);
+                defaultContainerNamePattern, buildTimestamp, nameIndex);
         startContainer(imageConfig, id, gavLabel);
 
         if (portMapping.needsPropertiesUpdate()) {
@@ -245,16 +321,43 @@ public class RunService {
                                       boolean removeCustomNetworks,
                                       GavLabel gavLabel)
         throws DockerAccessException, ExecException {
-		List<DockerAccessException> thrownExceptions = new ArrayList<>();
-        Set<Network> networksToRemove = new HashSet<>();
-        for (ContainerTracker.ContainerShutdownDescriptor descriptor : tracker.removeShutdownDescriptors(gavLabel)) {
-			try {
-				collectCustomNetworks(networksToRemove, descriptor, removeCustomNetworks);
-				shutdown(descriptor, keepContainer, removeVolumes);
-			} catch (DockerAccessException exc) {
-				thrownExceptions.add(exc);
-			}
-		}
+        stopStartedContainers(keepContainer, removeVolumes, removeCustomNetworks, gavLabel, 1, 0);
+    }
+
+    /**
+     * Stop all registered container, optionally in parallel. In parallel mode a container is stopped as soon
+     * as all containers depending on it have been stopped, so that independent containers wait for their
+     * kill grace periods at the same time.
+     *
+     * @param keepContainer whether to keep container or to remove them after stopping
+     * @param removeVolumes whether to remove volumes after stopping
+     * @param parallelism maximum number of containers to stop at the same time, 1 for stopping them one after
+     *                    the other in reverse start order
+     * @param timeout time in milliseconds for stopping all containers, 0 for no limit. Grace periods are cut
+     *                short so that they don't exceed it and containers still running afterwards are stopped
+     *                without any grace period.
+     * @throws DockerAccessException if during stopping of a container sth fails
+     */
+    public void stopStartedContainers(boolean keepContainer,
+                                      boolean removeVolumes,
+                                      boolean removeCustomNetworks,
+                                      GavLabel gavLabel,
+                                      int parallelism,
+                                      long timeout)
+        throws DockerAccessException, ExecException {
+        long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+		List<DockerAccessException> thrownExceptions = Collections.synchronizedList(new ArrayList<>());
+        Set<Network> networksToRemove = Collections.synchronizedSet(new HashSet<>());
+        List<ContainerShutdownDescriptor> descriptors = new ArrayList<>(tracker.removeShutdownDescriptors(gavLabel));
+        if (parallelism > 1 && descriptors.size() > 1) {
+            stopInParallel(descriptors, keepContainer, removeVolumes, removeCustomNetworks, parallelism, deadline,
+                           networksToRemove, thrownExceptions);
+        } else {
+            for (ContainerShutdownDescriptor descriptor : descriptors) {
+                stopAndCollectNetworks(descriptor, keepContainer, removeVolumes, removeCustomNetworks, deadline,
+                                       networksToRemove, thrownExceptions);
+            }
+        }
 		try {
 			removeCustomNetworks(networksToRemove);
 		} catch (DockerAccessException exc) {
@@ -275,6 +378,75 @@ public class RunService {
 		}
     }
 
+    private void stopAndCollectNetworks(ContainerShutdownDescriptor descriptor, boolean keepContainer, boolean removeVolumes,
+                                        boolean removeCustomNetworks, long deadline,
+                                        Set<Network> networksToRemove, List<DockerAccessException> thrownExceptions)
+        throws ExecException {
+        try {
+            collectCustomNetworks(networksToRemove, descriptor, removeCustomNetworks);
+            shutdown(descriptor, keepContainer, removeVolumes, deadline);
+        } catch (DockerAccessException exc) {
+            thrownExceptions.add(exc);
+        }
+    }
+
+    // Stop the containers along the reverse dependency graph on a bounded pool. Errors when stopping a container
+    // are collected and don't keep its dependencies from being stopped, but a failing preStop command with
+    // breakOnError stops the shutdown like in sequential mode.
+    private void stopInParallel(List<ContainerShutdownDescriptor> descriptors, boolean keepContainer, boolean removeVolumes,
+                                boolean removeCustomNetworks, int parallelism, long deadline,
+                                Set<Network> networksToRemove, List<DockerAccessException> thrownExceptions)
+        throws DockerAccessException, ExecException {
+        List<ShutdownNode> nodes = new ArrayList<>();
+        for (ContainerShutdownDescriptor descriptor : descriptors) {
+            nodes.add(new ShutdownNode(descriptor));
+        }
+        StartFrontier<ShutdownNode> frontier = StartFrontier.reversed(nodes);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, nodes.size()),
+            new ThreadFactoryBuilder().setNameFormat("docker-stop-%d").setDaemon(true).build());
+        CompletionService<ShutdownNode> stopping = new ExecutorCompletionService<>(executor);
+        Queue<ShutdownNode> ready = new ArrayDeque<>(frontier.getInitial());
+        Throwable failure = null;
+        int running = 0;
+        try {
+            while (!frontier.isComplete()) {
+                while (failure == null && !ready.isEmpty()) {
+                    ShutdownNode node = ready.poll();
+                    stopping.submit(() -> {
+                        stopAndCollectNetworks(node.descriptor, keepContainer, removeVolumes, removeCustomNetworks, deadline,
+                                               networksToRemove, thrownExceptions);
+                        return node;
+                    });
+                    running++;
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<ShutdownNode> stopped = stopping.take();
+                running--;
+                try {
+                    ready.addAll(frontier.completed(stopped.get()));
+                } catch (ExecutionException exp) {
+                    if (failure == null) {
+                        failure = exp.getCause();
+                    }
+                }
+            }
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new DockerAccessException("Interrupted while stopping containers");
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure instanceof ExecException) {
+            throw (ExecException) failure;
+        } else if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure != null) {
+            throw new DockerAccessException(failure, "Failed to stop containers");
+        }
+    }
+
     private void collectCustomNetworks(Set<Network> networksToRemove, ContainerTracker.ContainerShutdownDescriptor descriptor, boolean removeCustomNetworks) throws DockerAccessException {
         final NetworkConfig config = descriptor.getImageConfiguration().getRunConfiguration().getNetworkingConfig();
         if (removeCustomNetworks && config.isCustomNetwork()) {
@@ -532,7 +704,7 @@ public class RunService {
                         containerId, f.getAttemptCount()));
 
         Failsafe.with(retryPolicy).run(() -> {
-            Container container = queryService.getMandatoryContainer(containerId);
+            Container container = queryService.getCurrentContainer(containerId);
             if (container.isRunning()) {
                 mappedPorts.updateProperties(container.getPortBindings());
             } else {
@@ -543,10 +715,17 @@ public class RunService {
 
     private void shutdown(ContainerTracker.ContainerShutdownDescriptor descriptor, boolean keepContainer, boolean removeVolumes)
         throws DockerAccessException, ExecException {
+        shutdown(descriptor, keepContainer, removeVolumes, Long.MAX_VALUE);
+    }
+
+    private void shutdown(ContainerTracker.ContainerShutdownDescriptor descriptor, boolean keepContainer, boolean removeVolumes, long deadline)
+        throws DockerAccessException, ExecException {
 
         String containerId = descriptor.getContainerId();
         StopMode stopMode = descriptor.getStopMode();
-        if (descriptor.getPreStop() != null) {
+        if (descriptor.getPreStop() != null && remainingMillis(deadline) == 0) {
+            log.warn("%s: Skipping preStop command, stop timeout has been exceeded", descriptor.getDescription());
+        } else if (descriptor.getPreStop() != null) {
             try {
                 execInContainer(containerId, descriptor.getPreStop(), descriptor.getImageConfiguration());
             } catch (DockerAccessException e) {
@@ -561,7 +740,7 @@ public class RunService {
         }
 
         if (stopMode.equals(StopMode.graceful)) {
-            int killGracePeriod = adjustGracePeriod(descriptor.getKillGracePeriod());
+            int killGracePeriod = (int) Math.min(adjustGracePeriod(descriptor.getKillGracePeriod()), remainingMillis(deadline) / 1000);
             log.debug("shutdown will wait max of %d seconds before removing container", killGracePeriod);
 
             long waited;
@@ -583,7 +762,7 @@ public class RunService {
                     containerId.subSequence(0, 12));
         }
         if (!keepContainer) {
-            removeContainer(descriptor, removeVolumes, containerId);
+            removeContainer(descriptor, removeVolumes, containerId, deadline);
         }
 
 
@@ -625,9 +804,17 @@ public class RunService {
         return killGracePeriodInSeconds;
     }
 
-    private void removeContainer(ContainerTracker.ContainerShutdownDescriptor descriptor, boolean removeVolumes, String containerId)
+    // Time left until the given deadline, Long.MAX_VALUE if there is no deadline
+    private long remainingMillis(long deadline) {
+        if (deadline == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+
+    private void removeContainer(ContainerTracker.ContainerShutdownDescriptor descriptor, boolean removeVolumes, String containerId, long deadline)
         throws DockerAccessException {
-        int shutdownGracePeriod = descriptor.getShutdownGracePeriod();
+        int shutdownGracePeriod = (int) Math.min(descriptor.getShutdownGracePeriod(), remainingMillis(deadline));
         if (shutdownGracePeriod != 0) {
             log.debug("Shutdown: Wait %d ms before removing container", shutdownGracePeriod);
             WaitUtil.sleep(shutdownGracePeriod);
@@ -719,4 +906,28 @@ public class RunService {
             return imageConfig;
         }
     }
+
+    // Node of the reverse dependency graph used for stopping containers in parallel
+    private static class ShutdownNode implements StartOrderResolver.Resolvable {
+        private final ContainerShutdownDescriptor descriptor;
+
+        ShutdownNode(ContainerShutdownDescriptor descriptor) {
+            this.descriptor = descriptor;
+        }
+
+        @Override
+        public String getName() {
+            return descriptor.getImageConfiguration().getName();
+        }
+
+        @Override
+        public String getAlias() {
+            return descriptor.getImageConfiguration().getAlias();
+        }
+
+        @Override
+        public List<String> getDependencies() {
+            return descriptor.getImageConfiguration().getDependencies();
+        }
+    }
 }
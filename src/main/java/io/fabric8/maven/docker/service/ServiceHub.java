@@ -50,8 +50,12 @@ public class ServiceHub {
 
     ServiceHub(DockerAccess dockerAccess, ContainerTracker containerTracker, BuildPluginManager pluginManager,
                DockerAssemblyManager dockerAssemblyManager, MavenProject project, MavenSession session,
-               Logger logger, LogOutputSpecFactory logSpecFactory) {
+               Logger logger, LogOutputSpecFactory logSpecFactory, InspectCache inspectCache) {
 
+        if (dockerAccess != null && inspectCache != null) {
+            // All changes must go through the invalidator so that cached inspections never get outdated
+            dockerAccess = new InspectCacheInvalidator(dockerAccess, inspectCache);
+        }
         this.dockerAccess = dockerAccess;
         this.dockerAssemblyManager = dockerAssemblyManager;
 
@@ -59,7 +63,7 @@ public class ServiceHub {
         archiveService = new ArchiveService(dockerAssemblyManager, logger);
 
         if (dockerAccess != null) {
-            queryService = new QueryService(dockerAccess);
+            queryService = new QueryService(dockerAccess, inspectCache);
             buildXService= new BuildXService(dockerAccess, dockerAssemblyManager, logger);
             registryService = new RegistryService(dockerAccess, queryService, buildXService, logger);
             runService = new RunService(dockerAccess, queryService, containerTracker, logSpecFactory, logger);
@@ -22,6 +22,9 @@ public class ServiceHubFactory {
     // Track started containers
     private final ContainerTracker containerTracker = new ContainerTracker();
 
+    // Image and container inspections of the current session
+    private final InspectCache inspectCache = new InspectCache();
+
     @Inject
     protected BuildPluginManager pluginManager;
 
@@ -32,8 +35,10 @@ public class ServiceHubFactory {
 
     public ServiceHub createServiceHub(MavenProject project, MavenSession session, DockerAccess access, Logger log, LogOutputSpecFactory logSpecFactory) {
         this.logOutputSpecFactory = logSpecFactory;
+        // Parallel builds run every project with a clone of the session, but all clones share the request
+        inspectCache.useForSession(session != null ? session.getRequest() : null);
         return new ServiceHub(access, containerTracker, pluginManager, dockerAssemblyManager, project, session,
-                              log, logSpecFactory);
+                              log, logSpecFactory, inspectCache);
     }
 
     public LogOutputSpecFactory getLogOutputSpecFactory() {
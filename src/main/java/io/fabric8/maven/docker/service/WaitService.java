@@ -18,6 +18,7 @@ import io.fabric8.maven.docker.log.LogDispatcher;
 import io.fabric8.maven.docker.log.LogOutputSpec;
 import io.fabric8.maven.docker.model.Container;
 import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.docker.wait.ContainerEventMonitor;
 import io.fabric8.maven.docker.wait.ExitCodeChecker;
 import io.fabric8.maven.docker.wait.HealthCheckChecker;
 import io.fabric8.maven.docker.wait.HttpPingChecker;
@@ -41,10 +42,14 @@ public class WaitService {
     private DockerAccess dockerAccess;
     private Logger log;
 
+    // Shared subscription to container events for waking up waiting threads
+    private final ContainerEventMonitor eventMonitor;
+
     public WaitService(DockerAccess dockerAccess, QueryService queryService, Logger log) {
         this.dockerAccess = dockerAccess;
         this.log = log;
         this.queryService = queryService;
+        this.eventMonitor = new ContainerEventMonitor(dockerAccess, log);
     }
 
     // ========================================================================================================
@@ -66,8 +71,11 @@ public class WaitService {
 
         String logLine = extractCheckerLog(checkers);
         ContainerRunningPrecondition precondition = new ContainerRunningPrecondition(dockerAccess, containerId);
+        // Register before the first inspection so that no state change gets lost
+        boolean eventDriven = eventMonitor.register(containerId);
+        WaitUtil.Pause pause = eventDriven ? millis -> eventMonitor.await(containerId, millis) : WaitUtil::sleep;
         try {
-            long waited = WaitUtil.wait(precondition, timeout, checkers);
+            long waited = WaitUtil.wait(precondition, timeout, checkers, pause);
             log.info("%s: Waited %s %d ms", imageConfig.getDescription(), logLine, waited);
         } catch (WaitTimeoutException exp) {
             String desc = String.format("%s: Timeout after %d ms while waiting %s",
@@ -81,6 +89,8 @@ public class WaitService {
                                         logLine);
             log.error(desc);
             throw new IOException(desc);
+        } finally {
+            eventMonitor.unregister(containerId);
         }
     }
 
@@ -125,7 +135,7 @@ public class WaitService {
         }
 
         if (Boolean.TRUE.equals(wait.getHealthy())) {
-            checkers.add(new HealthCheckChecker(dockerAccess, containerId, imageConfig.getDescription(), log));
+            checkers.add(new HealthCheckChecker(dockerAccess, containerId, imageConfig.getDescription(), eventMonitor, log));
         }
 
         if (wait.getExit() != null) {
@@ -226,6 +236,7 @@ public class WaitService {
         private final String containerId;
         private final DockerAccess dockerAccess;
         private Integer exitCode;
+        private boolean inspected;
 
         ContainerRunningPrecondition(DockerAccess dockerAccess, String containerId) {
             this.dockerAccess = dockerAccess;
@@ -234,7 +245,14 @@ public class WaitService {
 
         @Override
         public boolean isOk() {
+            // After the initial inspection, a dying container is noticed via the event stream if available
+            ContainerEventMonitor.ContainerState state = eventMonitor.getState(containerId);
+            if (inspected && state != null) {
+                exitCode = state.getExitCode();
+                return exitCode == null;
+            }
             try {
+                inspected = true;
                 exitCode = dockerAccess.getContainer(containerId).getExitCode();
                 return exitCode == null;
             } catch (DockerAccessException e) {
@@ -0,0 +1,98 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import io.fabric8.maven.docker.assembly.AssemblyFiles;
+
+/**
+ * Checks the watched assemblies for changes and hands the changed files over to the action of the assembly
+ * (rebuilding or copying). With a quiet period, changes are collected until no assembly of any image changed
+ * for this period, so that a burst of changes (e.g. a <code>mvn package</code> rewriting several files) results
+ * in a single cycle of rebuilds and copies, with one action per changed assembly in the order the assemblies
+ * have been added.
+ *
+ * @since 0.50
+ */
+class WatchChanges {
+
+    private final ScheduledExecutorService executor;
+    private final long quietPeriodNanos;
+    private final List<AssemblyWatch> watches = new ArrayList<>();
+    private long lastChange;
+
+    /**
+     * Create the changes of a <code>docker:watch</code> run
+     *
+     * @param executor executor running the checks, also used for acting on the collected changes
+     * @param quietPeriod period in milliseconds without changes before acting on them, 0 for acting on
+     *                    every change right away
+     */
+    WatchChanges(ScheduledExecutorService executor, long quietPeriod) {
+        this.executor = executor;
+        this.quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, quietPeriod));
+    }
+
+    /**
+     * Add an assembly to check
+     *
+     * @param files files of the assembly
+     * @param action action called with the changed files
+     * @return task checking the assembly for changes, to be run periodically or when a file event arrived
+     */
+    synchronized Runnable add(AssemblyFiles files, Consumer<List<AssemblyFiles.Entry>> action) {
+        AssemblyWatch watch = new AssemblyWatch(files, action);
+        watches.add(watch);
+        return () -> check(watch);
+    }
+
+    private void check(AssemblyWatch watch) {
+        List<AssemblyFiles.Entry> entries = watch.files.getChangedEntriesAndRefresh();
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (quietPeriodNanos == 0) {
+            watch.action.accept(entries);
+            return;
+        }
+        synchronized (this) {
+            watch.pending.addAll(entries);
+            lastChange = System.nanoTime();
+        }
+        executor.schedule(this::flush, quietPeriodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void flush() {
+        List<Runnable> actions = new ArrayList<>();
+        synchronized (this) {
+            if (System.nanoTime() - lastChange < quietPeriodNanos) {
+                // Flushed by the check of the later change
+                return;
+            }
+            for (AssemblyWatch watch : watches) {
+                if (!watch.pending.isEmpty()) {
+                    List<AssemblyFiles.Entry> entries = new ArrayList<>(watch.pending);
+                    watch.pending.clear();
+                    actions.add(() -> watch.action.accept(entries));
+                }
+            }
+        }
+        actions.forEach(Runnable::run);
+    }
+
+    private static class AssemblyWatch {
+        private final AssemblyFiles files;
+        private final Consumer<List<AssemblyFiles.Entry>> action;
+        private final Set<AssemblyFiles.Entry> pending = new LinkedHashSet<>();
+
+        AssemblyWatch(AssemblyFiles files, Consumer<List<AssemblyFiles.Entry>> action) {
+            this.files = files;
+            this.action = action;
+        }
+    }
+}
@@ -4,25 +4,30 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 import io.fabric8.maven.docker.access.DockerAccess;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.access.ExecException;
 import io.fabric8.maven.docker.access.PortMapping;
 import io.fabric8.maven.docker.assembly.AssemblyFiles;
+import io.fabric8.maven.docker.assembly.AssemblyFilesWatcher;
 import io.fabric8.maven.docker.config.AssemblyConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.config.WatchImageConfiguration;
 import io.fabric8.maven.docker.config.WatchMode;
 import io.fabric8.maven.docker.log.LogDispatcher;
 import io.fabric8.maven.docker.service.helper.StartContainerExecutor;
+import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.GavLabel;
+import io.fabric8.maven.docker.util.ImageLanes;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.docker.util.MojoParameters;
 import io.fabric8.maven.docker.util.StartOrderResolver;
@@ -36,6 +41,9 @@ import org.codehaus.plexus.util.StringUtils;
  */
 public class WatchService {
 
+    // Maximum number of files removed by a single exec, keeping the command line of the exec short
+    private static final int MAX_REMOVE_BATCH = 500;
+
     private final ArchiveService archiveService;
     private final BuildService buildService;
     private final DockerAccess dockerAccess;
@@ -58,13 +66,24 @@ public class WatchService {
     public synchronized void watch(WatchContext context, BuildService.BuildContext buildContext, List<ImageConfiguration> images) throws DockerAccessException,
             MojoExecutionException {
 
-        // Important to be a single threaded scheduler since watch jobs must run serialized
+        // The scheduler only checks for changes, the watch jobs of an image run serialized on the lane of the image
         ScheduledExecutorService executor = null;
+        AssemblyFilesWatcher fileWatcher = null;
+        ImageLanes<ImageConfiguration> lanes = null;
         try {
             executor = Executors.newSingleThreadScheduledExecutor();
+            if (context.isWatchEvents()) {
+                fileWatcher = new AssemblyFilesWatcher(log);
+            }
+            WatchChanges changes = new WatchChanges(executor, context.getWatchQuietPeriod());
 
+            List<ImageConfiguration> imagesInOrder = new ArrayList<>();
             for (StartOrderResolver.Resolvable resolvable : runService.getImagesConfigsInOrder(queryService, images)) {
-                final ImageConfiguration imageConfig = (ImageConfiguration) resolvable;
+                imagesInOrder.add((ImageConfiguration) resolvable);
+            }
+            lanes = new ImageLanes<>(imagesInOrder, context.getWatchParallelism(), log);
+
+            for (final ImageConfiguration imageConfig : imagesInOrder) {
 
                 String imageId = queryService.getImageId(imageConfig.getName());
                 String containerId = runService.lookupContainer(imageConfig.getName());
@@ -81,19 +100,23 @@ public class WatchService {
                     for (AssemblyConfiguration assemblyConfiguration : imageConfig.getBuildConfiguration().getAllAssemblyConfigurations()) {
                         if (watcher.isCopy()) {
                             String containerBaseDir = assemblyConfiguration.getTargetDir();
-                            schedule(executor, createCopyWatchTask(watcher, assemblyConfiguration.getName(), context.getMojoParameters(), containerBaseDir), interval);
+                            AssemblyFiles files = getAssemblyFiles(context, imageConfig, assemblyConfiguration.getName());
+                            schedule(executor, fileWatcher, files, changes.add(files, onLane(lanes, imageConfig, createCopyWatchTask(watcher, assemblyConfiguration.getName(), files, containerBaseDir))), interval);
                             tasks.add("copying artifacts");
                         }
 
                         if (watcher.isBuild()) {
-                            schedule(executor, createBuildWatchTask(watcher, assemblyConfiguration.getName(), context.getMojoParameters(), watchMode == WatchMode.both, buildContext), interval);
+                            AssemblyFiles files = getAssemblyFiles(context, imageConfig, assemblyConfiguration.getName());
+                            schedule(executor, fileWatcher, files, changes.add(files, onLane(lanes, imageConfig, createBuildWatchTask(watcher, assemblyConfiguration.getName(), files, watchMode == WatchMode.both, buildContext))), interval);
                             tasks.add("rebuilding");
                         }
                     }
                 }
 
                 if (watcher.isRun() && watcher.getContainerId() != null) {
-                    schedule(executor, createRestartWatchTask(watcher), interval);
+                    Runnable restartTask = createRestartWatchTask(watcher);
+                    ImageLanes<ImageConfiguration> imageLanes = lanes;
+                    schedule(executor, () -> imageLanes.submit(imageConfig, restartTask), interval);
                     tasks.add("restarting");
                 }
 
@@ -110,6 +133,12 @@ public class WatchService {
             Thread.currentThread().interrupt();
             log.warn("Interrupted");
         } finally {
+            if (fileWatcher != null) {
+                fileWatcher.close();
+            }
+            if (lanes != null) {
+                lanes.close();
+            }
             if (executor != null) {
                 executor.shutdownNow();
             }
@@ -120,30 +149,76 @@ public class WatchService {
         executor.scheduleAtFixedRate(runnable, 0, interval, TimeUnit.MILLISECONDS);
     }
 
-    private Runnable createCopyWatchTask(final ImageWatcher watcher,
-                                         final String assemblyName,
-                                         final MojoParameters mojoParameters, final String containerBaseDir) throws MojoExecutionException {
+    private Consumer<List<AssemblyFiles.Entry>> onLane(ImageLanes<ImageConfiguration> lanes, ImageConfiguration imageConfig,
+                                                       Consumer<List<AssemblyFiles.Entry>> task) {
+        return entries -> lanes.submit(imageConfig, () -> task.accept(entries));
+    }
+
+    private AssemblyFiles getAssemblyFiles(WatchContext context, ImageConfiguration imageConfig, String assemblyName) throws MojoExecutionException {
+        AssemblyFiles files = archiveService.getAssemblyFiles(imageConfig, assemblyName, context.getMojoParameters());
+        if (context.isWatchContentHash()) {
+            files.enableContentHashing();
+        }
+        return files;
+    }
+
+    private void schedule(ScheduledExecutorService executor, AssemblyFilesWatcher fileWatcher, AssemblyFiles files, Runnable runnable, long interval) {
+        schedule(executor, runnable, interval);
+        if (fileWatcher != null) {
+            // Run the task as soon as file events arrived. The interval is still used for the files which need polling
+            int watched = fileWatcher.register(files, () -> executor.execute(runnable));
+            log.debug("%d of %d files of %s are watched for file events", watched, files.getEntries().size(), files.getAssemblyDirectory());
+        }
+    }
+
+    // visible for testing
+    Consumer<List<AssemblyFiles.Entry>> createCopyWatchTask(final ImageWatcher watcher,
+                                                            final String assemblyName, final AssemblyFiles files,
+                                                            final String containerBaseDir) {
         final ImageConfiguration imageConfig = watcher.getImageConfiguration();
 
-        final AssemblyFiles files = archiveService.getAssemblyFiles(imageConfig, assemblyName, mojoParameters);
-        return () -> {
-            List<AssemblyFiles.Entry> entries = files.getUpdatedEntriesAndRefresh();
-            if (entries != null && !entries.isEmpty()) {
-                try {
-                    log.info("%s: Assembly %s changed. Copying changed files to container ...", imageConfig.getDescription(), assemblyName);
-
-                    File changedFilesArchive = archiveService.createChangedFilesArchive(entries, files.getAssemblyDirectory(),
-                            imageConfig.getName(), mojoParameters);
-                    dockerAccess.copyArchiveToContainer(watcher.getContainerId(), changedFilesArchive, containerBaseDir);
-                    callPostExec(watcher);
-                } catch (MojoExecutionException | IOException | ExecException e) {
-                    log.error("%s: Error when copying files to container %s: %s",
-                              imageConfig.getDescription(), watcher.getContainerId(), e.getMessage());
+        return entries -> {
+            try {
+                log.info("%s: Assembly %s changed. Copying changed files to container ...", imageConfig.getDescription(), assemblyName);
+
+                long start = System.currentTimeMillis();
+                List<AssemblyFiles.Entry> updated = new ArrayList<>();
+                List<String> deleted = new ArrayList<>();
+                long firstModified = start;
+                for (AssemblyFiles.Entry entry : entries) {
+                    if (entry.isDeleted()) {
+                        deleted.add(containerBaseDir + "/" + files.getRelativePath(entry));
+                    } else {
+                        updated.add(entry);
+                        firstModified = Math.min(firstModified, entry.getLastModified());
+                    }
                 }
+                if (!updated.isEmpty()) {
+                    // The tar is written straight into the request body, without a temporary archive
+                    dockerAccess.copyArchiveStreamToContainer(watcher.getContainerId(),
+                            archiveService.createChangedFilesArchiveStream(files, updated), containerBaseDir);
+                }
+                removeFromContainer(watcher, deleted);
+                callPostExec(watcher);
+                log.info("%s: Synced %d changed and %d deleted files of assembly %s in %s (%s after the first change)",
+                         imageConfig.getDescription(), updated.size(), deleted.size(), assemblyName,
+                         EnvUtil.formatDurationTill(start), EnvUtil.formatDurationTill(firstModified));
+            } catch (MojoExecutionException | IOException | ExecException e) {
+                log.error("%s: Error when copying files to container %s: %s",
+                          imageConfig.getDescription(), watcher.getContainerId(), e.getMessage());
             }
         };
     }
 
+    // Remove deleted files within the container with a single exec per batch of files
+    private void removeFromContainer(ImageWatcher watcher, List<String> paths) throws DockerAccessException, ExecException {
+        for (int i = 0; i < paths.size(); i += MAX_REMOVE_BATCH) {
+            List<String> command = new ArrayList<>(Arrays.asList("rm", "-f", "--"));
+            command.addAll(paths.subList(i, Math.min(paths.size(), i + MAX_REMOVE_BATCH)));
+            runService.execInContainer(watcher.getContainerId(), command, watcher.getImageConfiguration());
+        }
+    }
+
     private void callPostExec(ImageWatcher watcher) throws DockerAccessException, ExecException {
         if (watcher.getPostExec() != null) {
             String containerId = watcher.getContainerId();
@@ -151,42 +226,35 @@ public class WatchService {
         }
     }
 
-    private Runnable createBuildWatchTask(final ImageWatcher watcher,
-                                          final String assemblyName,
-                                          final MojoParameters mojoParameters, final boolean doRestart, final BuildService.BuildContext buildContext)
+    private Consumer<List<AssemblyFiles.Entry>> createBuildWatchTask(final ImageWatcher watcher,
+                                                                     final String assemblyName, final AssemblyFiles files,
+                                                                     final boolean doRestart, final BuildService.BuildContext buildContext)
             throws MojoExecutionException {
         final ImageConfiguration imageConfig = watcher.getImageConfiguration();
-        final AssemblyFiles files = archiveService.getAssemblyFiles(imageConfig, assemblyName, mojoParameters);
         if (files.isEmpty()) {
             log.error("No %s assembly files for %s. Are you sure you invoked together with the `package` goal?", assemblyName, imageConfig.getDescription());
             throw new MojoExecutionException("No files to watch found for " + imageConfig);
         }
 
-        return new Runnable() {
-            @Override
-            public void run() {
-                List<AssemblyFiles.Entry> entries = files.getUpdatedEntriesAndRefresh();
-                if (entries != null && !entries.isEmpty()) {
-                    try {
-                        log.info("%s: Assembly %s changed. Rebuild ...", imageConfig.getDescription(), assemblyName);
-
-                        if (watcher.getWatchContext().getImageCustomizer() != null) {
-                            log.info("%s: Customizing the image ...", imageConfig.getDescription());
-                            watcher.getWatchContext().getImageCustomizer().execute(imageConfig);
-                        }
+        return entries -> {
+            try {
+                log.info("%s: Assembly %s changed. Rebuild ...", imageConfig.getDescription(), assemblyName);
 
-                        buildService.buildImage(imageConfig, null, buildContext, buildService.buildArchive(imageConfig, buildContext, "false"));
+                if (watcher.getWatchContext().getImageCustomizer() != null) {
+                    log.info("%s: Customizing the image ...", imageConfig.getDescription());
+                    watcher.getWatchContext().getImageCustomizer().execute(imageConfig);
+                }
 
-                        String name = imageConfig.getName();
-                        watcher.setImageId(queryService.getImageId(name));
-                        if (doRestart) {
-                            restartContainer(watcher);
-                        }
-                        callPostGoal(watcher);
-                    } catch (Exception e) {
-                        log.error("%s: Error when rebuilding - %s", imageConfig.getDescription(), e);
-                    }
+                buildService.buildImage(imageConfig, null, buildContext, buildService.buildArchive(imageConfig, buildContext, "false"));
+
+                String name = imageConfig.getName();
+                watcher.setImageId(queryService.getImageId(name));
+                if (doRestart) {
+                    restartContainer(watcher);
                 }
+                callPostGoal(watcher);
+            } catch (Exception e) {
+                log.error("%s: Error when rebuilding - %s", imageConfig.getDescription(), e);
             }
         };
     }
@@ -201,7 +269,7 @@ public class WatchService {
             public void run() {
 
                 try {
-                    String currentImageId = queryService.getImageId(imageName);
+                    String currentImageId = queryService.getCurrentImageId(imageName);
                     String oldValue = watcher.getAndSetImageId(currentImageId);
                     if (!currentImageId.equals(oldValue)) {
                         restartContainer(watcher);
@@ -395,6 +463,14 @@ public class WatchService {
 
         private int watchInterval;
 
+        private boolean watchEvents;
+
+        private boolean watchContentHash;
+
+        private int watchQuietPeriod;
+
+        private int watchParallelism;
+
         private boolean keepRunning;
 
         private String watchPostGoal;
@@ -438,6 +514,22 @@ public class WatchService {
             return watchInterval;
         }
 
+        public boolean isWatchEvents() {
+            return watchEvents;
+        }
+
+        public boolean isWatchContentHash() {
+            return watchContentHash;
+        }
+
+        public int getWatchQuietPeriod() {
+            return watchQuietPeriod;
+        }
+
+        public int getWatchParallelism() {
+            return watchParallelism;
+        }
+
         public boolean isKeepRunning() {
             return keepRunning;
         }
@@ -509,6 +601,26 @@ public class WatchService {
                 return this;
             }
 
+            public Builder watchEvents(boolean watchEvents) {
+                context.watchEvents = watchEvents;
+                return this;
+            }
+
+            public Builder watchContentHash(boolean watchContentHash) {
+                context.watchContentHash = watchContentHash;
+                return this;
+            }
+
+            public Builder watchQuietPeriod(int watchQuietPeriod) {
+                context.watchQuietPeriod = watchQuietPeriod;
+                return this;
+            }
+
+            public Builder watchParallelism(int watchParallelism) {
+                context.watchParallelism = watchParallelism;
+                return this;
+            }
+
             public Builder keepRunning(boolean keepRunning) {
                 context.keepRunning = keepRunning;
                 return this;
@@ -19,6 +19,8 @@ import io.fabric8.maven.docker.config.WaitConfiguration;
 import io.fabric8.maven.docker.log.LogDispatcher;
 import io.fabric8.maven.docker.log.LogOutputSpecFactory;
 import io.fabric8.maven.docker.model.Container;
+import io.fabric8.maven.docker.service.ContainerNameIndex;
+import io.fabric8.maven.docker.service.RunService;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.util.GavLabel;
 import io.fabric8.maven.docker.util.Logger;
@@ -38,13 +40,17 @@ public class StartContainerExecutor {
     private GavLabel gavLabel;
     private PortMapping portMapping;
     private LogDispatcher dispatcher;
+    private ContainerNameIndex containerNameIndex;
 
     private StartContainerExecutor(){}
 
     public String startContainer() throws IOException, ExecException {
         final Properties projProperties = projectProperties;
 
-        final String containerId = hub.getRunService().createAndStartContainer(imageConfig, portMapping, gavLabel, projProperties, basedir, containerNamePattern, buildDate);
+        final RunService runService = hub.getRunService();
+        final String containerId = containerNameIndex != null ?
+            runService.createAndStartContainer(imageConfig, portMapping, gavLabel, projProperties, basedir, containerNamePattern, buildDate, containerNameIndex) :
+            runService.createAndStartContainer(imageConfig, portMapping, gavLabel, projProperties, basedir, containerNamePattern, buildDate);
 
         showLogsIfRequested(containerId);
         Properties exposedProps = queryContainerProperties(containerId);
@@ -196,6 +202,11 @@ public class StartContainerExecutor {
             return this;
         }
 
+        public Builder containerNameIndex(ContainerNameIndex index) {
+            helper.containerNameIndex = index;
+            return this;
+        }
+
 
 
         public Builder dispatcher(LogDispatcher dispatcher) {
@@ -54,6 +54,10 @@ public class AnsiLogger implements Logger, Closeable {
     private ThreadLocal<Map<String, Integer>> imageLines = new ThreadLocal<>();
     private ThreadLocal<AtomicInteger> updateCount = new ThreadLocal<>();
 
+    // Messages collected for the current thread while in a group
+    private final ThreadLocal<List<Runnable>> group = new ThreadLocal<>();
+    private final Object groupLock = new Object();
+
     // Whether to use ANSI codes
     private boolean useAnsi;
 
@@ -158,7 +162,7 @@ public class AnsiLogger implements Logger, Closeable {
      */
     public void progressStart() {
         // A progress indicator is always written out to standard out if a tty is enabled.
-        if (!batchMode && log.isInfoEnabled()) {
+        if (!batchMode && log.isInfoEnabled() && group.get() == null) {
             imageLines.remove();
             updateCount.remove();
             imageLines.set(new HashMap<String, Integer>());
@@ -170,7 +174,7 @@ public class AnsiLogger implements Logger, Closeable {
      * Update the progress
      */
     public void progressUpdate(String layerId, String status, String progressMessage) {
-        if (!batchMode && log.isInfoEnabled() && StringUtils.isNotEmpty(layerId)) {
+        if (!batchMode && log.isInfoEnabled() && StringUtils.isNotEmpty(layerId) && group.get() == null) {
             if (useAnsi) {
                 updateAnsiProgress(layerId, status, progressMessage);
             } else {
@@ -228,7 +232,7 @@ public class AnsiLogger implements Logger, Closeable {
      * Finis progress meter. Must be always called if {@link #progressStart()} has been used.
      */
     public void progressFinished() {
-        if (!batchMode && log.isInfoEnabled()) {
+        if (!batchMode && log.isInfoEnabled() && group.get() == null) {
             imageLines.remove();
             print(ansi().reset().toString());
             if (!useAnsi) {
@@ -237,6 +241,28 @@ public class AnsiLogger implements Logger, Closeable {
         }
     }
 
+    /**
+     * Collect the messages of the current thread until {@link #groupFinished()} is called
+     */
+    @Override
+    public void groupStart() {
+        group.set(new ArrayList<>());
+    }
+
+    /**
+     * Write the messages collected for the current thread as one block
+     */
+    @Override
+    public void groupFinished() {
+        List<Runnable> messages = group.get();
+        group.remove();
+        if (messages != null) {
+            synchronized (groupLock) {
+                messages.forEach(Runnable::run);
+            }
+        }
+    }
+
     private void flush() {
         System.out.flush();
     }
@@ -383,6 +409,15 @@ public class AnsiLogger implements Logger, Closeable {
     }
 
     private void logOrPrintToFile(Predicate<Log> logPredicate, Consumer<Log> logConsumer, String message, Object ... params) {
+        List<Runnable> messages = group.get();
+        if (messages != null) {
+            messages.add(() -> writeOrPrintToFile(logPredicate, logConsumer, message, params));
+        } else {
+            writeOrPrintToFile(logPredicate, logConsumer, message, params);
+        }
+    }
+
+    private void writeOrPrintToFile(Predicate<Log> logPredicate, Consumer<Log> logConsumer, String message, Object ... params) {
         if (outputFile != null && logPredicate.test(log)) {
             pw.println(format(message, params));
         } else {
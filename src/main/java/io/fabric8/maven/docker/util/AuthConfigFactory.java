@@ -10,12 +10,23 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,10 +49,12 @@ import org.apache.maven.settings.crypto.SettingsDecryptionResult;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 
 import com.google.common.net.UrlEscapers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 
 import io.fabric8.maven.docker.access.AuthConfig;
 import io.fabric8.maven.docker.access.ecr.EcrExtendedAuth;
+import io.fabric8.maven.docker.access.ecr.EcrTokenCache;
 import io.fabric8.maven.docker.util.aws.AwsSdkAuthConfigFactory;
 
 import javax.inject.Inject;
@@ -68,8 +81,19 @@ public class AuthConfigFactory {
             "docker.io", "index.docker.io", "registry.hub.docker.com"
     };
 
+    // Time for which resolved credentials are reused within a session by default
+    public static final long DEFAULT_CACHE_EXPIRY_SECONDS = 600;
+
+    // Maximum number of registries whose credentials are resolved in parallel
+    private static final int PREFETCH_THREADS = 8;
+
     private final SettingsDecrypter settingsDecrypter;
 
+    // Resolved credentials (or their absence) of the current session
+    private final Map<List<Object>, CachedAuthConfig> cache = new ConcurrentHashMap<>();
+    private Object session;
+    private volatile long cacheExpiryMillis;
+
     /**
      * Constructor which should be used during startup phase of a plugin
      *
@@ -84,6 +108,59 @@ public class AuthConfigFactory {
         this.log = log;
     }
 
+    /**
+     * Reuse resolved credentials within a session. Credentials are only cached while a session is set,
+     * the credentials of a previous session are dropped.
+     *
+     * @param session object identifying the current session, which must be the same for all projects of the
+     *                session (like its execution request), or null for not caching any credentials
+     * @param expirySeconds seconds for which credentials are reused, 0 for not caching any credentials
+     */
+    public synchronized void useForSession(Object session, long expirySeconds) {
+        if (this.session != session) {
+            cache.clear();
+            this.session = session;
+        }
+        this.cacheExpiryMillis = session != null ? TimeUnit.SECONDS.toMillis(expirySeconds) : 0;
+    }
+
+    /**
+     * Resolve the credentials for the registries of several images in parallel, so that subsequent calls
+     * of {@link #createAuthConfig(boolean, boolean, Map, Settings, String, String)} for these registries
+     * are answered from the cache. Nothing is done if credentials are not cached. Failures are not reported
+     * here, but by the subsequent calls.
+     *
+     * @param isPush if true the credentials are used for a push, if false for a pull
+     * @param skipExtendedAuth if true, do not execute extended authentication methods
+     * @param authConfig String-String Map holding configuration info from the plugin's configuration
+     * @param settings the global Maven settings object
+     * @param images images with the registry to use for them and the user to check for
+     */
+    public void prefetchAuthConfigs(boolean isPush, boolean skipExtendedAuth, Map authConfig, Settings settings, Collection<ImageName> images) {
+        Set<List<String>> lookups = new LinkedHashSet<>();
+        for (ImageName image : images) {
+            lookups.add(Arrays.asList(image.getUser(), image.getRegistry()));
+        }
+        if (cacheExpiryMillis <= 0 || lookups.size() < 2) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(lookups.size(), PREFETCH_THREADS),
+            new ThreadFactoryBuilder().setNameFormat("docker-auth-%d").setDaemon(true).build());
+        try {
+            List<Callable<AuthConfig>> tasks = new ArrayList<>();
+            for (List<String> lookup : lookups) {
+                tasks.add(() -> createAuthConfig(isPush, skipExtendedAuth, authConfig, settings, lookup.get(0), lookup.get(1)));
+            }
+            executor.invokeAll(tasks);
+            log.debug("AuthConfig: resolved credentials for %d registries in %s", lookups.size(), EnvUtil.formatDurationTill(start));
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Create an authentication config object which can be used for communication with a Docker registry
      *
@@ -122,6 +199,38 @@ public class AuthConfigFactory {
      */
     public AuthConfig createAuthConfig(boolean isPush, boolean skipExtendedAuth, Map authConfig, Settings settings, String user, String registry)
             throws MojoExecutionException {
+        long expiryMillis = cacheExpiryMillis;
+        if (expiryMillis <= 0) {
+            return resolveAuthConfig(isPush, skipExtendedAuth, authConfig, settings, user, registry);
+        }
+        List<Object> key = Arrays.asList(isPush, skipExtendedAuth, registry, user,
+                                         authConfig != null ? new HashMap<>(authConfig) : null, settings);
+        while (true) {
+            long now = System.currentTimeMillis();
+            CachedAuthConfig cached = cache.get(key);
+            if (cached != null && cached.expiresAt > now) {
+                return cached.get();
+            }
+            CachedAuthConfig resolving = new CachedAuthConfig(
+                () -> resolveAuthConfig(isPush, skipExtendedAuth, authConfig, settings, user, registry), now + expiryMillis);
+            boolean added = cached == null ? cache.putIfAbsent(key, resolving) == null : cache.replace(key, cached, resolving);
+            if (!added) {
+                // Another thread is resolving the same credentials
+                continue;
+            }
+            resolving.lookup.run();
+            try {
+                return resolving.get();
+            } catch (MojoExecutionException | RuntimeException exp) {
+                // Failures are not cached
+                cache.remove(key, resolving);
+                throw exp;
+            }
+        }
+    }
+
+    private AuthConfig resolveAuthConfig(boolean isPush, boolean skipExtendedAuth, Map authConfig, Settings settings, String user, String registry)
+            throws MojoExecutionException {
 
         AuthConfig ret = createStandardAuthConfig(isPush, authConfig, settings, user, registry);
         if (ret != null) {
@@ -162,7 +271,8 @@ public class AuthConfigFactory {
      * @throws MojoExecutionException
      */
     private AuthConfig extendedAuthentication(AuthConfig standardAuthConfig, String registry) throws IOException, MojoExecutionException {
-        EcrExtendedAuth ecr = new EcrExtendedAuth(log, registry, System.getProperty(EcrExtendedAuth.ECR_ENDPOINT_PROPERTY));
+        EcrExtendedAuth ecr = new EcrExtendedAuth(log, registry, System.getProperty(EcrExtendedAuth.ECR_ENDPOINT_PROPERTY),
+                                                  EcrTokenCache.fromSystemProperties());
         if (ecr.isAwsRegistry()) {
             return ecr.extendedAuth(standardAuthConfig);
         }
@@ -710,6 +820,34 @@ public class AuthConfigFactory {
         return isPush ? LookupMode.PUSH : LookupMode.PULL;
     }
 
+    // Credentials which are resolved only once, shared by all threads asking for them
+    private static class CachedAuthConfig {
+        private final FutureTask<AuthConfig> lookup;
+        private final long expiresAt;
+
+        CachedAuthConfig(Callable<AuthConfig> lookup, long expiresAt) {
+            this.lookup = new FutureTask<>(lookup);
+            this.expiresAt = expiresAt;
+        }
+
+        AuthConfig get() throws MojoExecutionException {
+            try {
+                return lookup.get();
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while looking up credentials", exp);
+            } catch (ExecutionException exp) {
+                Throwable cause = exp.getCause();
+                if (cause instanceof MojoExecutionException) {
+                    throw (MojoExecutionException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new MojoExecutionException(cause.getMessage(), cause);
+            }
+        }
+    }
+
     private enum LookupMode {
         PUSH("docker.push.","push"),
         PULL("docker.pull.","pull"),
@@ -0,0 +1,79 @@
+package io.fabric8.maven.docker.util;
+
+/**
+ * Logger for work running in background threads next to the regular output of a goal. Messages are prefixed
+ * with a label so that they can be told apart and are then written to the given logger, which may also forward
+ * them to another thread. Progress bars are dropped since they would garble the output of the foreground thread,
+ * subclasses may show the progress in another way.
+ *
+ * @since 0.50
+ */
+public class BackgroundLogger implements Logger {
+
+    private final String label;
+    private final Logger log;
+
+    public BackgroundLogger(String label, Logger log) {
+        this.label = label;
+        this.log = log;
+    }
+
+    @Override
+    public void debug(String format, Object... params) {
+        log.debug("%s: " + format, prefixed(params));
+    }
+
+    @Override
+    public void info(String format, Object... params) {
+        log.info("%s: " + format, prefixed(params));
+    }
+
+    @Override
+    public void verbose(LogVerboseCategory logVerboseCategory, String format, Object... params) {
+        log.verbose(logVerboseCategory, "%s: " + format, prefixed(params));
+    }
+
+    @Override
+    public void warn(String format, Object... params) {
+        log.warn("%s: " + format, prefixed(params));
+    }
+
+    @Override
+    public void error(String format, Object... params) {
+        log.error("%s: " + format, prefixed(params));
+    }
+
+    @Override
+    public String errorMessage(String message) {
+        return log.errorMessage(message);
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return log.isDebugEnabled();
+    }
+
+    @Override
+    public boolean isVerboseEnabled() {
+        return log.isVerboseEnabled();
+    }
+
+    @Override
+    public void progressStart() {
+    }
+
+    @Override
+    public void progressUpdate(String layerId, String status, String progressMessage) {
+    }
+
+    @Override
+    public void progressFinished() {
+    }
+
+    private Object[] prefixed(Object[] params) {
+        Object[] args = new Object[params.length + 1];
+        args[0] = label;
+        System.arraycopy(params, 0, args, 1, params.length);
+        return args;
+    }
+}
@@ -33,9 +33,16 @@ public class ContainerNamingUtil {
                                              final String defaultContainerNamePattern,
                                              final Date buildTimestamp,
                                              final Collection<Container> existingContainers) {
+        return formatContainerNameFromNames(image, defaultContainerNamePattern, buildTimestamp,
+                                            extractContainerNames(existingContainers));
+    }
+
+    public static String formatContainerNameFromNames(final ImageConfiguration image,
+                                                      final String defaultContainerNamePattern,
+                                                      final Date buildTimestamp,
+                                                      final Set<String> existingContainersNames) {
 
         String containerNamePattern = extractContainerNamePattern(image, defaultContainerNamePattern);
-        Set<String> existingContainersNames = extractContainerNames(existingContainers);
 
         if (shouldUseEmptyName(containerNamePattern)) {
             return null;
@@ -60,6 +67,28 @@ public class ContainerNamingUtil {
         }
     }
 
+    /**
+     * Get the fixed leading part of the container name which {@link #formatContainerNameFromNames(ImageConfiguration, String, Date, Set)}
+     * would create for the given image. All existing containers which could clash with the name to create
+     * start with this prefix, so it can be used to narrow down the lookup of existing containers.
+     *
+     * @param image the image from which to take the container pattern
+     * @param defaultContainerNamePattern pattern to use if the image doesn't specify one
+     * @param buildTimestamp the timestamp for the build
+     * @return the prefix (which might be empty) or <code>null</code> if no container name is used at all
+     */
+    public static String getContainerNamePrefix(final ImageConfiguration image,
+                                                final String defaultContainerNamePattern,
+                                                final Date buildTimestamp) {
+        String containerNamePattern = extractContainerNamePattern(image, defaultContainerNamePattern);
+        if (shouldUseEmptyName(containerNamePattern)) {
+            return null;
+        }
+        String partiallyApplied = replacePlaceholders(containerNamePattern, image.getName(), image.getAlias(), buildTimestamp);
+        int idx = partiallyApplied.indexOf(INDEX_PLACEHOLDER);
+        return idx >= 0 ? partiallyApplied.substring(0, idx) : partiallyApplied;
+    }
+
     /**
      * Keep only the entry with the higest index if an indexed naming scheme for container has been chosen or if the container name
      * pattern doesn't contain any index placeholders then filter containers (analog
@@ -0,0 +1,181 @@
+package io.fabric8.maven.docker.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+
+/**
+ * Dockerfile read and interpolated once, so that its base images, build args, <code>ADD</code>/<code>COPY</code>
+ * instructions and interpolated content can be looked up without reading and interpolating the file again.
+ * Use {@link DockerFileUtil#parse(File, MojoParameters, String)} to get the model shared by all users of a
+ * Dockerfile during a build.
+ *
+ * @since 0.50
+ */
+public class DockerFileModel {
+
+    // Interpolated lines, each split into its words
+    private final List<String[]> instructions;
+    private final List<Stage> stages;
+    private final String content;
+
+    private DockerFileModel(List<String> lines) {
+        List<String[]> parsed = new ArrayList<>(lines.size());
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            parsed.add(line.split("\\s+"));
+            text.append(line).append(System.lineSeparator());
+        }
+        this.instructions = Collections.unmodifiableList(parsed);
+        this.content = text.toString();
+        this.stages = Collections.unmodifiableList(extractStages(parsed));
+    }
+
+    /**
+     * Read and interpolate a Dockerfile
+     *
+     * @param dockerFile Dockerfile to read
+     * @param interpolator interpolator for replacing properties
+     * @return the parsed Dockerfile
+     * @throws IOException if the Dockerfile cannot be read
+     */
+    public static DockerFileModel parse(File dockerFile, FixedStringSearchInterpolator interpolator) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(dockerFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(interpolator.interpolate(line));
+            }
+        }
+        return new DockerFileModel(lines);
+    }
+
+    /**
+     * Get the interpolated Dockerfile
+     *
+     * @return content with every line terminated by the platform's line separator
+     */
+    public String getContent() {
+        return content;
+    }
+
+    /**
+     * Get all lines starting with the given keyword, split into their words
+     *
+     * @param keyword keyword to extract the lines for, case-insensitive
+     * @return list of matched lines or an empty list
+     */
+    public List<String[]> getLines(String keyword) {
+        List<String[]> ret = new ArrayList<>();
+        for (String[] parts : instructions) {
+            if (parts.length > 0 && parts[0].equalsIgnoreCase(keyword)) {
+                ret.add(parts);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Get the build stages, one for every <code>FROM</code>
+     *
+     * @return stages in the order they are declared
+     */
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    /**
+     * Get the args declared with <code>ARG</code>, with their default value or the value given in the
+     * build configuration
+     *
+     * @param argsFromBuildConfig args configured for the build, overriding the defaults
+     * @return map of args
+     */
+    public Map<String, String> getArgs(Map<String, String> argsFromBuildConfig) {
+        return DockerFileUtil.extractArgsFromLines(getLines("ARG"), argsFromBuildConfig);
+    }
+
+    /**
+     * Get the base images of all stages, with args resolved. Stages built from an earlier stage are not included.
+     *
+     * @param argsFromBuildConfig args configured for the build
+     * @return base images in the order of their first use
+     */
+    public List<String> getBaseImages(Map<String, String> argsFromBuildConfig) {
+        Map<String, String> args = getArgs(argsFromBuildConfig);
+        Set<String> result = new LinkedHashSet<>();
+        Set<String> fromAlias = new HashSet<>();
+        for (Stage stage : stages) {
+            if (!fromAlias.contains(stage.getFrom())) {
+                // Image is NOT referring to an already declared alias
+                result.add(DockerFileUtil.resolveImageTagFromArgs(stage.getFrom(), args));
+            }
+            if (stage.getAlias() != null) {
+                fromAlias.add(DockerFileUtil.resolveImageTagFromArgs(stage.getAlias(), args));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static List<Stage> extractStages(List<String[]> instructions) {
+        List<Stage> ret = new ArrayList<>();
+        for (String[] parts : instructions) {
+            if (parts.length > 1 && parts[0].equalsIgnoreCase("FROM")) {
+                ret.add(new Stage(extractValidFrom(parts), extractAlias(parts)));
+            }
+        }
+        return ret;
+    }
+
+    private static String extractValidFrom(String[] fromLine) {
+        for (int i = 1; i < fromLine.length; i++) {
+            if (!fromLine[i].startsWith("--")) {
+                return fromLine[i];
+            }
+        }
+        return fromLine[1];
+    }
+
+    // FROM [--platform=...] image:tag AS alias
+    private static String extractAlias(String[] fromLine) {
+        int length = fromLine.length;
+        return length > 3 && fromLine[length - 2].equalsIgnoreCase("AS") ? fromLine[length - 1] : null;
+    }
+
+    /**
+     * Build stage started by a <code>FROM</code>
+     */
+    public static class Stage {
+        private final String from;
+        private final String alias;
+
+        Stage(String from, String alias) {
+            this.from = from;
+            this.alias = alias;
+        }
+
+        /**
+         * @return image or stage the stage is built from, with args not yet resolved
+         */
+        public String getFrom() {
+            return from;
+        }
+
+        /**
+         * @return name given with <code>AS</code> or <code>null</code>
+         */
+        public String getAlias() {
+            return alias;
+        }
+    }
+}
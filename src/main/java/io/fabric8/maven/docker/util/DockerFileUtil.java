@@ -16,18 +16,21 @@ package io.fabric8.maven.docker.util;/*
  */
 
 import java.io.*;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.plugins.assembly.interpolation.AssemblyInterpolator;
 import org.apache.maven.plugins.assembly.io.DefaultAssemblyReader;
 import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
@@ -47,6 +50,17 @@ public class DockerFileUtil {
 
     private static final String ARG_PATTERN_REGEX = "\\$([\\w|\\-|\\.]+)|\\$\\{([\\w|\\-|\\.]+)\\}";
 
+    // Parsed Dockerfiles by file, modification and interpolation inputs, the least recently used are dropped
+    private static final Map<ParsedDockerFileKey, DockerFileModel> PARSED_DOCKERFILES = new LinkedHashMap<ParsedDockerFileKey, DockerFileModel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ParsedDockerFileKey, DockerFileModel> eldest) {
+            return size() > 64;
+        }
+    };
+
+    // Request of the session the parsed Dockerfiles belong to, compared by identity
+    private static Object parsedDockerFilesSession;
+
     private DockerFileUtil() {}
 
     /**
@@ -58,35 +72,7 @@ public class DockerFileUtil {
      * @return LinkedList of base images name or empty collection if none is found.
      */
     public static List<String> extractBaseImages(File dockerFile, FixedStringSearchInterpolator interpolator, Map<String, String> argsFromBuildConfig) throws IOException {
-        List<String[]> fromLines = extractLines(dockerFile, "FROM", interpolator);
-        Map<String, String> args = extractArgs(dockerFile, argsFromBuildConfig, interpolator);
-        Set<String> result = new LinkedHashSet<>();
-        Set<String> fromAlias = new HashSet<>();
-        for (String[] fromLine :  fromLines) {
-            if (fromLine.length > 1) {
-                String from = extractValidFromLine(fromLine);
-                if (!fromAlias.contains(from)) {
-                    // Image is NOT referring to an already declared alias
-                    result.add(resolveImageTagFromArgs(from, args));
-                }
-                if (fromLine.length == 4) { // FROM image:tag AS alias use case
-                    // Image alias is declared - track it
-                    fromAlias.add(resolveImageTagFromArgs(fromLine[3], args));
-                }
-            }
-        }
-        return new ArrayList<>(result);
-    }
-
-    private static String extractValidFromLine(String[] fromLine) {
-        String validFrom = fromLine[1];
-        for (int i = 1; i < fromLine.length; i++) {
-            if (!fromLine[i].startsWith("--")) {
-                validFrom = fromLine[i];
-                break;
-            }
-        }
-        return validFrom;
+        return DockerFileModel.parse(dockerFile, interpolator).getBaseImages(argsFromBuildConfig);
     }
 
     /**
@@ -97,7 +83,7 @@ public class DockerFileUtil {
      * @return HashMap of arguments or empty collection if none is found
      */
     public static Map<String, String> extractArgs(File dockerfile, Map<String, String> argsFromBuildConfig, FixedStringSearchInterpolator interpolator) throws IOException {
-        return extractArgsFromLines(extractLines(dockerfile, "ARG", interpolator), argsFromBuildConfig);
+        return DockerFileModel.parse(dockerfile, interpolator).getArgs(argsFromBuildConfig);
     }
 
     /**
@@ -109,18 +95,7 @@ public class DockerFileUtil {
      * @return list of matched lines or an empty list
      */
     public static List<String[]> extractLines(File dockerFile, String keyword, FixedStringSearchInterpolator interpolator) throws IOException {
-        List<String[]> ret = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(dockerFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String lineInterpolated = interpolator.interpolate(line);
-                String[] lineParts = lineInterpolated.split("\\s+");
-                if (lineParts.length > 0 && lineParts[0].equalsIgnoreCase(keyword)) {
-                    ret.add(lineParts);
-                }
-            }
-        }
-        return ret;
+        return DockerFileModel.parse(dockerFile, interpolator).getLines(keyword);
     }
 
     /**
@@ -132,14 +107,42 @@ public class DockerFileUtil {
      * @throws IOException
      */
     public static String interpolate(File dockerFile, FixedStringSearchInterpolator interpolator) throws IOException {
-        StringBuilder ret = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(dockerFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                ret.append(interpolator.interpolate(line)).append(System.lineSeparator());
+        return DockerFileModel.parse(dockerFile, interpolator).getContent();
+    }
+
+    /**
+     * Get a Dockerfile parsed and interpolated with the given maven parameters and filter. The model is
+     * cached and parsed again only when the Dockerfile or the properties it is interpolated with change, so
+     * that the Dockerfile is read once per build even though its base images, args and content are looked
+     * up at several places.
+     *
+     * @param dockerFile Dockerfile to parse
+     * @param params The maven parameters.
+     * @param filter The filter configuration.
+     * @return the parsed Dockerfile
+     * @throws IOException if the Dockerfile cannot be read
+     */
+    public static DockerFileModel parse(File dockerFile, MojoParameters params, String filter) throws IOException {
+        ParsedDockerFileKey key = new ParsedDockerFileKey(dockerFile, params, filter);
+        Object session = params.getSession() != null ? params.getSession().getRequest() : null;
+        synchronized (PARSED_DOCKERFILES) {
+            if (parsedDockerFilesSession != session) {
+                // Projects and properties of a previous session (e.g. in a long running Maven daemon) are never reused
+                PARSED_DOCKERFILES.clear();
+                parsedDockerFilesSession = session;
+            }
+            DockerFileModel model = PARSED_DOCKERFILES.get(key);
+            if (model != null) {
+                return model;
+            }
+        }
+        DockerFileModel model = DockerFileModel.parse(dockerFile, createInterpolator(params, filter));
+        synchronized (PARSED_DOCKERFILES) {
+            if (parsedDockerFilesSession == session) {
+                PARSED_DOCKERFILES.put(key, model);
             }
         }
-        return ret.toString();
+        return model;
     }
 
     /**
@@ -311,4 +314,56 @@ public class DockerFileUtil {
             throw new IllegalArgumentException("Dockerfile parse error: ARG requires exactly one argument. Provided : " + argStringParam);
         }
     }
+
+    // Everything a parsed Dockerfile depends on: the file with its modification and everything the interpolator
+    // created by createInterpolator() depends on. The project is compared by identity, the properties by their values
+    private static final class ParsedDockerFileKey {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final String filter;
+        private final MavenProject project;
+        private final Map<Object, Object> projectProperties;
+        private final Map<Object, Object> systemProperties;
+        private final Map<Object, Object> userProperties;
+
+        ParsedDockerFileKey(File dockerFile, MojoParameters params, String filter) {
+            this.path = dockerFile.getAbsolutePath();
+            this.lastModified = dockerFile.lastModified();
+            this.length = dockerFile.length();
+            this.filter = filter;
+            boolean interpolated = extractDelimiters(filter) != null;
+            MavenProject mavenProject = params.getProject();
+            MavenSession session = params.getSession();
+            this.project = interpolated ? mavenProject : null;
+            this.projectProperties = interpolated && mavenProject != null ? copy(mavenProject.getProperties()) : null;
+            this.systemProperties = interpolated && session != null ? copy(session.getSystemProperties()) : null;
+            this.userProperties = interpolated && session != null ? copy(session.getUserProperties()) : null;
+        }
+
+        private static Map<Object, Object> copy(Properties properties) {
+            return properties != null ? new HashMap<>(properties) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ParsedDockerFileKey)) {
+                return false;
+            }
+            ParsedDockerFileKey other = (ParsedDockerFileKey) o;
+            return lastModified == other.lastModified && length == other.length && project == other.project &&
+                   path.equals(other.path) && Objects.equals(filter, other.filter) &&
+                   Objects.equals(projectProperties, other.projectProperties) &&
+                   Objects.equals(systemProperties, other.systemProperties) &&
+                   Objects.equals(userProperties, other.userProperties);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, length, filter, System.identityHashCode(project));
+        }
+    }
 }
@@ -387,7 +387,16 @@ public class EnvUtil {
      *
      */
     public static String formatDurationTill(long start) {
-        long duration = System.currentTimeMillis() - start;
+        return formatDuration(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Format a duration like {@link #formatDurationTill(long)}
+     *
+     * @param duration duration in milliseconds
+     * @return formatted duration
+     */
+    public static String formatDuration(long duration) {
         StringBuilder res = new StringBuilder();
 
         TimeUnit current = HOURS;
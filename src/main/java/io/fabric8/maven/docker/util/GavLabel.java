@@ -25,6 +25,9 @@ package io.fabric8.maven.docker.util;
  */
 public class GavLabel {
 
+    // Label key used for marking containers started by this plugin
+    public static final String KEY = "dmp.coordinates";
+
     private String mavenCoordinates;
 
     /**
@@ -59,7 +62,7 @@ public class GavLabel {
      * @return the label name to use to mark a container belonging to this build
      */
     public String getKey() {
-        return "dmp.coordinates";
+        return KEY;
     }
 
     /**
@@ -1,22 +1,28 @@
 package io.fabric8.maven.docker.util;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarFile;
 import org.apache.commons.compress.compressors.CompressorException;
 import org.apache.commons.compress.compressors.CompressorStreamFactory;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
@@ -51,12 +57,32 @@ public class ImageArchiveUtil {
      * If there is no manifest found, then null is returned. Incomplete manifests are returned
      * with as much information parsed as possible.
      *
+     * Uncompressed archives are read by seeking from header to header, so that only the manifest and the configs
+     * it references are read, but not the layers. Compressed archives are read up to the point where the manifest
+     * and all its configs have been found.
+     *
      * @param file
      * @return the parsed manifest, or null if none found.
      * @throws IOException
      * @throws JsonParseException
      */
     public static ImageArchiveManifest readManifest(File file) throws IOException, JsonParseException {
+        if (!isCompressed(file)) {
+            TarFile tarFile;
+            try {
+                tarFile = new TarFile(file);
+            } catch (IOException exp) {
+                // Not a valid tar index, leave the error reporting to the stream reader
+                tarFile = null;
+            }
+            if (tarFile != null) {
+                try {
+                    return readManifest(tarFile);
+                } finally {
+                    tarFile.close();
+                }
+            }
+        }
         return readManifest(new FileInputStream(file));
     }
 
@@ -67,53 +93,113 @@ public class ImageArchiveUtil {
      * If there is no manifest found, then null is returned. Incomplete manifests are returned
      * with as much information parsed as possible.
      *
+     * The stream is read only up to the point where the manifest and all configs it references have been
+     * found. JSON entries before the manifest are kept unparsed until it is known whether they are referenced.
+     *
      * @param inputStream
      * @return the parsed manifest, or null if none found.
      * @throws IOException
      * @throws JsonParseException
      */
     public static ImageArchiveManifest readManifest(InputStream inputStream) throws IOException, JsonParseException {
-        Map<String, JsonParseException> parseExceptions = new LinkedHashMap<>();
-        Map<String, JsonElement> parsedEntries = new LinkedHashMap<>();
-
         try (TarArchiveInputStream tarStream = new TarArchiveInputStream(createUncompressedStream(inputStream))) {
+            Map<String, byte[]> jsonEntries = new HashMap<>();
+            ImageArchiveManifestAdapter manifest = null;
+            Set<String> missingConfigs = null;
             TarArchiveEntry tarEntry;
-            Gson gson = new Gson();
-
-            while((tarEntry = tarStream.getNextTarEntry()) != null) {
-                if(tarEntry.isFile() && tarEntry.getName().endsWith(".json")) {
-                    try {
-                        JsonElement element = gson.fromJson(new InputStreamReader(tarStream, StandardCharsets.UTF_8), JsonElement.class);
-                        parsedEntries.put(tarEntry.getName(), element);
-                    } catch(JsonParseException exception) {
-                        parseExceptions.put(tarEntry.getName(), exception);
+
+            while((tarEntry = tarStream.getNextEntry()) != null) {
+                if(!tarEntry.isFile() || !tarEntry.getName().endsWith(".json")) {
+                    continue;
+                }
+                if(manifest == null) {
+                    if(MANIFEST_JSON.equals(tarEntry.getName())) {
+                        manifest = parseManifest(tarStream);
+                        if(manifest == null) {
+                            return null;
+                        }
+                        missingConfigs = new HashSet<>();
+                        for(ImageArchiveManifestEntry entry : manifest.getEntries()) {
+                            byte[] config = jsonEntries.get(entry.getConfig());
+                            if(config != null) {
+                                putConfig(manifest, entry.getConfig(), new ByteArrayInputStream(config));
+                            } else if(entry.getConfig() != null) {
+                                missingConfigs.add(entry.getConfig());
+                            }
+                        }
+                        jsonEntries = null;
+                    } else {
+                        jsonEntries.put(tarEntry.getName(), IOUtils.toByteArray(tarStream));
                     }
+                } else if(missingConfigs.remove(tarEntry.getName())) {
+                    putConfig(manifest, tarEntry.getName(), tarStream);
+                }
+                if(missingConfigs != null && missingConfigs.isEmpty()) {
+                    break;
                 }
             }
+            return manifest;
         }
+    }
 
-        JsonElement manifestJson = parsedEntries.get(MANIFEST_JSON);
-        if(manifestJson == null) {
-            JsonParseException parseException = parseExceptions.get(MANIFEST_JSON);
-            if(parseException != null) {
-                throw parseException;
+    // Read manifest and configs from the index of an uncompressed archive, without reading any other entry
+    private static ImageArchiveManifest readManifest(TarFile tarFile) throws IOException, JsonParseException {
+        Map<String, TarArchiveEntry> jsonEntries = new HashMap<>();
+        for(TarArchiveEntry tarEntry : tarFile.getEntries()) {
+            if(tarEntry.isFile() && tarEntry.getName().endsWith(".json")) {
+                jsonEntries.putIfAbsent(tarEntry.getName(), tarEntry);
             }
+        }
 
+        TarArchiveEntry manifestEntry = jsonEntries.get(MANIFEST_JSON);
+        if(manifestEntry == null) {
             return null;
         }
 
-        ImageArchiveManifestAdapter manifest = new ImageArchiveManifestAdapter(manifestJson);
-
+        ImageArchiveManifestAdapter manifest;
+        try (InputStream manifestStream = tarFile.getInputStream(manifestEntry)) {
+            manifest = parseManifest(manifestStream);
+        }
+        if(manifest == null) {
+            return null;
+        }
         for(ImageArchiveManifestEntry entry : manifest.getEntries()) {
-            JsonElement entryConfigJson = parsedEntries.get(entry.getConfig());
-            if(entryConfigJson != null && entryConfigJson.isJsonObject()) {
-                manifest.putConfig(entry.getConfig(), entryConfigJson.getAsJsonObject());
+            TarArchiveEntry configEntry = jsonEntries.get(entry.getConfig());
+            if(configEntry != null && manifest.getConfig(entry.getConfig()) == null) {
+                try (InputStream configStream = tarFile.getInputStream(configEntry)) {
+                    putConfig(manifest, entry.getConfig(), configStream);
+                }
             }
         }
-
         return manifest;
     }
 
+    // null for an empty manifest
+    private static ImageArchiveManifestAdapter parseManifest(InputStream inputStream) throws JsonParseException {
+        JsonElement manifestJson = new Gson().fromJson(new InputStreamReader(inputStream, StandardCharsets.UTF_8), JsonElement.class);
+        return manifestJson != null ? new ImageArchiveManifestAdapter(manifestJson) : null;
+    }
+
+    private static void putConfig(ImageArchiveManifestAdapter manifest, String configName, InputStream inputStream) {
+        try {
+            JsonElement configJson = new Gson().fromJson(new InputStreamReader(inputStream, StandardCharsets.UTF_8), JsonElement.class);
+            if(configJson != null && configJson.isJsonObject()) {
+                manifest.putConfig(configName, configJson.getAsJsonObject());
+            }
+        } catch(JsonParseException exception) {
+            // Configs which can't be parsed are left out, as with any other incomplete information
+        }
+    }
+
+    private static boolean isCompressed(File file) throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            CompressorStreamFactory.detect(inputStream);
+            return true;
+        } catch(CompressorException e) {
+            return false;
+        }
+    }
+
     /**
      * Search the manifest for an entry that has the repository and tag provided.
      *
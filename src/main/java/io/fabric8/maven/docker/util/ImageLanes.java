@@ -0,0 +1,139 @@
+package io.fabric8.maven.docker.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs jobs on one lane per image: the jobs of an image run one after the other in the order they have been
+ * submitted, while the jobs of different images run concurrently, up to a limit. A job of an image is held back
+ * as long as a job of an image of the build it depends on is queued or running, so that e.g. a container is
+ * restarted only after the containers it is linked to. The images given must already be in a valid start order
+ * as returned by {@link StartOrderResolver#resolve}.
+ * <p>
+ * The lanes are safe to be used from multiple threads.
+ *
+ * @param <T> type of images
+ * @since 0.50
+ */
+public class ImageLanes<T extends StartOrderResolver.Resolvable> implements AutoCloseable {
+
+    private final Logger log;
+    private final ExecutorService executor;
+    private final Map<T, Lane> lanes = new IdentityHashMap<>();
+    // Lanes in start order
+    private final List<Lane> ordered = new ArrayList<>();
+
+    /**
+     * Create lanes for images
+     *
+     * @param images images in start order
+     * @param parallelism maximum number of jobs running at once, at least 1
+     * @param log logger for failed jobs
+     */
+    public ImageLanes(List<T> images, int parallelism, Logger log) {
+        this.log = log;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+            new ThreadFactoryBuilder().setNameFormat("docker-watch-%d").setDaemon(true).build());
+
+        for (T image : images) {
+            Lane lane = new Lane(image.getName());
+            lanes.put(image, lane);
+            ordered.add(lane);
+        }
+        Map<String, T> imagesByName = StartOrderResolver.indexByNameAndAlias(images);
+        for (T image : images) {
+            Collection<T> dependencies = StartOrderResolver.internalDependencies(image, imagesByName);
+            dependencies.remove(image);
+            for (T dependency : dependencies) {
+                lanes.get(image).dependencies.add(lanes.get(dependency));
+            }
+        }
+    }
+
+    /**
+     * Submit a job to the lane of an image. A job which is already queued (but not yet running) on this lane
+     * is not queued again.
+     *
+     * @param image image the job belongs to
+     * @param job job to run
+     */
+    public synchronized void submit(T image, Runnable job) {
+        Lane lane = lanes.get(image);
+        if (lane == null) {
+            throw new IllegalArgumentException("No lane for image " + image.getName());
+        }
+        if (!lane.queue.contains(job)) {
+            lane.queue.add(job);
+        }
+        dispatch();
+    }
+
+    /**
+     * Whether no job is queued or running on any lane
+     *
+     * @return true if idle
+     */
+    public synchronized boolean isIdle() {
+        return ordered.stream().allMatch(Lane::isIdle);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // Start the next job of every lane which is neither running nor waiting for one of its dependencies
+    private synchronized void dispatch() {
+        for (Lane lane : ordered) {
+            if (!lane.running && !lane.queue.isEmpty() && lane.dependencies.stream().allMatch(Lane::isIdle)) {
+                Runnable job = lane.queue.poll();
+                lane.running = true;
+                try {
+                    executor.execute(() -> run(lane, job));
+                } catch (RejectedExecutionException exp) {
+                    // Lanes have been closed
+                    lane.running = false;
+                    lane.queue.clear();
+                }
+            }
+        }
+    }
+
+    private void run(Lane lane, Runnable job) {
+        try {
+            job.run();
+        } catch (RuntimeException exp) {
+            log.error("%s: Error in watch job: %s", lane.name, exp.getMessage());
+        } finally {
+            synchronized (this) {
+                lane.running = false;
+                dispatch();
+            }
+        }
+    }
+
+    private static class Lane {
+        private final String name;
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private final List<Lane> dependencies = new ArrayList<>();
+        private boolean running;
+
+        Lane(String name) {
+            this.name = name;
+        }
+
+        boolean isIdle() {
+            return !running && queue.isEmpty();
+        }
+    }
+}
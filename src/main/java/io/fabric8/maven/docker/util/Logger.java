@@ -88,6 +88,21 @@ public interface Logger {
      */
     void progressFinished();
 
+    /**
+     * Collect the messages of the current thread until {@link #groupFinished()} is called, so that the
+     * output of work running concurrently in several threads is not interleaved. Progress bars are dropped
+     * while collecting.
+     */
+    default void groupStart() {
+    }
+
+    /**
+     * Write the messages collected since {@link #groupStart()} as one block. Must be always called
+     * if {@link #groupStart()} has been used.
+     */
+    default void groupFinished() {
+    }
+
     enum LogVerboseCategory {
         BUILD("build"), API("api");
 
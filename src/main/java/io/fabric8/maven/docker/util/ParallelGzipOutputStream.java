@@ -0,0 +1,234 @@
+package io.fabric8.maven.docker.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Gzip output stream compressing independent blocks of the input on multiple threads, like
+ * <a href="https://zlib.net/pigz/">pigz</a> does. Every block is deflated on its own with the tail of the
+ * previous block as dictionary and terminated by a sync flush, so that the concatenated blocks form a single,
+ * standard deflate stream. The result can be read by every gzip decoder.
+ * <p>
+ * The CRC is calculated on the writing thread, which is much cheaper than deflating. At most two blocks per
+ * thread are kept in flight so that memory usage stays bounded regardless of the size of the input.
+ *
+ * @since 0.50
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    // Maximum window size of deflate
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final byte[] HEADER = new byte[] {
+        (byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int maxPending;
+    private final ExecutorService executor;
+
+    // Compressed blocks in the order they have to be written
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private final CRC32 crc = new CRC32();
+    private long inputSize;
+
+    private byte[] block;
+    private int blockLength;
+    private byte[] previousBlock;
+    private int previousBlockLength;
+
+    private boolean closed;
+
+    /**
+     * Create a parallel gzip stream
+     *
+     * @param out stream to write the compressed data to
+     * @param level compression level between 0 and 9
+     * @param threads number of threads to use for compression
+     * @throws IOException if the gzip header can't be written
+     */
+    public ParallelGzipOutputStream(OutputStream out, int level, int threads) throws IOException {
+        this(out, level, threads, DEFAULT_BLOCK_SIZE);
+    }
+
+    ParallelGzipOutputStream(OutputStream out, int level, int threads, int blockSize) throws IOException {
+        if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid gzip compression level " + level + " (must be between 0 and 9)");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one compression thread is required");
+        }
+        this.out = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+            .setNameFormat("gzip-compressor-%d")
+            .setDaemon(true)
+            .build());
+        this.block = new byte[blockSize];
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        crc.update(b, off, len);
+        inputSize += len;
+        while (len > 0) {
+            int chunk = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, chunk);
+            blockLength += chunk;
+            off += chunk;
+            len -= chunk;
+            if (blockLength == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Write all blocks compressed so far. A partially filled block is not compressed before it is full
+     * or the stream gets closed, as this would degrade the compression ratio.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peek().isDone()) {
+            writeNextBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!pending.isEmpty()) {
+                writeNextBlock();
+            }
+            writeTrailer();
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        final byte[] data = block;
+        final int length = blockLength;
+        final byte[] dictionary = previousBlock;
+        final int dictionaryLength = previousBlockLength;
+        pending.add(executor.submit(() -> deflate(data, length, dictionary, dictionaryLength, last)));
+
+        previousBlock = data;
+        previousBlockLength = length;
+        blockLength = 0;
+        if (!last) {
+            block = new byte[blockSize];
+        }
+        while (pending.size() >= maxPending) {
+            writeNextBlock();
+        }
+    }
+
+    private byte[] deflate(byte[] data, int length, byte[] dictionary, int dictionaryLength, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                int size = Math.min(dictionaryLength, DICTIONARY_SIZE);
+                deflater.setDictionary(dictionary, dictionaryLength - size, size);
+            }
+            deflater.setInput(data, 0, length);
+            byte[] buffer = new byte[length + (length >> 3) + 64];
+            int written = 0;
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    buffer = ensureSpace(buffer, written);
+                    written += deflater.deflate(buffer, written, buffer.length - written);
+                }
+            } else {
+                // A sync flush ends the block on a byte boundary without marking the stream as finished
+                int count;
+                do {
+                    buffer = ensureSpace(buffer, written);
+                    count = deflater.deflate(buffer, written, buffer.length - written, Deflater.SYNC_FLUSH);
+                    written += count;
+                } while (written == buffer.length);
+            }
+            byte[] ret = new byte[written];
+            System.arraycopy(buffer, 0, ret, 0, written);
+            return ret;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] ensureSpace(byte[] buffer, int written) {
+        if (written < buffer.length) {
+            return buffer;
+        }
+        byte[] ret = new byte[buffer.length * 2];
+        System.arraycopy(buffer, 0, ret, 0, written);
+        return ret;
+    }
+
+    private void writeNextBlock() throws IOException {
+        Future<byte[]> next = pending.poll();
+        try {
+            out.write(next.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot compress block: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeIntLittleEndian(trailer, 0, crc.getValue());
+        writeIntLittleEndian(trailer, 4, inputSize);
+        out.write(trailer);
+    }
+
+    private static void writeIntLittleEndian(byte[] buffer, int offset, long value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.fabric8.maven.docker.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks which images can be started while others are still starting. An image is ready as soon as all
+ * images of the build it depends on have been started, dependencies on other containers are not taken into
+ * account. The images given must already be in a valid start order as returned by
+ * {@link StartOrderResolver#resolve}.
+ * <p>
+ * A {@link #reversed(List) reversed} frontier is used for stopping containers: there an image is ready as soon
+ * as all images which depend on it have been stopped.
+ * <p>
+ * The frontier is safe to be used from multiple threads.
+ *
+ * @param <T> type of images
+ * @since 0.50
+ */
+public class StartFrontier<T extends StartOrderResolver.Resolvable> {
+
+    private final List<T> images;
+    private final Map<T, Integer> pendingDependencies = new IdentityHashMap<>();
+    private final Map<T, List<T>> dependents = new IdentityHashMap<>();
+
+    private int remaining;
+
+    public StartFrontier(List<T> images) {
+        this(images, false);
+    }
+
+    private StartFrontier(List<T> images, boolean reversed) {
+        this.images = images;
+        Map<String, T> imagesByName = StartOrderResolver.indexByNameAndAlias(images);
+        for (T image : images) {
+            pendingDependencies.putIfAbsent(image, 0);
+            Collection<T> dependencies = StartOrderResolver.internalDependencies(image, imagesByName);
+            dependencies.remove(image);
+            for (T dependency : dependencies) {
+                T before = reversed ? image : dependency;
+                T after = reversed ? dependency : image;
+                dependents.computeIfAbsent(before, k -> new ArrayList<>()).add(after);
+                pendingDependencies.merge(after, 1, Integer::sum);
+            }
+        }
+        this.remaining = images.size();
+    }
+
+    /**
+     * Create a frontier for stopping images, where an image is ready as soon as all images depending on it
+     * have been marked as {@link #completed(StartOrderResolver.Resolvable) completed}
+     *
+     * @param images images to stop
+     * @param <T> type of images
+     * @return the frontier
+     */
+    public static <T extends StartOrderResolver.Resolvable> StartFrontier<T> reversed(List<T> images) {
+        return new StartFrontier<>(images, true);
+    }
+
+    /**
+     * Get the images which don't depend on any other image and can be started right away
+     *
+     * @return images in the order given to the frontier
+     */
+    public synchronized List<T> getInitial() {
+        List<T> ret = new ArrayList<>();
+        for (T image : images) {
+            if (pendingDependencies.get(image) == 0) {
+                ret.add(image);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Mark an image as started (or stopped for a reversed frontier)
+     *
+     * @param image image whose container has been started
+     * @return the images which have become ready because of this, in the order given to the frontier
+     */
+    public synchronized List<T> completed(T image) {
+        remaining--;
+        List<T> ready = new ArrayList<>();
+        for (T dependent : dependents.getOrDefault(image, Collections.emptyList())) {
+            if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                ready.add(dependent);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * Whether all images have been started
+     *
+     * @return true if {@link #completed(StartOrderResolver.Resolvable)} has been called for every image
+     */
+    public synchronized boolean isComplete() {
+        return remaining <= 0;
+    }
+}
@@ -7,139 +7,162 @@ import io.fabric8.maven.docker.service.QueryService;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
+ * Resolve the start order of images from their volume and link dependencies. The dependencies form a graph
+ * which is sorted topologically (Kahn's algorithm): images become ready as soon as all images they depend on
+ * have been put into the order. Dependencies which don't refer to an image of the build are external
+ * dependencies, which must be existing containers. These are checked all at once with a single filtered
+ * container listing.
+ *
  * @author roland
  * @since 16.10.14
  */
 public class StartOrderResolver {
 
-    public static final int MAX_RESOLVE_RETRIES = 10;
-
     private final QueryService queryService;
 
-    private final List<Resolvable> secondPass;
-    private final Set<String> processedImages;
-
     public static List<Resolvable> resolve(QueryService queryService, List<Resolvable> convertToResolvables) {
         return new StartOrderResolver(queryService).resolve(convertToResolvables);
     }
 
     private StartOrderResolver(QueryService queryService) {
         this.queryService = queryService;
-
-        this.secondPass = new ArrayList<>();
-        this.processedImages = new HashSet<>();
     }
 
-
     // Check images for volume / link dependencies and return it in the right order.
     // Only return images which should be run
     // Images references via volumes but with no run configuration are started once to create
     // an appropriate container which can be linked into the image
     private List<Resolvable> resolve(List<Resolvable> images) {
-        List<Resolvable> resolved = new ArrayList<>();
-        // First pass: Pick all data images and all without dependencies
+        Map<String, Resolvable> imagesByName = indexByNameAndAlias(images);
+
+        Map<Resolvable, Integer> unresolvedDependencies = new IdentityHashMap<>();
+        Map<Resolvable, List<Resolvable>> dependents = new IdentityHashMap<>();
+        Map<Resolvable, Set<String>> externalDependencies = new IdentityHashMap<>();
+        Set<String> allExternalDependencies = new LinkedHashSet<>();
         for (Resolvable config : images) {
-            List<String> volumesOrLinks = extractDependentImagesFor(config);
-            if (volumesOrLinks == null) {
-                // A data image only or no dependency. Add it to the list of data image which can be always
-                // created first.
-                updateProcessedImages(config);
-                resolved.add(config);
-            } else {
-                secondPass.add(config);
+            int count = 0;
+            for (Resolvable dependency : internalDependencies(config, imagesByName)) {
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(config);
+                count++;
             }
+            for (String dependency : config.getDependencies()) {
+                if (!imagesByName.containsKey(dependency)) {
+                    externalDependencies.computeIfAbsent(config, k -> new LinkedHashSet<>()).add(dependency);
+                    allExternalDependencies.add(dependency);
+                }
+            }
+            unresolvedDependencies.put(config, count);
         }
 
-        // Next passes: Those with dependencies are checked whether they already have been visited.
-        return secondPass.size() > 0 ? resolveRemaining(resolved) : resolved;
-    }
+        Set<String> missingContainers = findMissingContainers(allExternalDependencies);
 
-    private List<Resolvable> resolveRemaining(List<Resolvable> ret) {
-        int retries = MAX_RESOLVE_RETRIES;
-        String error = null;
-        try {
-            do {
-                resolveImageDependencies(ret);
-            } while (secondPass.size() > 0  && retries-- > 0);
-        } catch (DockerAccessException | ResolveSteadyStateException e) {
-            error = "Cannot resolve image dependencies for start order\n" + remainingImagesDescription();
-        }
-        if (retries == 0 && secondPass.size() > 0) {
-            error = "Cannot resolve image dependencies after " + MAX_RESOLVE_RETRIES + " passes\n"
-                    + remainingImagesDescription();
-        }
-        if (error != null) {
-            throw new IllegalStateException(error);
+        Deque<Resolvable> ready = new ArrayDeque<>();
+        for (Resolvable config : images) {
+            if (unresolvedDependencies.get(config) == 0 && !dependsOnMissingContainer(config, externalDependencies, missingContainers)) {
+                ready.add(config);
+            }
         }
-        return ret;
-    }
 
-    private void updateProcessedImages(Resolvable config) {
-        processedImages.add(config.getName());
-        if (config.getAlias() != null) {
-            processedImages.add(config.getAlias());
+        List<Resolvable> resolved = new ArrayList<>();
+        while (!ready.isEmpty()) {
+            Resolvable config = ready.poll();
+            resolved.add(config);
+            for (Resolvable dependent : dependents.getOrDefault(config, Collections.emptyList())) {
+                int remaining = unresolvedDependencies.merge(dependent, -1, Integer::sum);
+                if (remaining == 0 && !dependsOnMissingContainer(dependent, externalDependencies, missingContainers)) {
+                    ready.add(dependent);
+                }
+            }
         }
-    }
 
-    private String remainingImagesDescription() {
-        StringBuffer ret = new StringBuffer();
-        ret.append("Unresolved images:\n");
-        for (Resolvable config : secondPass) {
-            ret.append("* ")
-               .append(config.getAlias())
-               .append(" depends on ")
-               .append(StringUtils.join(config.getDependencies().toArray(), ","))
-               .append("\n");
+        if (resolved.size() < images.size()) {
+            List<Resolvable> unresolved = new ArrayList<>(images);
+            unresolved.removeAll(resolved);
+            throw new IllegalStateException("Cannot resolve image dependencies for start order\n" +
+                                            remainingImagesDescription(unresolved));
         }
-        return ret.toString();
+        return resolved;
     }
 
-    private void resolveImageDependencies(List<Resolvable> resolved) throws DockerAccessException, ResolveSteadyStateException {
-        boolean changed = false;
-        Iterator<Resolvable> iterator = secondPass.iterator();
-
-        while (iterator.hasNext()) {
-            Resolvable config = iterator.next();
-            if (hasRequiredDependencies(config)) {
-                updateProcessedImages(config);
-                resolved.add(config);
-                changed = true;
-                iterator.remove();
+    /**
+     * Index images by their names and aliases, which are the keys other images use for referring to them
+     * as dependency
+     *
+     * @param images images to index
+     * @param <T> type of image
+     * @return map from names and aliases to images. For duplicate keys the first image wins.
+     */
+    static <T extends Resolvable> Map<String, T> indexByNameAndAlias(List<T> images) {
+        Map<String, T> ret = new HashMap<>();
+        for (T config : images) {
+            ret.putIfAbsent(config.getName(), config);
+            if (config.getAlias() != null) {
+                ret.putIfAbsent(config.getAlias(), config);
             }
         }
+        return ret;
+    }
 
-        if (!changed) {
-            throw new ResolveSteadyStateException();
+    /**
+     * Get the images of a build an image depends on
+     *
+     * @param config image to check
+     * @param imagesByName images of the build as indexed by {@link #indexByNameAndAlias(List)}
+     * @param <T> type of image
+     * @return the distinct images the given image depends on, in the order of its dependencies
+     */
+    static <T extends Resolvable> Collection<T> internalDependencies(Resolvable config, Map<String, T> imagesByName) {
+        Set<T> ret = Collections.newSetFromMap(new LinkedHashMap<>());
+        for (String dependency : config.getDependencies()) {
+            T image = imagesByName.get(dependency);
+            if (image != null) {
+                ret.add(image);
+            }
         }
+        return ret;
     }
 
-    private boolean hasRequiredDependencies(Resolvable config) throws DockerAccessException {
-        List<String> dependencies = extractDependentImagesFor(config);
-        if (dependencies == null) {
-            return false;
+    // External dependencies are interpreted as containers which already exist, their state is verified elsewhere
+    private Set<String> findMissingContainers(Set<String> containerNames) {
+        Set<String> missing = new HashSet<>();
+        if (containerNames.isEmpty()) {
+            return missing;
         }
-
-        for (String dependency : dependencies) {
-            // make sure the container exists, it's state will be verified elsewhere
-            if (processedImages.contains(dependency) ||
-                // Check also whether a *container* with this name exists in which case it is interpreted
-                // as an external dependency which is already running
-                queryService.hasContainer(dependency)) {
-                continue;
+        try {
+            Set<String> existing = queryService.getExistingContainerNames(containerNames);
+            for (String name : containerNames) {
+                // Dependencies given as container id instead of a name need to be looked up one by one
+                if (!existing.contains(name) && !queryService.hasContainer(name)) {
+                    missing.add(name);
+                }
             }
-            return false;
+        } catch (DockerAccessException exp) {
+            throw new IllegalStateException("Cannot resolve image dependencies for start order: " + exp.getMessage(), exp);
         }
-
-        return true;
+        return missing;
     }
 
-    private List<String> extractDependentImagesFor(Resolvable config) {
-        LinkedHashSet<String> ret = new LinkedHashSet<>(config.getDependencies());
-        return ret.isEmpty() ? null : new ArrayList<>(ret);
+    private boolean dependsOnMissingContainer(Resolvable config, Map<Resolvable, Set<String>> externalDependencies, Set<String> missingContainers) {
+        for (String dependency : externalDependencies.getOrDefault(config, Collections.emptySet())) {
+            if (missingContainers.contains(dependency)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    // Exception indicating a steady state while resolving start order of images
-    private static class ResolveSteadyStateException extends Throwable { }
+    private String remainingImagesDescription(List<Resolvable> unresolved) {
+        StringBuilder ret = new StringBuilder();
+        ret.append("Unresolved images:\n");
+        for (Resolvable config : unresolved) {
+            ret.append("* ")
+               .append(config.getAlias())
+               .append(" depends on ")
+               .append(StringUtils.join(config.getDependencies().toArray(), ","))
+               .append("\n");
+        }
+        return ret.toString();
+    }
 
     public interface Resolvable {
         String getName();
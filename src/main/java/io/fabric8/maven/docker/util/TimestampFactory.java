@@ -15,6 +15,8 @@ package io.fabric8.maven.docker.util;/*
  * limitations under the License.
  */
 
+import java.time.DateTimeException;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 
@@ -45,4 +47,96 @@ public class TimestampFactory {
     public static ZonedDateTime createTimestamp(String spec) {
         return ZonedDateTime.parse(spec).truncatedTo(ChronoUnit.MILLIS);
     }
+
+    /**
+     * Same as {@link #createTimestamp(String)} but for a region of a character sequence. RFC 3339 timestamps
+     * as written by Docker are scanned directly without creating intermediate objects, all other
+     * representations are handed over to {@link #createTimestamp(String)}.
+     *
+     * @param text text containing the timestamp
+     * @param start index of the first character of the timestamp
+     * @param end index after the last character of the timestamp
+     * @throws java.time.format.DateTimeParseException if the timestamp can't be parsed
+     */
+    public static ZonedDateTime createTimestamp(CharSequence text, int start, int end) {
+        ZonedDateTime ret = scanRfc3339(text, start, end);
+        return ret != null ? ret : createTimestamp(text.subSequence(start, end).toString());
+    }
+
+    // Scan "yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:mm|-HH:mm)", returns null if the text doesn't match this layout
+    private static ZonedDateTime scanRfc3339(CharSequence text, int start, int end) {
+        if (end - start < 20 ||
+            text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-' ||
+            Character.toUpperCase(text.charAt(start + 10)) != 'T' ||
+            text.charAt(start + 13) != ':' || text.charAt(start + 16) != ':') {
+            return null;
+        }
+        int year = digits(text, start, 4);
+        int month = digits(text, start + 5, 2);
+        int day = digits(text, start + 8, 2);
+        int hour = digits(text, start + 11, 2);
+        int minute = digits(text, start + 14, 2);
+        int second = digits(text, start + 17, 2);
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+
+        int pos = start + 19;
+        int nanos = 0;
+        if (text.charAt(pos) == '.') {
+            pos++;
+            int fractionStart = pos;
+            int scale = 100_000_000;
+            while (pos < end && isDigit(text.charAt(pos))) {
+                nanos += (text.charAt(pos) - '0') * scale;
+                scale /= 10;
+                pos++;
+            }
+            if (pos == fractionStart || pos - fractionStart > 9) {
+                return null;
+            }
+        }
+
+        try {
+            ZoneOffset offset = scanOffset(text, pos, end);
+            return offset == null ? null : ZonedDateTime.of(year, month, day, hour, minute, second, nanos - nanos % 1_000_000, offset);
+        } catch (DateTimeException exp) {
+            // Out of range fields, let the regular parser report them
+            return null;
+        }
+    }
+
+    private static ZoneOffset scanOffset(CharSequence text, int pos, int end) {
+        if (end - pos == 1 && Character.toUpperCase(text.charAt(pos)) == 'Z') {
+            return ZoneOffset.UTC;
+        }
+        if (end - pos != 6 || text.charAt(pos + 3) != ':') {
+            return null;
+        }
+        char sign = text.charAt(pos);
+        int hours = digits(text, pos + 1, 2);
+        int minutes = digits(text, pos + 4, 2);
+        if ((sign != '+' && sign != '-') || (hours | minutes) < 0 || minutes > 59) {
+            return null;
+        }
+        return sign == '+' ?
+            ZoneOffset.ofHoursMinutes(hours, minutes) :
+            ZoneOffset.ofHoursMinutes(-hours, -minutes);
+    }
+
+    private static int digits(CharSequence text, int pos, int count) {
+        int ret = 0;
+        for (int i = pos; i < pos + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            ret = ret * 10 + (c - '0');
+        }
+        return ret;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
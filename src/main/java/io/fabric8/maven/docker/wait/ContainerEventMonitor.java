@@ -0,0 +1,278 @@
+package io.fabric8.maven.docker.wait;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.docker.access.DockerAccess;
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.event.EventCallback;
+import io.fabric8.maven.docker.access.event.EventGetHandle;
+import io.fabric8.maven.docker.model.ContainerEvent;
+import io.fabric8.maven.docker.util.EnvUtil;
+import io.fabric8.maven.docker.util.GavLabel;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Keeps track of the state of containers by following the docker <code>/events</code> stream so that
+ * waiting threads can be woken up as soon as a container starts, dies or changes its health status,
+ * instead of asking the daemon for the container state again and again.
+ * <p>
+ * A single subscription is opened lazily when the first container gets registered and is shared by all
+ * waiting threads. The subscription is closed when the {@link DockerAccess} is shut down. If the daemon
+ * doesn't support the required event filters or the stream breaks down, {@link #getState(String)} returns
+ * <code>null</code> so that callers fall back to polling.
+ */
+public class ContainerEventMonitor {
+
+    // Minimal API version supporting container health_status events
+    static final String MIN_API_VERSION = "1.24";
+
+    // How long to wait for the event stream to be established
+    private static final long SUBSCRIBE_TIMEOUT = 5000;
+
+    // Only the prefix of a container id is used for matching since create returns short ids
+    private static final int ID_LENGTH = 12;
+
+    private final DockerAccess docker;
+    private final Logger log;
+
+    // Containers currently tracked, keyed by short id
+    private final Map<String, ContainerState> states = new ConcurrentHashMap<>();
+
+    // Guards the switch to active so that a subscription given up on can't become active later
+    private final Object activationLock = new Object();
+
+    private EventGetHandle handle;
+    private boolean subscriptionTried;
+    private boolean abandoned;
+    private volatile boolean active;
+
+    public ContainerEventMonitor(DockerAccess docker, Logger log) {
+        this.docker = docker;
+        this.log = log;
+    }
+
+    /**
+     * Start tracking the given container. The first registration opens the event subscription.
+     *
+     * @param containerId container to track
+     * @return true if the container is tracked via events, false if polling must be used
+     */
+    public boolean register(String containerId) {
+        if (!subscribe()) {
+            return false;
+        }
+        states.putIfAbsent(shortId(containerId), new ContainerState());
+        return true;
+    }
+
+    /**
+     * Stop tracking the given container
+     *
+     * @param containerId container which is not waited on anymore
+     */
+    public void unregister(String containerId) {
+        ContainerState state = states.remove(shortId(containerId));
+        if (state != null) {
+            state.signal();
+        }
+    }
+
+    /**
+     * Get the state of a container as received by events
+     *
+     * @param containerId container to lookup
+     * @return the state or <code>null</code> if the container is not tracked or events are not available
+     */
+    public ContainerState getState(String containerId) {
+        return active ? states.get(shortId(containerId)) : null;
+    }
+
+    /**
+     * Wait until an event for the given container arrives or the given time has passed. Falls back
+     * to a plain sleep if the container is not tracked.
+     *
+     * @param containerId container to wait for
+     * @param millis max time to wait in milliseconds
+     */
+    public void await(String containerId, long millis) {
+        ContainerState state = getState(containerId);
+        if (state == null) {
+            WaitUtil.sleep(millis);
+        } else {
+            state.await(millis);
+        }
+    }
+
+    /**
+     * Whether events are received from the daemon
+     *
+     * @return true if the subscription is active
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    private synchronized boolean subscribe() {
+        if (subscriptionTried) {
+            return active;
+        }
+        subscriptionTried = true;
+        try {
+            if (!EnvUtil.greaterOrEqualsVersion(docker.getServerApiVersion(), MIN_API_VERSION)) {
+                log.debug("Container events not used for waiting, API version %s < %s",
+                          docker.getServerApiVersion(), MIN_API_VERSION);
+                return false;
+            }
+        } catch (DockerAccessException exp) {
+            log.debug("Cannot determine API version for container events: %s", exp.getMessage());
+            return false;
+        }
+
+        CountDownLatch subscribed = new CountDownLatch(1);
+        handle = docker.getEventsAsync(new StateUpdater(subscribed),
+                                       "type", "container",
+                                       "event", "start",
+                                       "event", "die",
+                                       "event", "health_status",
+                                       "label", GavLabel.KEY);
+        if (handle == null) {
+            return false;
+        }
+        try {
+            if (!subscribed.await(SUBSCRIBE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                log.debug("Timeout while subscribing to container events, falling back to polling");
+                abandon();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abandon();
+        }
+        return active;
+    }
+
+    private void abandon() {
+        synchronized (activationLock) {
+            abandoned = true;
+            active = false;
+        }
+        handle.finish();
+    }
+
+    private void fallback(String error) {
+        if (active) {
+            log.warn("Lost container event stream, falling back to polling: %s", error);
+        } else {
+            log.debug("Container events not available, falling back to polling: %s", error);
+        }
+        active = false;
+        // Wake up all waiters so that they switch to polling immediately
+        for (ContainerState state : states.values()) {
+            state.signal();
+        }
+    }
+
+    private static String shortId(String containerId) {
+        return containerId.length() > ID_LENGTH ? containerId.substring(0, ID_LENGTH) : containerId;
+    }
+
+    // Callback updating the container states from the event stream
+    private class StateUpdater implements EventCallback {
+
+        private final CountDownLatch subscribed;
+
+        StateUpdater(CountDownLatch subscribed) {
+            this.subscribed = subscribed;
+        }
+
+        @Override
+        public void open() {
+            synchronized (activationLock) {
+                active = !abandoned;
+            }
+            subscribed.countDown();
+        }
+
+        @Override
+        public void event(ContainerEvent event) {
+            String id = event.getId();
+            ContainerState state = id != null ? states.get(shortId(id)) : null;
+            if (state == null) {
+                return;
+            }
+            log.debug("Container event for %s: %s", shortId(id), event.getAction());
+            state.update(event);
+        }
+
+        @Override
+        public void error(String error) {
+            subscribed.countDown();
+            fallback(error);
+        }
+    }
+
+    /**
+     * State of a container as tracked from the event stream. Until the first event arrives,
+     * nothing is known about the container and callers need to inspect it once themselves.
+     */
+    public static class ContainerState {
+
+        private Integer exitCode;
+        private String healthStatus;
+
+        // Incremented on every update so that an event arriving between two waits is not missed
+        private long version;
+        private long seenVersion;
+
+        /**
+         * Exit code of the container if a "die" event has been received after the last "start" event
+         *
+         * @return exit code or <code>null</code> if the container has not died
+         */
+        public synchronized Integer getExitCode() {
+            return exitCode;
+        }
+
+        /**
+         * Health status as reported by the last health_status event
+         *
+         * @return health status like "healthy" or <code>null</code> if no such event has been received yet
+         */
+        public synchronized String getHealthStatus() {
+            return healthStatus;
+        }
+
+        synchronized void update(ContainerEvent event) {
+            String action = event.getAction();
+            if ("start".equals(action)) {
+                exitCode = null;
+            } else if ("die".equals(action)) {
+                Integer code = event.getExitCode();
+                exitCode = code != null ? code : -1;
+            } else if (event.getHealthStatus() != null) {
+                healthStatus = event.getHealthStatus();
+            }
+            version++;
+            notifyAll();
+        }
+
+        synchronized void signal() {
+            version++;
+            notifyAll();
+        }
+
+        synchronized void await(long millis) {
+            try {
+                if (version == seenVersion) {
+                    wait(millis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                seenVersion = version;
+            }
+        }
+    }
+}
@@ -18,7 +18,7 @@ public class ExitCodeChecker implements WaitChecker {
     @Override
     public boolean check() {
         try {
-            Integer exitCodeActual = queryService.getMandatoryContainer(containerId).getExitCode();
+            Integer exitCodeActual = queryService.getCurrentContainer(containerId).getExitCode();
             // container still running
             return exitCodeActual != null && exitCodeActual == exitCodeExpected;
         } catch (DockerAccessException e) {
@@ -17,16 +17,28 @@ public class HealthCheckChecker implements WaitChecker {
     private String containerId;
     private Logger log;
     private final String imageConfigDesc;
+    private final ContainerEventMonitor eventMonitor;
 
     public HealthCheckChecker(DockerAccess docker, String containerId, String imageConfigDesc, Logger log) {
+        this(docker, containerId, imageConfigDesc, null, log);
+    }
+
+    public HealthCheckChecker(DockerAccess docker, String containerId, String imageConfigDesc,
+                              ContainerEventMonitor eventMonitor, Logger log) {
         this.docker = docker;
         this.containerId = containerId;
         this.imageConfigDesc = imageConfigDesc;
+        this.eventMonitor = eventMonitor;
         this.log = log;
     }
 
     @Override
     public boolean check() {
+        // After the initial inspection, health changes are picked up from the event stream if available
+        ContainerEventMonitor.ContainerState state = eventMonitor != null ? eventMonitor.getState(containerId) : null;
+        if (!first && state != null) {
+            return "healthy".equals(state.getHealthStatus());
+        }
         try {
             final ContainerDetails container = docker.getContainer(containerId);
             if (container == null) {
@@ -1,39 +1,43 @@
 package io.fabric8.maven.docker.wait;
 
 import java.time.ZonedDateTime;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import io.fabric8.maven.docker.access.log.LogCallback;
+import io.fabric8.maven.docker.access.log.CharSequenceLogCallback;
 import io.fabric8.maven.docker.util.Logger;
 
-class LogMatchCallback implements LogCallback {
+class LogMatchCallback implements CharSequenceLogCallback {
 
     private final Logger logger;
     private final LogWaitCheckerCallback callback;
     private final Pattern pattern;
+    // Reused for every line, the log entries are matched without being copied
+    private final Matcher matcher;
     private StringBuilder logBuffer;
 
     LogMatchCallback(final Logger logger, final LogWaitCheckerCallback callback, final String patternString) {
         this.logger = logger;
         this.callback = callback;
         this.pattern = Pattern.compile(patternString);
+        this.matcher = pattern.matcher("");
         logBuffer = (pattern.flags() & Pattern.DOTALL) != 0 ? new StringBuilder() : null;
     }
 
     @Override
-    public void log(int type, ZonedDateTime timestamp, String txt) throws DoneException {
+    public void log(int type, ZonedDateTime timestamp, CharSequence txt) throws DoneException {
         logger.debug("LogWaitChecker: Trying to match '%s' [Pattern: %s] [thread: %d]",
                   txt, pattern.pattern(), Thread.currentThread().getId());
 
-        final String toMatch;
+        final CharSequence toMatch;
         if (logBuffer != null) {
             logBuffer.append(txt).append("\n");
-            toMatch = logBuffer.toString();
+            toMatch = logBuffer;
         } else {
             toMatch = txt;
         }
 
-        if (pattern.matcher(toMatch).find()) {
+        if (matcher.reset(toMatch).find()) {
             logger.debug("Found log-wait pattern in log output");
             callback.matched();
             throw new DoneException();
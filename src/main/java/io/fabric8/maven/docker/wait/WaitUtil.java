@@ -41,6 +41,10 @@ public class WaitUtil {
     }
 
     public static long wait(Precondition precondition, int maxWait, Iterable<WaitChecker> checkers) throws WaitTimeoutException, PreconditionFailedException {
+        return wait(precondition, maxWait, checkers, WaitUtil::sleep);
+    }
+
+    public static long wait(Precondition precondition, int maxWait, Iterable<WaitChecker> checkers, Pause pause) throws WaitTimeoutException, PreconditionFailedException {
         long max = maxWait > 0 ? maxWait : DEFAULT_MAX_WAIT;
         long now = System.currentTimeMillis();
         try {
@@ -56,7 +60,7 @@ public class WaitUtil {
                         return delta(now);
                     }
                 }
-                sleep(WAIT_RETRY_WAIT);
+                pause.await(WAIT_RETRY_WAIT);
             } while (delta(now) < max);
             throw new WaitTimeoutException("No checker finished successfully", delta(now));
         } finally {
@@ -100,6 +104,15 @@ public class WaitUtil {
     }
 
 
+    /**
+     * Pause between two checks, which might end early when something has changed
+     */
+    @FunctionalInterface
+    public interface Pause {
+        // wait at most the given time in milliseconds
+        void await(long millis);
+    }
+
     /**
      * Simple interfact for checking some preconditions
      */
@@ -96,6 +96,34 @@ class BuildMojoTest extends MojoTestBase {
         thenBuildRun();
     }
 
+    @Test
+    void buildWithStreamedBuildContext() throws IOException, MojoExecutionException {
+        givenMavenProject(buildMojo);
+        givenResolvedImages(buildMojo, Collections.singletonList(singleImageConfiguration(builder -> {})));
+
+        whenMojoExecutes();
+
+        Mockito.verify(buildService, Mockito.never()).buildArchive(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(buildService)
+            .buildImage(Mockito.any(ImageConfiguration.class), Mockito.any(ImagePullManager.class), Mockito.any(BuildService.BuildContext.class), Mockito.isNull());
+    }
+
+    @Test
+    void buildWithBuildArchiveWhenStreamingDisabled() throws IOException, MojoExecutionException {
+        givenMavenProject(buildMojo);
+        givenResolvedImages(buildMojo, Collections.singletonList(singleImageConfiguration(builder -> {})));
+        buildMojo.streamBuildContext = false;
+        File buildArchive = tmpDir.resolve("docker-build.tar").toFile();
+        Mockito.doReturn(buildArchive)
+            .when(buildService)
+            .buildArchive(Mockito.any(), Mockito.any(), Mockito.any());
+
+        whenMojoExecutes();
+
+        Mockito.verify(buildService)
+            .buildImage(Mockito.any(ImageConfiguration.class), Mockito.any(ImagePullManager.class), Mockito.any(BuildService.BuildContext.class), Mockito.eq(buildArchive));
+    }
+
     @Test
     void skipImageBuildWhenBuildArchiveOnlyPath() throws IOException, MojoExecutionException {
         givenMavenProject(buildMojo);
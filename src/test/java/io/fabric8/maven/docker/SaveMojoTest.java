@@ -16,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.CompressionOptions;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,6 +81,24 @@ class SaveMojoTest extends MojoTestBase {
         thenImageIsSaved("example:latest", "destination/archive-name.tar.bz2", ArchiveCompression.bzip2);
     }
 
+    @Test
+    void saveWithZstdAndCompressionOptions() throws DockerAccessException, MojoExecutionException {
+        givenProjectWithResolvedImage(singleImageWithBuild());
+        givenQueryServiceHasImage("example:latest");
+
+        saveMojo.saveFile = "destination/archive-name.tar.zst";
+        saveMojo.saveCompressionLevel = 9;
+        saveMojo.saveCompressionThreads = 4;
+
+        whenMojoExecutes();
+
+        thenImageIsSaved("example:latest", "destination/archive-name.tar.zst", ArchiveCompression.zstd);
+        ArgumentCaptor<CompressionOptions> options = ArgumentCaptor.forClass(CompressionOptions.class);
+        Mockito.verify(dockerAccess).saveImage(Mockito.anyString(), Mockito.anyString(), Mockito.any(), options.capture());
+        Assertions.assertEquals(9, options.getValue().getLevel(3));
+        Assertions.assertEquals(4, options.getValue().getThreads());
+    }
+
     @Test
     void saveWithFileInSystemProperty() throws DockerAccessException, MojoExecutionException {
         givenProjectWithResolvedImage(singleImageWithBuild());
@@ -369,18 +388,18 @@ class SaveMojoTest extends MojoTestBase {
     }
 
     private void thenNoImageIsSaved() throws DockerAccessException {
-        Mockito.verify(dockerAccess, Mockito.never()).saveImage(Mockito.anyString(), Mockito.anyString(), Mockito.any());
+        Mockito.verify(dockerAccess, Mockito.never()).saveImage(Mockito.anyString(), Mockito.anyString(), Mockito.any(), Mockito.any());
     }
 
     private void thenImageIsSaved(String name, String fileName, ArchiveCompression compression) throws DockerAccessException {
         ArgumentCaptor<String> savedImage = ArgumentCaptor.forClass(String.class);
-        Mockito.verify(dockerAccess).saveImage(Mockito.eq(name), savedImage.capture(), Mockito.eq(compression));
+        Mockito.verify(dockerAccess).saveImage(Mockito.eq(name), savedImage.capture(), Mockito.eq(compression), Mockito.any());
         assertAbsolutePathEquals(resolveMavenProjectPath(fileName), resolveMavenProjectPath(savedImage.getValue()));
     }
 
     private void thenImagesAreSaved(List<String> names, String fileName, ArchiveCompression compression) throws DockerAccessException {
         ArgumentCaptor<String> savedImage = ArgumentCaptor.forClass(String.class);
-        Mockito.verify(dockerAccess).saveImages(Mockito.eq(names), savedImage.capture(), Mockito.eq(compression));
+        Mockito.verify(dockerAccess).saveImages(Mockito.eq(names), savedImage.capture(), Mockito.eq(compression), Mockito.any());
         assertAbsolutePathEquals(resolveMavenProjectPath(fileName), resolveMavenProjectPath(savedImage.getValue()));
     }
 
@@ -117,6 +117,17 @@ class UrlBuilderTest {
         Assertions.assertTrue(exp.getMessage().contains("pair"));
     }
 
+    @Test
+    void events() throws UnsupportedEncodingException, URISyntaxException {
+        UrlBuilder builder = new UrlBuilder("", "1.0");
+
+        Assertions.assertEquals(new URI("/1.0/events"), new URI(builder.events(null)));
+        Assertions.assertEquals(new URI("/1.0/events?filters=" +
+                                        URLEncoder.encode("{\"type\":[\"container\"],\"event\":[\"start\",\"die\"]}", "UTF8") +
+                                        "&since=1620000000"),
+            new URI(builder.events("1620000000", "type", "container", "event", "start", "event", "die")));
+    }
+
     @Test
     void createContainer() throws URISyntaxException {
         UrlBuilder builder = new UrlBuilder("", "1.0");
@@ -1,5 +1,6 @@
 package io.fabric8.maven.docker.access.ecr;
 
+import com.sun.net.httpserver.HttpServer;
 import io.fabric8.maven.docker.access.AuthConfig;
 import io.fabric8.maven.docker.util.Logger;
 import org.apache.http.HttpEntity;
@@ -11,15 +12,30 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Test exchange of local stored credentials for temporary ecr credentials
@@ -110,4 +126,99 @@ class EcrExtendedAuthTest {
         Mockito.verify(closeableHttpClient).close();
     }
 
+    @Test
+    void testTokenCachedAcrossInstances(@TempDir File dir) throws Exception {
+        List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = startEcrStub(authorizations, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(12));
+        try {
+            EcrTokenCache cache = new EcrTokenCache(new File(dir, "ecr-token-cache.json"));
+            AuthConfig localCredentials = new AuthConfig("username", "password", null, null);
+
+            AuthConfig first = newStubAuth(server, cache).extendedAuth(localCredentials);
+            AuthConfig second = newStubAuth(server, cache).extendedAuth(localCredentials);
+
+            Assertions.assertEquals(1, authorizations.size());
+            Assertions.assertTrue(authorizations.get(0).startsWith("AWS4-HMAC-SHA256 Credential=username/"));
+            Assertions.assertEquals("AWS", second.getUsername());
+            Assertions.assertEquals(first.getPassword(), second.getPassword());
+
+            // Another access key gets its own token
+            newStubAuth(server, cache).extendedAuth(new AuthConfig("other", "password", null, null));
+            Assertions.assertEquals(2, authorizations.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testTokenRefreshedBeforeExpiry(@TempDir File dir) throws Exception {
+        List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+        long expiresAt = System.currentTimeMillis() + EcrTokenCache.REFRESH_BEFORE_EXPIRY_MILLIS / 2;
+        HttpServer server = startEcrStub(authorizations, expiresAt);
+        try {
+            EcrTokenCache cache = new EcrTokenCache(new File(dir, "ecr-token-cache.json"));
+            AuthConfig localCredentials = new AuthConfig("username", "password", null, null);
+
+            newStubAuth(server, cache).extendedAuth(localCredentials);
+            newStubAuth(server, cache).extendedAuth(localCredentials);
+
+            Assertions.assertEquals(2, authorizations.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testCorruptedTokenCacheIgnored(@TempDir File dir) throws Exception {
+        List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = startEcrStub(authorizations, System.currentTimeMillis() + TimeUnit.HOURS.toMillis(12));
+        try {
+            File file = new File(dir, "ecr-token-cache.json");
+            Files.write(file.toPath(), "{ not json".getBytes(StandardCharsets.UTF_8));
+            EcrTokenCache cache = new EcrTokenCache(file);
+            AuthConfig localCredentials = new AuthConfig("username", "password", null, null);
+
+            newStubAuth(server, cache).extendedAuth(localCredentials);
+            newStubAuth(server, cache).extendedAuth(localCredentials);
+
+            Assertions.assertEquals(1, authorizations.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testTokenCacheOnlyReadableByOwner(@TempDir File dir) throws Exception {
+        Assumptions.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"), "No POSIX file system");
+        File file = new File(dir, "cache/ecr-token-cache.json");
+
+        new EcrTokenCache(file).put("123456789012.dkr.ecr.eu-west-1.amazonaws.com", "AKID", "token",
+                                    System.currentTimeMillis() + TimeUnit.HOURS.toMillis(12), System.currentTimeMillis());
+
+        Assertions.assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file.toPath()));
+    }
+
+    private EcrExtendedAuth newStubAuth(HttpServer server, EcrTokenCache cache) {
+        String endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new EcrExtendedAuth(logger, "123456789012.dkr.ecr.eu-west-1.amazonaws.com", endpoint, cache);
+    }
+
+    private static HttpServer startEcrStub(List<String> authorizations, long expiresAt) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            String token = Base64.getEncoder().encodeToString(("AWS:password" + authorizations.size()).getBytes(StandardCharsets.UTF_8));
+            byte[] body = ("{\"authorizationData\": [{"
+                           + "\"authorizationToken\": \"" + token + "\","
+                           + "\"expiresAt\": " + expiresAt / 1000.0 + ","
+                           + "\"proxyEndpoint\": \"https://123456789012.dkr.ecr.eu-west-1.amazonaws.com\"}]}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
 }
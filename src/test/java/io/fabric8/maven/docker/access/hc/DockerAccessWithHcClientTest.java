@@ -7,6 +7,7 @@ import io.fabric8.maven.docker.access.CreateImageOptions;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.access.hc.util.ClientBuilder;
 import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.CompressionOptions;
 import io.fabric8.maven.docker.model.Container;
 import io.fabric8.maven.docker.model.ContainersListElement;
 import io.fabric8.maven.docker.model.Image;
@@ -26,6 +27,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
@@ -247,6 +249,30 @@ class DockerAccessWithHcClientTest {
         Assertions.assertTrue(dae.getMessage().contains("Problem with images/create"));
     }
 
+    @Test
+    void testCopyArchiveStreamToContainer() throws IOException {
+        client.copyArchiveStreamToContainer("abc", out -> out.write("tar".getBytes()), "/opt/app");
+
+        ArgumentCaptor<Object> body = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(mockDelegate).put(Mockito.eq(BASE_URL + "/v1.40/containers/abc/archive?path=%2Fopt%2Fapp"), body.capture(), Mockito.eq(HTTP_OK));
+        StreamingArchiveEntity entity = (StreamingArchiveEntity) body.getValue();
+        Assertions.assertEquals("application/x-tar", entity.getContentType().getValue());
+        Assertions.assertTrue(entity.isChunked());
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        entity.writeTo(written);
+        Assertions.assertEquals("tar", written.toString());
+    }
+
+    @Test
+    void testCopyArchiveStreamToContainerFails() throws IOException {
+        Mockito.doThrow(new IOException("connection reset"))
+                .when(mockDelegate).put(Mockito.anyString(), Mockito.any(), Mockito.eq(HTTP_OK));
+
+        DockerAccessException exp = Assertions.assertThrows(DockerAccessException.class,
+                () -> client.copyArchiveStreamToContainer("abc", out -> { }, "/opt/app"));
+        Assertions.assertTrue(exp.getMessage().contains("Unable to copy archive to container [abc] with path /opt/app"));
+    }
+
     @Test
     void stripTrailing() {
         Assertions.assertEquals("x", DockerAccessWithHcClient.stripTrailingSlash("x/"));
@@ -470,7 +496,7 @@ class DockerAccessWithHcClientTest {
 
     private void whenSaveImage() {
         try {
-            client.saveImage(imageName, filename, compression);
+            client.saveImage(imageName, filename, compression, CompressionOptions.DEFAULT);
         } catch (Exception e) {
             thrownException = e;
         }
@@ -478,7 +504,7 @@ class DockerAccessWithHcClientTest {
 
     private void whenSaveImages() {
         try {
-            client.saveImages(Arrays.asList("image1", "image2"), filename, compression);
+            client.saveImages(Arrays.asList("image1", "image2"), filename, compression, CompressionOptions.DEFAULT);
         } catch (Exception e) {
             thrownException = e;
         }
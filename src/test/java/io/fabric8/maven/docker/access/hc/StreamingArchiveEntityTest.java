@@ -0,0 +1,26 @@
+package io.fabric8.maven.docker.access.hc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StreamingArchiveEntityTest {
+
+    @Test
+    void writesArchiveChunked() throws IOException {
+        StreamingArchiveEntity entity = new StreamingArchiveEntity(
+            out -> out.write("archive".getBytes(StandardCharsets.UTF_8)), "application/x-tar");
+
+        Assertions.assertTrue(entity.isChunked());
+        Assertions.assertFalse(entity.isRepeatable());
+        Assertions.assertEquals(-1, entity.getContentLength());
+        Assertions.assertEquals("application/x-tar", entity.getContentType().getValue());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeTo(out);
+        Assertions.assertEquals("archive", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,187 @@
+package io.fabric8.maven.docker.access.log;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import io.fabric8.maven.docker.access.UrlBuilder;
+import org.apache.http.HttpEntity;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class LogFollowerTest {
+
+    private final List<CloseableHttpClient> clients = Collections.synchronizedList(new ArrayList<>());
+    private final List<PipedOutputStream> feeds = Collections.synchronizedList(new ArrayList<>());
+
+    private LogFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        UrlBuilder urlBuilder = Mockito.mock(UrlBuilder.class);
+        Mockito.doReturn("http://localhost/containers/logs").when(urlBuilder)
+            .containerLogs(Mockito.anyString(), Mockito.anyBoolean(), Mockito.any());
+        follower = new LogFollower(this::createClient, urlBuilder, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (PipedOutputStream feed : feeds) {
+            feed.close();
+        }
+        follower.shutdown();
+    }
+
+    @Test
+    void callbacksShareStreamOfContainer() throws Exception {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+
+        follower.follow("c1", first);
+        send(0, "one");
+        awaitCondition(() -> first.entries.size() == 1);
+        follower.follow("c1", second);
+        send(0, "two");
+        awaitCondition(() -> second.entries.size() == 2);
+
+        Assertions.assertEquals(1, clients.size());
+        Assertions.assertEquals(Arrays.asList("one", "two"), first.entries);
+        // The entry received before joining has been replayed
+        Assertions.assertEquals(Arrays.asList("one", "two"), second.entries);
+        Assertions.assertTrue(second.opened);
+    }
+
+    @Test
+    void separateStreamWhenHistoryIsFull() throws Exception {
+        RecordingCallback first = new RecordingCallback();
+        follower.follow("c1", first);
+        send(0, "1", "2", "3", "4");
+        awaitCondition(() -> first.entries.size() == 4);
+
+        follower.follow("c1", new RecordingCallback());
+        follower.follow("c2", new RecordingCallback());
+
+        awaitCondition(() -> clients.size() == 3);
+        Assertions.assertEquals(3, follower.getStreamCount());
+    }
+
+    @Test
+    void streamStopsWhenLastCallbackFinishes() throws Exception {
+        RecordingCallback first = new RecordingCallback();
+        RecordingCallback second = new RecordingCallback();
+        LogGetHandle firstHandle = follower.follow("c1", first);
+        LogGetHandle secondHandle = follower.follow("c1", second);
+        send(0, "one");
+        awaitCondition(() -> second.entries.size() == 1);
+
+        firstHandle.finish();
+        Assertions.assertTrue(first.closed);
+        send(0, "two");
+        awaitCondition(() -> second.entries.size() == 2);
+        Assertions.assertEquals(Collections.singletonList("one"), first.entries);
+
+        secondHandle.finish();
+        Assertions.assertTrue(second.closed);
+        // The blocked read ends when the daemon closes the connection
+        feeds.get(0).close();
+        awaitCondition(() -> follower.getStreamCount() == 0);
+        Mockito.verify(clients.get(0), Mockito.timeout(5000)).close();
+    }
+
+    @Test
+    void doneCallbackDoesNotEndStreamForOthers() throws Exception {
+        RecordingCallback matcher = new RecordingCallback();
+        matcher.doneAfter = "ready";
+        RecordingCallback logger = new RecordingCallback();
+        follower.follow("c1", logger);
+        follower.follow("c1", matcher);
+
+        send(0, "starting", "ready", "serving");
+        awaitCondition(() -> logger.entries.size() == 3);
+
+        Assertions.assertEquals(Arrays.asList("starting", "ready"), matcher.entries);
+        Assertions.assertTrue(matcher.closed);
+        Assertions.assertFalse(logger.closed);
+    }
+
+    private CloseableHttpClient createClient() {
+        try {
+            PipedOutputStream feed = new PipedOutputStream();
+            PipedInputStream content = new PipedInputStream(feed, 65536);
+            CloseableHttpClient client = Mockito.mock(CloseableHttpClient.class);
+            CloseableHttpResponse response = Mockito.mock(CloseableHttpResponse.class);
+            StatusLine statusLine = Mockito.mock(StatusLine.class);
+            HttpEntity entity = Mockito.mock(HttpEntity.class);
+            Mockito.doReturn(200).when(statusLine).getStatusCode();
+            Mockito.doReturn(statusLine).when(response).getStatusLine();
+            Mockito.doReturn(entity).when(response).getEntity();
+            Mockito.doReturn(content).when(entity).getContent();
+            Mockito.doReturn(response).when(client).execute(Mockito.any(HttpUriRequest.class));
+            feeds.add(feed);
+            clients.add(client);
+            return client;
+        } catch (IOException exp) {
+            throw new IllegalStateException(exp);
+        }
+    }
+
+    private void send(int stream, String... lines) throws IOException {
+        for (String line : lines) {
+            feeds.get(stream).write(StreamFrameDecoderTest.frame(1, "2024-01-01T10:00:00.000000001Z " + line));
+        }
+        feeds.get(stream).flush();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > end) {
+                Assertions.fail("Condition not met within 5 seconds");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingCallback implements LogCallback {
+        final List<String> entries = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean opened;
+        volatile boolean closed;
+        String doneAfter;
+
+        @Override
+        public void log(int type, ZonedDateTime timestamp, String txt) throws DoneException {
+            entries.add(txt);
+            if (txt.equals(doneAfter)) {
+                throw new DoneException();
+            }
+        }
+
+        @Override
+        public void error(String error) {
+            entries.add("ERROR: " + error);
+        }
+
+        @Override
+        public void open() {
+            opened = true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 import java.util.regex.Matcher;
@@ -86,6 +87,29 @@ class LogRequestorTest {
         Mockito.verify(callback).log(Mockito.eq(type.type), Mockito.any(ZonedDateTime.class), Mockito.eq(message2));
     }
 
+    @Test
+    void testCharSequenceCallbackReceivesEntryWithoutCopy() throws Exception {
+        final Streams type = Streams.STDERR;
+        final ByteBuffer body = responseContent(type, "first entry  ", "second");
+        setupMocks(new ByteArrayInputStream(body.array()));
+
+        CharSequenceLogCallback charCallback = Mockito.mock(CharSequenceLogCallback.class);
+        List<String> entries = new ArrayList<>();
+        List<ZonedDateTime> timestamps = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            timestamps.add(invocation.getArgument(1));
+            // The content is only valid during the call
+            entries.add(invocation.getArgument(2, CharSequence.class).toString());
+            return null;
+        }).when(charCallback).log(Mockito.anyInt(), Mockito.any(ZonedDateTime.class), Mockito.any(CharSequence.class));
+
+        new LogRequestor(client, urlBuilder, containerId, charCallback).fetchLogs();
+
+        Assertions.assertEquals(Arrays.asList("first entry", "second"), entries);
+        Assertions.assertEquals(ZonedDateTime.parse("2015-08-05T12:34:56Z"), timestamps.get(0));
+        Mockito.verify(charCallback, Mockito.never()).log(Mockito.anyInt(), Mockito.any(ZonedDateTime.class), Mockito.anyString());
+    }
+
     @Test
     void testMessageWithLeadingWhitespace() throws Exception {
         final Streams type = Streams.STDOUT;
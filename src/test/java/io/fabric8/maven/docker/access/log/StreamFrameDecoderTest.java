@@ -0,0 +1,135 @@
+package io.fabric8.maven.docker.access.log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StreamFrameDecoderTest {
+
+    private final List<String> received = new ArrayList<>();
+
+    private final StreamFrameDecoder.FrameHandler collector = (type, content) -> received.add(type + ":" + content);
+
+    @Test
+    void readFrames() throws Exception {
+        byte[] stream = concat(frame(1, "first"), frame(2, ""), frame(2, "zweite Zeile äöü"), frame(1, longText(20000)));
+
+        StreamFrameDecoder decoder = new StreamFrameDecoder(new ByteArrayInputStream(stream));
+        while (decoder.readFrame(collector)) {
+            // collect
+        }
+
+        Assertions.assertEquals(Arrays.asList("1:first", "2:zweite Zeile äöü", "1:" + longText(20000)), received);
+    }
+
+    @Test
+    void readFrameFromEmptyStream() throws Exception {
+        StreamFrameDecoder decoder = new StreamFrameDecoder(new ByteArrayInputStream(new byte[0]));
+        Assertions.assertFalse(decoder.readFrame(collector));
+    }
+
+    @Test
+    void truncatedHeader() {
+        StreamFrameDecoder decoder = new StreamFrameDecoder(new ByteArrayInputStream(new byte[] { 1, 0, 0 }));
+        IOException exp = Assertions.assertThrows(IOException.class, () -> decoder.readFrame(collector));
+        Assertions.assertTrue(exp.getMessage().startsWith("Failed to read log header"));
+    }
+
+    @Test
+    void truncatedPayload() {
+        byte[] frame = frame(1, "truncated");
+        StreamFrameDecoder decoder = new StreamFrameDecoder(new ByteArrayInputStream(Arrays.copyOf(frame, frame.length - 2)));
+        IOException exp = Assertions.assertThrows(IOException.class, () -> decoder.readFrame(collector));
+        Assertions.assertTrue(exp.getMessage().contains("Could not read all 9 bytes"));
+        Assertions.assertTrue(exp.getMessage().contains("[ Header: 0100000000000009]"));
+    }
+
+    @Test
+    void readLines() throws Exception {
+        String text = "one\ntwo\r\nthree\rfour äöü €\n\nlast";
+
+        new StreamFrameDecoder(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))).readLines(1, collector);
+
+        Assertions.assertEquals(Arrays.asList("1:one", "1:two", "1:three", "1:four äöü €", "1:", "1:last"), received);
+    }
+
+    @Test
+    void readLinesInSmallChunks() throws Exception {
+        // Splits multi byte characters and "\r\n" across reads
+        String text = "ä\r\n€€€\r\n" + longText(30000) + "\nend\n";
+
+        new StreamFrameDecoder(new ChunkedInputStream(text.getBytes(StandardCharsets.UTF_8), 1)).readLines(2, collector);
+
+        Assertions.assertEquals(Arrays.asList("2:ä", "2:€€€", "2:" + longText(30000), "2:end"), received);
+    }
+
+    @Test
+    void readLinesStopsOnDone() throws Exception {
+        StreamFrameDecoder decoder = new StreamFrameDecoder(new ByteArrayInputStream("a\nb\nc\n".getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertThrows(LogCallback.DoneException.class, () -> decoder.readLines(1, (type, line) -> {
+            received.add(line.toString());
+            if (line.toString().equals("b")) {
+                throw new LogCallback.DoneException();
+            }
+        }));
+        Assertions.assertEquals(Arrays.asList("a", "b"), received);
+    }
+
+    @Test
+    void readLinesFromEmptyStream() throws Exception {
+        new StreamFrameDecoder(new ByteArrayInputStream(new byte[0])).readLines(1, collector);
+        Assertions.assertEquals(Collections.emptyList(), received);
+    }
+
+    static byte[] frame(int type, String text) {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        byte[] ret = new byte[8 + payload.length];
+        ret[0] = (byte) type;
+        ret[4] = (byte) (payload.length >>> 24);
+        ret[5] = (byte) (payload.length >>> 16);
+        ret[6] = (byte) (payload.length >>> 8);
+        ret[7] = (byte) payload.length;
+        System.arraycopy(payload, 0, ret, 8, payload.length);
+        return ret;
+    }
+
+    private static byte[] concat(byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static String longText(int length) {
+        StringBuilder ret = new StringBuilder();
+        while (ret.length() < length) {
+            ret.append("Lorem ipsum ü ");
+        }
+        return ret.substring(0, length);
+    }
+
+    // Returns at most chunkSize bytes per read
+    private static class ChunkedInputStream extends FilterInputStream {
+        private final int chunkSize;
+
+        ChunkedInputStream(byte[] data, int chunkSize) {
+            super(new ByteArrayInputStream(data));
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, Math.min(len, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AssemblyFilesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void contentHashingIgnoresRewriteWithSameContent() throws IOException {
+        File source = write(tempDir.resolve("src/app.jar").toFile(), "app");
+        AssemblyFiles files = new AssemblyFiles(tempDir.resolve("maven").toFile());
+        files.addEntry(source, write(tempDir.resolve("maven/app.jar").toFile(), "app"));
+        files.enableContentHashing();
+
+        write(source, "app");
+        Assertions.assertTrue(source.setLastModified(source.lastModified() + 10_000));
+        Assertions.assertTrue(files.getUpdatedEntriesAndRefresh().isEmpty());
+
+        write(source, "changed app");
+        Assertions.assertTrue(source.setLastModified(source.lastModified() + 20_000));
+        Assertions.assertEquals(1, files.getUpdatedEntriesAndRefresh().size());
+        Assertions.assertTrue(files.getUpdatedEntriesAndRefresh().isEmpty());
+    }
+
+    @Test
+    void modificationTimeIsUsedWithoutContentHashing() throws IOException {
+        File source = write(tempDir.resolve("src/app.jar").toFile(), "app");
+        AssemblyFiles files = new AssemblyFiles(tempDir.resolve("maven").toFile());
+        files.addEntry(source, write(tempDir.resolve("maven/app.jar").toFile(), "app"));
+
+        Assertions.assertTrue(source.setLastModified(source.lastModified() + 10_000));
+        Assertions.assertEquals(1, files.getUpdatedEntriesAndRefresh().size());
+    }
+
+    @Test
+    void deletedAndRecreatedFilesAreChanges() throws IOException {
+        File source = write(tempDir.resolve("src/app.jar").toFile(), "app");
+        AssemblyFiles files = new AssemblyFiles(tempDir.resolve("maven").toFile());
+        files.addEntry(source, write(tempDir.resolve("maven/lib/app.jar").toFile(), "app"));
+
+        Files.delete(source.toPath());
+        List<AssemblyFiles.Entry> changed = files.getChangedEntriesAndRefresh();
+        Assertions.assertEquals(1, changed.size());
+        Assertions.assertTrue(changed.get(0).isDeleted());
+        Assertions.assertEquals("lib/app.jar", files.getRelativePath(changed.get(0)));
+        Assertions.assertTrue(files.getChangedEntriesAndRefresh().isEmpty());
+
+        write(source, "recreated app");
+        changed = files.getChangedEntriesAndRefresh();
+        Assertions.assertEquals(1, changed.size());
+        Assertions.assertFalse(changed.get(0).isDeleted());
+    }
+
+    private static File write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
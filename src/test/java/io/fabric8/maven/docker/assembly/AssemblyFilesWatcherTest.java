@@ -0,0 +1,85 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.fabric8.maven.docker.util.AnsiLogger;
+
+class AssemblyFilesWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AssemblyFilesWatcher watcher;
+    private AssemblyFiles files;
+    private File[] sources;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        watcher = new AssemblyFilesWatcher(new AnsiLogger(new SystemStreamLog(), false, "build"));
+        File assemblyDir = Files.createDirectories(tempDir.resolve("maven")).toFile();
+        files = new AssemblyFiles(assemblyDir);
+        sources = new File[3];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = write(tempDir.resolve("src/file" + i + ".txt").toFile(), "original");
+            files.addEntry(sources[i], write(new File(assemblyDir, "file" + i + ".txt"), "original"));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.close();
+    }
+
+    @Test
+    void changesWithinModificationTimeResolutionAreDetected() throws Exception {
+        Semaphore notified = new Semaphore(0);
+        Assumptions.assumeTrue(watcher.register(files, notified::release) == sources.length, "No native file events");
+
+        long lastModified = sources[0].lastModified();
+        write(sources[0], "changed");
+        Assertions.assertTrue(sources[0].setLastModified(lastModified));
+        Assertions.assertTrue(notified.tryAcquire(10, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(1, files.getUpdatedEntriesAndRefresh().size());
+        Assertions.assertTrue(files.getUpdatedEntriesAndRefresh().isEmpty());
+    }
+
+    @Test
+    void eventsAreCoalescedIntoOneChangeSet() throws Exception {
+        Semaphore notified = new Semaphore(0);
+        Assumptions.assumeTrue(watcher.register(files, notified::release) == sources.length, "No native file events");
+
+        for (File source : sources) {
+            write(source, "changed");
+        }
+        Set<File> changed = new HashSet<>();
+        while (changed.size() < sources.length && notified.tryAcquire(10, TimeUnit.SECONDS)) {
+            files.getUpdatedEntriesAndRefresh().forEach(entry -> changed.add(entry.getSrcFile()));
+        }
+        Assertions.assertEquals(sources.length, changed.size());
+        // Several events per file, but no further notification after all changes have been reported
+        Assertions.assertFalse(notified.tryAcquire(AssemblyFilesWatcher.MAX_DELAY, TimeUnit.MILLISECONDS));
+    }
+
+    private static File write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
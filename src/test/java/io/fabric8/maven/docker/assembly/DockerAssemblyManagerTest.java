@@ -43,6 +43,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
@@ -85,6 +86,31 @@ class DockerAssemblyManagerTest {
         Assertions.assertFalse(content.contains("VOLUME"));
     }
 
+    @Test
+    void testLayeredAssemblyIsCopiedPerLayer() {
+        String content = createDockerfileWithExportedAssembly(AssemblyMode.layered);
+
+        Assertions.assertTrue(content.contains("COPY maven/dependencies /maven/\n" +
+                                               "COPY maven/snapshot-dependencies /maven/\n" +
+                                               "COPY maven/resources /maven/\n" +
+                                               "COPY maven/application /maven/\n"), content);
+        // Target dir exported like for a single COPY
+        String dirContent = createDockerfileWithExportedAssembly(AssemblyMode.dir);
+        Assertions.assertEquals(dirContent.split("VOLUME").length, content.split("VOLUME").length, content);
+    }
+
+    private String createDockerfileWithExportedAssembly(AssemblyMode mode) {
+        BuildImageConfiguration buildConfig = new BuildImageConfiguration.Builder()
+            .from("eclipse-temurin:17")
+            .assembly(new AssemblyConfiguration.Builder()
+                .mode(mode.name())
+                .exportBasedir(true)
+                .descriptorRef("artifact-with-dependencies")
+                .build())
+            .build();
+        return assemblyManager.createDockerFileBuilder(buildConfig, buildConfig.getAllAssemblyConfigurations()).content();
+    }
+
     @Test
     void testShellIsSet() {
         BuildImageConfiguration buildConfig =
@@ -288,6 +314,44 @@ class DockerAssemblyManagerTest {
         verifyArchiveManager();
     }
 
+    @Test
+    void testChangedFilesArchiveStreamUsesPathsRelativeToAssembly(@TempDir Path tempDir) throws Exception {
+        AssemblyFiles files = new AssemblyFiles(tempDir.resolve("maven").toFile());
+        File source = Files.createDirectories(tempDir.resolve("src")).resolve("app.jar").toFile();
+        File dest = Files.createDirectories(tempDir.resolve("maven/lib")).resolve("app.jar").toFile();
+        Assertions.assertTrue(source.createNewFile());
+        Assertions.assertTrue(dest.createNewFile());
+        files.addEntry(source, dest);
+
+        Mockito.doReturn(tarArchiver).when(archiverManager).getArchiver("tar");
+        Assertions.assertNotNull(assemblyManager.createChangedFilesArchiveStream(files, files.getEntries()));
+
+        Mockito.verify(tarArchiver).addFile(source, "lib/app.jar");
+        Mockito.verify(tarArchiver, Mockito.never()).createArchive();
+    }
+
+    @Test
+    void testArchiveCreationWithLinkedDirAssembly() throws Exception {
+        MojoParameters mojoParams = mockMojoParams(mockMavenProject());
+
+        BuildImageConfiguration buildImageConfiguration = new BuildImageConfiguration.Builder()
+            .dockerFile(DockerAssemblyManagerTest.class.getResource("/docker/Dockerfile.test").getPath())
+            .assembly(new AssemblyConfiguration.Builder()
+                .mode(AssemblyMode.dir.name())
+                .staging(AssemblyConfiguration.StagingMode.link.name())
+                .assemblyDef(new Assembly())
+                .build()
+            )
+            .build();
+        buildImageConfiguration.initAndValidate(logger);
+
+        Mockito.doReturn(tarArchiver).when(archiverManager).getArchiver("tar");
+        assemblyManager.createDockerTarArchive("test_image", mojoParams, buildImageConfiguration, logger, null);
+
+        Mockito.verify(assemblyArchiver).createArchive(Mockito.any(Assembly.class), Mockito.eq("maven"), Mockito.eq(LinkingDirectoryArchiver.FORMAT),
+            Mockito.any(DockerAssemblyConfigurationSource.class), Mockito.isNull());
+    }
+
     @Test
     void testArchiveCreationDockerfileWithArchiveAssembly() throws MojoExecutionException, NoSuchArchiverException {
         MojoParameters mojoParams = mockMojoParams(mockMavenProject());
@@ -0,0 +1,94 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Build;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.archiver.ArchiveEntry;
+import org.codehaus.plexus.archiver.ResourceIterator;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LayeredAssemblyCustomizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void filesAreSortedIntoLayers() throws IOException {
+        File repository = tempDir.resolve("repository").toFile();
+        File target = tempDir.resolve("target").toFile();
+        File assemblyDir = tempDir.resolve("target/docker/app/build/maven").toFile();
+
+        MavenProject project = new MavenProject();
+        Build build = new Build();
+        build.setDirectory(target.getPath());
+        build.setOutputDirectory(new File(target, "classes").getPath());
+        project.setBuild(build);
+        project.setArtifacts(new HashSet<>(Arrays.asList(
+            artifact("commons-lang3", "3.14.0", file(repository, "commons-lang3-3.14.0.jar")),
+            artifact("shared", "1.0-SNAPSHOT", file(repository, "shared-1.0-SNAPSHOT.jar")))));
+
+        AssemblyFiles assemblyFiles = new AssemblyFiles(assemblyDir);
+        assemblyFiles.addEntry(new File(repository, "commons-lang3-3.14.0.jar"), file(assemblyDir, "lib/commons-lang3-3.14.0.jar"));
+        assemblyFiles.addEntry(new File(repository, "shared-1.0-SNAPSHOT.jar"), file(assemblyDir, "lib/shared-1.0-SNAPSHOT.jar"));
+        assemblyFiles.addEntry(file(target, "app-1.0.jar"), file(assemblyDir, "app.jar"));
+        assemblyFiles.addEntry(file(target, "classes/io/example/Main.class"), file(assemblyDir, "classes/io/example/Main.class"));
+        assemblyFiles.addEntry(file(target, "classes/application.yml"), file(assemblyDir, "classes/application.yml"));
+        assemblyFiles.addEntry(file(tempDir.toFile(), "src/main/docker/run.sh"), file(assemblyDir, "run.sh"));
+        // Not known to the assembly
+        file(assemblyDir, "unknown.txt");
+
+        Map<Path, AssemblyLayer> layers = LayeredAssemblyCustomizer.getLayers(assemblyFiles, project);
+        TarArchiver archiver = new LayeredAssemblyCustomizer("maven", assemblyDir, layers).customize(new TarArchiver());
+
+        Assertions.assertEquals(Arrays.asList(
+            "maven/dependencies",
+            "maven/snapshot-dependencies",
+            "maven/resources",
+            "maven/application",
+            "maven/application/app.jar",
+            "maven/resources/classes/application.yml",
+            "maven/application/classes/io/example/Main.class",
+            "maven/dependencies/lib/commons-lang3-3.14.0.jar",
+            "maven/snapshot-dependencies/lib/shared-1.0-SNAPSHOT.jar",
+            "maven/resources/run.sh",
+            "maven/application/unknown.txt"), getEntryNames(archiver));
+    }
+
+    private static Artifact artifact(String artifactId, String version, File file) {
+        Artifact artifact = new DefaultArtifact("io.example", artifactId, version, "runtime", "jar", null, new DefaultArtifactHandler("jar"));
+        artifact.setFile(file);
+        return artifact;
+    }
+
+    private static File file(File dir, String path) throws IOException {
+        File file = new File(dir, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), path.getBytes());
+        return file;
+    }
+
+    private static List<String> getEntryNames(TarArchiver archiver) {
+        List<String> ret = new ArrayList<>();
+        ResourceIterator resources = archiver.getResources();
+        while (resources.hasNext()) {
+            ArchiveEntry entry = resources.next();
+            ret.add(entry.getName().replace(File.separatorChar, '/'));
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,127 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
+import org.codehaus.plexus.components.io.resources.PlexusIoFileResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoFileResourceCollection;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.components.io.resources.ResourceFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LinkingDirectoryArchiverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File sourceDir;
+    private File assemblyDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sourceDir = Files.createDirectories(tempDir.resolve("source")).toFile();
+        assemblyDir = tempDir.resolve("build/maven").toFile();
+        write(new File(sourceDir, "app.jar"), "app");
+        write(new File(sourceDir, "lib/dependency.jar"), "dependency");
+    }
+
+    @Test
+    void filesAreLinked() throws IOException {
+        createAssembly(DefaultFileSet.fileSet(sourceDir));
+
+        assertLinked("app.jar");
+        assertLinked("lib/dependency.jar");
+
+        // Linking again into an existing assembly
+        createAssembly(DefaultFileSet.fileSet(sourceDir));
+        assertLinked("app.jar");
+    }
+
+    @Test
+    void filteredFilesAreCopiedWithoutChangingTheOriginal() throws IOException {
+        createAssembly(DefaultFileSet.fileSet(sourceDir));
+        assertLinked("app.jar");
+
+        DefaultFileSet filtered = DefaultFileSet.fileSet(sourceDir);
+        filtered.setStreamTransformer((resource, in) -> new ByteArrayInputStream("filtered".getBytes(StandardCharsets.UTF_8)));
+        createAssembly(filtered);
+
+        File staged = new File(assemblyDir, "app.jar");
+        Assertions.assertFalse(Files.isSameFile(new File(sourceDir, "app.jar").toPath(), staged.toPath()));
+        Assertions.assertEquals("filtered", read(staged));
+        Assertions.assertEquals("app", read(new File(sourceDir, "app.jar")));
+    }
+
+    @Test
+    void filesAddedAsResourcesAreCopied() throws IOException {
+        LinkingDirectoryArchiver archiver = new LinkingDirectoryArchiver();
+        archiver.setForced(true);
+        archiver.addResource(ResourceFactory.createResource(new File(sourceDir, "app.jar")), "app.jar", 0644);
+        archiver.setDestFile(assemblyDir);
+        archiver.createArchive();
+
+        File staged = new File(assemblyDir, "app.jar");
+        Assertions.assertFalse(Files.isSameFile(new File(sourceDir, "app.jar").toPath(), staged.toPath()));
+        Assertions.assertEquals("app", read(staged));
+    }
+
+    // The archiver can only tell filtered files by the transformer of their file set
+    @Test
+    void plexusIoTransformsTheResourcesOfAFileSetWhenCreatingThem() throws IOException {
+        Set<PlexusIoResource> transformed = Collections.newSetFromMap(new IdentityHashMap<>());
+        PlexusIoFileResourceCollection collection = new PlexusIoFileResourceCollection();
+        collection.setBaseDir(sourceDir);
+        collection.setIncludes(new String[] { "app.jar" });
+        collection.setStreamTransformer((resource, in) -> {
+            transformed.add(resource);
+            return new ByteArrayInputStream("filtered".getBytes(StandardCharsets.UTF_8));
+        });
+
+        Iterator<PlexusIoResource> resources = collection.getResources();
+        PlexusIoResource resource = resources.next();
+        Assertions.assertFalse(resources.hasNext());
+        Assertions.assertEquals(PlexusIoFileResource.class, resource.getClass());
+        Assertions.assertTrue(transformed.contains(resource));
+        Assertions.assertEquals("filtered", IOUtils.toString(resource.getContents(), StandardCharsets.UTF_8));
+
+        collection.setStreamTransformer(null);
+        resource = collection.getResources().next();
+        Assertions.assertEquals(PlexusIoFileResource.class, resource.getClass());
+        Assertions.assertEquals("app", IOUtils.toString(resource.getContents(), StandardCharsets.UTF_8));
+    }
+
+    private void createAssembly(DefaultFileSet fileSet) throws IOException {
+        LinkingDirectoryArchiver archiver = new LinkingDirectoryArchiver();
+        archiver.setForced(true);
+        archiver.addFileSet(fileSet);
+        archiver.setDestFile(assemblyDir);
+        archiver.createArchive();
+    }
+
+    private void assertLinked(String path) throws IOException {
+        File staged = new File(assemblyDir, path);
+        Assertions.assertTrue(Files.isSameFile(new File(sourceDir, path).toPath(), staged.toPath()), path + " is not linked");
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+package io.fabric8.maven.docker.assembly;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import io.fabric8.maven.docker.config.ArchiveCompression;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.codehaus.plexus.archiver.tar.TarLongFileMode;
+import org.codehaus.plexus.archiver.util.DefaultFileSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingTarArchiveTest {
+
+    @TempDir
+    Path tmpDir;
+
+    private File contextDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        contextDir = Files.createDirectories(tmpDir.resolve("context")).toFile();
+        Files.write(contextDir.toPath().resolve("Dockerfile"), "FROM scratch\n".getBytes(StandardCharsets.UTF_8));
+        Path nested = Files.createDirectories(contextDir.toPath().resolve("maven/a-very-long-directory-name-to-exceed-the-classic-tar-name-limit-of-one-hundred-characters"));
+        Files.write(nested.resolve("app.jar"), new byte[200_000]);
+    }
+
+    @Test
+    void sameEntriesAsArchiver() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StreamingTarArchive(createArchiver(null), ArchiveCompression.none).writeTo(out);
+        Map<String, byte[]> streamed = readEntries(new ByteArrayInputStream(out.toByteArray()));
+
+        File archive = tmpDir.resolve("docker-build.tar").toFile();
+        createArchiver(archive).createArchive();
+        Map<String, byte[]> archived = readEntries(Files.newInputStream(archive.toPath()));
+
+        Assertions.assertEquals(archived.keySet(), streamed.keySet());
+        for (Map.Entry<String, byte[]> entry : archived.entrySet()) {
+            Assertions.assertArrayEquals(entry.getValue(), streamed.get(entry.getKey()), entry.getKey());
+        }
+        Assertions.assertArrayEquals("FROM scratch\n".getBytes(StandardCharsets.UTF_8), streamed.get("Dockerfile"));
+    }
+
+    @Test
+    void compressedAndStreamNotClosed() throws IOException {
+        final boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        new StreamingTarArchive(createArchiver(null), ArchiveCompression.gzip).writeTo(out);
+
+        Assertions.assertFalse(closed[0]);
+        Map<String, byte[]> entries = readEntries(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        Assertions.assertTrue(entries.containsKey("Dockerfile"));
+    }
+
+    private TarArchiver createArchiver(File destFile) {
+        TarArchiver archiver = new TarArchiver();
+        archiver.setLongfile(TarLongFileMode.posix);
+        DefaultFileSet fileSet = DefaultFileSet.fileSet(contextDir);
+        fileSet.setUsingDefaultExcludes(false);
+        archiver.addFileSet(fileSet);
+        archiver.setDestFile(destFile);
+        return archiver;
+    }
+
+    private Map<String, byte[]> readEntries(InputStream in) throws IOException {
+        Map<String, byte[]> ret = new LinkedHashMap<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(in)) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                ret.put(entry.getName(), IOUtils.toByteArray(tar));
+            }
+        }
+        return ret;
+    }
+}
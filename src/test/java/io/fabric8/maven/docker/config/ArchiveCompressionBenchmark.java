@@ -0,0 +1,101 @@
+package io.fabric8.maven.docker.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time for compressing 64 MB of image like data (a mix of text and incompressible binary
+ * chunks) as done by <code>docker:save</code>. One thread corresponds to the former single threaded gzip
+ * stream, 0 threads uses all available processors.
+ * <p>
+ * Not executed as part of the test suite, run it with:
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=io.fabric8.maven.docker.config.ArchiveCompressionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ArchiveCompressionBenchmark {
+
+    private static final int DATA_SIZE = 64 * 1024 * 1024;
+    private static final int WRITE_SIZE = 64 * 1024;
+
+    @Param({"gzip", "zstd"})
+    ArchiveCompression compression;
+
+    @Param({"1", "0"})
+    int threads;
+
+    private byte[] data;
+    private CompressionOptions options;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = createData();
+        options = new CompressionOptions(null, threads);
+    }
+
+    @Benchmark
+    public long compress() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(NullOutputStream.INSTANCE);
+        try (OutputStream out = compression.wrapOutputStream(counter, options)) {
+            for (int i = 0; i < data.length; i += WRITE_SIZE) {
+                out.write(data, i, Math.min(WRITE_SIZE, data.length - i));
+            }
+        }
+        return counter.getByteCount();
+    }
+
+    private static byte[] createData() {
+        Random random = new Random(0);
+        byte[] ret = new byte[DATA_SIZE];
+        byte[] text = ("#!/bin/sh\nexec java -cp /app/lib/* -Dconfig=/etc/app.properties io.example.Main \"$@\"\n")
+            .getBytes(StandardCharsets.UTF_8);
+        int pos = 0;
+        while (pos < ret.length) {
+            int chunk = Math.min(ret.length - pos, 4096 + random.nextInt(60 * 1024));
+            if (random.nextInt(3) == 0) {
+                // Already compressed content like jars or images
+                byte[] binary = new byte[chunk];
+                random.nextBytes(binary);
+                System.arraycopy(binary, 0, ret, pos, chunk);
+            } else {
+                for (int i = 0; i < chunk; i++) {
+                    ret[pos + i] = text[(i + random.nextInt(4)) % text.length];
+                }
+            }
+            pos += chunk;
+        }
+        return ret;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ArchiveCompressionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -1,8 +1,21 @@
 package io.fabric8.maven.docker.config.handler;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 import io.fabric8.maven.docker.config.ArchiveCompression;
+import io.fabric8.maven.docker.config.CompressionOptions;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
 class ArchiveCompressionTest {
 
@@ -22,5 +35,45 @@ class ArchiveCompressionTest {
 
         c = ArchiveCompression.fromFileName("test.tgz");
         Assertions.assertEquals("tar.gz", c.getFileSuffix());
+
+        c = ArchiveCompression.fromFileName("test.tar.zst");
+        Assertions.assertEquals("tar.zst", c.getFileSuffix());
+
+        c = ArchiveCompression.fromFileName("test.tzst");
+        Assertions.assertEquals("tar.zst", c.getFileSuffix());
+    }
+
+    @ParameterizedTest
+    @EnumSource(ArchiveCompression.class)
+    void wrapOutputStream(ArchiveCompression compression) throws IOException {
+        byte[] data = new byte[300 * 1024];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 253 ^ i / 1024);
+        }
+
+        for (CompressionOptions options : new CompressionOptions[] { new CompressionOptions(null, 1), new CompressionOptions(1, 4) }) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (OutputStream compressed = compression.wrapOutputStream(out, options)) {
+                compressed.write(data);
+            }
+            Assertions.assertArrayEquals(data, decompress(compression, out.toByteArray()), options.toString());
+        }
+    }
+
+    private byte[] decompress(ArchiveCompression compression, byte[] compressed) throws IOException {
+        InputStream in = new ByteArrayInputStream(compressed);
+        switch (compression) {
+            case gzip:
+                in = new GzipCompressorInputStream(in);
+                break;
+            case bzip2:
+                in = new BZip2CompressorInputStream(in);
+                break;
+            case zstd:
+                in = new ZstdCompressorInputStream(in);
+                break;
+            default:
+        }
+        return IOUtils.toByteArray(in);
     }
 }
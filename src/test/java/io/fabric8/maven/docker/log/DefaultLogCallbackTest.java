@@ -120,6 +120,21 @@ class DefaultLogCallbackTest {
             Arrays.asList(FileUtils.fileReadArray(file)));
     }
 
+    @Test
+    void shouldSortSharedFileByTimestamp() throws IOException, DoneException {
+        DefaultLogCallback callback2 = new DefaultLogCallback(spec);
+        callback2.open();
+        callback.log(1, ts.plusSeconds(2), "line 3");
+        callback2.log(1, ts, "line 1");
+        callback.log(1, ts.plusSeconds(1), "line 2");
+        callback2.close();
+        callback.close();
+
+        Assertions.assertEquals(
+            Arrays.asList("callback-test> line 1", "callback-test> line 2", "callback-test> line 3"),
+            Arrays.asList(FileUtils.fileReadArray(file)));
+    }
+
     @Test
     void shouldLogInParallel() throws IOException, InterruptedException {
         DefaultLogCallback callback2 = new DefaultLogCallback(spec);
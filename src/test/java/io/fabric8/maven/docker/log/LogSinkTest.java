@@ -0,0 +1,146 @@
+package io.fabric8.maven.docker.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.docker.util.TimestampFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LogSinkTest {
+
+    private static final ZonedDateTime TS = TimestampFactory.createTimestamp("2024-01-01T10:00:00.000Z");
+
+    private final LogOutputSpec first = new LogOutputSpec.Builder().prefix("first> ").reorderWindow(60000).build();
+    private final LogOutputSpec second = new LogOutputSpec.Builder().prefix("second> ").reorderWindow(60000).build();
+
+    private LogSink sink;
+
+    @AfterEach
+    void tearDown() {
+        if (sink != null) {
+            sink.stop();
+        }
+    }
+
+    @Test
+    void entriesAreSortedByTimestamp() {
+        sink = new LogSink(16, 1000);
+        CountingOutputStream out = new CountingOutputStream();
+        SharedPrintStream target = new SharedPrintStream(new PrintStream(out));
+
+        sink.log(target, first, TS.plusNanos(2_000_000), "b");
+        sink.log(target, second, TS, "a");
+        sink.error(target, "error");
+        sink.log(target, second, TS.plusNanos(3_000_000), "c");
+        sink.log(target, first, TS.plusNanos(2_000_000), "b2");
+        sink.flush();
+
+        Assertions.assertEquals(Arrays.asList("second> a", "first> b", "error", "first> b2", "second> c"), out.lines());
+        // Everything has been written with a single flush
+        Assertions.assertEquals(1, out.flushes);
+    }
+
+    @Test
+    void entriesAreHeldBackForReorderWindow() throws InterruptedException {
+        sink = new LogSink(16, 1000);
+        CountingOutputStream out = new CountingOutputStream();
+        SharedPrintStream target = new SharedPrintStream(new PrintStream(out));
+        LogOutputSpec spec = new LogOutputSpec.Builder().prefix("").reorderWindow(200).build();
+
+        sink.log(target, spec, TS.plusSeconds(1), "late");
+        Thread.sleep(50);
+        sink.log(target, spec, TS, "early");
+        Assertions.assertEquals(0, out.lines().size());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (out.lines().size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(Arrays.asList("early", "late"), out.lines());
+    }
+
+    @Test
+    void entriesAreDroppedWhenWriterIsBlocked() throws InterruptedException {
+        sink = new LogSink(2, 20);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingOutputStream out = new CountingOutputStream() {
+            @Override
+            public void flush() {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.flush();
+            }
+        };
+        SharedPrintStream target = new SharedPrintStream(new PrintStream(out));
+        LogOutputSpec spec = new LogOutputSpec.Builder().prefix("").reorderWindow(0).build();
+
+        sink.log(target, spec, TS, "0");
+        Assertions.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            sink.log(target, spec, TS, Integer.toString(i));
+        }
+        release.countDown();
+        sink.flush();
+
+        Assertions.assertEquals(3, sink.getBackPressureCount());
+        Assertions.assertEquals(3, sink.getDroppedCount());
+        Assertions.assertEquals(Arrays.asList("0", "1", "2"), out.lines());
+
+        target.close();
+        Assertions.assertEquals("Log output overloaded: 3 entries dropped, 3 times waited for the log writer",
+                                out.lines().get(3));
+    }
+
+    @Test
+    void closedCallbackDropsEntries() {
+        sink = new LogSink(16, 1000);
+        sink.log(null, first, TS, "lost");
+        sink.error(null, "lost");
+        Assertions.assertEquals(2, sink.getDroppedCount());
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        volatile int flushes;
+
+        @Override
+        public synchronized void write(int b) {
+            content.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            content.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        synchronized List<String> lines() {
+            String text = new String(content.toByteArray(), StandardCharsets.UTF_8);
+            return text.isEmpty() ? Arrays.asList() : Arrays.asList(text.split(System.lineSeparator()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            // keep content readable
+        }
+    }
+}
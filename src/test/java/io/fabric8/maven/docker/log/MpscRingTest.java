@@ -0,0 +1,78 @@
+package io.fabric8.maven.docker.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MpscRingTest {
+
+    @Test
+    void capacityIsRoundedToPowerOfTwo() {
+        Assertions.assertEquals(8, new MpscRing<String>(5).capacity());
+        Assertions.assertEquals(1, new MpscRing<String>(1).capacity());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MpscRing<String>(0));
+    }
+
+    @Test
+    void offerFailsWhenFull() {
+        MpscRing<String> ring = new MpscRing<>(2);
+        Assertions.assertTrue(ring.isEmpty());
+        Assertions.assertTrue(ring.offer("a"));
+        Assertions.assertTrue(ring.offer("b"));
+        Assertions.assertFalse(ring.offer("c"));
+
+        Assertions.assertEquals("a", ring.poll());
+        Assertions.assertTrue(ring.offer("c"));
+        Assertions.assertEquals("b", ring.poll());
+        Assertions.assertEquals("c", ring.poll());
+        Assertions.assertNull(ring.poll());
+        Assertions.assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void concurrentProducersKeepTheirOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        MpscRing<int[]> ring = new MpscRing<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    int[] element = { producer, i };
+                    while (!ring.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        int[] next = new int[producers];
+        List<String> errors = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 20000;
+        int received = 0;
+        while (received < producers * perProducer && System.currentTimeMillis() < deadline) {
+            int[] element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            if (element[1] != next[element[0]]) {
+                errors.add("Producer " + element[0] + ": expected " + next[element[0]] + " but got " + element[1]);
+            }
+            next[element[0]] = element[1] + 1;
+            received++;
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(producers * perProducer, received);
+        Assertions.assertEquals(new ArrayList<>(), errors);
+        Assertions.assertNull(ring.poll());
+    }
+}
@@ -0,0 +1,121 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.maven.docker.config.BuildImageConfiguration;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BuildSchedulerTest {
+
+    @Mock
+    private Logger log;
+
+    private final Map<ImageConfiguration, List<String>> buildDependencies = new IdentityHashMap<>();
+
+    @Test
+    void buildIndependentImagesConcurrently() throws Exception {
+        ImageConfiguration app = image("app:1.0", "alpine:3");
+        ImageConfiguration db = image("db:1.0", "postgres:16");
+        ImageConfiguration worker = image("worker:1.0", "alpine:3");
+        // Every build waits until all images are being built
+        CountDownLatch allStarted = new CountDownLatch(3);
+
+        new BuildScheduler(log, 4).run(Arrays.asList(app, db, worker), buildDependencies, imageConfig -> {
+            allStarted.countDown();
+            Assertions.assertTrue(await(allStarted), "Images are not built concurrently");
+        });
+
+        Mockito.verify(log, Mockito.times(3)).groupStart();
+        Mockito.verify(log, Mockito.times(3)).groupFinished();
+        Mockito.verify(log).info(Mockito.eq("Built %d images in %s (%s summed over all images) with %d builds at once"),
+                                 Mockito.eq(3), Mockito.anyString(), Mockito.anyString(), Mockito.eq(3));
+    }
+
+    @Test
+    void buildImagesAfterTheImagesTheyAreBuiltFrom() throws Exception {
+        ImageConfiguration app = image("app:1.0", "base");
+        ImageConfiguration base = image("base:latest", "alpine:3");
+        ImageConfiguration tools = image("tools:1.0", "alpine:3", "base:latest");
+        List<String> built = Collections.synchronizedList(new ArrayList<>());
+
+        new BuildScheduler(log, 4).run(Arrays.asList(app, base, tools), buildDependencies, imageConfig -> built.add(imageConfig.getName()));
+
+        Assertions.assertEquals("base:latest", built.get(0));
+        Assertions.assertEquals(3, built.size());
+    }
+
+    @Test
+    void stopSchedulingAfterFailure() {
+        ImageConfiguration base = image("base:1.0", "alpine:3");
+        ImageConfiguration app = image("app:1.0", "base:1.0");
+        AtomicInteger started = new AtomicInteger();
+
+        MojoExecutionException exp = Assertions.assertThrows(MojoExecutionException.class, () ->
+            new BuildScheduler(log, 2).run(Arrays.asList(base, app), buildDependencies, imageConfig -> {
+                started.incrementAndGet();
+                throw new MojoExecutionException("Unable to build " + imageConfig.getName());
+            }));
+
+        Assertions.assertEquals("Unable to build base:1.0", exp.getMessage());
+        Assertions.assertEquals(1, started.get());
+    }
+
+    @Test
+    void failForImagesBuiltFromEachOther() {
+        ImageConfiguration first = image("first:1.0", "second:1.0");
+        ImageConfiguration second = image("second:1.0", "first:1.0");
+        ImageConfiguration other = image("other:1.0", "alpine:3");
+
+        MojoExecutionException exp = Assertions.assertThrows(MojoExecutionException.class, () ->
+            new BuildScheduler(log, 2).run(Arrays.asList(first, second, other), buildDependencies, imageConfig -> { }));
+
+        Assertions.assertTrue(exp.getMessage().contains("[first:1.0], [second:1.0]"), exp.getMessage());
+    }
+
+    @Test
+    void buildOneAfterTheOtherWithoutParallelism() throws Exception {
+        ImageConfiguration app = image("app:1.0", "alpine:3");
+        ImageConfiguration db = image("db:1.0", "postgres:16");
+        List<String> built = new ArrayList<>();
+
+        new BuildScheduler(log, 1).run(Arrays.asList(app, db), buildDependencies, imageConfig -> built.add(imageConfig.getName()));
+
+        Assertions.assertEquals(Arrays.asList("app:1.0", "db:1.0"), built);
+        Mockito.verify(log, Mockito.never()).groupStart();
+    }
+
+    private ImageConfiguration image(String name, String... from) {
+        ImageConfiguration image = new ImageConfiguration.Builder()
+            .name(name)
+            .buildConfig(new BuildImageConfiguration.Builder().from(from[0]).build())
+            .build();
+        buildDependencies.put(image, Arrays.asList(from));
+        return image;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -9,8 +9,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.Assertions;
@@ -25,10 +28,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import io.fabric8.maven.docker.access.BuildOptions;
 import io.fabric8.maven.docker.access.DockerAccess;
 import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.StreamingArchive;
 import io.fabric8.maven.docker.assembly.DockerAssemblyManager;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.CleanupMode;
 import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.util.BackgroundLogger;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.docker.util.MojoParameters;
 
@@ -80,7 +85,7 @@ class BuildServiceTest {
 
     @BeforeEach
     void setup() throws Exception {
-        Mockito.doReturn(tempDir.resolve("docker-build.tar").toFile())
+        Mockito.lenient().doReturn(tempDir.resolve("docker-build.tar").toFile())
             .when(archiveService)
             .createArchive(Mockito.anyString(), Mockito.any(BuildImageConfiguration.class), Mockito.any(MojoParameters.class), Mockito.any(Logger.class));
     }
@@ -155,7 +160,7 @@ class BuildServiceTest {
     private void verifyImagePull(BuildImageConfiguration buildConfig, ImagePullManager pullManager, BuildService.BuildContext buildContext, String image)
         throws DockerAccessException, MojoExecutionException {
         Mockito.verify(registryService).
-            pullImageWithPolicy(image, pullManager, buildContext.getRegistryConfig(), buildConfig);
+            pullImageWithPolicy(Mockito.eq(image), Mockito.eq(pullManager), Mockito.eq(buildContext.getRegistryConfig()), Mockito.eq(buildConfig), Mockito.any());
     }
 
     private void mockMavenProject() {
@@ -446,6 +451,200 @@ class BuildServiceTest {
             Mockito.argThat((BuildOptions options) -> !options.getOptions().containsKey("target")));
     }
 
+    @Test
+    void testBuildImageWithStreamedBuildContext() throws Exception {
+        givenAnImageConfiguration(Boolean.FALSE.toString());
+        givenImageIds(OLD_IMAGE_ID, NEW_IMAGE_ID);
+        StreamingArchive buildContext = out -> { };
+        Mockito.doReturn(buildContext)
+            .when(archiveService)
+            .createArchiveStream(Mockito.anyString(), Mockito.any(BuildImageConfiguration.class), Mockito.any(MojoParameters.class), Mockito.any(Logger.class));
+
+        buildService.buildImage(imageConfig, params, false, false, Collections.emptyMap(), null);
+
+        Mockito.verify(docker).buildImageFromStream(Mockito.eq(imageConfig.getName()), Mockito.same(buildContext), Mockito.any(BuildOptions.class));
+        Mockito.verify(docker, Mockito.never()).buildImage(Mockito.anyString(), Mockito.any(File.class), Mockito.any(BuildOptions.class));
+        Mockito.verify(archiveService, Mockito.never())
+            .createArchive(Mockito.anyString(), Mockito.any(BuildImageConfiguration.class), Mockito.any(MojoParameters.class), Mockito.any(Logger.class));
+    }
+
+    @Test
+    void prefetchBaseImagesConcurrently() throws Exception {
+        ImageConfiguration app = givenImageFrom("app", "base:1.0");
+        ImageConfiguration worker = givenImageFrom("worker", "base:1.0");
+        ImageConfiguration db = givenImageFrom("db", "other:1.0", "cache:1.0");
+        final ImagePullManager pullManager = new ImagePullManager(null, null, null);
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+        mockMavenProject();
+
+        // Every pull waits until all distinct images are being pulled
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Mockito.doAnswer(invocation -> {
+            Assertions.assertTrue(invocation.getArgument(4) instanceof BackgroundLogger);
+            allStarted.countDown();
+            Assertions.assertTrue(allStarted.await(10, TimeUnit.SECONDS), "Images are not pulled concurrently");
+            return null;
+        }).when(registryService).pullImageWithPolicy(Mockito.anyString(), Mockito.same(pullManager), Mockito.any(), Mockito.any(), Mockito.any());
+
+        try (BaseImagePrefetch prefetch = buildService.prefetchBaseImages(Arrays.asList(app, worker, db), i -> pullManager, buildContext, 4)) {
+            prefetch.await(app);
+            prefetch.await(worker);
+            prefetch.await(db);
+        }
+
+        Mockito.verify(registryService).pullImageWithPolicy(Mockito.eq("base:1.0"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(registryService).pullImageWithPolicy(Mockito.eq("other:1.0"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(registryService).pullImageWithPolicy(Mockito.eq("cache:1.0"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void prefetchFailureIsReportedToBuildsUsingTheImage() throws Exception {
+        ImageConfiguration app = givenImageFrom("app", "base:1.0");
+        ImageConfiguration db = givenImageFrom("db", "missing:1.0");
+        final ImagePullManager pullManager = new ImagePullManager(null, null, null);
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+        mockMavenProject();
+        Mockito.lenient().doThrow(new DockerAccessException("Unable to pull 'missing:1.0'"))
+            .when(registryService).pullImageWithPolicy(Mockito.eq("missing:1.0"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        try (BaseImagePrefetch prefetch = buildService.prefetchBaseImages(Arrays.asList(app, db), i -> pullManager, buildContext, 2)) {
+            prefetch.await(app);
+            DockerAccessException exp = Assertions.assertThrows(DockerAccessException.class, () -> prefetch.await(db));
+            Assertions.assertEquals("Unable to pull 'missing:1.0'", exp.getMessage());
+        }
+    }
+
+    @Test
+    void prefetchSkipsImagesBuiltInTheSameRun() throws Exception {
+        ImageConfiguration base = givenImageFrom("example/base", "busybox:1.36", "example/base:latest");
+        ImageConfiguration app = givenImageFrom("app", "example/base");
+        final ImagePullManager pullManager = new ImagePullManager(null, null, null);
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+        mockMavenProject();
+
+        try (BaseImagePrefetch prefetch = buildService.prefetchBaseImages(Arrays.asList(base, app), i -> pullManager, buildContext, 2)) {
+            prefetch.await(base);
+            prefetch.await(app);
+        }
+
+        Mockito.verify(registryService).pullImageWithPolicy(Mockito.eq("busybox:1.36"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(registryService, Mockito.never()).pullImageWithPolicy(Mockito.startsWith("example/base"), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void fingerprintIsUpToDateUntilInputsChange() throws Exception {
+        Path contextFile = givenDockerfileImageWithContextFile();
+        final ImagePullManager pullManager = new ImagePullManager(null, null, null);
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+
+        BuildFingerprint first = buildService.fingerprint(imageConfig, pullManager, buildContext, false);
+        Assertions.assertFalse(first.isUpToDate());
+        buildService.storeFingerprint(first, imageConfig, 5000);
+
+        BuildFingerprint second = buildService.fingerprint(imageConfig, pullManager, buildContext, false);
+        Assertions.assertTrue(second.isUpToDate());
+        Assertions.assertEquals(5000, second.getBuildTime());
+        Assertions.assertTrue(Files.exists(tempDir.resolve("target/docker/app/1.0/" + BuildService.FINGERPRINT_FILE)));
+
+        Files.write(contextFile, "version 2".getBytes());
+        Assertions.assertFalse(buildService.fingerprint(imageConfig, pullManager, buildContext, false).isUpToDate());
+    }
+
+    @Test
+    void fingerprintWithContentHashIgnoresModificationTime() throws Exception {
+        Path contextFile = givenDockerfileImageWithContextFile();
+        final ImagePullManager pullManager = new ImagePullManager(null, null, null);
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+        buildService.storeFingerprint(buildService.fingerprint(imageConfig, pullManager, buildContext, true), imageConfig, 5000);
+
+        Assertions.assertTrue(contextFile.toFile().setLastModified(contextFile.toFile().lastModified() - 60_000));
+
+        Assertions.assertTrue(buildService.fingerprint(imageConfig, pullManager, buildContext, true).isUpToDate());
+        Assertions.assertFalse(buildService.fingerprint(imageConfig, pullManager, buildContext, false).isUpToDate());
+    }
+
+    @Test
+    void fingerprintSkipsFilesNotSentToTheDaemon() throws Exception {
+        Path contextFile = givenDockerfileImageWithContextFile();
+        Path context = contextFile.getParent();
+        Files.write(context.resolve(".dockerignore"), "# build logs\n*.log\n!keep.log\n/cache/\n".getBytes());
+        Files.write(context.resolve(".maven-dockerignore"), "tmp/**\n".getBytes());
+        Path buildDir = Files.createDirectories(context.resolve("build/classes"));
+        Build build = new Build();
+        build.setDirectory(context.resolve("build").toString());
+        Mockito.doReturn(build).when(mavenProject).getBuild();
+        final ImagePullManager pullManager = new ImagePullManager(null, null, null);
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+        buildService.storeFingerprint(buildService.fingerprint(imageConfig, pullManager, buildContext, true), imageConfig, 5000);
+
+        Files.write(buildDir.resolve("App.class"), "class".getBytes());
+        Files.write(context.resolve("build.log"), "log".getBytes());
+        Files.write(Files.createDirectories(context.resolve("cache/a")).resolve("data"), "data".getBytes());
+        Files.write(Files.createDirectories(context.resolve("tmp")).resolve("scratch"), "scratch".getBytes());
+        Files.write(Files.createDirectories(context.resolve(".git")).resolve("HEAD"), "ref".getBytes());
+        Assertions.assertTrue(buildService.fingerprint(imageConfig, pullManager, buildContext, true).isUpToDate());
+
+        Files.write(context.resolve("keep.log"), "kept".getBytes());
+        Assertions.assertFalse(buildService.fingerprint(imageConfig, pullManager, buildContext, true).isUpToDate());
+    }
+
+    @Test
+    void noFingerprintWhenAlwaysPulling() throws Exception {
+        givenAnImageConfiguration(Boolean.FALSE.toString());
+        final BuildService.BuildContext buildContext = new BuildService.BuildContext.Builder()
+            .mojoParameters(mojoParameters)
+            .build();
+
+        Assertions.assertNull(buildService.fingerprint(imageConfig, new ImagePullManager(null, "Always", null), buildContext, false));
+    }
+
+    private Path givenDockerfileImageWithContextFile() throws Exception {
+        Path context = Files.createDirectories(tempDir.resolve("src/main/docker"));
+        Files.write(context.resolve("Dockerfile"), "FROM alpine:3\nCOPY app.txt /\n".getBytes());
+        Path contextFile = Files.write(context.resolve("app.txt"), "version 1".getBytes());
+        BuildImageConfiguration buildConfig = new BuildImageConfiguration.Builder()
+            .dockerFile(context.resolve("Dockerfile").toString())
+            .filter("false")
+            .build();
+        buildConfig.initAndValidate(logger);
+        imageConfig = new ImageConfiguration.Builder()
+            .name("app:1.0")
+            .buildConfig(buildConfig)
+            .build();
+
+        mockMavenProject();
+        Mockito.doReturn(tempDir.toFile()).when(mavenProject).getBasedir();
+        Mockito.doReturn("target/docker").when(mojoParameters).getOutputDirectory();
+        Mockito.doReturn("sha256:alpine").when(queryService).getImageId("alpine:3");
+        Mockito.doReturn("sha256:app").when(queryService).getImageId("app:1.0");
+        return contextFile;
+    }
+
+    private ImageConfiguration givenImageFrom(String name, String from, String... cacheFrom) {
+        BuildImageConfiguration buildConfig = new BuildImageConfiguration.Builder()
+            .cleanup("false")
+            .from(from)
+            .cacheFrom(cacheFrom.length > 0 ? Arrays.asList(cacheFrom) : null)
+            .build();
+
+        return new ImageConfiguration.Builder()
+            .name(name)
+            .buildConfig(buildConfig)
+            .build();
+    }
+
     private void givenAnImageConfiguration(String cleanup) {
         BuildImageConfiguration buildConfig = new BuildImageConfiguration.Builder()
             .cleanup(cleanup)
@@ -0,0 +1,218 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.PortMapping;
+import io.fabric8.maven.docker.access.hc.DockerAccessWithHcClient;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.config.RunImageConfiguration;
+import io.fabric8.maven.docker.log.LogOutputSpecFactory;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.GavLabel;
+import io.fabric8.maven.docker.util.JsonFactory;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the latency of creating the containers of a start run depending on the number of containers
+ * already existing on the Docker host. A stub daemon answers the requests over HTTP so that the cost of
+ * transferring and parsing the container listings is included.
+ * <p>
+ * Not executed as part of the test suite, run it with:
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=io.fabric8.maven.docker.service.ContainerNameIndexBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+// Avoid Nagle delays in the stub daemon dominating the measured latency
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ContainerNameIndexBenchmark {
+
+    private static final String PATTERN = "%a-%i";
+    private static final int CONTAINERS_PER_RUN = 20;
+
+    @Param({"100", "1000", "10000"})
+    int hostContainers;
+
+    private HttpServer server;
+    private DockerAccessWithHcClient docker;
+    private QueryService queryService;
+    private RunService runService;
+    private List<ImageConfiguration> images;
+    private final GavLabel gavLabel = new GavLabel("io.fabric8:benchmark:1.0");
+    private final Date buildTimestamp = new Date();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = startStubDaemon(hostContainers);
+        Logger log = new AnsiLogger(new SystemStreamLog(), false, null);
+        docker = new DockerAccessWithHcClient("http://127.0.0.1:" + server.getAddress().getPort(), null, 4, log);
+        queryService = new QueryService(docker);
+        runService = new RunService(docker, queryService, new ContainerTracker(),
+                                    new LogOutputSpecFactory(false, false, null), log);
+        images = new ArrayList<>();
+        for (int i = 0; i < CONTAINERS_PER_RUN; i++) {
+            images.add(new ImageConfiguration.Builder()
+                           .name("benchmark/app" + i + ":latest")
+                           .alias("app" + i)
+                           .runConfig(new RunImageConfiguration.Builder().containerNamePattern(PATTERN).build())
+                           .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        docker.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public List<String> listPerCreate() throws DockerAccessException {
+        List<String> ids = new ArrayList<>();
+        for (ImageConfiguration image : images) {
+            ids.add(runService.createContainer(image, portMapping(), gavLabel, new Properties(), new File("."),
+                                               PATTERN, buildTimestamp));
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<String> nameIndex() throws DockerAccessException {
+        ContainerNameIndex index = ContainerNameIndex.load(queryService, images, PATTERN, buildTimestamp);
+        List<String> ids = new ArrayList<>();
+        for (ImageConfiguration image : images) {
+            ids.add(runService.createContainer(image, portMapping(), gavLabel, new Properties(), new File("."),
+                                               PATTERN, buildTimestamp, index));
+        }
+        return ids;
+    }
+
+    private static PortMapping portMapping() {
+        return new PortMapping(Collections.emptyList(), new Properties());
+    }
+
+    // Minimal daemon serving /version, the container listing (honouring name filters) and container creation.
+    // Created containers are not remembered so that every benchmark invocation sees the same host.
+    private static HttpServer startStubDaemon(int hostContainers) throws IOException {
+        JsonArray containers = new JsonArray();
+        for (int i = 0; i < hostContainers; i++) {
+            JsonObject container = new JsonObject();
+            container.addProperty("Id", String.format("%064x", i));
+            JsonArray names = new JsonArray();
+            names.add("/unrelated-" + i);
+            container.add("Names", names);
+            container.addProperty("Image", "other/image:latest");
+            container.addProperty("Created", 0);
+            container.addProperty("Status", "Exited (0)");
+            containers.add(container);
+        }
+        AtomicLong ids = new AtomicLong();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/version")) {
+                respond(exchange, 200, "{\"ApiVersion\":\"1.41\",\"Os\":\"linux\",\"Arch\":\"amd64\"}");
+            } else if (path.endsWith("/containers/json")) {
+                respond(exchange, 200, filterByName(containers, exchange.getRequestURI().getRawQuery()).toString());
+            } else if (path.endsWith("/containers/create")) {
+                drain(exchange);
+                respond(exchange, 201, "{\"Id\":\"" + String.format("%064x", ids.incrementAndGet()) + "\",\"Warnings\":[]}");
+            } else {
+                respond(exchange, 404, "{\"message\":\"not found\"}");
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static JsonArray filterByName(JsonArray containers, String query) throws IOException {
+        List<Pattern> patterns = new ArrayList<>();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("filters=")) {
+                    JsonObject filters = JsonFactory.newJsonObject(URLDecoder.decode(param.substring(8), "UTF-8"));
+                    if (filters.has("name")) {
+                        for (JsonElement name : filters.getAsJsonArray("name")) {
+                            patterns.add(Pattern.compile(name.getAsString()));
+                        }
+                    }
+                }
+            }
+        }
+        if (patterns.isEmpty()) {
+            return containers;
+        }
+        JsonArray ret = new JsonArray();
+        for (JsonElement container : containers) {
+            String name = container.getAsJsonObject().getAsJsonArray("Names").get(0).getAsString();
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(name).find()) {
+                    ret.add(container);
+                    break;
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static void drain(HttpExchange exchange) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (exchange.getRequestBody().read(buffer) >= 0) {
+            // consume request
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ContainerNameIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
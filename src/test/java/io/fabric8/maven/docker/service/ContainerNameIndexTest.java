@@ -0,0 +1,82 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.docker.config.RunImageConfiguration;
+import io.fabric8.maven.docker.model.Container;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ContainerNameIndexTest {
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private Container container;
+
+    private final Date buildTimestamp = new Date();
+
+    @Test
+    void loadWithNameFilter() throws DockerAccessException {
+        Mockito.doReturn("db-1").when(container).getName();
+        Mockito.doReturn(Collections.singletonList(container))
+            .when(queryService).listContainers(ArgumentMatchers.eq(true), ArgumentMatchers.<String>any());
+
+        ContainerNameIndex index = ContainerNameIndex.load(queryService,
+            Arrays.asList(image("db", "%a-%i"), image("web.app", "%a-%i"), image("db", "%a-%i")), null, buildTimestamp);
+
+        Mockito.verify(queryService).listContainers(true, "name", "^/?db\\-", "name", "^/?web\\.app\\-");
+        Assertions.assertTrue(index.contains("db-1"));
+        Assertions.assertEquals("db-2", index.reserveName(image("db", "%a-%i"), null, buildTimestamp));
+    }
+
+    @Test
+    void loadWithoutNamedContainers() throws DockerAccessException {
+        ContainerNameIndex index = ContainerNameIndex.load(queryService,
+            Collections.singletonList(image("db", "%e")), null, buildTimestamp);
+
+        Mockito.verifyNoInteractions(queryService);
+        Assertions.assertNull(index.reserveName(image("db", "%e"), null, buildTimestamp));
+    }
+
+    @Test
+    void loadWithoutFixedPrefix() throws DockerAccessException {
+        Mockito.doReturn(Collections.emptyList()).when(queryService).listContainers(true);
+
+        ContainerNameIndex.load(queryService, Collections.singletonList(image("db", "%i-%a")), null, buildTimestamp);
+
+        Mockito.verify(queryService).listContainers(true);
+    }
+
+    @Test
+    void reserveAndRelease() {
+        ContainerNameIndex index = new ContainerNameIndex(Collections.singletonList("db-1"));
+        ImageConfiguration db = image("db", "%a-%i");
+
+        Assertions.assertEquals("db-2", index.reserveName(db, null, buildTimestamp));
+        Assertions.assertEquals("db-3", index.reserveName(db, null, buildTimestamp));
+
+        index.releaseName("db-2");
+        Assertions.assertFalse(index.contains("db-2"));
+        Assertions.assertEquals("db-2", index.reserveName(db, null, buildTimestamp));
+    }
+
+    private ImageConfiguration image(String alias, String pattern) {
+        return new ImageConfiguration.Builder()
+            .name("test/" + alias + ":latest")
+            .alias(alias)
+            .runConfig(new RunImageConfiguration.Builder().containerNamePattern(pattern).build())
+            .build();
+    }
+}
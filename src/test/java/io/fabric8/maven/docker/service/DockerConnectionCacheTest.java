@@ -0,0 +1,131 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.maven.docker.access.hc.DockerAccessWithHcClient;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DockerConnectionCacheTest {
+
+    private static final String URL = "unix:///var/run/docker.sock";
+
+    @Mock
+    private DockerAccessWithHcClient connectedAccess;
+
+    @Mock
+    private Logger log;
+
+    private DockerConnectionCache cache;
+    private AtomicInteger connects;
+    private DockerConnectionCache.Connector connector;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DockerConnectionCache();
+        connects = new AtomicInteger();
+        connector = () -> {
+            connects.incrementAndGet();
+            return new DockerConnectionCache.Connection(connectedAccess, URL);
+        };
+    }
+
+    @Test
+    void reuseConnectionWithinSession() throws Exception {
+        MavenSession session = newSession();
+
+        DockerConnectionCache.Connection first = cache.acquire("key", session, false, log, connector);
+        first.getAccess().shutdown();
+        DockerConnectionCache.Connection second = cache.acquire("key", session, false, log, connector);
+        second.getAccess().shutdown();
+
+        Assertions.assertEquals(1, connects.get());
+        Assertions.assertEquals(URL, second.getUrl());
+        Assertions.assertNotSame(connectedAccess, second.getAccess());
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Mockito.verify(connectedAccess, Mockito.never()).shutdown();
+    }
+
+    @Test
+    void closeWhenLastLeaseOfLastProjectIsReleased() throws Exception {
+        MavenSession session = newSession();
+
+        DockerConnectionCache.Connection last = cache.acquire("key", session, true, log, connector);
+        DockerConnectionCache.Connection other = cache.acquire("key", session, false, log, connector);
+        last.getAccess().shutdown();
+        Mockito.verify(connectedAccess, Mockito.never()).shutdown();
+
+        other.getAccess().shutdown();
+        Mockito.verify(connectedAccess).shutdown();
+        Mockito.verify(log).info(Mockito.anyString(), Mockito.eq(URL), Mockito.eq(1), Mockito.anyLong());
+
+        cache.acquire("key", session, false, log, connector);
+        Assertions.assertEquals(2, connects.get());
+    }
+
+    @Test
+    void releaseOnlyOnce() throws Exception {
+        MavenSession session = newSession();
+
+        DockerConnectionCache.Connection first = cache.acquire("key", session, true, log, connector);
+        DockerConnectionCache.Connection second = cache.acquire("key", session, true, log, connector);
+        first.getAccess().shutdown();
+        first.getAccess().shutdown();
+
+        Mockito.verify(connectedAccess, Mockito.never()).shutdown();
+        second.getAccess().shutdown();
+        Mockito.verify(connectedAccess).shutdown();
+    }
+
+    @Test
+    void separateConnectionsPerKey() throws Exception {
+        MavenSession session = newSession();
+
+        cache.acquire("tcp://host1:2375", session, false, log, connector);
+        cache.acquire("tcp://host2:2375", session, false, log, connector);
+
+        Assertions.assertEquals(2, connects.get());
+        Assertions.assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void newSessionClosesIdleConnections() throws Exception {
+        cache.acquire("key", newSession(), false, log, connector).getAccess().shutdown();
+        Mockito.verify(connectedAccess, Mockito.never()).shutdown();
+
+        cache.acquire("key", newSession(), false, log, connector);
+
+        Mockito.verify(connectedAccess).shutdown();
+        Assertions.assertEquals(2, connects.get());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void reuseConnectionAcrossClonedSessions() throws Exception {
+        // Parallel builds (-T) run every project with its own clone of the session
+        MavenSession session = newSession();
+
+        cache.acquire("key", session.clone(), false, log, connector).getAccess().shutdown();
+        cache.acquire("key", session.clone(), false, log, connector).getAccess().shutdown();
+
+        Assertions.assertEquals(1, connects.get());
+        Assertions.assertEquals(1, cache.getHits());
+        Mockito.verify(connectedAccess, Mockito.never()).shutdown();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static MavenSession newSession() {
+        return new MavenSession(null, null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+    }
+}
@@ -0,0 +1,161 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.File;
+
+import io.fabric8.maven.docker.access.BuildOptions;
+import io.fabric8.maven.docker.access.DockerAccess;
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.model.ContainerDetails;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class InspectCacheTest {
+
+    @Mock
+    private DockerAccess docker;
+
+    @Mock
+    private ContainerDetails container;
+
+    private InspectCache cache;
+    private DockerAccess access;
+    private QueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InspectCache();
+        access = new InspectCacheInvalidator(docker, cache);
+        queryService = new QueryService(access, cache);
+    }
+
+    @Test
+    void imageIdIsCached() throws DockerAccessException {
+        Mockito.doReturn("sha256:1").when(docker).getImageId("alpine");
+
+        Assertions.assertEquals("sha256:1", queryService.getImageId("alpine"));
+        Assertions.assertEquals("sha256:1", queryService.getImageId("alpine:latest"));
+        Assertions.assertTrue(queryService.hasImage("alpine"));
+
+        Mockito.verify(docker).getImageId("alpine");
+        Mockito.verify(docker, Mockito.never()).hasImage(Mockito.anyString());
+        Assertions.assertEquals(2, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void buildInvalidatesImage() throws DockerAccessException {
+        Mockito.doReturn(null, "sha256:2").when(docker).getImageId("app:1.0");
+        Mockito.doReturn("sha256:3").when(docker).getImageId("base:1.0");
+        queryService.getImageId("app:1.0");
+        queryService.getImageId("base:1.0");
+
+        access.buildImage("app:1.0", new File("docker-build.tar"), new BuildOptions());
+
+        Assertions.assertEquals("sha256:2", queryService.getImageId("app:1.0"));
+        Assertions.assertEquals("sha256:3", queryService.getImageId("base:1.0"));
+        Mockito.verify(docker).getImageId("base:1.0");
+    }
+
+    @Test
+    void failedTagInvalidatesTarget() throws DockerAccessException {
+        Mockito.doReturn(false, true).when(docker).hasImage("app:2.0");
+        Mockito.doThrow(new DockerAccessException("failed")).when(docker).tag("app:1.0", "app:2.0", true);
+        Assertions.assertFalse(queryService.hasImage("app:2.0"));
+
+        Assertions.assertThrows(DockerAccessException.class, () -> access.tag("app:1.0", "app:2.0", true));
+
+        Assertions.assertTrue(queryService.hasImage("app:2.0"));
+    }
+
+    @Test
+    void removeImageInvalidatesAllImages() throws DockerAccessException {
+        Mockito.doReturn("sha256:1", (String) null).when(docker).getImageId("app:1.0");
+        queryService.getImageId("app:1.0");
+
+        access.removeImage("sha256:1", true);
+
+        Assertions.assertNull(queryService.getImageId("app:1.0"));
+    }
+
+    @Test
+    void containerLifecycleInvalidatesDetails() throws DockerAccessException {
+        Mockito.doReturn("0123456789abcdef").when(container).getId();
+        Mockito.doReturn(null, container).when(docker).getContainer("db");
+        Mockito.doReturn(container).when(docker).getContainer("0123456789ab");
+
+        Assertions.assertNull(queryService.getContainer("db"));
+        access.createContainer(null, "db");
+        Assertions.assertSame(container, queryService.getContainer("db"));
+        Assertions.assertSame(container, queryService.getContainer("0123456789ab"));
+        Assertions.assertSame(container, queryService.getContainer("db"));
+
+        access.startContainer("0123456789abcdef");
+
+        Assertions.assertSame(container, queryService.getContainer("db"));
+        Assertions.assertSame(container, queryService.getContainer("0123456789ab"));
+        Mockito.verify(docker, Mockito.times(3)).getContainer("db");
+        Mockito.verify(docker, Mockito.times(2)).getContainer("0123456789ab");
+    }
+
+    @Test
+    void currentContainerBypassesCache() throws DockerAccessException {
+        Mockito.doReturn(container).when(docker).getContainer("db");
+        queryService.getContainer("db");
+
+        Assertions.assertSame(container, queryService.getCurrentContainer("db"));
+        Assertions.assertSame(container, queryService.getContainer("db"));
+
+        Mockito.verify(docker, Mockito.times(2)).getContainer("db");
+    }
+
+    @Test
+    void lookupRacingWithInvalidationIsNotStored() throws DockerAccessException {
+        Mockito.doAnswer(invocation -> {
+            // Build finishes while the old id is being looked up
+            cache.invalidateImage("app:1.0");
+            return "sha256:old";
+        }).doReturn("sha256:new").when(docker).getImageId("app:1.0");
+
+        Assertions.assertEquals("sha256:old", queryService.getImageId("app:1.0"));
+        Assertions.assertEquals("sha256:new", queryService.getImageId("app:1.0"));
+    }
+
+    @Test
+    void newSessionDropsEntries() throws DockerAccessException {
+        Mockito.doReturn("sha256:1").when(docker).getImageId("app:1.0");
+        cache.useForSession("first");
+        queryService.getImageId("app:1.0");
+        cache.useForSession("first");
+        queryService.getImageId("app:1.0");
+
+        cache.useForSession("second");
+        queryService.getImageId("app:1.0");
+
+        Mockito.verify(docker, Mockito.times(2)).getImageId("app:1.0");
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void entriesAreSharedAcrossClonedSessions() throws DockerAccessException {
+        // Parallel builds (-T) run every project with its own clone of the session
+        @SuppressWarnings("deprecation")
+        MavenSession session = new MavenSession(null, null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult());
+        ServiceHubFactory factory = new ServiceHubFactory();
+        Mockito.doReturn("sha256:1").when(docker).getImageId("app:1.0");
+
+        factory.createServiceHub(null, session.clone(), docker, null, null).getQueryService().getImageId("app:1.0");
+        factory.createServiceHub(null, session.clone(), docker, null, null).getQueryService().getImageId("app:1.0");
+
+        Mockito.verify(docker).getImageId("app:1.0");
+    }
+}
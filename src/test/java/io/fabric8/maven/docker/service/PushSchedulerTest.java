@@ -0,0 +1,159 @@
+package io.fabric8.maven.docker.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.util.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PushSchedulerTest {
+
+    private static final long REGISTRY_LATENCY_MILLIS = 100;
+
+    @Mock
+    private Logger log;
+
+    @Test
+    void pushConcurrentlyUpToParallelism() throws Exception {
+        RegistryStandIn registry = new RegistryStandIn(REGISTRY_LATENCY_MILLIS);
+        PushScheduler scheduler = new PushScheduler(log, 4);
+        for (int i = 0; i < 12; i++) {
+            String image = "app" + i + ":1.0";
+            scheduler.add(image, progressLog -> registry.push(image, progressLog));
+        }
+
+        long start = System.nanoTime();
+        scheduler.run();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertEquals(12, registry.pushed.size());
+        Assertions.assertEquals(4, registry.maxConcurrent.get());
+        // One after the other it would take at least 12 * latency
+        Assertions.assertTrue(elapsed < 12 * REGISTRY_LATENCY_MILLIS, "Pushing took " + elapsed + " ms");
+    }
+
+    @Test
+    void pushOneAfterTheOtherWithoutParallelism() throws Exception {
+        RegistryStandIn registry = new RegistryStandIn(REGISTRY_LATENCY_MILLIS);
+        PushScheduler scheduler = new PushScheduler(log, 1);
+        List<Logger> progressLogs = Collections.synchronizedList(new ArrayList<>());
+        for (String image : new String[] { "app:1.0", "app:latest" }) {
+            scheduler.add(image, progressLog -> {
+                progressLogs.add(progressLog);
+                registry.push(image, progressLog);
+            });
+        }
+
+        scheduler.run();
+
+        Assertions.assertEquals(1, registry.maxConcurrent.get());
+        Assertions.assertSame(log, progressLogs.get(0));
+        Mockito.verify(log).info(Mockito.eq("Pushed %s in %s"), Mockito.eq("app:latest"), Mockito.anyString());
+    }
+
+    @Test
+    void condenseOutputOfConcurrentPushes() throws Exception {
+        // Slow enough for the progress to be shown
+        RegistryStandIn registry = new RegistryStandIn(3 * PushScheduler.RENDER_INTERVAL_MILLIS);
+        PushScheduler scheduler = new PushScheduler(log, 2);
+        scheduler.add("app:1.0", progressLog -> registry.push("app:1.0", progressLog));
+        scheduler.add("db:1.0", progressLog -> registry.push("db:1.0", progressLog));
+
+        scheduler.run();
+
+        Mockito.verify(log).info("%s: %s", "app:1.0", "The push refers to repository [app]");
+        Mockito.verify(log).info("%s: %s", "db:1.0", "The push refers to repository [db]");
+        Mockito.verify(log).info(Mockito.eq("Pushed %s in %s"), Mockito.eq("db:1.0"), Mockito.anyString());
+        Mockito.verify(log, Mockito.atLeastOnce()).progressUpdate(Mockito.eq("app:1.0"), Mockito.anyString(), Mockito.startsWith("1/2 layers"));
+        Mockito.verify(log, Mockito.never()).progressUpdate(Mockito.eq("layer1"), Mockito.anyString(), Mockito.anyString());
+        // Progress blocks of the pushes are not forwarded, only the ones of the scheduler
+        Assertions.assertEquals(countInvocations("progressStart"), countInvocations("progressFinished"));
+    }
+
+    @Test
+    void stopSchedulingAfterFailure() {
+        CountDownLatch otherStarted = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        PushScheduler scheduler = new PushScheduler(log, 2);
+        scheduler.add("broken:1.0", progressLog -> {
+            started.incrementAndGet();
+            await(otherStarted);
+            throw new DockerAccessException("Unable to push 'broken:1.0'");
+        });
+        for (int i = 0; i < 5; i++) {
+            scheduler.add("app" + i + ":1.0", progressLog -> {
+                started.incrementAndGet();
+                otherStarted.countDown();
+                sleep(REGISTRY_LATENCY_MILLIS);
+            });
+        }
+
+        DockerAccessException exp = Assertions.assertThrows(DockerAccessException.class, scheduler::run);
+
+        Assertions.assertEquals("Unable to push 'broken:1.0'", exp.getMessage());
+        Assertions.assertEquals(2, started.get());
+    }
+
+    private long countInvocations(String method) {
+        return Mockito.mockingDetails(log).getInvocations().stream()
+                      .filter(i -> i.getMethod().getName().equals(method))
+                      .count();
+    }
+
+    // Registry answering every push after some latency, reporting progress like the Docker daemon
+    private static class RegistryStandIn {
+        private final List<String> pushed = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        private final long latency;
+
+        RegistryStandIn(long latency) {
+            this.latency = latency;
+        }
+
+        void push(String image, Logger progressLog) {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                progressLog.progressStart();
+                progressLog.progressFinished();
+                progressLog.info("%s", "The push refers to repository [" + image.substring(0, image.indexOf(':')) + "]");
+                progressLog.progressStart();
+                progressLog.progressUpdate("layer1", "Layer already exists", "");
+                progressLog.progressUpdate("layer2", "Pushing", "[==>    ] 1MB/4MB");
+                sleep(latency);
+                progressLog.progressUpdate("layer2", "Pushed", "");
+                progressLog.progressFinished();
+                pushed.add(image);
+            } finally {
+                concurrent.decrementAndGet();
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
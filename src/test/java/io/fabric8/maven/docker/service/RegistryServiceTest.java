@@ -237,7 +237,7 @@ class RegistryServiceTest {
 
         ArgumentCaptor<String> pulledImage = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<CreateImageOptions> imageCapture = ArgumentCaptor.forClass(CreateImageOptions.class);
-        Mockito.verify(docker).pullImage(pulledImage.capture(), Mockito.any(), Mockito.anyString(), imageCapture.capture());
+        Mockito.verify(docker).pullImage(pulledImage.capture(), Mockito.any(), Mockito.anyString(), imageCapture.capture(), Mockito.any());
 
         Assertions.assertEquals("myregistry.com/user/test:1.0.1", pulledImage.getValue());
         CreateImageOptions createImageOptions = imageCapture.getValue();
@@ -462,18 +462,18 @@ class RegistryServiceTest {
     }
 
     private void thenImageHasNotBeenPulled() throws DockerAccessException {
-        Mockito.verify(docker, Mockito.never()).pullImage(Mockito.anyString(), Mockito.any(AuthConfig.class), Mockito.anyString(), Mockito.any(CreateImageOptions.class));
+        Mockito.verify(docker, Mockito.never()).pullImage(Mockito.anyString(), Mockito.any(AuthConfig.class), Mockito.anyString(), Mockito.any(CreateImageOptions.class), Mockito.any());
     }
 
     private void thenImageHasNotBeenPushed() throws DockerAccessException {
-        Mockito.verify(docker, Mockito.never()).pushImage(Mockito.anyString(), Mockito.any(AuthConfig.class), Mockito.anyString(), Mockito.anyInt());
+        Mockito.verify(docker, Mockito.never()).pushImage(Mockito.anyString(), Mockito.any(AuthConfig.class), Mockito.anyString(), Mockito.anyInt(), Mockito.any());
     }
 
     private void thenImageHasBeenPushed() throws DockerAccessException {
-        Mockito.verify(docker).pushImage(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyInt());
+        Mockito.verify(docker).pushImage(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any());
     }
     private void thenRegistryWasUsedWhenPushing(String registry) throws DockerAccessException {
-        Mockito.verify(docker).pushImage(Mockito.anyString(), Mockito.any(), Mockito.eq(registry), Mockito.anyInt());
+        Mockito.verify(docker).pushImage(Mockito.anyString(), Mockito.any(), Mockito.eq(registry), Mockito.anyInt(), Mockito.any());
     }
 
     private void thenBuildxImageHasBeenPushed(String providedBuilder, String relativeDockerfile, boolean tag, String registry) throws MojoExecutionException {
@@ -522,7 +522,7 @@ class RegistryServiceTest {
     }
 
     private void thenImageHasBeenPulledWithRegistry(final String registry) throws DockerAccessException {
-        Mockito.verify(docker).pullImage(Mockito.eq(imageName), Mockito.any(), Mockito.eq(registry), Mockito.any(CreateImageOptions.class));
+        Mockito.verify(docker).pullImage(Mockito.eq(imageName), Mockito.any(), Mockito.eq(registry), Mockito.any(CreateImageOptions.class), Mockito.any());
         Assertions.assertNotNull(cacheStore.get(imageName));
     }
 
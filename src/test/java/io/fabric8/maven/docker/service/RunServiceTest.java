@@ -32,6 +32,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -247,6 +248,45 @@ class RunServiceTest {
         Assertions.assertEquals("(TEST two,TEST one)", thrownException.getLocalizedMessage());
     }
 
+    @Test
+    void parallelStopRespectsDependencies() throws DockerAccessException, ExecException {
+        GavLabel testLabel = new GavLabel("Im:A:Test");
+        tracker.registerContainer("db-container-0001", createImageConfig("db"), testLabel);
+        tracker.registerContainer("cache-container-0001", createImageConfig("cache"), testLabel);
+        tracker.registerContainer("app-container-0001", createImageConfig("app", "db", "cache"), testLabel);
+        tracker.registerContainer("web-container-0001", createImageConfig("web", "app"), testLabel);
+
+        List<String> stopped = Collections.synchronizedList(new ArrayList<>());
+        Mockito.doAnswer(invocation -> stopped.add(invocation.getArgument(0)))
+            .when(docker).stopContainer(Mockito.anyString(), Mockito.eq(0));
+        Mockito.lenient().doThrow(new DockerAccessException("TEST cache"))
+            .when(docker).removeContainer("cache-container-0001", false);
+
+        Exception thrownException = Assertions.assertThrows(DockerAccessException.class,
+            () -> runService.stopStartedContainers(false, false, false, testLabel, 4, 0));
+
+        Assertions.assertEquals("(TEST cache)", thrownException.getLocalizedMessage());
+        Assertions.assertEquals(4, stopped.size());
+        Assertions.assertEquals("web-container-0001", stopped.get(0));
+        Assertions.assertEquals("app-container-0001", stopped.get(1));
+        Assertions.assertTrue(stopped.containsAll(Arrays.asList("db-container-0001", "cache-container-0001")));
+        Mockito.verify(docker).removeContainer("db-container-0001", false);
+        Assertions.assertTrue(tracker.getShutdownDescriptors(testLabel).isEmpty());
+    }
+
+    @Test
+    void stopTimeoutCutsGracePeriods() throws DockerAccessException, ExecException {
+        GavLabel testLabel = new GavLabel("Im:A:Test");
+        tracker.registerContainer(container, createImageConfig(60000, 60000), testLabel);
+
+        long start = System.currentTimeMillis();
+        runService.stopStartedContainers(false, false, false, testLabel, 1, 1);
+
+        Assertions.assertTrue(System.currentTimeMillis() - start < 30000);
+        Mockito.verify(docker).stopContainer(container, 0);
+        Mockito.verify(docker).removeContainer(container, false);
+    }
+
     @Test
     void testVolumesDuringStart() throws DockerAccessException {
         ServiceHub hub = new ServiceHubFactory().createServiceHub(project, session, docker, log, new LogOutputSpecFactory(true, true, null));
@@ -305,7 +345,7 @@ class RunServiceTest {
             .when(docker).createContainer(Mockito.any(ContainerCreateConfig.class), Mockito.anyString());
 
         Mockito.doReturn(true).when(portMapping).needsPropertiesUpdate();
-        Mockito.doReturn(container).when(queryService).getMandatoryContainer("containerId");
+        Mockito.doReturn(container).when(queryService).getCurrentContainer("containerId");
         Mockito.doReturn(true).when(container).isRunning();
         Mockito.doReturn(new RunImageConfiguration()).when(imageConfiguration).getRunConfiguration();
 
@@ -328,7 +368,7 @@ class RunServiceTest {
             .when(docker).createContainer(Mockito.any(ContainerCreateConfig.class), Mockito.anyString());
 
         Mockito.doReturn(true).when(portMapping).needsPropertiesUpdate();
-        Mockito.doReturn(container).when(queryService).getMandatoryContainer("containerId");
+        Mockito.doReturn(container).when(queryService).getCurrentContainer("containerId");
         Mockito.doReturn(true).when(container).isRunning();
         Mockito.doReturn(new RunImageConfiguration()).when(imageConfiguration).getRunConfiguration();
         Mockito.doThrow(new PortBindingException("5432/tcp", new Gson().fromJson("{\"5432/tcp\": []}", JsonObject.class)))
@@ -354,6 +394,16 @@ class RunServiceTest {
             .build();
     }
 
+    private ImageConfiguration createImageConfig(String alias, String... links) {
+        return new ImageConfiguration.Builder()
+            .name(alias + ":latest")
+            .alias(alias)
+            .runConfig(new RunImageConfiguration.Builder()
+                .links(Arrays.asList(links))
+                .build())
+            .build();
+    }
+
     private ImageConfiguration createImageConfigWithStopMode() {
         return new ImageConfiguration.Builder()
             .name("test_name")
@@ -0,0 +1,99 @@
+package io.fabric8.maven.docker.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.fabric8.maven.docker.assembly.AssemblyFiles;
+
+class WatchChangesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ScheduledExecutorService executor;
+    private List<String> actions;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        actions = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void changesAreActedOnRightAwayWithoutQuietPeriod() throws Exception {
+        WatchChanges changes = new WatchChanges(executor, 0);
+        File source = createSource("service");
+        Runnable check = changes.add(createAssemblyFiles("service", source), entries -> actions.add("service:" + entries.size()));
+
+        touch(source);
+        executor.submit(check).get();
+
+        Assertions.assertEquals(Collections.singletonList("service:1"), actions);
+    }
+
+    @Test
+    void burstOfChangesIsActedOnOnce() throws Exception {
+        WatchChanges changes = new WatchChanges(executor, 300);
+        File service = createSource("service");
+        File frontend = createSource("frontend");
+        Runnable checkService = changes.add(createAssemblyFiles("service", service), entries -> actions.add("service:" + entries.size()));
+        Runnable checkFrontend = changes.add(createAssemblyFiles("frontend", frontend), entries -> actions.add("frontend:" + entries.size()));
+
+        touch(frontend);
+        executor.submit(checkFrontend).get();
+        touch(service);
+        executor.submit(checkService).get();
+        touch(frontend);
+        executor.submit(checkFrontend).get();
+        Assertions.assertTrue(actions.isEmpty());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (actions.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(500);
+        // One action per assembly, in the order the assemblies have been added
+        Assertions.assertEquals(Arrays.asList("service:1", "frontend:1"), actions);
+    }
+
+    private File createSource(String name) throws IOException {
+        File file = tempDir.resolve("src/" + name + ".jar").toFile();
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), name.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private AssemblyFiles createAssemblyFiles(String name, File source) throws IOException {
+        File dest = tempDir.resolve(name + "/maven/" + source.getName()).toFile();
+        Files.createDirectories(dest.getParentFile().toPath());
+        Files.copy(source.toPath(), dest.toPath());
+        AssemblyFiles files = new AssemblyFiles(dest.getParentFile());
+        files.addEntry(source, dest);
+        return files;
+    }
+
+    private static void touch(File file) {
+        Assertions.assertTrue(file.setLastModified(file.lastModified() + TimeUnit.SECONDS.toMillis(10)));
+    }
+}
@@ -6,17 +6,30 @@ import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executors;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import io.fabric8.maven.docker.access.DockerAccess;
+import io.fabric8.maven.docker.access.StreamingArchive;
+import io.fabric8.maven.docker.assembly.AssemblyFiles;
 import io.fabric8.maven.docker.config.BuildImageConfiguration;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.config.WatchMode;
@@ -70,4 +83,67 @@ class WatchServiceTest {
         verify(buildImageConfiguration, timeout(10_000).times(1)).getAllAssemblyConfigurations();
     }
 
-}
\ No newline at end of file
+    @Test
+    void copyStreamsUpdatedFilesAndRemovesDeletedFiles(@TempDir Path tempDir) throws Exception {
+        AssemblyFiles files = new AssemblyFiles(tempDir.resolve("maven").toFile());
+        File app = addEntry(files, tempDir, "app.jar");
+        File old = addEntry(files, tempDir, "lib/old.jar");
+        addEntry(files, tempDir, "lib/unchanged.jar");
+        Assertions.assertTrue(app.setLastModified(app.lastModified() + 10_000));
+        Files.delete(old.toPath());
+        List<AssemblyFiles.Entry> entries = files.getChangedEntriesAndRefresh();
+
+        StreamingArchive archive = out -> { };
+        when(archiveService.createChangedFilesArchiveStream(files, Collections.singletonList(entries.get(0)))).thenReturn(archive);
+        WatchService.ImageWatcher watcher = createWatcher();
+
+        watchService.createCopyWatchTask(watcher, "maven", files, "/opt/app").accept(entries);
+
+        verify(dockerAccess).copyArchiveStreamToContainer("container", archive, "/opt/app");
+        verify(dockerAccess, Mockito.never()).copyArchiveToContainer(any(), any(), any());
+        verify(runService).execInContainer("container", Arrays.asList("rm", "-f", "--", "/opt/app/lib/old.jar"),
+                                           watcher.getImageConfiguration());
+    }
+
+    @Test
+    void copyRemovesDeletedFilesInBatchesWithoutUpload(@TempDir Path tempDir) throws Exception {
+        AssemblyFiles files = new AssemblyFiles(tempDir.resolve("maven").toFile());
+        List<File> sources = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            sources.add(addEntry(files, tempDir, "file" + i + ".txt"));
+        }
+        for (File source : sources) {
+            Files.delete(source.toPath());
+        }
+        List<AssemblyFiles.Entry> entries = files.getChangedEntriesAndRefresh();
+        WatchService.ImageWatcher watcher = createWatcher();
+
+        watchService.createCopyWatchTask(watcher, "maven", files, "/opt/app").accept(entries);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> commands = ArgumentCaptor.forClass(List.class);
+        verify(runService, Mockito.times(2)).execInContainer(Mockito.eq("container"), commands.capture(), Mockito.same(watcher.getImageConfiguration()));
+        Assertions.assertEquals(503, commands.getAllValues().get(0).size());
+        Assertions.assertEquals(Arrays.asList("rm", "-f", "--", "/opt/app/file0.txt"), commands.getAllValues().get(0).subList(0, 4));
+        Assertions.assertEquals(Arrays.asList("rm", "-f", "--", "/opt/app/file500.txt"), commands.getAllValues().get(1));
+        Mockito.verifyNoInteractions(dockerAccess, archiveService);
+    }
+
+    private WatchService.ImageWatcher createWatcher() {
+        ImageConfiguration imageConfig = new ImageConfiguration.Builder().name("app:1.0").build();
+        WatchService.WatchContext watchContext = new WatchService.WatchContext.Builder().watchMode(WatchMode.copy).build();
+        return watchService.new ImageWatcher(imageConfig, watchContext, "sha256:1", "container");
+    }
+
+    private static File addEntry(AssemblyFiles files, Path tempDir, String path) throws IOException {
+        File source = write(tempDir.resolve("src").resolve(path).toFile());
+        files.addEntry(source, write(new File(files.getAssemblyDirectory(), path)));
+        return source;
+    }
+
+    private static File write(File file) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), file.getName().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -196,6 +196,22 @@ class AnsiLoggerTest {
     }
 
 
+    @Test
+    void groupedMessagesAreWrittenWhenGroupIsFinished() {
+        TestLog testLog = new TestLog();
+        AnsiLogger logger = new AnsiLogger(testLog, false, null, false, "T>");
+
+        logger.groupStart();
+        logger.info("First %s", "message");
+        logger.warn("Second message");
+        Assertions.assertNull(testLog.getMessage());
+
+        logger.groupFinished();
+        Assertions.assertEquals("T>Second message", testLog.getMessage());
+        logger.info("Not grouped");
+        Assertions.assertEquals("T>Not grouped", testLog.getMessage());
+    }
+
     private class TestLog extends DefaultLog {
         private String message;
 
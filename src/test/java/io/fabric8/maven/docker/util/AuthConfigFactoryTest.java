@@ -42,6 +42,7 @@ import java.io.Writer;
 import java.net.InetAddress;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -556,6 +557,63 @@ class AuthConfigFactoryTest {
         verifyAuthConfig(config, "tanja", "doublesecret", "tanja@jolokia.org");
     }
 
+    @Test
+    void testCachedWithinSession() throws MojoExecutionException {
+        factory.useForSession(new Object(), AuthConfigFactory.DEFAULT_CACHE_EXPIRY_SECONDS);
+        setupServers();
+
+        AuthConfig config = factory.createAuthConfig(isPush, false, null, settings, "roland", "test.org");
+
+        Assertions.assertSame(config, factory.createAuthConfig(isPush, false, null, settings, "roland", "test.org"));
+        Assertions.assertNotSame(config, factory.createAuthConfig(!isPush, false, null, settings, "roland", "test.org"));
+        Mockito.verify(settings, Mockito.times(2)).getServers();
+    }
+
+    @Test
+    void testNotCachedAcrossSessions() throws MojoExecutionException {
+        systemProperties
+            .set("docker.push.username", "roland")
+            .set("docker.push.password", "secret");
+        factory.useForSession("first", AuthConfigFactory.DEFAULT_CACHE_EXPIRY_SECONDS);
+        factory.createAuthConfig(true, false, null, settings, null, null);
+        systemProperties.set("docker.push.password", "changed");
+
+        verifyAuthConfig(factory.createAuthConfig(true, false, null, settings, null, null), "roland", "secret", null);
+        factory.useForSession("second", AuthConfigFactory.DEFAULT_CACHE_EXPIRY_SECONDS);
+        verifyAuthConfig(factory.createAuthConfig(true, false, null, settings, null, null), "roland", "changed", null);
+        factory.useForSession("second", 0);
+        systemProperties.set("docker.push.password", "changed again");
+        verifyAuthConfig(factory.createAuthConfig(true, false, null, settings, null, null), "roland", "changed again", null);
+    }
+
+    @Test
+    void testFailureNotCached() throws MojoExecutionException {
+        factory.useForSession(new Object(), AuthConfigFactory.DEFAULT_CACHE_EXPIRY_SECONDS);
+        systemProperties.set("docker.push.username", "roland");
+
+        Assertions.assertThrows(MojoExecutionException.class,
+            () -> factory.createAuthConfig(true, false, null, settings, null, null));
+        systemProperties.set("docker.push.password", "secret");
+
+        verifyAuthConfig(factory.createAuthConfig(true, false, null, settings, null, null), "roland", "secret", null);
+    }
+
+    @Test
+    void testPrefetchDistinctRegistries() throws MojoExecutionException {
+        factory.useForSession(new Object(), AuthConfigFactory.DEFAULT_CACHE_EXPIRY_SECONDS);
+        setupServers();
+
+        factory.prefetchAuthConfigs(isPush, false, null, settings, Arrays.asList(
+            new ImageName("test.org/roland/app:1"), new ImageName("test.org/roland/app:2"), new ImageName("tanja/web")));
+        Mockito.verify(settings, Mockito.times(2)).getServers();
+
+        verifyAuthConfig(factory.createAuthConfig(isPush, false, null, settings, "roland", "test.org"),
+                         "roland", "secret", "roland@jolokia.org");
+        verifyAuthConfig(factory.createAuthConfig(isPush, false, null, settings, "tanja", null),
+                         "tanja", "doublesecret", "tanja@jolokia.org");
+        Mockito.verify(settings, Mockito.times(2)).getServers();
+    }
+
     @Test
     void testWrongUserName() throws IOException, MojoExecutionException {
         executeWithTempHomeDir(homeDir -> {
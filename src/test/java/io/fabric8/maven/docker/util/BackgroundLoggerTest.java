@@ -0,0 +1,29 @@
+package io.fabric8.maven.docker.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BackgroundLoggerTest {
+
+    @Mock
+    private Logger log;
+
+    @Test
+    void messagesArePrefixedAndProgressIsDropped() {
+        BackgroundLogger logger = new BackgroundLogger("alpine:3.19", log);
+
+        logger.info("Pulled %s layers", 3);
+        logger.warn("Retrying");
+        logger.progressStart();
+        logger.progressUpdate("a1b2", "Downloading", "[==>   ]");
+        logger.progressFinished();
+
+        Mockito.verify(log).info("%s: Pulled %s layers", "alpine:3.19", 3);
+        Mockito.verify(log).warn("%s: Retrying", "alpine:3.19");
+        Mockito.verifyNoMoreInteractions(log);
+    }
+}
@@ -148,6 +148,22 @@ class ContainerNamingUtilTest {
         Assertions.assertEquals(container2, filtered.iterator().next());
     }
 
+    @Test
+    void testContainerNamePrefix() {
+        Date buildTimestamp = new Date(123456);
+        Assertions.assertEquals("jolokia_demo-",
+                                ContainerNamingUtil.getContainerNamePrefix(
+                                    imageConfiguration("jolokia/jolokia_demo", "nameAlias", null), null, buildTimestamp));
+        Assertions.assertEquals("nameAlias",
+                                ContainerNamingUtil.getContainerNamePrefix(
+                                    imageConfiguration("jolokia/jolokia_demo", "nameAlias", "%a"), null, buildTimestamp));
+        Assertions.assertEquals("",
+                                ContainerNamingUtil.getContainerNamePrefix(
+                                    imageConfiguration("jolokia/jolokia_demo", "nameAlias", "%i-%a"), null, buildTimestamp));
+        Assertions.assertNull(ContainerNamingUtil.getContainerNamePrefix(
+            imageConfiguration("jolokia/jolokia_demo", "nameAlias", ContainerNamingUtil.EMPTY_NAME_PLACEHOLDER), null, buildTimestamp));
+    }
+
     private ImageConfiguration imageConfiguration(String name, String alias, String containerNamePattern) {
         ImageConfiguration.Builder builder = new ImageConfiguration.Builder().name(name).alias(alias);
         if (containerNamePattern != null) {
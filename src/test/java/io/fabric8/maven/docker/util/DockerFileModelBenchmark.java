@@ -0,0 +1,138 @@
+package io.fabric8.maven.docker.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.fabric8.maven.docker.config.BuildImageConfiguration;
+
+/**
+ * Measures the Dockerfile lookups of a single image build for a large multi-stage Dockerfile: its base images,
+ * its args and its interpolated content. The cached model of {@link DockerFileUtil#parse} reads and interpolates
+ * the Dockerfile once for all lookups, while the separate <code>extract*()</code> and <code>interpolate()</code>
+ * methods read and interpolate it on every call. Every stage declares args which are used by its
+ * <code>FROM</code> and refers to Maven properties.
+ * <p>
+ * Not executed as part of the test suite, run it with:
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=io.fabric8.maven.docker.util.DockerFileModelBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class DockerFileModelBenchmark {
+
+    private static final int INSTRUCTIONS_PER_STAGE = 20;
+
+    @Param({"10", "50"})
+    int stages;
+
+    private File dockerFile;
+    private MojoParameters params;
+    private Map<String, String> buildArgs;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dockerFile = File.createTempFile("Dockerfile", "");
+        Files.write(dockerFile.toPath(), createDockerfile(stages).getBytes(StandardCharsets.UTF_8));
+        params = createMojoParameters();
+        buildArgs = new HashMap<>();
+        buildArgs.put("VERSION_0", "3.19");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dockerFile.toPath());
+    }
+
+    @Benchmark
+    public void parseCached(Blackhole blackhole) throws IOException {
+        DockerFileModel model = DockerFileUtil.parse(dockerFile, params, BuildImageConfiguration.DEFAULT_FILTER);
+        blackhole.consume(model.getBaseImages(buildArgs));
+        blackhole.consume(model.getArgs(buildArgs));
+        blackhole.consume(model.getContent());
+    }
+
+    @Benchmark
+    public void extractAndInterpolate(Blackhole blackhole) throws IOException {
+        FixedStringSearchInterpolator interpolator = DockerFileUtil.createInterpolator(params, BuildImageConfiguration.DEFAULT_FILTER);
+        List<String> baseImages = DockerFileUtil.extractBaseImages(dockerFile, interpolator, buildArgs);
+        blackhole.consume(baseImages);
+        blackhole.consume(DockerFileUtil.extractArgs(dockerFile, buildArgs, interpolator));
+        blackhole.consume(DockerFileUtil.interpolate(dockerFile, interpolator));
+    }
+
+    private static String createDockerfile(int stages) {
+        StringBuilder ret = new StringBuilder();
+        for (int stage = 0; stage < stages; stage++) {
+            ret.append("ARG VERSION_").append(stage).append("=1.").append(stage).append('\n')
+               .append("FROM alpine:${VERSION_").append(stage).append("} AS stage").append(stage).append('\n')
+               .append("ARG TARGET_").append(stage).append("=/opt/${project.artifactId}\n");
+            for (int i = 0; i < INSTRUCTIONS_PER_STAGE; i++) {
+                ret.append("RUN echo \"${project.artifactId} ${project.version} step ").append(i).append("\" >> /build.log\n");
+            }
+            if (stage > 0) {
+                ret.append("COPY --from=stage").append(stage - 1).append(" /build.log /previous.log\n");
+            }
+            ret.append("COPY maven/ $TARGET_").append(stage).append('\n');
+        }
+        return ret.toString();
+    }
+
+    private static MojoParameters createMojoParameters() {
+        MavenProject project = new MavenProject();
+        project.setArtifactId("docker-maven-plugin");
+        project.setVersion("1.0.0");
+        project.getProperties().put("base", "java");
+
+        Settings settings = new Settings();
+        ArtifactRepository localRepository = new MavenArtifactRepository() {
+            public String getBasedir() {
+                return "repository";
+            }
+        };
+        @SuppressWarnings("deprecation")
+        MavenSession session = new MavenSession(null, settings, localRepository, null, null, Collections.emptyList(), ".", null, null, new Date());
+        return new MojoParameters(session, project, null, null, null, settings, "src", "target", Collections.singletonList(project));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DockerFileModelBenchmark.class.getSimpleName()).build()).run();
+    }
+}
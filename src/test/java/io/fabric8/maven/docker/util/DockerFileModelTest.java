@@ -0,0 +1,43 @@
+package io.fabric8.maven.docker.util;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.interpolation.fixed.FixedStringSearchInterpolator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DockerFileModelTest {
+
+    @Test
+    void parseMultiStageDockerfile(@TempDir Path tempDir) throws Exception {
+        File dockerFile = tempDir.resolve("Dockerfile").toFile();
+        FileUtils.write(dockerFile, String.join("\n",
+            "ARG VERSION=17",
+            "FROM --platform=linux/amd64 maven:3-jdk-${VERSION} AS build",
+            "COPY --chown=app maven /build",
+            "FROM build AS test",
+            "FROM eclipse-temurin:${VERSION}",
+            "add --from=build /build/app.jar /app.jar"), "UTF-8");
+
+        DockerFileModel model = DockerFileModel.parse(dockerFile, FixedStringSearchInterpolator.create());
+
+        List<DockerFileModel.Stage> stages = model.getStages();
+        Assertions.assertEquals(Arrays.asList("maven:3-jdk-${VERSION}", "build", "eclipse-temurin:${VERSION}"),
+            stages.stream().map(DockerFileModel.Stage::getFrom).collect(Collectors.toList()));
+        Assertions.assertEquals(Arrays.asList("build", "test", null),
+            stages.stream().map(DockerFileModel.Stage::getAlias).collect(Collectors.toList()));
+        Assertions.assertEquals(Arrays.asList("maven:3-jdk-17", "eclipse-temurin:17"),
+            model.getBaseImages(Collections.emptyMap()));
+        Assertions.assertEquals(Arrays.asList("maven:3-jdk-11", "eclipse-temurin:11"),
+            model.getBaseImages(Collections.singletonMap("VERSION", "11")));
+        Assertions.assertEquals(2, model.getLines("ADD").size() + model.getLines("COPY").size());
+        Assertions.assertTrue(model.getContent().endsWith("/app.jar" + System.lineSeparator()));
+    }
+}
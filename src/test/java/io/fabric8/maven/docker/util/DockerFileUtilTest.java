@@ -199,6 +199,47 @@ class DockerFileUtilTest {
             toTest, FixedStringSearchInterpolator.create(), Collections.emptyMap()).get(0));
     }
 
+    @Test
+    void parsedDockerfileIsCachedUntilChanged(@TempDir Path tempDir) throws Exception {
+        MojoParameters params = mockMojoParams();
+        File dockerFile = tempDir.resolve("Dockerfile").toFile();
+        FileUtils.write(dockerFile, "FROM ${base}:8 AS build\nFROM build\n", "UTF-8");
+
+        DockerFileModel model = DockerFileUtil.parse(dockerFile, params, "${*}");
+        Assertions.assertSame(model, DockerFileUtil.parse(dockerFile, params, "${*}"));
+        Assertions.assertEquals(Collections.singletonList("java:8"), model.getBaseImages(Collections.emptyMap()));
+
+        // Other interpolation inputs
+        Assertions.assertNotSame(model, DockerFileUtil.parse(dockerFile, params, "false"));
+        params.getProject().getProperties().put("base", "eclipse-temurin");
+        DockerFileModel changedProperties = DockerFileUtil.parse(dockerFile, params, "${*}");
+        Assertions.assertEquals(Collections.singletonList("eclipse-temurin:8"), changedProperties.getBaseImages(Collections.emptyMap()));
+
+        // Modified Dockerfile
+        FileUtils.write(dockerFile, "FROM ${base}:17\n", "UTF-8");
+        Assertions.assertTrue(dockerFile.setLastModified(dockerFile.lastModified() + 2000));
+        Assertions.assertEquals(Collections.singletonList("eclipse-temurin:17"),
+            DockerFileUtil.parse(dockerFile, params, "${*}").getBaseImages(Collections.emptyMap()));
+    }
+
+    @Test
+    void parsedDockerfileIsNotSharedByPropertiesWithSameHash(@TempDir Path tempDir) throws Exception {
+        MojoParameters params = mockMojoParams();
+        File dockerFile = tempDir.resolve("Dockerfile").toFile();
+        FileUtils.write(dockerFile, "FROM ${base}\n", "UTF-8");
+
+        // "Aa" and "BB" have the same hash code, so have the properties
+        params.getProject().getProperties().put("base", "Aa");
+        int hashCode = params.getProject().getProperties().hashCode();
+        Assertions.assertEquals(Collections.singletonList("Aa"),
+            DockerFileUtil.parse(dockerFile, params, "${*}").getBaseImages(Collections.emptyMap()));
+        params.getProject().getProperties().put("base", "BB");
+        Assertions.assertEquals(hashCode, params.getProject().getProperties().hashCode());
+
+        Assertions.assertEquals(Collections.singletonList("BB"),
+            DockerFileUtil.parse(dockerFile, params, "${*}").getBaseImages(Collections.emptyMap()));
+    }
+
     private File copyToTempDir(String resource) throws IOException {
         File dir = Files.createTempDirectory("d-m-p").toFile();
         File ret = new File(dir, "Dockerfile");
@@ -0,0 +1,122 @@
+package io.fabric8.maven.docker.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.fabric8.maven.docker.model.ImageArchiveManifest;
+
+/**
+ * Measures the time for reading the manifest of an image archive as done when building from a
+ * <code>dockerArchive</code>. The archive is laid out as written by <code>docker save</code>: the layers
+ * first, followed by the config and <code>manifest.json</code>. Uncompressed archives are read via their tar
+ * index, compressed archives still need to be decompressed up to the manifest.
+ * <p>
+ * Not executed as part of the test suite, run it with:
+ * <pre>
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=io.fabric8.maven.docker.util.ImageArchiveManifestBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class ImageArchiveManifestBenchmark {
+
+    private static final int LAYER_COUNT = 32;
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    @Param({"1024", "4096"})
+    int archiveSizeMb;
+
+    @Param({"false", "true"})
+    boolean compressed;
+
+    private File archive;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        archive = File.createTempFile("image-archive", compressed ? ".tar.gz" : ".tar");
+        createArchive(archive, (long) archiveSizeMb * CHUNK_SIZE, compressed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(archive.toPath());
+    }
+
+    @Benchmark
+    public ImageArchiveManifest readManifest() throws IOException {
+        return ImageArchiveUtil.readManifest(archive);
+    }
+
+    private static void createArchive(File file, long size, boolean compressed) throws IOException {
+        Random random = new Random(0);
+        byte[] chunk = new byte[CHUNK_SIZE];
+        random.nextBytes(chunk);
+        long layerSize = size / LAYER_COUNT;
+
+        try (OutputStream fileOutput = new FileOutputStream(file);
+            OutputStream output = compressed ? new GZIPOutputStream(fileOutput, CHUNK_SIZE) : fileOutput;
+            TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(output)) {
+            tarOutput.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            StringBuilder layers = new StringBuilder();
+            for (int i = 0; i < LAYER_COUNT; i++) {
+                String name = "layer-" + i + "/layer.tar";
+                TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(layerSize);
+                tarOutput.putArchiveEntry(entry);
+                for (long written = 0; written < layerSize; written += CHUNK_SIZE) {
+                    tarOutput.write(chunk, 0, (int) Math.min(CHUNK_SIZE, layerSize - written));
+                }
+                tarOutput.closeArchiveEntry();
+                layers.append(i > 0 ? "," : "").append('"').append(name).append('"');
+            }
+            putEntry(tarOutput, "image-id.json", "{\"architecture\":\"amd64\"}");
+            putEntry(tarOutput, ImageArchiveUtil.MANIFEST_JSON,
+                "[{\"Config\":\"image-id.json\",\"RepoTags\":[\"test/image:latest\"],\"Layers\":[" + layers + "]}]");
+            tarOutput.finish();
+        }
+    }
+
+    private static void putEntry(TarArchiveOutputStream tarOutput, String name, String content) throws IOException {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(data.length);
+        tarOutput.putArchiveEntry(entry);
+        tarOutput.write(data);
+        tarOutput.closeArchiveEntry();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageArchiveManifestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
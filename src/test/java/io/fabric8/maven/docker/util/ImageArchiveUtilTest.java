@@ -10,6 +10,7 @@ import io.fabric8.maven.docker.model.ImageArchiveManifestEntry;
 import io.fabric8.maven.docker.model.ImageArchiveManifestEntryAdapter;
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 import java.util.regex.PatternSyntaxException;
 import java.util.zip.GZIPOutputStream;
@@ -213,6 +215,74 @@ class ImageArchiveUtilTest {
         Assertions.assertEquals(Collections.singletonList("layer-id-sha256/layer.tar"), entry.getLayers());
     }
 
+    @Test
+    void readArchiveStopsAfterManifestAndConfigs() throws IOException {
+        final byte[] layerData = new byte[4 * 1024 * 1024];
+        new Random(0).nextBytes(layerData);
+
+        byte[] archiveBytes;
+
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            GZIPOutputStream gzip = new GZIPOutputStream(baos);
+            TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(gzip)) {
+            putEntry(tarOutput, ImageArchiveUtil.MANIFEST_JSON, new Gson().toJson(createBasicManifestJson()).getBytes(StandardCharsets.UTF_8));
+            putEntry(tarOutput, "image-id-sha256.json", "{\"architecture\":\"amd64\"}".getBytes(StandardCharsets.UTF_8));
+            putEntry(tarOutput, "layer-id-sha256/layer.tar", layerData);
+            tarOutput.finish();
+            gzip.finish();
+            archiveBytes = baos.toByteArray();
+        }
+
+        CountingInputStream counter = new CountingInputStream(new ByteArrayInputStream(archiveBytes));
+        ImageArchiveManifest manifest = ImageArchiveUtil.readManifest(counter);
+
+        Assertions.assertNotNull(manifest);
+        Assertions.assertEquals("amd64", manifest.getConfig("image-id-sha256.json").get("architecture").getAsString());
+        Assertions.assertTrue(counter.getByteCount() < archiveBytes.length / 2,
+            "Read " + counter.getByteCount() + " of " + archiveBytes.length + " bytes");
+    }
+
+    @Test
+    void readArchiveFromFileWithIndex(@TempDir Path temporaryFolder) throws IOException {
+        File temporaryTar = temporaryFolder.resolve("temp.tar").toFile();
+
+        try (FileOutputStream fileOutput = new FileOutputStream(temporaryTar);
+            TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(fileOutput)) {
+            putEntry(tarOutput, "layer-id-sha256/layer.tar", new byte[64 * 1024]);
+            putEntry(tarOutput, "unrelated.json", ("}" + UUID.randomUUID() + "{").getBytes(StandardCharsets.UTF_8));
+            putEntry(tarOutput, ImageArchiveUtil.MANIFEST_JSON, new Gson().toJson(createBasicManifestJson()).getBytes(StandardCharsets.UTF_8));
+            putEntry(tarOutput, "image-id-sha256.json", "{\"architecture\":\"arm64\"}".getBytes(StandardCharsets.UTF_8));
+            tarOutput.finish();
+        }
+
+        ImageArchiveManifest manifest = ImageArchiveUtil.readManifest(temporaryTar);
+        Assertions.assertNotNull(manifest);
+        Assertions.assertEquals(Collections.singletonList("test/image:latest"), manifest.getEntries().get(0).getRepoTags());
+        Assertions.assertEquals("arm64", manifest.getConfig("image-id-sha256.json").get("architecture").getAsString());
+        Assertions.assertNull(manifest.getConfig("unrelated.json"));
+    }
+
+    @Test
+    void readInvalidManifestFromFile(@TempDir Path temporaryFolder) throws IOException {
+        File temporaryTar = temporaryFolder.resolve("temp.tar").toFile();
+
+        try (FileOutputStream fileOutput = new FileOutputStream(temporaryTar);
+            TarArchiveOutputStream tarOutput = new TarArchiveOutputStream(fileOutput)) {
+            putEntry(tarOutput, ImageArchiveUtil.MANIFEST_JSON, ("}" + UUID.randomUUID() + "{").getBytes(StandardCharsets.UTF_8));
+            tarOutput.finish();
+        }
+
+        Assertions.assertThrows(JsonParseException.class, () -> ImageArchiveUtil.readManifest(temporaryTar));
+    }
+
+    private static void putEntry(TarArchiveOutputStream tarOutput, String name, byte[] data) throws IOException {
+        TarArchiveEntry tarEntry = new TarArchiveEntry(name);
+        tarEntry.setSize(data.length);
+        tarOutput.putArchiveEntry(tarEntry);
+        tarOutput.write(data);
+        tarOutput.closeArchiveEntry();
+    }
+
     @Test
     void findByRepoTagEmptyManifest() {
         ImageArchiveManifest empty = new ImageArchiveManifestAdapter(new JsonArray());
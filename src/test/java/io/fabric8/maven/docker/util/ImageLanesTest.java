@@ -0,0 +1,132 @@
+package io.fabric8.maven.docker.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ImageLanesTest {
+
+    @Mock
+    private Logger log;
+
+    private final Image db = new Image("db");
+    private final Image service = new Image("service", "db");
+    private final Image frontend = new Image("frontend");
+
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void imagesRunConcurrentlyButJobsOfAnImageInOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        try (ImageLanes<Image> lanes = new ImageLanes<>(Arrays.asList(db, service, frontend), 2, log)) {
+            lanes.submit(frontend, () -> {
+                await(release);
+                record("frontend-1", done);
+            });
+            lanes.submit(frontend, () -> record("frontend-2", done));
+            lanes.submit(db, () -> record("db", done));
+
+            // db isn't blocked by the long running job of frontend
+            waitFor(() -> events.contains("db"));
+            Assertions.assertEquals(Collections.singletonList("db"), events);
+
+            release.countDown();
+            Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(Arrays.asList("db", "frontend-1", "frontend-2"), events);
+            waitFor(lanes::isIdle);
+        }
+    }
+
+    @Test
+    void dependentImageWaitsForItsDependencies() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        try (ImageLanes<Image> lanes = new ImageLanes<>(Arrays.asList(db, service, frontend), 4, log)) {
+            lanes.submit(db, () -> {
+                await(release);
+                record("db", done);
+            });
+            lanes.submit(service, () -> record("service", done));
+
+            Thread.sleep(200);
+            Assertions.assertTrue(events.isEmpty());
+            release.countDown();
+
+            Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(Arrays.asList("db", "service"), events);
+        }
+    }
+
+    @Test
+    void queuedJobIsNotQueuedTwice() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (ImageLanes<Image> lanes = new ImageLanes<>(Collections.singletonList(db), 1, log)) {
+            Runnable check = () -> events.add("check");
+            lanes.submit(db, () -> await(release));
+            lanes.submit(db, check);
+            lanes.submit(db, check);
+            release.countDown();
+
+            waitFor(lanes::isIdle);
+            Assertions.assertEquals(Collections.singletonList("check"), events);
+        }
+    }
+
+    private void record(String event, CountDownLatch done) {
+        events.add(event);
+        done.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+
+    private static class Image implements StartOrderResolver.Resolvable {
+        private final String name;
+        private final List<String> dependencies;
+
+        Image(String name, String... dependencies) {
+            this.name = name;
+            this.dependencies = Arrays.asList(dependencies);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getAlias() {
+            return null;
+        }
+
+        @Override
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+    }
+}
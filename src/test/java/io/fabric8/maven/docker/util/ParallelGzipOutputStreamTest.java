@@ -0,0 +1,119 @@
+package io.fabric8.maven.docker.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ParallelGzipOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 1024;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 37 * BLOCK_SIZE + 17 })
+    void roundTrip(int size) throws IOException {
+        byte[] data = createData(size);
+
+        byte[] compressed = compress(data, 6, 4, BLOCK_SIZE);
+
+        Assertions.assertArrayEquals(data, IOUtils.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        Assertions.assertArrayEquals(data, IOUtils.toByteArray(new GzipCompressorInputStream(new ByteArrayInputStream(compressed))));
+    }
+
+    @Test
+    void singleBytesAndSmallWrites() throws IOException {
+        byte[] data = createData(5 * BLOCK_SIZE + 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 3, 2, BLOCK_SIZE)) {
+            for (int i = 0; i < data.length; i += 7) {
+                if (i % 2 == 0) {
+                    gzip.write(data[i]);
+                    gzip.write(data, i + 1, Math.min(6, data.length - i - 1));
+                } else {
+                    gzip.write(data, i, Math.min(7, data.length - i));
+                }
+            }
+        }
+        Assertions.assertArrayEquals(data, decompress(out.toByteArray()));
+    }
+
+    @Test
+    void compressesLikeSingleThreadedGzip() throws IOException {
+        byte[] data = createData(64 * 1024);
+
+        byte[] compressed = compress(data, 6, 4, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE / 8);
+
+        // Priming each block with the previous block's tail keeps the ratio close to plain gzip
+        ByteArrayOutputStream reference = new ByteArrayOutputStream();
+        try (java.util.zip.GZIPOutputStream gzip = new java.util.zip.GZIPOutputStream(reference)) {
+            gzip.write(data);
+        }
+        Assertions.assertTrue(compressed.length < reference.size() * 1.05,
+                              compressed.length + " bytes compared to " + reference.size());
+    }
+
+    @Test
+    void closeClosesUnderlyingStreamOnce() throws IOException {
+        CloseCountingOutputStream out = new CloseCountingOutputStream();
+        ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 3, 2);
+        gzip.write("hello".getBytes(StandardCharsets.UTF_8));
+        gzip.close();
+        gzip.close();
+
+        Assertions.assertEquals(1, out.closed);
+        Assertions.assertThrows(IOException.class, () -> gzip.write(1));
+        Assertions.assertEquals("hello", new String(decompress(out.toByteArray()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void invalidLevel() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> new ParallelGzipOutputStream(new ByteArrayOutputStream(), 10, 2));
+    }
+
+    private static byte[] compress(byte[] data, int level, int threads, int blockSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, level, threads, blockSize)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    // Text like data with repetitions across block boundaries
+    private static byte[] createData(int size) {
+        Random random = new Random(size);
+        String[] words = { "docker", "maven", "plugin", "image", "container", "layer", "registry", "build" };
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        while (out.size() < size) {
+            byte[] word = (words[random.nextInt(words.length)] + (random.nextInt(10) == 0 ? random.nextInt() : "") + " ")
+                .getBytes(StandardCharsets.UTF_8);
+            out.write(word, 0, Math.min(word.length, size - out.size()));
+        }
+        return out.toByteArray();
+    }
+
+    private static class CloseCountingOutputStream extends ByteArrayOutputStream {
+        int closed;
+
+        @Override
+        public void close() {
+            closed++;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.fabric8.maven.docker.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class StartFrontierTest {
+
+    private final Image db = new Image("db");
+    private final Image cache = new Image("cache");
+    private final Image service = new Image("service", "db", "cache", "external");
+    private final Image web = new Image("web", "service");
+    private final Image monitor = new Image("monitor", "db");
+
+    @Test
+    void frontierAdvancesWithStartedImages() {
+        StartFrontier<Image> frontier = new StartFrontier<>(Arrays.asList(db, cache, service, web, monitor));
+
+        Assertions.assertEquals(Arrays.asList("db", "cache"), names(frontier.getInitial()));
+        Assertions.assertEquals(Collections.singletonList("monitor"), names(frontier.completed(db)));
+        Assertions.assertEquals(Collections.emptyList(), names(frontier.completed(monitor)));
+        Assertions.assertEquals(Collections.singletonList("service"), names(frontier.completed(cache)));
+        Assertions.assertEquals(Collections.singletonList("web"), names(frontier.completed(service)));
+        Assertions.assertFalse(frontier.isComplete());
+        Assertions.assertEquals(Collections.emptyList(), names(frontier.completed(web)));
+        Assertions.assertTrue(frontier.isComplete());
+    }
+
+    @Test
+    void dependenciesByAlias() {
+        Image aliased = new Image("registry/db:1.0", "db");
+        aliased.alias = "database";
+        Image app = new Image("app", "database");
+        StartFrontier<Image> frontier = new StartFrontier<>(Arrays.asList(aliased, app));
+
+        Assertions.assertEquals(Collections.singletonList("registry/db:1.0"), names(frontier.getInitial()));
+        Assertions.assertEquals(Collections.singletonList("app"), names(frontier.completed(aliased)));
+    }
+
+    private static List<String> names(List<Image> images) {
+        return images.stream().map(Image::getName).collect(Collectors.toList());
+    }
+
+    private static class Image implements StartOrderResolver.Resolvable {
+        private final String name;
+        private final List<String> dependencies;
+        private String alias;
+
+        Image(String name, String... dependencies) {
+            this.name = name;
+            this.dependencies = Arrays.asList(dependencies);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getAlias() {
+            return alias;
+        }
+
+        @Override
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+    }
+}
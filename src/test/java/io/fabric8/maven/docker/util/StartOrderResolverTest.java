@@ -23,11 +23,11 @@ class StartOrderResolverTest {
     
     @BeforeEach
     void setup() throws Exception {
-        Mockito.doReturn(false)
+        Mockito.lenient().doReturn(false)
             .when(queryService)
             .hasContainer(Mockito.anyString());
     }
-    
+
     @Test
     void simple() {
         checkData(new Object[][]{
@@ -45,6 +45,55 @@ class StartOrderResolverTest {
         Assertions.assertThrows(IllegalStateException.class, () -> checkData(data));
     }
 
+    @Test
+    void diamond() {
+        checkData(new Object[][]{
+            { new T[]{new T("4", "2", "3"), new T("2", "1"), new T("3", "1"), new T("1")},
+              new T[]{new T("1"), new T("2", "1"), new T("3", "1"), new T("4", "2", "3")} },
+        });
+    }
+
+    @Test
+    void selfDependency() {
+        Object[][] data = {
+            { new T[] { new T("1", "1") }, new T[] { new T("1", "1") } }
+        };
+        Assertions.assertThrows(IllegalStateException.class, () -> checkData(data));
+    }
+
+    @Test
+    void externalDependenciesAreCheckedWithOneLookup() throws Exception {
+        Mockito.doReturn(new HashSet<>(Arrays.asList("db", "cache")))
+            .when(queryService).getExistingContainerNames(Mockito.anyCollection());
+
+        checkData(new Object[][]{
+            { new T[]{new T("1", "db", "2"), new T("2", "cache", "db"), new T("3", "db")},
+              new T[]{new T("2", "cache", "db"), new T("3", "db"), new T("1", "db", "2")} },
+        });
+
+        Mockito.verify(queryService).getExistingContainerNames(new LinkedHashSet<>(Arrays.asList("db", "cache")));
+        Mockito.verify(queryService, Mockito.never()).hasContainer(Mockito.anyString());
+    }
+
+    @Test
+    void externalDependencyByContainerId() throws Exception {
+        Mockito.doReturn(true).when(queryService).hasContainer("0123456789ab");
+
+        checkData(new Object[][]{
+            { new T[]{new T("1", "0123456789ab")}, new T[]{new T("1", "0123456789ab")} },
+        });
+    }
+
+    @Test
+    void missingExternalDependency() {
+        Object[][] data = {
+            { new T[] { new T("1"), new T("2", "1", "missing"), new T("3", "2") }, new T[] {} }
+        };
+        IllegalStateException exp = Assertions.assertThrows(IllegalStateException.class, () -> checkData(data));
+        Assertions.assertTrue(exp.getMessage().contains("depends on 1,missing"));
+        Assertions.assertTrue(exp.getMessage().contains("depends on 2"));
+    }
+
     private void checkData(Object[][] data) {
         for (Object[] aData : data) {
             StartOrderResolver.Resolvable[] input = (StartOrderResolver.Resolvable[]) aData[0];
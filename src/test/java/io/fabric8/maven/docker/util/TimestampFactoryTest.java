@@ -104,4 +104,32 @@ class TimestampFactoryTest {
     void testInvalidNanos() {
         Assertions.assertThrows(DateTimeParseException.class, () -> TimestampFactory.createTimestamp("2014-11-24T12:00:00.abzeZ"));
     }
+
+    @Test
+    void testScanMatchesParse() {
+        String[] specs = {
+            "2014-11-24T22:34:00.761764812Z",
+            "2014-11-24T22:34:00Z",
+            "2014-11-24T22:34:00.7Z",
+            "2014-11-24t22:34:00.761z",
+            "2016-03-16T17:06:30.714387000+05:30",
+            "2016-03-16T17:06:30.714387000-04:00",
+            "2016-02-29T23:59:59.999999999+00:00",
+            "2016-03-16T17:06Z"
+        };
+        for (String spec : specs) {
+            String text = "[" + spec + "] entry";
+            Assertions.assertEquals(TimestampFactory.createTimestamp(spec),
+                                    TimestampFactory.createTimestamp(text, 1, spec.length() + 1), spec);
+        }
+    }
+
+    @Test
+    void testScanInvalid() {
+        for (String spec : new String[] { "2014-13-24T12:00:00Z", "2015-02-29T12:00:00Z", "2014-11-24T12:00:00.1234567890Z",
+                                          "2014-11-24T12:00:00+25:00", "Error", "" }) {
+            Assertions.assertThrows(DateTimeParseException.class,
+                                    () -> TimestampFactory.createTimestamp(spec + " txt", 0, spec.length()), spec);
+        }
+    }
 }
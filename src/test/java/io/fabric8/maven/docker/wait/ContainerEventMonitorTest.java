@@ -0,0 +1,156 @@
+package io.fabric8.maven.docker.wait;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.fabric8.maven.docker.access.DockerAccess;
+import io.fabric8.maven.docker.access.DockerAccessException;
+import io.fabric8.maven.docker.access.event.EventCallback;
+import io.fabric8.maven.docker.access.event.EventGetHandle;
+import io.fabric8.maven.docker.model.ContainerEvent;
+import io.fabric8.maven.docker.util.JsonFactory;
+import io.fabric8.maven.docker.util.Logger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ContainerEventMonitorTest {
+
+    private static final String CONTAINER_ID = "0123456789ab";
+    private static final String FULL_CONTAINER_ID = CONTAINER_ID + "cdef0123456789";
+
+    @Mock
+    private DockerAccess docker;
+
+    @Mock
+    private EventGetHandle handle;
+
+    @Mock
+    private Logger log;
+
+    private final AtomicReference<EventCallback> callback = new AtomicReference<>();
+
+    @Test
+    void fallbackForOldApiVersion() throws DockerAccessException {
+        Mockito.doReturn("1.23").when(docker).getServerApiVersion();
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        Assertions.assertFalse(monitor.register(CONTAINER_ID));
+        Assertions.assertNull(monitor.getState(CONTAINER_ID));
+        Mockito.verify(docker, Mockito.never()).getEventsAsync(ArgumentMatchers.any(), ArgumentMatchers.<String>any());
+    }
+
+    @Test
+    void fallbackWhenSubscriptionFails() throws DockerAccessException {
+        givenEventStream(false);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        Assertions.assertFalse(monitor.register(CONTAINER_ID));
+        Assertions.assertFalse(monitor.isActive());
+    }
+
+    @Test
+    void stateUpdatedFromEvents() throws DockerAccessException {
+        givenEventStream(true);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        Assertions.assertTrue(monitor.register(CONTAINER_ID));
+        ContainerEventMonitor.ContainerState state = monitor.getState(CONTAINER_ID);
+        Assertions.assertNull(state.getHealthStatus());
+        Assertions.assertNull(state.getExitCode());
+
+        callback.get().event(event(FULL_CONTAINER_ID, "health_status: healthy", null));
+        Assertions.assertEquals("healthy", state.getHealthStatus());
+
+        callback.get().event(event(FULL_CONTAINER_ID, "die", "3"));
+        Assertions.assertEquals(3, state.getExitCode());
+
+        callback.get().event(event(FULL_CONTAINER_ID, "start", null));
+        Assertions.assertNull(state.getExitCode());
+    }
+
+    @Test
+    void eventsForOtherContainersIgnored() throws DockerAccessException {
+        givenEventStream(true);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        monitor.register(CONTAINER_ID);
+        callback.get().event(event("ffffffffffffffff", "die", "1"));
+        Assertions.assertNull(monitor.getState(CONTAINER_ID).getExitCode());
+    }
+
+    @Test
+    void subscribeOnlyOnce() throws DockerAccessException {
+        givenEventStream(true);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        Assertions.assertTrue(monitor.register(CONTAINER_ID));
+        Assertions.assertTrue(monitor.register("other"));
+        Mockito.verify(docker, Mockito.times(1)).getEventsAsync(ArgumentMatchers.any(), ArgumentMatchers.<String>any());
+    }
+
+    @Test
+    void awaitWokenUpByEvent() throws Exception {
+        givenEventStream(true);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        monitor.register(CONTAINER_ID);
+
+        Thread sender = new Thread(() -> {
+            WaitUtil.sleep(100);
+            callback.get().event(event(FULL_CONTAINER_ID, "health_status: healthy", null));
+        });
+        long start = System.currentTimeMillis();
+        sender.start();
+        monitor.await(CONTAINER_ID, 10000);
+        sender.join();
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    void awaitReturnsImmediatelyForMissedEvent() throws DockerAccessException {
+        givenEventStream(true);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        monitor.register(CONTAINER_ID);
+        callback.get().event(event(FULL_CONTAINER_ID, "die", "0"));
+
+        long start = System.currentTimeMillis();
+        monitor.await(CONTAINER_ID, 10000);
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    void fallbackWhenStreamBreaks() throws DockerAccessException {
+        givenEventStream(true);
+
+        ContainerEventMonitor monitor = new ContainerEventMonitor(docker, log);
+        monitor.register(CONTAINER_ID);
+        callback.get().error("connection reset");
+        Assertions.assertNull(monitor.getState(CONTAINER_ID));
+    }
+
+    private void givenEventStream(boolean supported) throws DockerAccessException {
+        Mockito.doReturn("1.41").when(docker).getServerApiVersion();
+        Mockito.doAnswer(invocation -> {
+            EventCallback cb = invocation.getArgument(0);
+            callback.set(cb);
+            if (supported) {
+                cb.open();
+            } else {
+                cb.error("Cannot subscribe to events (400 Bad Request)");
+            }
+            return handle;
+        }).when(docker).getEventsAsync(ArgumentMatchers.any(), ArgumentMatchers.<String>any());
+    }
+
+    private ContainerEvent event(String id, String action, String exitCode) {
+        String attributes = exitCode != null ? "{\"exitCode\":\"" + exitCode + "\"}" : "{}";
+        return new ContainerEvent(JsonFactory.newJsonObject(
+            "{\"Type\":\"container\",\"Action\":\"" + action + "\",\"Actor\":{\"ID\":\"" + id + "\",\"Attributes\":" + attributes + "}}"));
+    }
+}
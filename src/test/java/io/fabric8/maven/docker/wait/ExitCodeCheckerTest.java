@@ -25,7 +25,7 @@ class ExitCodeCheckerTest {
     void checkReturnsFalseIfContainerDoesNotExist() throws DockerAccessException {
 
         Mockito.doThrow(new DockerAccessException("Cannot find container %s", CONTAINER_ID))
-            .when(queryService).getMandatoryContainer(CONTAINER_ID);
+            .when(queryService).getCurrentContainer(CONTAINER_ID);
 
         ExitCodeChecker checker = new ExitCodeChecker(0, queryService, CONTAINER_ID);
         Assertions.assertFalse(checker.check());
@@ -34,7 +34,7 @@ class ExitCodeCheckerTest {
     @Test
     void checkReturnsFalseIfContainerIsStillRunning() throws DockerAccessException {
 
-        Mockito.doReturn(container).when(queryService).getMandatoryContainer(CONTAINER_ID);
+        Mockito.doReturn(container).when(queryService).getCurrentContainer(CONTAINER_ID);
         Mockito.doReturn(null).when(container).getExitCode();
 
         ExitCodeChecker checker = new ExitCodeChecker(0, queryService, CONTAINER_ID);
@@ -44,7 +44,7 @@ class ExitCodeCheckerTest {
     @Test
     void checkReturnsFalseIfActualExitCodeDoesNotMatchExpectedExitCode() throws DockerAccessException {
 
-        Mockito.doReturn(container).when(queryService).getMandatoryContainer(CONTAINER_ID);
+        Mockito.doReturn(container).when(queryService).getCurrentContainer(CONTAINER_ID);
         Mockito.doReturn(1).when(container).getExitCode();
 
         ExitCodeChecker checker = new ExitCodeChecker(0, queryService, CONTAINER_ID);
@@ -54,7 +54,7 @@ class ExitCodeCheckerTest {
     @Test
     void checkReturnsTrueIfActualExitCodeMatchesExpectedExitCode() throws DockerAccessException {
 
-        Mockito.doReturn(container).when(queryService).getMandatoryContainer(CONTAINER_ID);
+        Mockito.doReturn(container).when(queryService).getCurrentContainer(CONTAINER_ID);
         Mockito.doReturn(0).when(container).getExitCode();
 
         ExitCodeChecker checker = new ExitCodeChecker(0, queryService, CONTAINER_ID);